@@ -49,6 +49,7 @@ public class CommandLineOptions {
   private boolean printLanguages = false;
   private boolean verbose = false;
   private boolean recursive = false;
+  private int threads = 1;
   private boolean taggerOnly = false;
   private boolean singleLineBreakMarksParagraph = false;
   private OutputFormat outputFormat = OutputFormat.PLAINTEXT;
@@ -141,6 +142,21 @@ public class CommandLineOptions {
     this.recursive = recursive;
   }
 
+  /**
+   * @return the number of files checked in parallel in recursive mode
+   * @since 5.4
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * @since 5.4
+   */
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
   public boolean isTaggerOnly() {
     return taggerOnly;
   }
@@ -32,7 +32,7 @@ import java.util.Arrays;
 class CommandLineParser {
 
   CommandLineOptions parseOptions(String[] args) {
-    if (args.length < 1 || args.length > 12) {
+    if (args.length < 1 || args.length > 14) {
       throw new WrongParameterNumberException();
     }
     CommandLineOptions options = new CommandLineOptions();
@@ -68,6 +68,17 @@ class CommandLineParser {
         }
       } else if (args[i].equals("-r") || args[i].equals("--recursive")) {
         options.setRecursive(true);
+      } else if (args[i].equals("--threads")) {
+        checkArguments("--threads", i, args);
+        String threads = args[++i];
+        try {
+          options.setThreads(Integer.parseInt(threads));
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Number of threads must be a number: '" + threads + "'");
+        }
+        if (options.getThreads() < 1) {
+          throw new IllegalArgumentException("Number of threads must be at least 1: " + threads);
+        }
       } else if (args[i].equals("-b2") || args[i].equals("--bitext")) {
         options.setBitext(true);
       } else if (args[i].equals("-eo") || args[i].equals("--enabledonly")) {
@@ -189,6 +200,9 @@ class CommandLineParser {
         throw new UnknownParameterException("Unknown parameter: " + args[i]);
       }
     }
+    if (options.getThreads() > 1) {
+      checkParallelMode(options);
+    }
     return options;
   }
 
@@ -201,6 +215,8 @@ class CommandLineParser {
             + " FILE                      plain text file to be checked\n"
             + " Available options:\n"
             + "  -r, --recursive          work recursively on directory, not on a single file\n"
+            + "  --threads N              with -r: check N files in parallel, printing the results in the order of the files;\n"
+            + "                           with --json, the results are printed as newline-delimited JSON\n"
             + "  -c, --encoding ENC       character set of the input text, e.g. utf-8 or latin1\n"
             + "  -b                       assume that a single line break marks the end of a paragraph\n"
             + "  -l, --language LANG      the language code of the text, e.g. en for English, en-GB for British English\n"
@@ -246,6 +262,17 @@ class CommandLineParser {
     );
   }
 
+  private void checkParallelMode(CommandLineOptions options) {
+    if (!options.isRecursive()) {
+      throw new IllegalArgumentException("--threads can only be used with -r/--recursive");
+    }
+    if (options.isXmlFormat() || options.isApplySuggestions() || options.isProfile() || options.isTaggerOnly() ||
+        options.isBitext() || options.isLineByLine() || options.isListUnknown() || options.isAutoDetect()) {
+      throw new IllegalArgumentException("--threads can only be used for checking with plain text or JSON output, " +
+        "not together with --api, --apply, --profile, --taggeronly, --bitext, --line-by-line, --list-unknown, or --autoDetect");
+    }
+  }
+
   private void checkArguments(String option, int argParsingPos, String[] args) {
     if (argParsingPos + 1 >= args.length) {
       throw new IllegalArgumentException("Missing argument to " + option + " command line option.");
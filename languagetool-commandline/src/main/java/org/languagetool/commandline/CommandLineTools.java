@@ -50,7 +50,7 @@ import static org.languagetool.JLanguageTool.Level.*;
  */
 public final class CommandLineTools {
 
-  private static final int DEFAULT_CONTEXT_SIZE = 45;
+  static final int DEFAULT_CONTEXT_SIZE = 45;
 
   private CommandLineTools() {
   }
@@ -171,6 +171,15 @@ public final class CommandLineTools {
    */
   public static void printMatches(List<RuleMatch> ruleMatches,
                                    int prevMatches, String contents, int contextSize, Language lang) {
+    printMatches(ruleMatches, prevMatches, contents, contextSize, lang, System.out);
+  }
+
+  /**
+   * Like {@link #printMatches(List, int, String, int, Language)}, but prints to {@code out}.
+   * @since 5.4
+   */
+  static void printMatches(List<RuleMatch> ruleMatches,
+                           int prevMatches, String contents, int contextSize, Language lang, PrintStream out) {
     int i = 1;
     ContextTools contextTools = new ContextTools();
     contextTools.setContextSize(contextSize);
@@ -188,26 +197,26 @@ public final class CommandLineTools {
       if (priorityForId != 0) {
         output += " prio=" + priorityForId;
       }
-      System.out.println(output);
+      out.println(output);
       String msg = lang.toAdvancedTypography(match.getMessage()); //.replaceAll("<suggestion>", lang.getOpeningDoubleQuote()).replaceAll("</suggestion>", lang.getClosingDoubleQuote())
-      System.out.println("Message: " + msg);
+      out.println("Message: " + msg);
       List<String> replacements = match.getSuggestedReplacements();
       if (!replacements.isEmpty()) {
         replacements = replacements.subList(0, Math.min(5, replacements.size()));
-        System.out.println("Suggestion: " + String.join("; ", replacements));
+        out.println("Suggestion: " + String.join("; ", replacements));
       }
-      System.out.println(contextTools.getPlainTextContext(match.getFromPos(), match.getToPos(), contents));
+      out.println(contextTools.getPlainTextContext(match.getFromPos(), match.getToPos(), contents));
       if (match.getUrl() != null) {
-        System.out.println("More info: " + match.getUrl());
+        out.println("More info: " + match.getUrl());
       } else if (rule.getUrl() != null) {
-        System.out.println("More info: " + rule.getUrl());
+        out.println("More info: " + rule.getUrl());
       }
       List<Tag> tags = rule.getTags();
       if (!tags.isEmpty()) {
-        System.out.println("Tags: " + tags);
+        out.println("Tags: " + tags);
       }
       if (i < ruleMatches.size()) {
-        System.out.println();
+        out.println();
       }
       i++;
     }
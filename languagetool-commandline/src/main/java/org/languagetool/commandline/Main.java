@@ -60,16 +60,23 @@ class Main {
   private List<BitextRule> bRules;
   private Rule currentRule;
 
-  Main(CommandLineOptions options) throws IOException {
+  Main(CommandLineOptions options) throws IOException, ParserConfigurationException, SAXException {
     this.options = options;
     profileRules = false;
     bitextMode = false;
     srcLt = null;
     bRules = null;
     lt = new MultiThreadedJLanguageTool(options.getLanguage(), options.getMotherTongue());
+    configure(lt);
+  }
+
+  /**
+   * Set up the rules of {@code lt} as specified by the options.
+   */
+  private void configure(JLanguageTool lt) throws IOException, ParserConfigurationException, SAXException {
     lt.setCleanOverlappingMatches(false);
     if (options.getRuleFile() != null) {
-      addExternalRules(options.getRuleFile());
+      addExternalRules(lt, options.getRuleFile());
     }
     if (options.getLanguageModel() != null) {
       lt.activateLanguageModelRules(options.getLanguageModel());
@@ -83,9 +90,15 @@ class Main {
     lt.activateRemoteRules(options.getRemoteRulesFile() != null ? new File(options.getRemoteRulesFile()) : null);
     Tools.selectRules(lt, options.getDisabledCategories(), options.getEnabledCategories(),
             new HashSet<>(options.getDisabledRules()), new HashSet<>(options.getEnabledRules()), options.isUseEnabledOnly(), options.isEnableTempOff());
+    if (options.getFalseFriendFile() != null) {
+      List<AbstractPatternRule> ffRules = lt.loadFalseFriendRules(options.getFalseFriendFile());
+      for (AbstractPatternRule ffRule : ffRules) {
+        lt.addRule(ffRule);
+      }
+    }
   }
 
-  private void addExternalRules(String filename) throws IOException {
+  private void addExternalRules(JLanguageTool lt, String filename) throws IOException {
     PatternRuleLoader ruleLoader = new PatternRuleLoader();
     try (InputStream is = new FileInputStream(filename)) {
       List<AbstractPatternRule> externalRules = ruleLoader.getRules(is, filename);
@@ -290,7 +303,7 @@ class Main {
     return lt.getLanguage().getSentenceTokenizer().singleLineBreaksMarksPara() || "".equals(line);
   }
 
-  private InputStreamReader getInputStreamReader(String filename, String encoding) throws IOException {
+  static InputStreamReader getInputStreamReader(String filename, String encoding) throws IOException {
     String charsetName = encoding != null ? encoding : Charset.defaultCharset().name();
     InputStream is = System.in;
     if (!isStdIn(filename)) {
@@ -306,7 +319,7 @@ class Main {
     return new InputStreamReader(new BufferedInputStream(is), charsetName);
   }
 
-  private boolean isStdIn(String filename) {
+  private static boolean isStdIn(String filename) {
     return "-".equals(filename);
   }
 
@@ -333,6 +346,34 @@ class Main {
     }    
   }
 
+  private void runRecursiveInParallel(String filename) throws IOException {
+    List<File> files = new ArrayList<>();
+    collectFiles(new File(filename), files);
+    MultiFileChecker checker = new MultiFileChecker(options, () -> {
+      JLanguageTool workerLt = new JLanguageTool(options.getLanguage(), options.getMotherTongue());
+      configure(workerLt);
+      if (options.isVerbose()) {
+        workerLt.setOutput(System.err);
+      }
+      return workerLt;
+    });
+    checker.check(files);
+  }
+
+  private static void collectFiles(File dir, List<File> result) {
+    File[] files = dir.listFiles();
+    if (files == null) {
+      throw new IllegalArgumentException(dir.getAbsolutePath() + " is not a directory, cannot use recursion");
+    }
+    for (File file : files) {
+      if (file.isDirectory()) {
+        collectFiles(file, result);
+      } else {
+        result.add(file.getAbsoluteFile());
+      }
+    }
+  }
+
   /**
    * Loads filename and filters out XML. Note that the XML
    * filtering can lead to incorrect positions in the list of matching rules.
@@ -421,12 +462,6 @@ class Main {
             options.isSingleLineBreakMarksParagraph());
 
     Main prg = new Main(options);
-    if (options.getFalseFriendFile() != null) {
-      List<AbstractPatternRule> ffRules = prg.lt.loadFalseFriendRules(options.getFalseFriendFile());
-      for (AbstractPatternRule ffRule : ffRules) {
-        prg.lt.addRule(ffRule);
-      }
-    }
     if (prg.lt.getAllActiveRules().isEmpty()) {
       List<String> catIds = options.getEnabledCategories().stream().map(i -> i.toString()).collect(Collectors.toList());
       throw new RuntimeException("No rules are active. Please make sure your rule ids " +
@@ -455,7 +490,9 @@ class Main {
       File bitextRuleFile = options.getBitextRuleFile() != null ? new File(options.getBitextRuleFile()) : null;
       prg.setBitextMode(options.getMotherTongue(), options.getDisabledRules(), options.getEnabledRules(), bitextRuleFile);
     }
-    if (options.isRecursive()) {
+    if (options.isRecursive() && options.getThreads() > 1) {
+      prg.runRecursiveInParallel(options.getFilename());
+    } else if (options.isRecursive()) {
       prg.runRecursive(options.getFilename(), options.getEncoding(), options.isXmlFiltering(), options.getLevel());
     } else {
       if (options.isLineByLine()) {
@@ -0,0 +1,233 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.commandline;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.languagetool.DetectedLanguage;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.tools.RuleMatchesAsJsonSerializer;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static org.languagetool.tools.StringTools.filterXML;
+
+/**
+ * Checks many files in parallel, for {@code --recursive} with {@code --threads}. The files are
+ * distributed over a work-stealing thread pool, each worker thread uses its own {@link JLanguageTool}
+ * for all the files it checks. Files are split into sentences while they are read (see
+ * {@link JLanguageTool#sentenceTokenizeLazily(Reader)}) and checked in chunks of sentences that end at a
+ * paragraph boundary or, for very long paragraphs, at a sentence boundary, so they are never read into
+ * memory completely. The results of each file are printed at once and
+ * in the order of the files, as plain text or, with {@code --json}, as newline-delimited JSON: per
+ * file, one line with the file name, then the lines of {@link RuleMatchesAsJsonSerializer#streamHeaderToJson},
+ * {@link RuleMatchesAsJsonSerializer#streamMatchesToJson} (one line per chunk with matches, the
+ * positions of the matches are relative to the chunk, which starts at {@code offset}) and
+ * {@link RuleMatchesAsJsonSerializer#streamFooterToJson}.
+ * @since 5.4
+ */
+class MultiFileChecker {
+
+  // chunks end at the first paragraph boundary after this many characters, so that
+  // cross-paragraph rules only miss the context of few paragraphs:
+  private static final int MIN_CHUNK_SIZE = 20_000;
+  // chunks of paragraphs longer than this end at the next sentence boundary:
+  private static final int MAX_CHUNK_SIZE = 200_000;
+  // files checked or waiting to be printed per thread, limits the memory used by the results:
+  private static final int PENDING_FILES_PER_THREAD = 4;
+
+  private static final JsonFactory jsonFactory = new JsonFactory();
+
+  private final CommandLineOptions options;
+  private final ThreadLocal<JLanguageTool> workerLt;
+
+  /**
+   * @param ltFactory creates the {@link JLanguageTool} for each worker thread
+   */
+  MultiFileChecker(CommandLineOptions options, Callable<JLanguageTool> ltFactory) {
+    this.options = options;
+    this.workerLt = ThreadLocal.withInitial(() -> {
+      try {
+        return ltFactory.call();
+      } catch (Exception e) {
+        throw new RuntimeException("Could not create LanguageTool instance for language " + options.getLanguage(), e);
+      }
+    });
+  }
+
+  /**
+   * Check the files with {@link CommandLineOptions#getThreads()} threads and print the results to {@code System.out},
+   * the throughput to {@code System.err}.
+   */
+  void check(List<File> files) throws IOException {
+    long startTime = System.currentTimeMillis();
+    long chars = 0;
+    int matches = 0;
+    ForkJoinPool pool = new ForkJoinPool(options.getThreads());
+    try {
+      Deque<ForkJoinTask<FileResult>> pending = new ArrayDeque<>();
+      Iterator<File> it = files.iterator();
+      while (it.hasNext() || !pending.isEmpty()) {
+        while (it.hasNext() && pending.size() < options.getThreads() * PENDING_FILES_PER_THREAD) {
+          File file = it.next();
+          pending.add(pool.submit(() -> checkFile(file)));
+        }
+        FileResult result = pending.remove().join();
+        System.err.println("Working on " + result.file + "...");
+        System.out.write(result.output);
+        System.out.flush();
+        chars += result.chars;
+        matches += result.matches;
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    long time = Math.max(1, System.currentTimeMillis() - startTime);
+    System.err.printf(Locale.ENGLISH, "Time: %dms for %d files with %d characters and %d matches (%.1f files/sec, %.0f chars/sec)%n",
+      time, files.size(), chars, matches, files.size() * 1000.0 / time, chars * 1000.0 / time);
+  }
+
+  private FileResult checkFile(File file) {
+    try {
+      JLanguageTool lt = workerLt.get();
+      Language lang = lt.getLanguage();
+      boolean singleLineBreakMarksParagraph = lang.getSentenceTokenizer().singleLineBreaksMarksPara();
+      RuleMatchesAsJsonSerializer serializer = new RuleMatchesAsJsonSerializer();
+      FileResult result = new FileResult(file);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      String charsetName = options.isJsonFormat() ? StandardCharsets.UTF_8.name() : Charset.defaultCharset().name();
+      try (PrintStream out = new PrintStream(bytes, false, charsetName);
+           Reader reader = Main.getInputStreamReader(file.getAbsolutePath(), options.getEncoding())) {
+        if (options.isJsonFormat()) {
+          out.println(fileToJson(file));
+          out.println(serializer.streamHeaderToJson(new DetectedLanguage(lang, lang), false));
+        }
+        Iterator<String> sentences = lt.sentenceTokenizeLazily(reader);
+        int lineOffset = 0;
+        String chunk;
+        while ((chunk = readChunk(sentences, MIN_CHUNK_SIZE, MAX_CHUNK_SIZE, singleLineBreakMarksParagraph)) != null) {
+          String text = options.isXmlFiltering() ? filterXML(chunk) : chunk;
+          AnnotatedText annotatedText = new AnnotatedTextBuilder().addText(text).build();
+          List<RuleMatch> ruleMatches = lt.check(annotatedText, true, JLanguageTool.ParagraphHandling.NORMAL,
+            null, JLanguageTool.Mode.ALL, options.getLevel());
+          for (RuleMatch match : ruleMatches) {
+            match.setLine(match.getLine() + lineOffset);
+            match.setEndLine(match.getEndLine() + lineOffset);
+          }
+          if (options.isJsonFormat()) {
+            if (!ruleMatches.isEmpty()) {
+              out.println(serializer.streamMatchesToJson(ruleMatches, annotatedText, CommandLineTools.DEFAULT_CONTEXT_SIZE,
+                (int) result.chars, (int) result.chars + text.length()));
+            }
+          } else if (!ruleMatches.isEmpty()) {
+            if (result.matches > 0) {
+              out.println();
+            }
+            CommandLineTools.printMatches(ruleMatches, result.matches, text, CommandLineTools.DEFAULT_CONTEXT_SIZE, lang, out);
+          }
+          result.matches += ruleMatches.size();
+          result.chars += text.length();
+          lineOffset += countLines(chunk);
+        }
+        if (options.isJsonFormat()) {
+          out.println(serializer.streamFooterToJson(null));
+        }
+      }
+      result.output = bytes.toByteArray();
+      return result;
+    } catch (Exception e) {
+      throw new RuntimeException("Could not check text in file " + file, e);
+    }
+  }
+
+  /**
+   * Collect the sentences up to the end of the first paragraph that ends after {@code minSize} characters,
+   * or, if that paragraph is longer, up to the end of the first sentence that ends after {@code maxSize} characters.
+   * A paragraph ends with an empty line or, if {@code singleLineBreakMarksParagraph} is set, with any line.
+   * @param sentences the sentences including all whitespace, as returned by {@link JLanguageTool#sentenceTokenizeLazily(Reader)}
+   * @return the text including all line breaks, or {@code null} at the end of the input
+   */
+  static String readChunk(Iterator<String> sentences, int minSize, int maxSize, boolean singleLineBreakMarksParagraph) {
+    StringBuilder sb = new StringBuilder();
+    while (sentences.hasNext()) {
+      String sentence = sentences.next();
+      sb.append(sentence);
+      if (sb.length() >= maxSize || sb.length() >= minSize && endsParagraph(sentence, singleLineBreakMarksParagraph)) {
+        return sb.toString();
+      }
+    }
+    return sb.length() > 0 ? sb.toString() : null;
+  }
+
+  // the whitespace after a sentence belongs to it, so a paragraph break is at its end:
+  private static boolean endsParagraph(String sentence, boolean singleLineBreakMarksParagraph) {
+    int lineBreaks = 0;
+    for (int i = sentence.length() - 1; i >= 0 && Character.isWhitespace(sentence.charAt(i)); i--) {
+      if (sentence.charAt(i) == '\n') {
+        lineBreaks++;
+      }
+    }
+    return lineBreaks >= (singleLineBreakMarksParagraph ? 1 : 2);
+  }
+
+  private static int countLines(String s) {
+    int lines = 0;
+    for (int i = 0; i < s.length(); i++) {
+      if (s.charAt(i) == '\n') {
+        lines++;
+      }
+    }
+    return lines;
+  }
+
+  private static String fileToJson(File file) throws IOException {
+    StringWriter sw = new StringWriter();
+    try (JsonGenerator g = jsonFactory.createGenerator(sw)) {
+      g.writeStartObject();
+      g.writeStringField("file", file.getPath());
+      g.writeEndObject();
+    }
+    return sw.toString();
+  }
+
+  private static class FileResult {
+    private final File file;
+    private byte[] output;
+    private int matches;
+    private long chars;
+    FileResult(File file) {
+      this.file = file;
+    }
+  }
+
+}
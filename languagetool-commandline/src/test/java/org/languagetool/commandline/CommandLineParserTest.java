@@ -45,6 +45,26 @@ public class CommandLineParserTest {
     } catch (IllegalArgumentException ignored) {}
   }
 
+  @Test
+  public void testThreads() throws Exception {
+    CommandLineParser parser = new CommandLineParser();
+    CommandLineOptions options = parser.parseOptions(new String[]{"-r", "--threads", "4", "dir"});
+    assertEquals(4, options.getThreads());
+    assertEquals(1, parser.parseOptions(new String[]{"-r", "dir"}).getThreads());
+    try {
+      parser.parseOptions(new String[]{"--threads", "4", "filename.txt"});
+      fail();
+    } catch (IllegalArgumentException ignored) {}
+    try {
+      parser.parseOptions(new String[]{"-r", "--threads", "4", "--api", "dir"});
+      fail();
+    } catch (IllegalArgumentException ignored) {}
+    try {
+      parser.parseOptions(new String[]{"-r", "--threads", "0", "dir"});
+      fail();
+    } catch (IllegalArgumentException ignored) {}
+  }
+
   @Test
   public void testSimple() throws Exception {
     CommandLineParser parser = new CommandLineParser();
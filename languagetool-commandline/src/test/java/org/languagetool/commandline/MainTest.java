@@ -33,6 +33,7 @@ import java.io.OutputStreamWriter;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
@@ -169,6 +170,50 @@ public class MainTest extends AbstractSecurityTestCase {
     assertTrue(stdout.contains("Rule ID: EXAMPLE_RULE"));
   }
 
+  @Test
+  public void testRecursiveWithThreads() throws Exception {
+    File dir = createTempDirWithFiles();
+    String[] args = {"-l", "br", "--rulefile", getRuleFilePath(), "-r", "--threads", "2", dir.getAbsolutePath()};
+    Main.main(args);
+    String stdout = new String(this.out.toByteArray());
+    String stderr = new String(this.err.toByteArray());
+    assertThat(StringUtils.countMatches(stdout, "Rule ID: EXAMPLE_RULE"), is(3));
+    assertTrue(stdout, stdout.contains(".) Line 4, column 9, Rule ID: EXAMPLE_RULE"));
+    assertThat(StringUtils.countMatches(stderr, "Working on "), is(3));
+    assertTrue(stderr.contains(" for 3 files with "));
+  }
+
+  @Test
+  public void testRecursiveWithThreadsJsonOutput() throws Exception {
+    File dir = createTempDirWithFiles();
+    String[] args = {"-l", "br", "--rulefile", getRuleFilePath(), "--json", "-r", "--threads", "2", dir.getAbsolutePath()};
+    Main.main(args);
+    String stdout = new String(this.out.toByteArray(), StandardCharsets.UTF_8);
+    String[] lines = stdout.split("\n");
+    assertThat(lines.length, is(3 * 4));  // file, header, matches, footer
+    for (int i = 0; i < lines.length; i += 4) {
+      assertTrue(lines[i], lines[i].startsWith("{\"file\":"));
+      assertTrue(lines[i + 1], lines[i + 1].startsWith("{\"software\":"));
+      assertTrue(lines[i + 2], lines[i + 2].startsWith("{\"offset\":0,"));
+      assertTrue(lines[i + 2], lines[i + 2].contains("\"id\":\"EXAMPLE_RULE\""));
+      assertTrue(lines[i + 3], lines[i + 3].startsWith("{\"warnings\":"));
+    }
+  }
+
+  private File createTempDirWithFiles() throws IOException {
+    File dir = Files.createTempDirectory(MainTest.class.getName()).toFile();
+    File subDir = new File(dir, "sub");
+    assertTrue(subDir.mkdir());
+    String text = "This is a test.\n\nA sentence.\nAnd the language tool here.";
+    for (File file : new File[] {new File(dir, "1.txt"), new File(dir, "2.txt"), new File(subDir, "3.txt")}) {
+      Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+      file.deleteOnExit();
+    }
+    subDir.deleteOnExit();
+    dir.deleteOnExit();
+    return dir;
+  }
+
   @Test
   public void testEnglishFile() throws Exception {
     String[] args = {"-l", "en", getTestFilePath()};
@@ -0,0 +1,69 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.commandline;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MultiFileCheckerTest {
+
+  @Test
+  public void testReadChunk() {
+    Iterator<String> sentences = sentences("Line 1\nLine 2\n\n", "Line 3\n \n", "Line 4\n");
+    assertEquals("Line 1\nLine 2\n\n", MultiFileChecker.readChunk(sentences, 5, 100, false));
+    assertEquals("Line 3\n \n", MultiFileChecker.readChunk(sentences, 5, 100, false));
+    assertEquals("Line 4\n", MultiFileChecker.readChunk(sentences, 5, 100, false));
+    assertNull(MultiFileChecker.readChunk(sentences, 5, 100, false));
+  }
+
+  @Test
+  public void testReadChunkMinSize() {
+    Iterator<String> sentences = sentences("Line 1\n\n", "Line 2\r\n\r\n", "Line 3");
+    assertEquals("Line 1\n\nLine 2\r\n\r\n", MultiFileChecker.readChunk(sentences, 10, 100, false));
+    assertEquals("Line 3", MultiFileChecker.readChunk(sentences, 10, 100, false));
+    assertNull(MultiFileChecker.readChunk(sentences, 10, 100, false));
+  }
+
+  @Test
+  public void testReadChunkMaxSize() {
+    Iterator<String> sentences = sentences("Sentence one. ", "Sentence two. ", "Sentence three.\n\n", "Line 4");
+    assertEquals("Sentence one. Sentence two. ", MultiFileChecker.readChunk(sentences, 5, 20, false));
+    assertEquals("Sentence three.\n\n", MultiFileChecker.readChunk(sentences, 5, 20, false));
+    assertEquals("Line 4", MultiFileChecker.readChunk(sentences, 5, 20, false));
+    assertNull(MultiFileChecker.readChunk(sentences, 5, 20, false));
+  }
+
+  @Test
+  public void testReadChunkSingleLineBreak() {
+    Iterator<String> sentences = sentences("Line 1\n", "Line 2\n");
+    assertEquals("Line 1\n", MultiFileChecker.readChunk(sentences, 5, 100, true));
+    assertEquals("Line 2\n", MultiFileChecker.readChunk(sentences, 5, 100, true));
+    assertNull(MultiFileChecker.readChunk(sentences, 5, 100, true));
+  }
+
+  private Iterator<String> sentences(String... sentences) {
+    return Arrays.asList(sentences).iterator();
+  }
+
+}
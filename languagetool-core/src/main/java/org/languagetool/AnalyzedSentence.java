@@ -39,7 +39,9 @@ public final class AnalyzedSentence {
   private final AnalyzedTokenReadings[] nonBlankPreDisambigTokens;
   private final int[] whPositions;  // maps positions without whitespace to positions that include whitespaces
   private final Map<String, List<Integer>> tokenOffsets;
-  private final Map<String, List<Integer>> lemmaOffsets;
+  // created lazily for sentences created by withChangedReadings():
+  private volatile Map<String, List<Integer>> lemmaOffsets;
+  private volatile String[] sortedPosTags;  // created lazily
 
   /**
    * Creates an AnalyzedSentence from the given {@link AnalyzedTokenReadings}. Whitespace is also a token.
@@ -85,6 +87,74 @@ public final class AnalyzedSentence {
     lemmaOffsets = indexLemmas(nonBlankTokens);
   }
 
+  private AnalyzedSentence(AnalyzedSentence sentence, AnalyzedTokenReadings[] tokens) {
+    this.tokens = tokens;
+    this.preDisambigTokens = sentence.preDisambigTokens;
+    this.whPositions = sentence.whPositions;
+    this.nonBlankPreDisambigTokens = sentence.nonBlankPreDisambigTokens;
+    this.nonBlankTokens = new AnalyzedTokenReadings[sentence.nonBlankTokens.length];
+    for (int i = 0; i < nonBlankTokens.length; i++) {
+      nonBlankTokens[i] = tokens[whPositions[i]];
+    }
+    // only the readings change, not the token texts:
+    this.tokenOffsets = sentence.tokenOffsets;
+  }
+
+  /**
+   * Create a sentence with the same tokens as this sentence, but with different readings,
+   * as done by disambiguation. Cheaper than creating a new sentence, as the positions of
+   * the tokens and the index of token texts are re-used and the index of lemmas is only created when needed.
+   * @param tokens the tokens including whitespace, i.e. the same number of tokens as {@link #getTokens()},
+   *               with whitespace at the same positions (the array is copied)
+   * @since 5.4
+   */
+  @ApiStatus.Internal
+  public AnalyzedSentence withChangedReadings(AnalyzedTokenReadings[] tokens) {
+    if (tokens.length != this.tokens.length) {
+      throw new IllegalArgumentException("Expected " + this.tokens.length + " tokens, got " + tokens.length);
+    }
+    return new AnalyzedSentence(this, tokens.clone());
+  }
+
+  private Map<String, List<Integer>> getLemmaOffsetMap() {
+    Map<String, List<Integer>> result = lemmaOffsets;
+    if (result == null) {
+      result = indexLemmas(nonBlankTokens);
+      lemmaOffsets = result;
+    }
+    return result;
+  }
+
+  /**
+   * @return whether a reading of a token in {@link #getTokensWithoutWhitespace()} has a POS tag
+   * that starts with the given prefix (case-sensitive)
+   * @since 5.4
+   */
+  @ApiStatus.Internal
+  public boolean hasPosTagStartingWith(String prefix) {
+    String[] tags = sortedPosTags;
+    if (tags == null) {
+      Set<String> set = new HashSet<>();
+      for (AnalyzedTokenReadings tokenReadings : nonBlankTokens) {
+        for (AnalyzedToken reading : tokenReadings) {
+          if (reading.getPOSTag() != null) {
+            set.add(reading.getPOSTag());
+          }
+        }
+      }
+      tags = set.toArray(new String[0]);
+      Arrays.sort(tags);
+      sortedPosTags = tags;
+    }
+    // the tags starting with the prefix would be sorted right at or after it:
+    int index = Arrays.binarySearch(tags, prefix);
+    if (index >= 0) {
+      return true;
+    }
+    int insertionPoint = -index - 1;
+    return insertionPoint < tags.length && tags[insertionPoint].startsWith(prefix);
+  }
+
   private static Map<String, List<Integer>> indexTokens(AnalyzedTokenReadings[] tokens) {
     Map<String, List<Integer>> result = new HashMap<>(tokens.length);
     for (int i = 0; i < tokens.length; i++) {
@@ -170,6 +240,19 @@ public final class AnalyzedSentence {
     return nonBlankPreDisambigTokens.clone();
   }
 
+  /**
+   * The array returned as a copy by {@link #getTokensWithoutWhitespace()} or
+   * {@link #getPreDisambigTokensWithoutWhitespace()}, without copying it. Sentences with the same
+   * readings (e.g. the pre-disambiguation tokens of a disambiguated sentence) may share this array,
+   * so it can be used to find out whether results computed for these tokens can be re-used.
+   * The array must not be modified.
+   * @since 5.4
+   */
+  @ApiStatus.Internal
+  public AnalyzedTokenReadings[] getTokensWithoutWhitespaceNoCopy(boolean preDisambiguation) {
+    return preDisambiguation ? nonBlankPreDisambigTokens : nonBlankTokens;
+  }
+
   /**
    * Get a position of a non-whitespace token in the original sentence with
    * whitespace.
@@ -323,7 +406,7 @@ public final class AnalyzedSentence {
    * @since 2.5
    */
   public Set<String> getLemmaSet() {
-    return lemmaOffsets.keySet();
+    return getLemmaOffsetMap().keySet();
   }
 
   /**
@@ -345,7 +428,7 @@ public final class AnalyzedSentence {
   @Nullable
   @ApiStatus.Internal
   public List<Integer> getLemmaOffsets(String token) {
-    return lemmaOffsets.get(token);
+    return getLemmaOffsetMap().get(token);
   }
 
   @SuppressWarnings("ControlFlowStatementWithoutBraces")
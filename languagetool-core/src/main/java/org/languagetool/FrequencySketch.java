@@ -0,0 +1,92 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+/**
+ * Estimates how often objects have been seen recently, using a small constant amount of memory
+ * (a count-min sketch with 4 rows of counters up to 15). After every {@code 10 * width} increments,
+ * all counters are halved, so old accesses count less than recent ones.
+ * @since 5.4
+ */
+public class FrequencySketch {
+
+  private static final int ROWS = 4;
+  private static final int MAX_COUNT = 15;
+  private static final int[] SEEDS = {0x97cb3127, 0x0ba5c05b, 0xc2b2ae35, 0x27d4eb2f};
+
+  private final byte[] counters;
+  private final int mask;
+  private final int sampleSize;
+  private int additions;
+
+  /**
+   * @param expectedSize the approximate number of different objects that are expected to be counted
+   */
+  public FrequencySketch(long expectedSize) {
+    int width = Integer.highestOneBit((int) Math.max(16, Math.min(expectedSize, 1 << 20)) - 1) << 1;
+    counters = new byte[ROWS * width];
+    mask = width - 1;
+    sampleSize = 10 * width;
+  }
+
+  public synchronized void increment(Object o) {
+    int hash = spread(o.hashCode());
+    boolean added = false;
+    for (int row = 0; row < ROWS; row++) {
+      int i = index(hash, row);
+      if (counters[i] < MAX_COUNT) {
+        counters[i]++;
+        added = true;
+      }
+    }
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  /**
+   * @return the estimated number of recent calls of {@link #increment} for the given object (or one with the same hash code)
+   */
+  public synchronized int frequency(Object o) {
+    int hash = spread(o.hashCode());
+    int frequency = MAX_COUNT;
+    for (int row = 0; row < ROWS; row++) {
+      frequency = Math.min(frequency, counters[index(hash, row)]);
+    }
+    return frequency;
+  }
+
+  private int index(int hash, int row) {
+    int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+    return row * (mask + 1) + ((h ^ (h >>> 16)) & mask);
+  }
+
+  private void reset() {
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] = (byte) (counters[i] >>> 1);
+    }
+    additions /= 2;
+  }
+
+  private static int spread(int hash) {
+    int h = hash * 0x85ebca6b;
+    return h ^ (h >>> 13);
+  }
+
+}
@@ -39,6 +39,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.io.Reader;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.util.*;
@@ -185,6 +186,7 @@ public class JLanguageTool {
   private final List<RuleMatchFilter> matchFilters = new LinkedList<>();
 
   private CheckCancelledCallback checkCancelledCallback;
+  private long remoteRuleDeadline = Long.MAX_VALUE;
 
   private PrintStream printStream;
   private boolean listUnknownWords;
@@ -444,6 +446,16 @@ public class JLanguageTool {
     this.checkCancelledCallback = callback;
   }
 
+  /**
+   * Time (as in {@link System#currentTimeMillis()}) after which the results of the next checks aren't
+   * needed anymore. Requests of remote rules are cut short so they don't run longer, the rules then
+   * use their local fallback results. Default is {@code Long.MAX_VALUE}, i.e. no deadline.
+   * @since 5.4
+   */
+  public void setRemoteRuleDeadline(long deadline) {
+    this.remoteRuleDeadline = deadline;
+  }
+
   /**
    * Gets the ResourceBundle (i18n strings) for the default language of the user's system.
    */
@@ -774,6 +786,15 @@ public class JLanguageTool {
     return language.getSentenceTokenizer().tokenize(text);
   }
 
+  /**
+   * Tokenizes the text read from the given reader into sentences, which are only created
+   * when the iterator gets to them, see {@link org.languagetool.tokenizers.SentenceTokenizer#tokenizeLazily(Reader)}.
+   * @since 5.4
+   */
+  public Iterator<String> sentenceTokenizeLazily(Reader reader) throws IOException {
+    return language.getSentenceTokenizer().tokenizeLazily(reader);
+  }
+
   /**
    * The main check method. Tokenizes the text into sentences and matches these
    * sentences against all currently active rules.
@@ -900,7 +921,7 @@ public class JLanguageTool {
     annotatedText = cleanText(annotatedText);
     List<String> sentences = getSentences(annotatedText, tokenizeText);
     List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
-    return checkInternal(annotatedText, paraMode, listener, mode, level, remoteRulesThreadPool, textSessionID, sentences, analyzedSentences).getRuleMatches();
+    return checkInternal(annotatedText, paraMode, listener, mode, level, remoteRulesThreadPool, textSessionID, sentences, analyzedSentences, null).getRuleMatches();
   }
 
   public CheckResults check2(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener,
@@ -908,7 +929,124 @@ public class JLanguageTool {
     annotatedText = cleanText(annotatedText);
     List<String> sentences = getSentences(annotatedText, tokenizeText);
     List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
-    return checkInternal(annotatedText, paraMode, listener, mode, level, remoteRulesThreadPool, textSessionID, sentences, analyzedSentences);
+    return checkInternal(annotatedText, paraMode, listener, mode, level, remoteRulesThreadPool, textSessionID, sentences, analyzedSentences, null);
+  }
+
+  /**
+   * Like {@link #check2(AnnotatedText, boolean, ParagraphHandling, RuleMatchListener, Mode, Level, ExecutorService, Long)},
+   * but for a text that gets checked again after each edit: only the paragraphs that have changed since the
+   * previous check with the same {@code session} get tokenized and analyzed, and text-level rules only run on
+   * the paragraphs that can be affected by the change (see {@link TextLevelRule#minToCheckParagraph()}).
+   * Text-level rules that need the complete text still run on the complete text, unless nothing has changed.
+   *
+   * @param session the state of the previous check of this text, gets updated
+   * @since 5.4
+   */
+  public CheckResults checkIncrementally(AnnotatedText annotatedText, SessionDocument session, ParagraphHandling paraMode, RuleMatchListener listener,
+                                         Mode mode, Level level, @Nullable ExecutorService remoteRulesThreadPool, @Nullable Long textSessionID) throws IOException {
+    annotatedText = cleanText(annotatedText);
+    RuleSet rules = getActiveRulesForLevel(level);
+    // the matches of text-level rules don't depend on the mode, so it's not part of the fingerprint:
+    String configFingerprint = PersistentResultCache.getConfigFingerprint(language, motherTongue, altLanguages,
+      disabledRules, disabledRuleCategories, enabledRules, enabledRuleCategories,
+      PersistentResultCache.getUserConfigFingerprint(userConfig), Mode.ALL, level, paraMode, false, rules.allRules());
+    // sentence tokenization is cheap compared to the analysis, and splitting the complete text makes
+    // sure the sentences are the same as with the other check methods:
+    List<List<String>> paragraphSentences = SessionDocument.splitParagraphs(sentenceTokenize(annotatedText.getPlainText()),
+      language.getSentenceTokenizer().singleLineBreaksMarksPara());
+    try {
+      List<SessionDocument.Paragraph> paragraphs = session.diff(paragraphSentences, configFingerprint);
+      List<String> sentences = new ArrayList<>();
+      List<AnalyzedSentence> analyzedSentences = new ArrayList<>();
+      for (int i = 0; i < paragraphs.size(); i++) {
+        SessionDocument.Paragraph paragraph = paragraphs.get(i);
+        if (paragraph == null) {
+          List<AnalyzedSentence> paragraphAnalyzedSentences = new ArrayList<>(paragraphSentences.get(i).size());
+          for (String sentence : paragraphSentences.get(i)) {
+            paragraphAnalyzedSentences.add(getAnalyzedSentence(sentence));
+          }
+          paragraph = new SessionDocument.Paragraph(paragraphSentences.get(i), paragraphAnalyzedSentences);
+          paragraphs.set(i, paragraph);
+        }
+        sentences.addAll(paragraph.sentences);
+        analyzedSentences.addAll(paragraph.analyzedSentences);
+      }
+      session.setParagraphs(paragraphs);
+      unknownWords = new HashSet<>();
+      for (AnalyzedSentence analyzedSentence : analyzedSentences) {
+        rememberUnknownWords(analyzedSentence);
+        printSentenceInfo(analyzedSentence);
+      }
+      if (!analyzedSentences.isEmpty()) {
+        int last = analyzedSentences.size() - 1;
+        analyzedSentences.set(last, markAsParagraphEnd(analyzedSentences.get(last)));
+      }
+      return checkInternal(annotatedText, paraMode, listener, mode, level, remoteRulesThreadPool, textSessionID, sentences, analyzedSentences, session);
+    } catch (IOException | RuntimeException e) {
+      // the session might be in an inconsistent state now:
+      session.clear();
+      throw e;
+    }
+  }
+
+  /**
+   * Tokenizes the text into sentences, then analyzes and checks one sentence at a time and passes its
+   * matches to {@code listener} as soon as they are available. Unlike the other {@code check} methods, this
+   * doesn't keep the analyzed sentences and their matches in memory, except for {@link Mode#ALL} and
+   * {@link Mode#TEXTLEVEL_ONLY}: text-level rules need the complete text, so they run after the last
+   * sentence and their matches are passed to {@link SentenceMatchListener#textChecked(List)}.
+   * Remote rules are not used. Overlapping matches are only removed inside a sentence and
+   * the filters added with {@link #addMatchFilter(RuleMatchFilter)} get the matches of one sentence at a time.
+   *
+   * @since 5.4
+   */
+  public void checkSentenceBySentence(AnnotatedText annotatedText, ParagraphHandling paraMode, Mode mode, Level level,
+                                      SentenceMatchListener listener) throws IOException {
+    AnnotatedText text = cleanText(annotatedText);
+    RuleSet rules = getActiveRulesForLevel(level);
+    List<String> sentences = getSentences(text, true);
+    boolean textLevel = mode == Mode.ALL || mode == Mode.TEXTLEVEL_ONLY;
+    List<SentenceData> textLevelSentences = new ArrayList<>();
+    TextCheckCallable checker = new TextCheckCallable(rules, textLevelSentences, paraMode, text, null, mode, level, false);
+    unknownWords = new HashSet<>();
+    int charCount = 0;
+    int lineCount = 0;
+    int columnCount = 1;
+    for (int i = 0; i < sentences.size(); i++) {
+      if (checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
+        return;
+      }
+      String sentence = sentences.get(i);
+      AnalyzedSentence analyzedSentence = getAnalyzedSentence(sentence);
+      rememberUnknownWords(analyzedSentence);
+      if (i == sentences.size() - 1) {
+        analyzedSentence = markAsParagraphEnd(analyzedSentence);
+      }
+      printSentenceInfo(analyzedSentence);
+      SentenceData sentenceData = new SentenceData(analyzedSentence, sentence, charCount, lineCount, columnCount);
+      if (textLevel) {
+        textLevelSentences.add(sentenceData);
+      }
+      if (mode != Mode.TEXTLEVEL_ONLY) {
+        List<RuleMatch> matches = checker.getOtherRuleMatches(Collections.singletonList(sentenceData)).getRuleMatches();
+        int fromPos = text.getOriginalTextPositionFor(charCount, false);
+        int toPos;
+        if (i < sentences.size() - 1) {
+          toPos = text.getOriginalTextPositionFor(charCount + sentence.length(), false);  // start of next sentence
+        } else {
+          toPos = sentence.isEmpty() ? fromPos : text.getOriginalTextPositionFor(charCount + sentence.length() - 1, true) + 1;
+        }
+        if (!listener.sentenceChecked(fromPos, toPos, filterMatches(matches, text))) {
+          return;
+        }
+      }
+      charCount += sentence.length();
+      lineCount += countLineBreaks(sentence);
+      columnCount = processColumnChange(columnCount, sentence);
+    }
+    if (textLevel) {
+      listener.textChecked(filterMatches(checker.getTextLevelRuleMatches(null), text));
+    }
   }
 
   private List<String> getSentences(AnnotatedText annotatedText, boolean tokenizeText) {
@@ -948,14 +1086,15 @@ public class JLanguageTool {
   
   private CheckResults checkInternal(AnnotatedText annotatedText, ParagraphHandling paraMode, RuleMatchListener listener,
                                         Mode mode, Level level, @Nullable ExecutorService remoteRulesThreadPool,
-                                        @Nullable Long textSessionID, List<String> sentences, List<AnalyzedSentence> analyzedSentences) throws IOException {
+                                        @Nullable Long textSessionID, List<String> sentences, List<AnalyzedSentence> analyzedSentences,
+                                        @Nullable SessionDocument session) throws IOException {
     RuleSet rules = getActiveRulesForLevel(level);
     if (printStream != null) {
       printIfVerbose(rules.allRules().size() + " rules activated for language " + language);
     }
 
     List<RuleMatch> remoteMatches = new LinkedList<>();
-    List<FutureTask<RemoteRuleResult>> remoteRuleTasks = null;
+    List<CompletableFuture<RemoteRuleResult>> remoteRuleTasks = null;
     List<RemoteRule> remoteRules = new LinkedList<>();
     long remoteRuleCheckStart = System.currentTimeMillis();
     // map by sentence index, as the same sentence can be repeated multiple times in a text
@@ -970,8 +1109,20 @@ public class JLanguageTool {
     }
 
     long textCheckStart = System.currentTimeMillis();
-    CheckResults res = performCheck(analyzedSentences, sentences, rules,
-            paraMode, annotatedText, listener, mode, level, remoteRulesThreadPool == null);
+    // with a session, text-level rules are run separately so they can re-use the matches of the previous check:
+    boolean incrementalTextLevel = session != null && mode != Mode.ALL_BUT_TEXTLEVEL_ONLY;
+    CheckResults res;
+    if (incrementalTextLevel && mode == Mode.TEXTLEVEL_ONLY) {
+      res = new CheckResults(new ArrayList<>(), new ArrayList<>());
+    } else {
+      res = performCheck(analyzedSentences, sentences, rules,
+            paraMode, annotatedText, listener, incrementalTextLevel ? Mode.ALL_BUT_TEXTLEVEL_ONLY : mode, level, remoteRulesThreadPool == null);
+    }
+    if (incrementalTextLevel) {
+      TextCheckCallable textLevelChecker = new TextCheckCallable(rules, computeSentenceData(analyzedSentences, sentences),
+        paraMode, annotatedText, listener, Mode.TEXTLEVEL_ONLY, level, false);
+      res.getRuleMatches().addAll(textLevelChecker.getTextLevelRuleMatches(session));
+    }
     long textCheckEnd = System.currentTimeMillis();
 
     fetchRemoteRuleResults(mode, level, analyzedSentences, remoteMatches, remoteRuleTasks, remoteRules,
@@ -988,6 +1139,10 @@ public class JLanguageTool {
 
     ruleMatches.addAll(remoteMatches);
 
+    return new CheckResults(filterMatches(ruleMatches, annotatedText), res.getIgnoredRanges());
+  }
+
+  private List<RuleMatch> filterMatches(List<RuleMatch> ruleMatches, AnnotatedText annotatedText) {
     // rules can create matches with rule IDs different from the original rule (see e.g. RemoteRules)
     // so while we can't avoid execution of these rules, we still want disabling them to work
     // so do another pass with ignoreRule here
@@ -1000,9 +1155,7 @@ public class JLanguageTool {
     }
     ruleMatches = new LanguageDependentFilter(language, this.enabledRules, this.disabledRuleCategories).filter(ruleMatches);
 
-    ruleMatches = applyCustomFilters(ruleMatches, annotatedText);
-
-    return new CheckResults(ruleMatches, res.getIgnoredRanges());
+    return applyCustomFilters(ruleMatches, annotatedText);
   }
 
   private final Map<Level, RuleSet> ruleSetCache = new ConcurrentHashMap<>();
@@ -1010,19 +1163,25 @@ public class JLanguageTool {
   private RuleSet getActiveRulesForLevel(Level level) {
     return ruleSetCache.computeIfAbsent(level, l -> {
       List<Rule> allRules = getAllActiveRules();
-      return RuleSet.textLemmaHinted(l == Level.DEFAULT ? allRules.stream().filter(rule -> !rule.hasTag(Tag.picky)).collect(Collectors.toList()) : allRules);
+      List<Rule> rules = l == Level.DEFAULT ? allRules.stream().filter(rule -> !rule.hasTag(Tag.picky)).collect(Collectors.toList()) : allRules;
+      try {
+        // the built-in pattern rules are the same objects for all instances, so their index can be shared:
+        return RuleSet.textLemmaHinted(rules, language.getPatternRuleIndex());
+      } catch (IOException e) {
+        throw new RuntimeException("Could not get pattern rules of language " + language, e);
+      }
     });
   }
 
   protected void fetchRemoteRuleResults(Mode mode, Level level, List<AnalyzedSentence> analyzedSentences, List<RuleMatch> remoteMatches,
-                                        List<FutureTask<RemoteRuleResult>> remoteRuleTasks, List<RemoteRule> remoteRules,
+                                        List<CompletableFuture<RemoteRuleResult>> remoteRuleTasks, List<RemoteRule> remoteRules,
                                         Map<Integer, List<RuleMatch>> cachedResults,
                                         Map<Integer, Integer> matchOffset,
                                         AnnotatedText annotatedText, Long textSessionID) {
     if (remoteRuleTasks != null) {
       // fetch results from remote rules
       for (int taskIndex = 0; taskIndex < remoteRuleTasks.size(); taskIndex++) {
-        FutureTask<RemoteRuleResult> task = remoteRuleTasks.get(taskIndex);
+        CompletableFuture<RemoteRuleResult> task = remoteRuleTasks.get(taskIndex);
         RemoteRule rule = remoteRules.get(taskIndex);
         String ruleKey = rule.getId();
         try {
@@ -1093,7 +1252,7 @@ public class JLanguageTool {
 
   protected void checkRemoteRules(@NotNull ExecutorService remoteRulesThreadPool,
                                   List<Rule> allRules, List<AnalyzedSentence> analyzedSentences, Mode mode, Level level,
-                                  List<FutureTask<RemoteRuleResult>> remoteRuleTasks, List<RemoteRule> remoteRules,
+                                  List<CompletableFuture<RemoteRuleResult>> remoteRuleTasks, List<RemoteRule> remoteRules,
                                   Map<Integer, List<RuleMatch>> cachedResults, Map<Integer, Integer> matchOffset, Long textSessionID) {
     List<InputSentence> cacheKeys = new LinkedList<>();
     int offset = 0;
@@ -1111,7 +1270,7 @@ public class JLanguageTool {
       if (r instanceof RemoteRule) {
         RemoteRule rule = (RemoteRule) r;
         remoteRules.add(rule);
-        FutureTask<RemoteRuleResult> task;
+        CompletableFuture<RemoteRuleResult> task;
         if (cache != null) {
           List<AnalyzedSentence> nonCachedSentences = new ArrayList<>();
           for (int sentenceIndex = 0; sentenceIndex < analyzedSentences.size(); sentenceIndex++) {
@@ -1140,12 +1299,11 @@ public class JLanguageTool {
             }
           }
           // userConfig is cached by pipeline pool,
-          task = rule.run(nonCachedSentences, textSessionID);
+          task = rule.runAsync(nonCachedSentences, textSessionID, remoteRuleDeadline, remoteRulesThreadPool);
         } else {
-          task = rule.run(analyzedSentences, textSessionID);
+          task = rule.runAsync(analyzedSentences, textSessionID, remoteRuleDeadline, remoteRulesThreadPool);
         }
         remoteRuleTasks.add(task);
-        remoteRulesThreadPool.submit(task);
       }
     }
   }
@@ -1743,6 +1901,9 @@ public class JLanguageTool {
     private final RuleMatchListener listener;
     private final Mode mode;
     private final Level level;
+    private String configFingerprint;  // only used for the second-level cache
+    private int wordCount;
+    private int matchCount;
 
     TextCheckCallable(RuleSet rules, List<SentenceData> sentences,
                       ParagraphHandling paraMode, AnnotatedText annotatedText,
@@ -1762,16 +1923,16 @@ public class JLanguageTool {
       List<RuleMatch> ruleMatches = new ArrayList<>();
       List<Range> ignoreRanges = new ArrayList<>();
       if (mode == Mode.ALL) {
-        ruleMatches.addAll(getTextLevelRuleMatches());
-        CheckResults otherRuleMatches = getOtherRuleMatches();
+        ruleMatches.addAll(getTextLevelRuleMatches(null));
+        CheckResults otherRuleMatches = getOtherRuleMatches(sentences);
         ruleMatches.addAll(otherRuleMatches.getRuleMatches());
         ignoreRanges.addAll(otherRuleMatches.getIgnoredRanges());
       } else if (mode == Mode.ALL_BUT_TEXTLEVEL_ONLY) {
-        CheckResults otherRuleMatches = getOtherRuleMatches();
+        CheckResults otherRuleMatches = getOtherRuleMatches(sentences);
         ruleMatches.addAll(otherRuleMatches.getRuleMatches());
         ignoreRanges.addAll(otherRuleMatches.getIgnoredRanges());
       } else if (mode == Mode.TEXTLEVEL_ONLY) {
-        ruleMatches.addAll(getTextLevelRuleMatches());
+        ruleMatches.addAll(getTextLevelRuleMatches(null));
       } else {
         throw new IllegalArgumentException("Unknown mode: " + mode);
       }
@@ -1780,18 +1941,26 @@ public class JLanguageTool {
       return new CheckResults(ruleMatches, ignoreRanges);
     }
 
-    private List<RuleMatch> getTextLevelRuleMatches() throws IOException {
+    /**
+     * @param session if not {@code null}, the matches of the previous check of the text are re-used where possible
+     */
+    private List<RuleMatch> getTextLevelRuleMatches(@Nullable SessionDocument session) throws IOException {
       List<RuleMatch> ruleMatches = new ArrayList<>();
       List<AnalyzedSentence> analyzedSentences = null;
       for (Rule rule : rules.allRules()) {
         if (rule instanceof TextLevelRule && paraMode != ParagraphHandling.ONLYNONPARA) {
           if (checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
+            if (session != null) {
+              session.clear();  // the remaining rules have not been updated
+            }
             break;
           }
           if (analyzedSentences == null) {
             analyzedSentences = sentences.stream().map(s -> s.analyzed).collect(Collectors.toList());
           }
-          RuleMatch[] matches = ((TextLevelRule) rule).match(analyzedSentences, annotatedText);
+          RuleMatch[] matches = session != null ?
+            session.getTextLevelMatches((TextLevelRule) rule, analyzedSentences, annotatedText) :
+            ((TextLevelRule) rule).match(analyzedSentences, annotatedText);
           List<RuleMatch> adaptedMatches = new ArrayList<>();
           for (RuleMatch match : matches) {
             LineColumnPosition from = findLineColumn(match.getFromPos());
@@ -1824,12 +1993,14 @@ public class JLanguageTool {
       return ruleMatches;
     }
 
-    private CheckResults getOtherRuleMatches() {
+    /**
+     * Can be called more than once, the error rate is then checked over all sentences checked so far.
+     */
+    private CheckResults getOtherRuleMatches(List<SentenceData> sentencesToCheck) {
       List<RuleMatch> ruleMatches = new ArrayList<>();
       List<Range> ignoreRanges = new ArrayList<>();
-      int wordCounter = 0;
-      for (SentenceData sentence : sentences) {
-        wordCounter += sentence.wordCount;
+      for (SentenceData sentence : sentencesToCheck) {
+        wordCount += sentence.wordCount;
         try {
           //comment in to trigger an exception via input text:
           //if (analyzedSentence.getText().contains("fakecrash")) {
@@ -1842,9 +2013,16 @@ public class JLanguageTool {
                     disabledRules, disabledRuleCategories,
                     enabledRules, enabledRuleCategories, userConfig, altLanguages, mode, level);
             sentenceMatches = cache.getIfPresent(cacheKey);
+            if (sentenceMatches == null && cache.getSecondLevelCache() != null) {
+              sentenceMatches = cache.getSecondLevelCache().get(getConfigFingerprint(), sentence.text, sentence.analyzed, rules::getRuleByFullId);
+            }
           }
           if (sentenceMatches == null) {
             sentenceMatches = checkAnalyzedSentence(paraMode, rules.rulesForSentence(sentence.analyzed), sentence.analyzed, checkRemoteRules);
+            boolean cancelled = checkCancelledCallback != null && checkCancelledCallback.checkCancelled();
+            if (cache != null && cache.getSecondLevelCache() != null && !cancelled) {
+              cache.getSecondLevelCache().put(getConfigFingerprint(), sentence.text, sentenceMatches, rules::getRuleByFullId);
+            }
           }
           if (cache != null) {
             cache.put(cacheKey, sentenceMatches);
@@ -1859,14 +2037,15 @@ public class JLanguageTool {
                 ignoreRanges.add(new Range(sentence.startOffset, sentence.startOffset + sentence.text.length(), elem.getErrorLimitLang()));
               }
               ruleMatches.add(thisMatch);
+              matchCount++;
               if (listener != null) {
                 listener.matchFound(thisMatch);
               }
             }
           }
-          float errorsPerWord = ruleMatches.size() / (float) wordCounter;
-          //System.out.println("errorPerWord " + errorsPerWord + " (matches: " + ruleMatches.size() + " / " + wordCounter + ")");
-          if (maxErrorsPerWordRate > 0 && errorsPerWord > maxErrorsPerWordRate && wordCounter > 25) {
+          float errorsPerWord = matchCount / (float) wordCount;
+          //System.out.println("errorPerWord " + errorsPerWord + " (matches: " + matchCount + " / " + wordCount + ")");
+          if (maxErrorsPerWordRate > 0 && errorsPerWord > maxErrorsPerWordRate && wordCount > 25) {
             //CommonWords commonWords = new CommonWords();
             throw new ErrorRateTooHighException("Text checking was stopped due to too many errors (more than " + String.format("%.0f", maxErrorsPerWordRate*100) +
                     "% of words seem to have an error). Are you sure you have set the correct text language? Language set: " + JLanguageTool.this.language.getName() +
@@ -1887,6 +2066,15 @@ public class JLanguageTool {
       return new CheckResults(ruleMatches, ignoreRanges);
     }
 
+    private String getConfigFingerprint() {
+      if (configFingerprint == null) {
+        configFingerprint = PersistentResultCache.getConfigFingerprint(language, motherTongue, altLanguages,
+          disabledRules, disabledRuleCategories, enabledRules, enabledRuleCategories,
+          PersistentResultCache.getUserConfigFingerprint(userConfig), mode, level, paraMode, checkRemoteRules, rules.allRules());
+      }
+      return configFingerprint;
+    }
+
     private LineColumnPosition findLineColumn(int offset) {
       if (sentences.isEmpty()) return new LineColumnPosition(0, 0);
 
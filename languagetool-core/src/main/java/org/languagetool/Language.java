@@ -23,8 +23,11 @@ import org.jetbrains.annotations.Nullable;
 import org.languagetool.broker.ResourceDataBroker;
 import org.languagetool.chunking.Chunker;
 import org.languagetool.language.Contributor;
+import org.languagetool.languagemodel.CachingLanguageModel;
 import org.languagetool.languagemodel.LanguageModel;
 import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.MemoryMappedLanguageModel;
+import org.languagetool.languagemodel.ShardedLanguageModel;
 import org.languagetool.rules.RemoteRuleConfig;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.neuralnetwork.Word2VecModel;
@@ -63,6 +66,7 @@ public abstract class Language {
   private static final Pattern INSIDE_SUGGESTION = Pattern.compile("<suggestion>(.+?)</suggestion>");
   private static final Pattern APOSTROPHE = Pattern.compile("([\\p{L}\\d-])'([\\p{L}«])",
     Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+  private static final int NGRAM_COUNT_CACHE_SIZE = 100_000;
 
   private final UnifierConfiguration unifierConfig = new UnifierConfiguration();
   private final UnifierConfiguration disambiguationUnifierConfig = new UnifierConfiguration();
@@ -70,6 +74,7 @@ public abstract class Language {
   private final Pattern ignoredCharactersRegex = Pattern.compile("[\u00AD]");  // soft hyphen
   
   private List<AbstractPatternRule> patternRules;
+  private RuleSet patternRuleIndex;
   private final AtomicBoolean noLmWarningPrinted = new AtomicBoolean();
 
   private Disambiguator disambiguator;
@@ -171,8 +176,12 @@ public abstract class Language {
   protected LanguageModel initLanguageModel(File indexDir, LanguageModel languageModel) {
     if (languageModel == null) {
       File topIndexDir = new File(indexDir, getShortCode());
-      if (topIndexDir.exists()) {
-        languageModel = new LuceneLanguageModel(topIndexDir);
+      if (ShardedLanguageModel.isShardedDirectory(topIndexDir)) {
+        languageModel = new CachingLanguageModel(new ShardedLanguageModel(topIndexDir), NGRAM_COUNT_CACHE_SIZE);
+      } else if (MemoryMappedLanguageModel.isModelDirectory(topIndexDir)) {
+        languageModel = new MemoryMappedLanguageModel(topIndexDir);
+      } else if (topIndexDir.exists()) {
+        languageModel = new CachingLanguageModel(new LuceneLanguageModel(topIndexDir), NGRAM_COUNT_CACHE_SIZE);
       } else if (noLmWarningPrinted.compareAndSet(false, true)) {
         System.err.println("WARN: ngram index dir " + topIndexDir + " not found for " + getName());
       }
@@ -607,6 +616,19 @@ public abstract class Language {
     }
     return patternRules;
   }
+
+  /**
+   * Get an index over {@link #getPatternRules()} that the {@link JLanguageTool} instances
+   * for this language share, so each of them only needs to keep track of which of these rules it uses.
+   * @since 5.4
+   */
+  synchronized RuleSet getPatternRuleIndex() throws IOException {
+    if (patternRuleIndex == null) {
+      List<AbstractPatternRule> rules = getPatternRules();
+      patternRuleIndex = RuleSet.textLemmaHinted(rules != null ? rules : Collections.emptyList());
+    }
+    return patternRuleIndex;
+  }
   
   @Override
   public final String toString() {
@@ -0,0 +1,548 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.SuggestedReplacement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * A second-level cache for the sentence matches of {@link ResultCache}, stored in append-only
+ * files in a directory so that it survives restarts. Entries are keyed by the sentence text and a
+ * fingerprint of everything else that influences the result (language, rule configuration, LanguageTool
+ * version etc.), so a changed configuration never returns stale results, it just doesn't find any.
+ * The files are split into segments: when the total size exceeds the maximum size, the oldest segment
+ * gets deleted. Entries read from the oldest segment are written again, so often used entries survive.
+ * Matches refer to their rules only by id, so only matches of rules still active on lookup can be restored.
+ * Use only one instance per directory.
+ * @since 5.4
+ */
+public class PersistentResultCache implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(PersistentResultCache.class);
+
+  private static final String SEGMENT_PREFIX = "matches-";
+  private static final String SEGMENT_SUFFIX = ".seg";
+  private static final int SEGMENTS = 8;
+  private static final int HEADER_SIZE = 8;  // record length and checksum
+  private static final int MAX_RECORD_SIZE = 10_000_000;
+
+  private final File dir;
+  private final long maxSizeInBytes;
+  private final long maxSegmentSizeInBytes;
+  private final Map<HashCode, Location> index = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * @param dir directory to keep the cache files in, will be created if it doesn't exist
+   * @param maxSizeInBytes the maximum size of all the cache files
+   */
+  public PersistentResultCache(File dir, long maxSizeInBytes) throws IOException {
+    if (maxSizeInBytes <= 0) {
+      throw new IllegalArgumentException("maxSizeInBytes must be > 0: " + maxSizeInBytes);
+    }
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Could not create cache directory " + dir);
+    }
+    this.dir = dir;
+    this.maxSizeInBytes = maxSizeInBytes;
+    this.maxSegmentSizeInBytes = Math.max(1, maxSizeInBytes / SEGMENTS);
+    loadSegments();
+    if (segments.isEmpty()) {
+      addSegment(0);
+    }
+    evictIfNeeded();
+  }
+
+  /**
+   * @param configFingerprint a string describing everything but the text that has an influence on the matches,
+   *                          see {@link #getConfigFingerprint}
+   * @param text the sentence text
+   * @param sentence the analyzed sentence, used for the restored matches
+   * @param ruleLookup returns the active rule for a {@link Rule#getFullId() full rule id}, or {@code null}
+   * @return the matches stored for the sentence, or {@code null} if there are none or they cannot be restored
+   */
+  @Nullable
+  public List<RuleMatch> get(String configFingerprint, String text, AnalyzedSentence sentence, Function<String, Rule> ruleLookup) {
+    HashCode key = getKey(configFingerprint, text);
+    Location location = index.get(key);
+    if (location != null) {
+      Segment segment = segments.get(location.segmentId);
+      try {
+        if (segment != null) {
+          byte[] record = segment.read(location);
+          List<RuleMatch> matches = deserialize(record, key, text, sentence, ruleLookup);
+          if (matches != null) {
+            hitCount.incrementAndGet();
+            if (location.segmentId == segments.firstKey() && segments.size() > 1) {
+              // keep entries that are still in use when the oldest segment gets deleted:
+              append(key, record);
+            }
+            return matches;
+          }
+        }
+      } catch (IOException | RuntimeException e) {
+        // e.g. segment deleted in the meantime
+        logger.debug("Could not read cache entry, treating it as missing", e);
+      }
+    }
+    missCount.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Store the matches of a sentence. Matches of {@code RuleMatch} subclasses and matches of rules
+   * that {@code ruleLookup} doesn't return are not stored, as they couldn't be restored.
+   * If matches have lazy suggestions (like those of spell checkers), the sentence is only stored once
+   * they have all been computed, e.g. when the response gets serialized, so that storing doesn't make
+   * every check pay for them. It's not stored if they're never computed.
+   * @param ruleLookup returns the active rule for a {@link Rule#getFullId() full rule id}, or {@code null}
+   */
+  public void put(String configFingerprint, String text, List<RuleMatch> matches, Function<String, Rule> ruleLookup) {
+    for (RuleMatch match : matches) {
+      if (match.getClass() != RuleMatch.class || ruleLookup.apply(match.getRule().getFullId()) != match.getRule()) {
+        return;
+      }
+    }
+    HashCode key = getKey(configFingerprint, text);
+    if (index.containsKey(key)) {
+      return;
+    }
+    List<RuleMatch> pending = new ArrayList<>();
+    for (RuleMatch match : matches) {
+      if (!match.hasComputedSuggestions()) {
+        pending.add(match);
+      }
+    }
+    if (pending.isEmpty()) {
+      store(key, text, matches);
+    } else {
+      AtomicInteger pendingCount = new AtomicInteger(pending.size());
+      for (RuleMatch match : pending) {
+        match.whenSuggestionsComputed(() -> {
+          if (pendingCount.decrementAndGet() == 0) {
+            store(key, text, matches);
+          }
+        });
+      }
+    }
+  }
+
+  private void store(HashCode key, String text, List<RuleMatch> matches) {
+    if (index.containsKey(key)) {
+      return;
+    }
+    try {
+      append(key, serialize(key, text, matches));
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Could not write to persistent result cache in " + dir, e);
+    }
+  }
+
+  /**
+   * Get a fingerprint of everything besides the sentence text that has an influence on a sentence's matches.
+   * @param rules the rules used for checking
+   */
+  static String getConfigFingerprint(Language lang, @Nullable Language motherTongue, List<Language> altLanguages,
+                                     Set<String> disabledRules, Set<?> disabledRuleCategories,
+                                     Set<String> enabledRules, Set<?> enabledRuleCategories,
+                                     String userConfigFingerprint,
+                                     JLanguageTool.Mode mode, JLanguageTool.Level level,
+                                     JLanguageTool.ParagraphHandling paraMode, boolean checkRemoteRules, List<Rule> rules) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(JLanguageTool.VERSION).append('|').append(JLanguageTool.BUILD_DATE).append('|').append(JLanguageTool.GIT_SHORT_ID);
+    sb.append('|').append(lang.getShortCodeWithCountryAndVariant());
+    sb.append('|').append(motherTongue != null ? motherTongue.getShortCodeWithCountryAndVariant() : null);
+    for (Language altLanguage : altLanguages) {
+      sb.append(',').append(altLanguage.getShortCodeWithCountryAndVariant());
+    }
+    appendSorted(sb, disabledRules);
+    appendSorted(sb, disabledRuleCategories);
+    appendSorted(sb, enabledRules);
+    appendSorted(sb, enabledRuleCategories);
+    // not the text session id: it doesn't change the matches of the local rules (the A/B test group,
+    // which does, is part of the user config fingerprint), and with it, entries couldn't be re-used across sessions
+    sb.append('|').append(userConfigFingerprint);
+    sb.append('|').append(mode).append('|').append(level).append('|').append(paraMode).append('|').append(checkRemoteRules);
+    com.google.common.hash.Hasher ruleHasher = Hashing.murmur3_128().newHasher();
+    for (Rule rule : rules) {
+      ruleHasher.putString(rule.getFullId(), StandardCharsets.UTF_8).putChar(',');
+    }
+    sb.append('|').append(ruleHasher.hash());
+    return sb.toString();
+  }
+
+  /**
+   * Get a fingerprint of the parts of a user config that have an influence on a sentence's matches.
+   * Unlike {@link UserConfig#hashCode()}, this includes the user's dictionary and is stable across restarts.
+   */
+  static String getUserConfigFingerprint(UserConfig userConfig) {
+    com.google.common.hash.Hasher hasher = Hashing.murmur3_128().newHasher();
+    for (String word : userConfig.getAcceptedWords()) {
+      hasher.putString(word, StandardCharsets.UTF_8).putChar('\n');
+    }
+    return userConfig.getMaxSpellingSuggestions() + "|" + userConfig.getUserDictName() +
+      "|" + new TreeMap<>(userConfig.getConfigValues()) + "|" + userConfig.getAbTest() +
+      "|" + userConfig.filterDictionaryMatches() + "|" + hasher.hash();
+  }
+
+  private static void appendSorted(StringBuilder sb, Set<?> set) {
+    sb.append('|');
+    set.stream().map(String::valueOf).sorted().forEach(s -> sb.append(s).append(','));
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * @return the number of sentences in the cache
+   */
+  public int getEntryCount() {
+    return index.size();
+  }
+
+  /**
+   * @return the size of all cache files
+   */
+  public long getSizeInBytes() {
+    return segments.values().stream().mapToLong(segment -> segment.size).sum();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    for (Segment segment : segments.values()) {
+      segment.channel.close();
+    }
+  }
+
+  private static HashCode getKey(String configFingerprint, String text) {
+    return Hashing.murmur3_128().newHasher()
+      .putString(configFingerprint, StandardCharsets.UTF_8)
+      .putChar('\u0000')
+      .putString(text, StandardCharsets.UTF_8)
+      .hash();
+  }
+
+  private synchronized void append(HashCode key, byte[] record) throws IOException {
+    Segment segment = segments.lastEntry().getValue();
+    if (segment.size > 0 && segment.size + HEADER_SIZE + record.length > maxSegmentSizeInBytes) {
+      segment = addSegment(segments.lastKey() + 1);
+      evictIfNeeded();
+    }
+    Location location = segment.append(record);
+    index.put(key, location);
+  }
+
+  private Segment addSegment(int id) throws IOException {
+    Segment segment = new Segment(id, new File(dir, SEGMENT_PREFIX + id + SEGMENT_SUFFIX));
+    segments.put(id, segment);
+    return segment;
+  }
+
+  private synchronized void evictIfNeeded() throws IOException {
+    // leave room for the newest segment to grow to its maximum size:
+    while (segments.size() > 1 && getSizeInBytes() - segments.lastEntry().getValue().size > maxSizeInBytes - maxSegmentSizeInBytes) {
+      Segment oldest = segments.pollFirstEntry().getValue();
+      index.values().removeIf(location -> location.segmentId == oldest.id);
+      oldest.channel.close();
+      if (!oldest.file.delete()) {
+        logger.warn("Could not delete cache segment " + oldest.file);
+      }
+    }
+  }
+
+  private void loadSegments() throws IOException {
+    File[] files = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+    if (files == null) {
+      return;
+    }
+    SortedMap<Integer, File> segmentFiles = new TreeMap<>();
+    for (File file : files) {
+      String id = file.getName().substring(SEGMENT_PREFIX.length(), file.getName().length() - SEGMENT_SUFFIX.length());
+      try {
+        segmentFiles.put(Integer.parseInt(id), file);
+      } catch (NumberFormatException e) {
+        logger.warn("Ignoring unexpected file in cache directory: " + file);
+      }
+    }
+    for (Map.Entry<Integer, File> entry : segmentFiles.entrySet()) {
+      Segment segment = new Segment(entry.getKey(), entry.getValue());
+      segments.put(segment.id, segment);
+      segment.scan(index);
+    }
+  }
+
+  private static byte[] serialize(HashCode key, String text, List<RuleMatch> matches) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.write(key.asBytes());
+    writeString(out, text);
+    out.writeInt(matches.size());
+    for (RuleMatch match : matches) {
+      writeString(out, match.getRule().getFullId());
+      out.writeInt(match.getFromPos());
+      out.writeInt(match.getToPos());
+      out.writeInt(match.getPatternFromPos());
+      out.writeInt(match.getPatternToPos());
+      out.writeInt(match.getLine());
+      out.writeInt(match.getEndLine());
+      out.writeInt(match.getColumn());
+      out.writeInt(match.getEndColumn());
+      writeString(out, match.getMessage());
+      writeString(out, match.getShortMessage());
+      writeNullableString(out, match.getUrl() != null ? match.getUrl().toString() : null);
+      out.writeUTF(match.getType().name());
+      out.writeBoolean(match.isAutoCorrect());
+      writeNullableString(out, match.getErrorLimitLang());
+      writeFeatures(out, match.getFeatures());
+      List<SuggestedReplacement> replacements = match.getSuggestedReplacementObjects();
+      out.writeInt(replacements.size());
+      for (SuggestedReplacement replacement : replacements) {
+        writeString(out, replacement.getReplacement());
+        writeNullableString(out, replacement.getShortDescription());
+        writeNullableString(out, replacement.getSuffix());
+        out.writeBoolean(replacement.getConfidence() != null);
+        if (replacement.getConfidence() != null) {
+          out.writeFloat(replacement.getConfidence());
+        }
+        out.writeUTF(replacement.getType().name());
+        writeFeatures(out, replacement.getFeatures());
+      }
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  @Nullable
+  private static List<RuleMatch> deserialize(byte[] record, HashCode key, String text, AnalyzedSentence sentence,
+                                             Function<String, Rule> ruleLookup) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+    byte[] storedKey = new byte[key.bits() / 8];
+    in.readFully(storedKey);
+    if (!Arrays.equals(storedKey, key.asBytes()) || !text.equals(readString(in))) {
+      return null;
+    }
+    int matchCount = in.readInt();
+    List<RuleMatch> matches = new ArrayList<>(matchCount);
+    for (int i = 0; i < matchCount; i++) {
+      Rule rule = ruleLookup.apply(readString(in));
+      if (rule == null) {
+        return null;
+      }
+      int fromPos = in.readInt();
+      int toPos = in.readInt();
+      int patternFromPos = in.readInt();
+      int patternToPos = in.readInt();
+      int line = in.readInt();
+      int endLine = in.readInt();
+      int column = in.readInt();
+      int endColumn = in.readInt();
+      String message = readString(in);
+      String shortMessage = readString(in);
+      RuleMatch match = new RuleMatch(rule, sentence, fromPos, toPos, patternFromPos, patternToPos, message, shortMessage);
+      match.setLine(line);
+      match.setEndLine(endLine);
+      match.setColumn(column);
+      match.setEndColumn(endColumn);
+      String url = readNullableString(in);
+      if (url != null) {
+        match.setUrl(new URL(url));
+      }
+      match.setType(RuleMatch.Type.valueOf(in.readUTF()));
+      match.setAutoCorrect(in.readBoolean());
+      match.setErrorLimitLang(readNullableString(in));
+      match.setFeatures(readFeatures(in));
+      int replacementCount = in.readInt();
+      List<SuggestedReplacement> replacements = new ArrayList<>(replacementCount);
+      for (int j = 0; j < replacementCount; j++) {
+        SuggestedReplacement replacement = new SuggestedReplacement(readString(in), readNullableString(in), readNullableString(in));
+        if (in.readBoolean()) {
+          replacement.setConfidence(in.readFloat());
+        }
+        replacement.setType(SuggestedReplacement.SuggestionType.valueOf(in.readUTF()));
+        replacement.setFeatures(readFeatures(in));
+        replacements.add(replacement);
+      }
+      match.setSuggestedReplacementObjects(replacements);
+      matches.add(match);
+    }
+    return matches;
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    // not using writeUTF(), as it's limited to 64KB
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeNullableString(DataOutputStream out, @Nullable String s) throws IOException {
+    out.writeBoolean(s != null);
+    if (s != null) {
+      writeString(out, s);
+    }
+  }
+
+  @Nullable
+  private static String readNullableString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? readString(in) : null;
+  }
+
+  private static void writeFeatures(DataOutputStream out, SortedMap<String, Float> features) throws IOException {
+    out.writeInt(features.size());
+    for (Map.Entry<String, Float> entry : features.entrySet()) {
+      writeString(out, entry.getKey());
+      out.writeFloat(entry.getValue());
+    }
+  }
+
+  private static SortedMap<String, Float> readFeatures(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size == 0) {
+      return Collections.emptySortedMap();
+    }
+    SortedMap<String, Float> features = new TreeMap<>();
+    for (int i = 0; i < size; i++) {
+      features.put(readString(in), in.readFloat());
+    }
+    return features;
+  }
+
+  private static int checksum(byte[] record) {
+    CRC32 crc = new CRC32();
+    crc.update(record);
+    return (int) crc.getValue();
+  }
+
+  private static class Location {
+    private final int segmentId;
+    private final long offset;
+    private final int length;
+
+    Location(int segmentId, long offset, int length) {
+      this.segmentId = segmentId;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  private static class Segment {
+
+    private final int id;
+    private final File file;
+    private final FileChannel channel;
+    private volatile long size;
+
+    Segment(int id, File file) throws IOException {
+      this.id = id;
+      this.file = file;
+      this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      this.size = channel.size();
+    }
+
+    /**
+     * Add all valid records to the index. A broken record, e.g. from a crash while writing,
+     * and everything after it gets removed.
+     */
+    void scan(Map<HashCode, Location> index) throws IOException {
+      long position = 0;
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      while (position + HEADER_SIZE <= size) {
+        header.clear();
+        readFully(header, position);
+        int length = header.getInt(0);
+        if (length < 16 || length > MAX_RECORD_SIZE || position + HEADER_SIZE + length > size) {
+          break;
+        }
+        ByteBuffer record = ByteBuffer.allocate(length);
+        readFully(record, position + HEADER_SIZE);
+        if (checksum(record.array()) != header.getInt(4)) {
+          break;
+        }
+        index.put(HashCode.fromBytes(Arrays.copyOf(record.array(), 16)), new Location(id, position + HEADER_SIZE, length));
+        position += HEADER_SIZE + length;
+      }
+      if (position < size) {
+        logger.warn("Truncating broken cache segment " + file + " from " + size + " to " + position + " bytes");
+        channel.truncate(position);
+        size = position;
+      }
+    }
+
+    Location append(byte[] record) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + record.length);
+      buffer.putInt(record.length).putInt(checksum(record)).put(record).flip();
+      long position = size;
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+      Location location = new Location(id, size + HEADER_SIZE, record.length);
+      size = position;
+      return location;
+    }
+
+    byte[] read(Location location) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(location.length);
+      readFully(buffer, location.offset);
+      return buffer.array();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+      while (buffer.hasRemaining()) {
+        int read = channel.read(buffer, position + buffer.position());
+        if (read < 0) {
+          throw new EOFException("Unexpected end of " + file);
+        }
+      }
+    }
+  }
+
+}
@@ -20,13 +20,16 @@ package org.languagetool;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
 import com.google.common.cache.Weigher;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.rules.RuleMatch;
 
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A cache to speed up text checking for use cases where sentences are checked more than once. This
@@ -48,6 +51,14 @@ public class ResultCache {
   private final Cache<InputSentence, Map<String, List<RuleMatch>>> remoteMatchesCache;
   private final Cache<InputSentence, List<RuleMatch>> matchesCache;
   private final Cache<SimpleInputSentence, AnalyzedSentence> sentenceCache;
+  @Nullable
+  private final PersistentResultCache secondLevelCache;
+  @Nullable
+  private final FrequencySketch frequencySketch;
+  private final LongAdder matchesBytes = new LongAdder();
+  private final LongAdder remoteMatchesBytes = new LongAdder();
+  private final LongAdder sentenceBytes = new LongAdder();
+  private final LongAdder rejectedCount = new LongAdder();
 
   /**
    * Create a cache that expires items 5 minutes after the latest read access.
@@ -62,29 +73,78 @@ public class ResultCache {
    * @param expireAfter time to expire sentences from the cache after last read access 
    */
   public ResultCache(long maxSize, long expireAfter, TimeUnit timeUnit) {
+    this(maxSize, expireAfter, timeUnit, null);
+  }
+
+  /**
+   * @param maxSize maximum cache size in number of sentences
+   * @param expireAfter time to expire sentences from the cache after last read access
+   * @param secondLevelCache a cache for sentence matches that is asked when this cache doesn't have them, or {@code null}
+   * @since 5.4
+   */
+  public ResultCache(long maxSize, long expireAfter, TimeUnit timeUnit, @Nullable PersistentResultCache secondLevelCache) {
+    this(maxSize, false, false, expireAfter, timeUnit, secondLevelCache);
+  }
+
+  /**
+   * @param maxSize maximum cache size, in number of sentences or in bytes, see {@code sizeInBytes}
+   * @param sizeInBytes if true, {@code maxSize} is the maximum heap size the cached objects may take,
+   *                    based on an estimation of their size
+   * @param frequencyAdmission if true, sentences and their matches are only added to the cache when they
+   *                    have been looked up before recently, so sentences that are checked only once
+   *                    (e.g. from long texts) don't replace the ones that are checked again and again
+   * @param expireAfter time to expire sentences from the cache after last read access
+   * @param secondLevelCache a cache for sentence matches that is asked when this cache doesn't have them, or {@code null}
+   * @since 5.4
+   */
+  public ResultCache(long maxSize, boolean sizeInBytes, boolean frequencyAdmission, long expireAfter, TimeUnit timeUnit,
+                     @Nullable PersistentResultCache secondLevelCache) {
     if (maxSize < 0) {
       throw new IllegalArgumentException("Result cache size must be >= 0: " + maxSize);
     }
+    // the weight of analyzed sentences is much higher than that of matches, so give them more space:
+    long matchesMaxWeight = sizeInBytes ? maxSize / 4 : maxSize / 2;
+    long sentencesMaxWeight = maxSize / 2;
     matchesCache = CacheBuilder.newBuilder().
-            maximumWeight(maxSize/2).weigher(new MatchesWeigher()).
+            maximumWeight(matchesMaxWeight).weigher(new MatchesWeigher(sizeInBytes, matchesBytes)).
+            removalListener((RemovalListener<InputSentence, List<RuleMatch>>) n ->
+              matchesBytes.add(-estimateBytes(n.getKey(), n.getValue()))).
             recordStats().
             expireAfterAccess(expireAfter, timeUnit).
             build();
     remoteMatchesCache = CacheBuilder.newBuilder().
-      maximumWeight(maxSize/2).weigher(new RemoteMatchesWeigher()).
+      maximumWeight(matchesMaxWeight).weigher(new RemoteMatchesWeigher(sizeInBytes, remoteMatchesBytes)).
+      removalListener((RemovalListener<InputSentence, Map<String, List<RuleMatch>>>) n ->
+        remoteMatchesBytes.add(-estimateBytes(n.getKey()))).
       recordStats().
       expireAfterAccess(expireAfter, timeUnit).
       build();
     sentenceCache = CacheBuilder.newBuilder().
-            maximumWeight(maxSize/2).weigher(new SentenceWeigher()).
+            maximumWeight(sentencesMaxWeight).weigher(new SentenceWeigher(sizeInBytes, sentenceBytes)).
+            removalListener((RemovalListener<SimpleInputSentence, AnalyzedSentence>) n ->
+              sentenceBytes.add(-estimateBytes(n.getKey(), n.getValue()))).
             recordStats().
             expireAfterAccess(expireAfter, timeUnit).
             build();
+    this.secondLevelCache = secondLevelCache;
+    // assuming about 1KB per entry when the size is given in bytes:
+    this.frequencySketch = frequencyAdmission ? new FrequencySketch(sizeInBytes ? maxSize / 1024 : maxSize) : null;
   }
-  
+
   static class MatchesWeigher implements Weigher<InputSentence, List<RuleMatch>> {
+    private final boolean sizeInBytes;
+    private final LongAdder bytes;
+    MatchesWeigher(boolean sizeInBytes, LongAdder bytes) {
+      this.sizeInBytes = sizeInBytes;
+      this.bytes = bytes;
+    }
     @Override
     public int weigh(InputSentence sentence, List<RuleMatch> matches) {
+      long estimatedBytes = estimateBytes(sentence, matches);
+      bytes.add(estimatedBytes);
+      if (sizeInBytes) {
+        return (int) Math.min(estimatedBytes, Integer.MAX_VALUE);
+      }
       // this is just a rough guesstimate so that the cacheSize given by the user
       // is very roughly the number of average sentences the cache can keep:
       return sentence.getText().length() / 75 + matches.size();
@@ -92,8 +152,20 @@ public class ResultCache {
   }
 
   static class RemoteMatchesWeigher implements Weigher<InputSentence, Map<String, List<RuleMatch>>> {
+    private final boolean sizeInBytes;
+    private final LongAdder bytes;
+    RemoteMatchesWeigher(boolean sizeInBytes, LongAdder bytes) {
+      this.sizeInBytes = sizeInBytes;
+      this.bytes = bytes;
+    }
     @Override
     public int weigh(InputSentence sentence, @NotNull Map<String, List<RuleMatch>> matches) {
+      // the map gets filled only after it has been added to the cache, so only the key can be considered:
+      long estimatedBytes = estimateBytes(sentence);
+      bytes.add(estimatedBytes);
+      if (sizeInBytes) {
+        return (int) Math.min(estimatedBytes, Integer.MAX_VALUE);
+      }
       // this is just a rough guesstimate so that the cacheSize given by the user
       // is very roughly the number of average sentences the cache can keep:
       return sentence.getText().length() / 75;
@@ -101,12 +173,106 @@ public class ResultCache {
   }
 
   static class SentenceWeigher implements Weigher<SimpleInputSentence, AnalyzedSentence> {
+    private final boolean sizeInBytes;
+    private final LongAdder bytes;
+    SentenceWeigher(boolean sizeInBytes, LongAdder bytes) {
+      this.sizeInBytes = sizeInBytes;
+      this.bytes = bytes;
+    }
     @Override
     public int weigh(SimpleInputSentence sentence, @NotNull AnalyzedSentence analyzedSentence) {
+      long estimatedBytes = estimateBytes(sentence, analyzedSentence);
+      bytes.add(estimatedBytes);
+      if (sizeInBytes) {
+        return (int) Math.min(estimatedBytes, Integer.MAX_VALUE);
+      }
       return sentence.getText().length() / 75;
     }
   }
-  
+
+  // Estimations of the retained heap size, assuming compressed object pointers. Objects shared between
+  // entries (languages, rules, user configs) are not counted. The estimation must only depend on data that
+  // doesn't change after an entry has been added, as it's repeated when the entry gets removed.
+
+  private static final int OBJECT_HEADER = 16;
+  private static final int REFERENCE = 4;
+  private static final int ARRAY_HEADER = 16;
+  private static final int MAP_ENTRY = 32;
+
+  static long estimateBytes(InputSentence sentence) {
+    return OBJECT_HEADER + 12 * REFERENCE + estimateBytes(sentence.getText());
+  }
+
+  static long estimateBytes(InputSentence sentence, List<RuleMatch> matches) {
+    return estimateBytes(sentence) + estimateBytes(matches);
+  }
+
+  static long estimateBytes(List<RuleMatch> matches) {
+    long bytes = ARRAY_HEADER + OBJECT_HEADER + (long) matches.size() * REFERENCE;
+    for (RuleMatch match : matches) {
+      // not counting the suggestions, as they might be computed lazily:
+      bytes += OBJECT_HEADER + 14 * REFERENCE + 4 * (OBJECT_HEADER + 8);
+      bytes += estimateBytes(match.getMessage()) + estimateBytes(match.getShortMessage());
+    }
+    return bytes;
+  }
+
+  static long estimateBytes(SimpleInputSentence sentence, AnalyzedSentence analyzedSentence) {
+    return OBJECT_HEADER + 2 * REFERENCE + estimateBytes(sentence.getText()) + estimateBytes(analyzedSentence);
+  }
+
+  static long estimateBytes(AnalyzedSentence analyzedSentence) {
+    long bytes = 0;
+    AnalyzedTokenReadings[] tokens = analyzedSentence.getTokens();
+    AnalyzedTokenReadings[] preDisambigTokens = analyzedSentence.getPreDisambigTokens();
+    bytes += OBJECT_HEADER + 8 * REFERENCE;
+    // token arrays with and without whitespace, and the mapping between them:
+    bytes += 2 * (ARRAY_HEADER + (long) tokens.length * REFERENCE) + 3 * (ARRAY_HEADER + (long) tokens.length * 4);
+    for (int i = 0; i < tokens.length; i++) {
+      bytes += estimateBytes(tokens[i]);
+      if (preDisambigTokens != null && i < preDisambigTokens.length && preDisambigTokens[i] != tokens[i]) {
+        bytes += estimateBytes(preDisambigTokens[i]);
+      }
+    }
+    // token and lemma offset maps:
+    for (String token : analyzedSentence.getTokenSet()) {
+      bytes += MAP_ENTRY + estimateBytes(token) + ARRAY_HEADER + OBJECT_HEADER + 2 * REFERENCE + 16;
+    }
+    for (String lemma : analyzedSentence.getLemmaSet()) {
+      bytes += MAP_ENTRY + estimateBytes(lemma) + ARRAY_HEADER + OBJECT_HEADER + 2 * REFERENCE + 16;
+    }
+    return bytes;
+  }
+
+  private static long estimateBytes(AnalyzedTokenReadings readings) {
+    long bytes = OBJECT_HEADER + 16 * REFERENCE + estimateBytes(readings.getToken());
+    bytes += ARRAY_HEADER + (long) readings.getReadingsLength() * REFERENCE;
+    for (AnalyzedToken reading : readings) {
+      bytes += OBJECT_HEADER + 6 * REFERENCE;
+      if (reading.getToken() != readings.getToken()) {
+        bytes += estimateBytes(reading.getToken());
+      }
+      // POS tags are mostly shared between tokens, lemmas are not:
+      bytes += estimateBytes(reading.getLemma());
+    }
+    return bytes;
+  }
+
+  static long estimateBytes(@Nullable String s) {
+    if (s == null) {
+      return 0;
+    }
+    // compact strings use one byte per character if all characters are Latin-1:
+    int bytesPerChar = 1;
+    for (int i = 0; i < s.length(); i++) {
+      if (s.charAt(i) > 0xFF) {
+        bytesPerChar = 2;
+        break;
+      }
+    }
+    return OBJECT_HEADER + 8 + ARRAY_HEADER + (long) s.length() * bytesPerChar;
+  }
+
   public double hitRate() {
     return (matchesCache.stats().hitRate() + sentenceCache.stats().hitRate()) / 2.0;
   }
@@ -120,19 +286,71 @@ public class ResultCache {
   }
 
   public List<RuleMatch> getIfPresent(InputSentence key) {
+    if (frequencySketch != null) {
+      frequencySketch.increment(key);
+    }
     return matchesCache.getIfPresent(key);
   }
 
   public AnalyzedSentence getIfPresent(SimpleInputSentence key) {
+    if (frequencySketch != null) {
+      frequencySketch.increment(key);
+    }
     return sentenceCache.getIfPresent(key);
   }
 
   public void put(InputSentence key, List<RuleMatch> sentenceMatches) {
-    matchesCache.put(key, sentenceMatches);
+    if (admit(key, matchesCache)) {
+      matchesCache.put(key, sentenceMatches);
+    }
   }
 
   public void put(SimpleInputSentence key, AnalyzedSentence aSentence) {
-    sentenceCache.put(key, aSentence);
+    if (admit(key, sentenceCache)) {
+      sentenceCache.put(key, aSentence);
+    }
+  }
+
+  private boolean admit(Object key, Cache<?, ?> cache) {
+    if (frequencySketch == null || frequencySketch.frequency(key) >= 2 || cache.asMap().containsKey(key)) {
+      return true;
+    }
+    rejectedCount.increment();
+    return false;
+  }
+
+  /**
+   * @return the estimated heap size of the entries in {@link #getMatchesCache()}
+   * @since 5.4
+   */
+  public long getMatchesCacheSizeInBytes() {
+    return matchesBytes.sum();
+  }
+
+  /**
+   * @return the estimated heap size of the entries in {@link #getRemoteMatchesCache()}, not
+   * including the matches, as they get added after the entry has been created
+   * @since 5.4
+   */
+  public long getRemoteMatchesCacheSizeInBytes() {
+    return remoteMatchesBytes.sum();
+  }
+
+  /**
+   * @return the estimated heap size of the entries in {@link #getSentenceCache()}
+   * @since 5.4
+   */
+  public long getSentenceCacheSizeInBytes() {
+    return sentenceBytes.sum();
+  }
+
+  /**
+   * @return how many sentences have not been added to the cache because they had not been looked up
+   * often enough, always 0 if frequency-based admission is not active
+   * @since 5.4
+   */
+  public long getRejectedCount() {
+    return rejectedCount.sum();
   }
 
   /** @since 4.1 */
@@ -149,4 +367,10 @@ public class ResultCache {
   public Cache<SimpleInputSentence, AnalyzedSentence> getSentenceCache() {
     return sentenceCache;
   }
+
+  /** @since 5.4 */
+  @Nullable
+  public PersistentResultCache getSecondLevelCache() {
+    return secondLevelCache;
+  }
 }
@@ -0,0 +1,49 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the matches of a text sentence by sentence, see
+ * {@link JLanguageTool#checkSentenceBySentence(org.languagetool.markup.AnnotatedText, JLanguageTool.ParagraphHandling, JLanguageTool.Mode, JLanguageTool.Level, SentenceMatchListener)}.
+ * @since 5.4
+ */
+public interface SentenceMatchListener {
+
+  /**
+   * Called for every sentence, in text order, as soon as the sentence has been checked.
+   * @param fromPos start position of the sentence in the original text
+   * @param toPos end position of the sentence in the original text
+   * @param matches the matches of the sentence (may be empty), their positions refer to the original text
+   * @return {@code false} to stop checking the rest of the text
+   */
+  boolean sentenceChecked(int fromPos, int toPos, List<RuleMatch> matches) throws IOException;
+
+  /**
+   * Called once after the last sentence with the matches of the text-level rules,
+   * if the check mode includes these rules.
+   */
+  default void textChecked(List<RuleMatch> matches) throws IOException {
+  }
+
+}
@@ -0,0 +1,266 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.TextLevelRule;
+import org.languagetool.tools.StringTools;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * The paragraphs of the last checked version of a text, with their analyzed sentences and the
+ * matches of text-level rules. Used by {@link JLanguageTool#checkIncrementally} to only analyze the
+ * paragraphs that have changed since the previous check and to only run text-level rules on
+ * the paragraphs that can be affected by the change (see {@link TextLevelRule#minToCheckParagraph()}).
+ * Not thread-safe: use one instance per text and don't use it for two checks at the same time.
+ * @since 5.4
+ */
+public class SessionDocument {
+
+  private String configFingerprint;
+  private List<Paragraph> paragraphs = Collections.emptyList();
+  // the state of the current check, compared to the previous one:
+  private int oldParagraphCount;
+  private int unchangedPrefix;  // number of paragraphs at the start that are the same as before
+  private int unchangedSuffix;  // number of paragraphs at the end that are the same as before
+  private boolean reuseTextLevelMatches;
+
+  /**
+   * @return the number of paragraphs in the last checked text
+   */
+  public int getParagraphCount() {
+    return paragraphs.size();
+  }
+
+  /**
+   * @return the number of paragraphs that had to be analyzed in the last check
+   */
+  public int getChangedParagraphCount() {
+    return paragraphs.size() - unchangedPrefix - unchangedSuffix;
+  }
+
+  /**
+   * @return the estimated heap usage in bytes, mostly for the analyzed sentences; typically
+   * about 200 times the length of the text
+   */
+  public long estimateBytes() {
+    long bytes = 0;
+    for (Paragraph paragraph : paragraphs) {
+      bytes += ResultCache.estimateBytes(paragraph.text);
+      for (String sentence : paragraph.sentences) {
+        bytes += ResultCache.estimateBytes(sentence);
+      }
+      for (AnalyzedSentence sentence : paragraph.analyzedSentences) {
+        bytes += ResultCache.estimateBytes(sentence);
+      }
+      for (List<RuleMatch> matches : paragraph.textLevelMatches.values()) {
+        bytes += ResultCache.estimateBytes(matches);
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Group the sentences of a text into paragraphs, using the same paragraph boundaries as
+   * {@link org.languagetool.tools.Tools#isParagraphEnd}.
+   */
+  static List<List<String>> splitParagraphs(List<String> sentences, boolean singleLineBreaksMarksPara) {
+    List<List<String>> result = new ArrayList<>();
+    List<String> paragraph = new ArrayList<>();
+    for (int i = 0; i < sentences.size(); i++) {
+      String sentence = sentences.get(i);
+      paragraph.add(sentence);
+      if (i == sentences.size() - 1 || StringTools.isParagraphEnd(sentence, singleLineBreaksMarksPara) ||
+          sentences.get(i + 1).startsWith("\n") || sentences.get(i + 1).startsWith("\r\n")) {
+        result.add(paragraph);
+        paragraph = new ArrayList<>();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Compare the paragraphs of the new text to the previous ones. If the configuration has
+   * changed, the previous paragraphs cannot be re-used at all.
+   * @return the paragraphs that are the same as before, {@code null} for paragraphs that need to be analyzed
+   */
+  List<Paragraph> diff(List<List<String>> paragraphSentences, String configFingerprint) {
+    boolean sameConfig = configFingerprint.equals(this.configFingerprint);
+    this.configFingerprint = configFingerprint;
+    List<Paragraph> oldParagraphs = sameConfig ? paragraphs : Collections.emptyList();
+    List<String> paragraphTexts = new ArrayList<>(paragraphSentences.size());
+    for (List<String> sentences : paragraphSentences) {
+      paragraphTexts.add(String.join("", sentences));
+    }
+    oldParagraphCount = oldParagraphs.size();
+    int maxUnchanged = Math.min(oldParagraphs.size(), paragraphTexts.size());
+    int prefix = 0;
+    while (prefix < maxUnchanged && oldParagraphs.get(prefix).text.equals(paragraphTexts.get(prefix))) {
+      prefix++;
+    }
+    if (prefix == maxUnchanged && prefix > 0 && oldParagraphs.size() != paragraphTexts.size()) {
+      // the last sentence of the text is marked as paragraph end, so the last paragraph can only be re-used as the last one:
+      prefix--;
+    }
+    int suffix = 0;
+    while (suffix < maxUnchanged - prefix &&
+           oldParagraphs.get(oldParagraphs.size() - 1 - suffix).text.equals(paragraphTexts.get(paragraphTexts.size() - 1 - suffix))) {
+      suffix++;
+    }
+    unchangedPrefix = prefix;
+    unchangedSuffix = suffix;
+    reuseTextLevelMatches = sameConfig;
+    List<Paragraph> result = new ArrayList<>(paragraphTexts.size());
+    for (int i = 0; i < paragraphTexts.size(); i++) {
+      if (i < prefix) {
+        result.add(oldParagraphs.get(i));
+      } else if (i >= paragraphTexts.size() - suffix) {
+        result.add(oldParagraphs.get(i - paragraphTexts.size() + oldParagraphs.size()));
+      } else {
+        result.add(null);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Set the paragraphs of the current text, after {@link #diff} and analyzing the changed paragraphs.
+   */
+  void setParagraphs(List<Paragraph> paragraphs) {
+    int startSentence = 0;
+    int startPos = 0;
+    for (Paragraph paragraph : paragraphs) {
+      paragraph.startSentence = startSentence;
+      paragraph.startPos = startPos;
+      startSentence += paragraph.sentences.size();
+      startPos += paragraph.text.length();
+    }
+    this.paragraphs = paragraphs;
+  }
+
+  /**
+   * Get the matches of a text-level rule for the current text, running the rule only on the paragraphs
+   * that can be affected by the changes since the previous check. Positions refer to the plain text.
+   */
+  RuleMatch[] getTextLevelMatches(TextLevelRule rule, List<AnalyzedSentence> sentences, AnnotatedText annotatedText) throws IOException {
+    String ruleId = rule.getFullId();
+    int n = rule.minToCheckParagraph();
+    boolean unchanged = oldParagraphCount == paragraphs.size() && unchangedPrefix == paragraphs.size();
+    int from = 0;  // first paragraph whose matches need to be updated
+    int to = paragraphs.size();  // end of the paragraphs whose matches need to be updated (exclusive)
+    if (reuseTextLevelMatches && unchanged) {
+      from = to = 0;
+    } else if (reuseTextLevelMatches && n >= 0) {
+      from = Math.max(0, unchangedPrefix - n);
+      to = Math.min(paragraphs.size(), paragraphs.size() - unchangedSuffix + n);
+    }
+    if (!hasMatches(ruleId, 0, from) || !hasMatches(ruleId, to, paragraphs.size())) {
+      // e.g. the rule was not used in the previous check
+      from = 0;
+      to = paragraphs.size();
+    }
+    if (from < to) {
+      // a match in paragraph i can depend on the paragraphs i-n to i+n:
+      int contextFrom = n >= 0 ? Math.max(0, from - n) : 0;
+      int contextTo = n >= 0 ? Math.min(paragraphs.size(), to + n) : paragraphs.size();
+      Paragraph first = paragraphs.get(contextFrom);
+      int sentenceTo = contextTo < paragraphs.size() ? paragraphs.get(contextTo).startSentence : sentences.size();
+      RuleMatch[] matches = rule.match(sentences.subList(first.startSentence, sentenceTo), annotatedText);
+      List<List<RuleMatch>> newMatches = new ArrayList<>();
+      for (int i = from; i < to; i++) {
+        newMatches.add(new ArrayList<>());
+      }
+      for (RuleMatch match : matches) {
+        int fromPos = match.getFromPos() + first.startPos;
+        int i = findParagraph(fromPos);
+        if (i >= from && i < to) {
+          RuleMatch relativeMatch = new RuleMatch(match);
+          Paragraph p = paragraphs.get(i);
+          relativeMatch.setOffsetPosition(fromPos - p.startPos, match.getToPos() + first.startPos - p.startPos);
+          newMatches.get(i - from).add(relativeMatch);
+        }
+      }
+      for (int i = from; i < to; i++) {
+        paragraphs.get(i).textLevelMatches.put(ruleId, newMatches.get(i - from));
+      }
+    }
+    List<RuleMatch> result = new ArrayList<>();
+    for (Paragraph p : paragraphs) {
+      for (RuleMatch relativeMatch : p.textLevelMatches.get(ruleId)) {
+        RuleMatch match = new RuleMatch(relativeMatch);
+        match.setOffsetPosition(relativeMatch.getFromPos() + p.startPos, relativeMatch.getToPos() + p.startPos);
+        result.add(match);
+      }
+    }
+    return result.toArray(RuleMatch.EMPTY_ARRAY);
+  }
+
+  private boolean hasMatches(String ruleId, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (!paragraphs.get(i).textLevelMatches.containsKey(ruleId)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Forget the previous text, e.g. because its check failed and the state might be inconsistent.
+   */
+  void clear() {
+    configFingerprint = null;
+    paragraphs = Collections.emptyList();
+    oldParagraphCount = 0;
+    unchangedPrefix = 0;
+    unchangedSuffix = 0;
+  }
+
+  private int findParagraph(int pos) {
+    int low = 0;
+    int high = paragraphs.size() - 1;
+    while (low < high) {
+      int mid = (low + high + 1) / 2;
+      if (paragraphs.get(mid).startPos <= pos) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  static class Paragraph {
+    final String text;
+    final List<String> sentences;
+    final List<AnalyzedSentence> analyzedSentences;
+    final Map<String, List<RuleMatch>> textLevelMatches = new HashMap<>();  // by rule id, positions relative to the paragraph
+    private int startSentence;
+    private int startPos;
+
+    Paragraph(List<String> sentences, List<AnalyzedSentence> analyzedSentences) {
+      this.text = String.join("", sentences);
+      this.sentences = sentences;
+      this.analyzedSentences = analyzedSentences;
+    }
+  }
+
+}
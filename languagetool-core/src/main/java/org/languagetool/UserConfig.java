@@ -55,6 +55,8 @@ public class UserConfig {
   // provided to rules only for A/B tests
   private final Long textSessionId;
   private final String abTest;
+  // not part of equals()/hashCode(): the accepted words are, and they're what changes results
+  private final Long premiumUid;
 
   public UserConfig() {
     this(new ArrayList<>(), new HashMap<>());
@@ -97,6 +99,19 @@ public class UserConfig {
                     int maxSpellingSuggestions, String userDictName,
                     LinguServices linguServices, boolean filterDictionaryMatches,
                     @Nullable String abTest, @Nullable Long textSessionId) {
+    this(userSpecificSpellerWords, ruleValues, maxSpellingSuggestions, userDictName, linguServices,
+      filterDictionaryMatches, abTest, textSessionId, null);
+  }
+
+  /**
+   * @param premiumUid the user the {@code userSpecificSpellerWords} belong to, used to cache spellers
+   *                   built from these words, can be {@code null}
+   * @since 5.4
+   */
+  public UserConfig(List<String> userSpecificSpellerWords, Map<String, Integer> ruleValues,
+                    int maxSpellingSuggestions, String userDictName,
+                    LinguServices linguServices, boolean filterDictionaryMatches,
+                    @Nullable String abTest, @Nullable Long textSessionId, @Nullable Long premiumUid) {
     this.userSpecificSpellerWords = Objects.requireNonNull(userSpecificSpellerWords);
     for (Map.Entry<String, Integer> entry : ruleValues.entrySet()) {
       this.configurableRuleValues.put(entry.getKey(), entry.getValue());
@@ -107,6 +122,7 @@ public class UserConfig {
     this.filterDictionaryMatches = filterDictionaryMatches;
     this.abTest = abTest;
     this.textSessionId = textSessionId;
+    this.premiumUid = premiumUid;
   }
 
   public List<String> getAcceptedWords() {
@@ -192,6 +208,7 @@ public class UserConfig {
       ", filterDictionaryMatches=" + filterDictionaryMatches +
       ", textSessionId=" + textSessionId +
       ", abTest='" + abTest + '\'' +
+      ", premiumUid=" + premiumUid +
       '}';
   }
 
@@ -199,6 +216,15 @@ public class UserConfig {
     return textSessionId;
   }
 
+  /**
+   * @return the user the accepted words belong to, or {@code null}
+   * @since 5.4
+   */
+  @Nullable
+  public Long getPremiumUid() {
+    return premiumUid;
+  }
+
   public String getAbTest() {
     return abTest;
   }
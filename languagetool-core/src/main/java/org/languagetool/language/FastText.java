@@ -18,75 +18,78 @@
  */
 package org.languagetool.language;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.languagetool.language.LanguageIdentifier.canLanguageBeDetected;
 
 /**
+ * Language detection with fasttext. By default, this uses external fasttext processes, but any
+ * {@link LanguagePredictor}, e.g. one that runs in the JVM, can be used instead.
  * @since 5.0
  */
 public class FastText {
 
-  private static final Logger logger = LoggerFactory.getLogger(FastText.class);
   private static final int K_HIGHEST_SCORES = 5;
 
-  private final Process fasttextProcess;
-  private final BufferedReader fasttextIn;
-  private final BufferedWriter fasttextOut;
+  private final LanguagePredictor predictor;
 
   public FastText(File modelPath, File binaryPath) throws IOException {
-    fasttextProcess = new ProcessBuilder(binaryPath.getPath(), "predict-prob", modelPath.getPath(), "-", "" + K_HIGHEST_SCORES).start();
-    fasttextIn = new BufferedReader(new InputStreamReader(fasttextProcess.getInputStream(), StandardCharsets.UTF_8));
-    fasttextOut = new BufferedWriter(new OutputStreamWriter(fasttextProcess.getOutputStream(), StandardCharsets.UTF_8));
+    this(modelPath, binaryPath, 1);
+  }
+
+  /**
+   * @param processes the number of fasttext processes to start
+   * @since 5.4
+   */
+  public FastText(File modelPath, File binaryPath, int processes) throws IOException {
+    this(new FastTextProcessPool(modelPath, binaryPath, K_HIGHEST_SCORES, processes));
+  }
+
+  /**
+   * @since 5.4
+   */
+  public FastText(LanguagePredictor predictor) {
+    this.predictor = Objects.requireNonNull(predictor);
   }
 
   public Map<String, Double> runFasttext(String text, List<String> additionalLanguageCodes) throws IOException {
-    Map<String, Double> probabilities = new HashMap<>();
-    String joined = text.replace("\n", " ");
-    String buffer;
-    synchronized (this) {
-      fasttextOut.write(joined);
-      fasttextOut.newLine();
-      fasttextOut.flush();
-      buffer = fasttextIn.readLine();
-      if (buffer == null) {
-        // hack to see if this helps us debug the rare case of readLine() returning null:
-        try {
-          logger.warn("fasttextIn.readLine() returned null, trying again after short delay");
-          Thread.sleep(10);
-          buffer = fasttextIn.readLine();
-          if (buffer == null) {
-            logger.warn("fasttextIn.readLine() returned null again");
-          }
-        } catch (InterruptedException e) {
-          throw new RuntimeException(e);
-        }
-      }
-    }
-    String[] values = buffer.split(" ");
-    if (values.length % 2 != 0) {
-      logger.error("Error while parsing fasttext output '{}'", buffer);
-      throw new RuntimeException("Error while parsing fasttext output: " + buffer);
+    return runFasttext(Collections.singletonList(text), additionalLanguageCodes).get(0);
+  }
+
+  /**
+   * Like {@link #runFasttext(String, List)}, but for several texts at once, which is faster
+   * than calling that method once per text.
+   * @since 5.4
+   */
+  public List<Map<String, Double>> runFasttext(List<String> texts, List<String> additionalLanguageCodes) throws IOException {
+    List<String> joinedTexts = new ArrayList<>(texts.size());
+    for (String text : texts) {
+      joinedTexts.add(text.replace("\n", " "));
     }
-    for (int i = 0; i < values.length; i += 2) {
-      String lang = values[i];
-      String langCode = lang.substring(lang.lastIndexOf("__") + 2);
-      String prob = values[i + 1];
-      Double probValue = Double.parseDouble(prob);
-      if (canLanguageBeDetected(langCode, additionalLanguageCodes)) {
-        probabilities.put(langCode, probValue);
+    List<Map<String, Double>> result = new ArrayList<>(texts.size());
+    for (Map<String, Double> prediction : predictor.predict(joinedTexts)) {
+      Map<String, Double> probabilities = new HashMap<>();
+      for (Map.Entry<String, Double> entry : prediction.entrySet()) {
+        if (canLanguageBeDetected(entry.getKey(), additionalLanguageCodes)) {
+          probabilities.put(entry.getKey(), entry.getValue());
+        }
       }
+      result.add(probabilities);
     }
-    return probabilities;
+    return result;
+  }
+
+  /**
+   * @return false if language detection with fasttext doesn't work anymore
+   * @since 5.4
+   */
+  boolean isAlive() {
+    return predictor.isAlive();
   }
 
   void destroy() {
-    fasttextProcess.destroy();
+    predictor.close();
   }
 
 }
@@ -0,0 +1,308 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.language;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of external fasttext {@code predict-prob} processes. Each process gets one text per line
+ * on stdin and writes one result line per text to stdout, in the same order. Texts are written without
+ * waiting for the results of the previous texts, so several texts can be in flight per process.
+ * A process that has ended (i.e. its output returns {@code null}) or that doesn't answer in time
+ * gets restarted, immediately the first time and with an exponential backoff if it fails again
+ * before it has answered anything. After {@link #MAX_CONSECUTIVE_RESTARTS} such restarts (e.g. with a
+ * broken model or binary) the process isn't restarted anymore, and once that's the case for all
+ * processes, {@link #isAlive()} returns {@code false}.
+ * @since 5.4
+ */
+class FastTextProcessPool implements LanguagePredictor {
+
+  private static final Logger logger = LoggerFactory.getLogger(FastTextProcessPool.class);
+  private static final long TIMEOUT_MILLIS = 10_000;
+  private static final int MAX_IN_FLIGHT_PER_WORKER = 64;  // for batches
+  static final int MAX_CONSECUTIVE_RESTARTS = 5;
+  private static final long BASE_RESTART_DELAY_MILLIS = 100;
+
+  private static final ScheduledExecutorService restartScheduler = Executors.newSingleThreadScheduledExecutor(
+    new ThreadFactoryBuilder().setNameFormat("fasttext-restart-%d").setDaemon(true).build());
+
+  private final List<String> command;
+  private final Worker[] workers;
+
+  FastTextProcessPool(File modelPath, File binaryPath, int kHighestScores, int processes) throws IOException {
+    if (processes < 1) {
+      throw new IllegalArgumentException("processes must be >= 1: " + processes);
+    }
+    command = Arrays.asList(binaryPath.getPath(), "predict-prob", modelPath.getPath(), "-", String.valueOf(kHighestScores));
+    workers = new Worker[processes];
+    for (int i = 0; i < processes; i++) {
+      workers[i] = new Worker(i);
+      workers[i].start();
+    }
+  }
+
+  @Override
+  public List<Map<String, Double>> predict(List<String> texts) throws IOException {
+    List<Map<String, Double>> result = new ArrayList<>(texts.size());
+    List<Request> requests = new ArrayList<>(texts.size());
+    int window = workers.length * MAX_IN_FLIGHT_PER_WORKER;
+    for (int i = 0; i < texts.size(); i++) {
+      if (i >= window) {
+        result.add(requests.get(i - window).await());
+      }
+      requests.add(getLeastBusyWorker().submit(texts.get(i)));
+    }
+    for (int i = result.size(); i < requests.size(); i++) {
+      result.add(requests.get(i).await());
+    }
+    return result;
+  }
+
+  @Override
+  public boolean isAlive() {
+    for (Worker worker : workers) {
+      if (worker.isAlive()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void close() {
+    for (Worker worker : workers) {
+      worker.close();
+    }
+  }
+
+  private Worker getLeastBusyWorker() {
+    Worker result = workers[0];
+    for (int i = 1; i < workers.length; i++) {
+      if (workers[i].inFlight.get() < result.inFlight.get()) {
+        result = workers[i];
+      }
+    }
+    return result;
+  }
+
+  static Map<String, Double> parse(String line) {
+    String[] values = line.split(" ");
+    if (values.length % 2 != 0) {
+      logger.error("Error while parsing fasttext output '{}'", line);
+      throw new RuntimeException("Error while parsing fasttext output: " + line);
+    }
+    Map<String, Double> probabilities = new HashMap<>();
+    for (int i = 0; i < values.length; i += 2) {
+      String lang = values[i];
+      String langCode = lang.substring(lang.lastIndexOf("__") + 2);
+      probabilities.put(langCode, Double.parseDouble(values[i + 1]));
+    }
+    return probabilities;
+  }
+
+  /** One running process with the texts that have been sent to it, but not answered yet. */
+  private static class Connection {
+    private final Process process;
+    private final BufferedWriter out;
+    private final Queue<CompletableFuture<String>> pending = new ConcurrentLinkedQueue<>();
+
+    Connection(Process process) {
+      this.process = process;
+      this.out = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+    }
+  }
+
+  private static class Request {
+    private final Worker worker;
+    private final Connection connection;
+    private final CompletableFuture<String> future;
+
+    Request(Worker worker, Connection connection, CompletableFuture<String> future) {
+      this.worker = worker;
+      this.connection = connection;
+      this.future = future;
+    }
+
+    Map<String, Double> await() throws IOException {
+      try {
+        return parse(future.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+      } catch (TimeoutException e) {
+        worker.restart(connection, "no result after " + TIMEOUT_MILLIS + "ms");
+        throw new IOException("fasttext timeout after " + TIMEOUT_MILLIS + "ms", e);
+      } catch (ExecutionException e) {
+        throw new IOException("fasttext failed", e.getCause());
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  private class Worker {
+    private final int id;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    @Nullable
+    private Connection connection;  // null while a restart is scheduled or if the process could not be (re)started
+    private int consecutiveRestarts;  // restarts without an answer from the process in between
+    private boolean restartScheduled;
+    private boolean closed;
+
+    Worker(int id) {
+      this.id = id;
+    }
+
+    synchronized void start() throws IOException {
+      Process process = new ProcessBuilder(command).start();
+      Connection newConnection = new Connection(process);
+      connection = newConnection;
+      Thread reader = new Thread(() -> readResults(newConnection), "fasttext-reader-" + id);
+      reader.setDaemon(true);
+      reader.start();
+    }
+
+    Request submit(String text) throws IOException {
+      CompletableFuture<String> future = new CompletableFuture<>();
+      Connection usedConnection;
+      synchronized (this) {
+        if (closed) {
+          throw new IOException("fasttext process pool has been closed");
+        }
+        if (connection != null && !connection.process.isAlive()) {
+          restart(connection, "process has ended");
+        }
+        if (connection == null) {
+          throw new IOException(restartScheduled ? "fasttext process " + id + " is being restarted" : "fasttext process " + id + " is not running");
+        }
+        usedConnection = connection;
+        inFlight.incrementAndGet();
+        future.whenComplete((result, e) -> inFlight.decrementAndGet());
+        usedConnection.pending.add(future);
+        try {
+          usedConnection.out.write(text);
+          usedConnection.out.newLine();
+          usedConnection.out.flush();
+        } catch (IOException e) {
+          restart(usedConnection, "writing failed: " + e.getMessage());
+          throw e;
+        }
+      }
+      return new Request(this, usedConnection, future);
+    }
+
+    private void readResults(Connection conn) {
+      try (BufferedReader in = new BufferedReader(new InputStreamReader(conn.process.getInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        boolean answered = false;
+        while ((line = in.readLine()) != null) {
+          CompletableFuture<String> future = conn.pending.poll();
+          if (future == null) {
+            logger.warn("Unexpected output from fasttext process {}: '{}'", id, line);
+          } else {
+            future.complete(line);
+          }
+          if (!answered) {
+            answered = true;
+            resetRestarts();
+          }
+        }
+      } catch (IOException e) {
+        logger.warn("Reading from fasttext process " + id + " failed", e);
+      }
+      restart(conn, "output has ended");
+    }
+
+    private synchronized void resetRestarts() {
+      consecutiveRestarts = 0;
+    }
+
+    /**
+     * Replace the process of {@code conn} by a new one, unless that has already happened.
+     */
+    synchronized void restart(Connection conn, String reason) {
+      if (connection != conn || closed) {
+        failPending(conn, "fasttext process has been restarted");
+        return;
+      }
+      conn.process.destroy();
+      failPending(conn, "fasttext process failed: " + reason);
+      if (consecutiveRestarts >= MAX_CONSECUTIVE_RESTARTS) {
+        logger.error("fasttext process {} failed {} times in a row without an answer, not restarting it anymore: {}",
+          id, consecutiveRestarts + 1, reason);
+        connection = null;
+        return;
+      }
+      if (consecutiveRestarts == 0) {
+        logger.warn("Restarting fasttext process {}: {}", id, reason);
+        consecutiveRestarts++;
+        startOrGiveUp();
+      } else {
+        long delayMillis = BASE_RESTART_DELAY_MILLIS << (consecutiveRestarts - 1);
+        logger.warn("Restarting fasttext process {} in {}ms: {}", id, delayMillis, reason);
+        consecutiveRestarts++;
+        connection = null;
+        restartScheduled = true;
+        restartScheduler.schedule(this::scheduledStart, delayMillis, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    private synchronized void scheduledStart() {
+      restartScheduled = false;
+      if (!closed) {
+        startOrGiveUp();
+      }
+    }
+
+    private void startOrGiveUp() {
+      try {
+        start();
+      } catch (IOException e) {
+        logger.error("Could not restart fasttext process " + id, e);
+        connection = null;
+      }
+    }
+
+    synchronized boolean isAlive() {
+      return (connection != null || restartScheduled) && !closed;
+    }
+
+    synchronized void close() {
+      closed = true;
+      if (connection != null) {
+        connection.process.destroy();
+        failPending(connection, "fasttext process pool has been closed");
+      }
+    }
+
+    private void failPending(Connection conn, String message) {
+      CompletableFuture<String> future;
+      while ((future = conn.pending.poll()) != null) {
+        future.completeExceptionally(new IOException(message));
+      }
+    }
+  }
+
+}
@@ -110,16 +110,32 @@ public class LanguageIdentifier {
   }
 
   public void enableFasttext(File fasttextBinary, File fasttextModel) {
+    enableFasttext(fasttextBinary, fasttextModel, 1);
+  }
+
+  /**
+   * @param processes the number of fasttext processes, each can detect the language of one text at a time
+   * @since 5.4
+   */
+  public void enableFasttext(File fasttextBinary, File fasttextModel, int processes) {
     if (fasttextBinary != null && fasttextModel != null) {
       try {
-        fastText = new FastText(fasttextModel, fasttextBinary);
-        logger.info("Started fasttext process for language identification: Binary " + fasttextBinary + " with model @ " + fasttextModel);
+        fastText = new FastText(fasttextModel, fasttextBinary, processes);
+        logger.info("Started " + processes + " fasttext process(es) for language identification: Binary " + fasttextBinary + " with model @ " + fasttextModel);
       } catch (IOException e) {
         throw new RuntimeException("Could not start fasttext process for language identification @ " + fasttextBinary + " with model @ " + fasttextModel, e);
       }
     }
   }
 
+  /**
+   * Use {@code predictor} instead of an external fasttext process, e.g. for tests.
+   * @since 5.4
+   */
+  public void enableFasttext(LanguagePredictor predictor) {
+    fastText = new FastText(predictor);
+  }
+
   /** @since 5.2 */
   public boolean isFastTextEnabled() {
     return fastText != null;
@@ -238,6 +254,7 @@ public class LanguageIdentifier {
       additionalLangs.addAll(domLangCodes);
     }
     Map.Entry<String,Double> result = null;
+    boolean fastTextFailed = false;
     if (fastText != null || ngram != null) {
       try {
         Map<String, Double> scores;
@@ -284,12 +301,18 @@ public class LanguageIdentifier {
         //System.out.println("newScore  : " + newScore);
         result = new AbstractMap.SimpleImmutableEntry<>(result.getKey(), newScore);
       } catch (Exception e) {
-        //fastText.destroy();
-        fastText = null;
-        logger.error("Fasttext disabled", e);
+        if (e instanceof IOException && fastText != null && fastText.isAlive()) {
+          // the failed fasttext process has been restarted, so this only affects the current text:
+          logger.warn("Fasttext failed, using fallback for this text", e);
+          fastTextFailed = true;
+        } else {
+          //fastText.destroy();
+          fastText = null;
+          logger.error("Fasttext disabled", e);
+        }
       }
     }
-    if (fastText == null && ngram == null) { // no else, value can change in if clause
+    if ((fastText == null && ngram == null) || fastTextFailed) { // no else, value can change in if clause
       cleanText = textObjectFactory.forText(cleanText).toString();
       result = detectLanguageCode(cleanText);
       if (additionalLangs.size() > 0) {
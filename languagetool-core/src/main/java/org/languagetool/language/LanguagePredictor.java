@@ -0,0 +1,48 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.language;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the probabilities of the languages of texts, like fasttext's {@code predict-prob}.
+ * Used by {@link FastText}, implementations must be thread-safe.
+ * @since 5.4
+ */
+public interface LanguagePredictor {
+
+  /**
+   * @param texts texts without line breaks
+   * @return for each text, the probabilities by language code
+   */
+  List<Map<String, Double>> predict(List<String> texts) throws IOException;
+
+  /**
+   * @return false if the predictor is broken for good, e.g. because its external process cannot be started
+   */
+  default boolean isAlive() {
+    return true;
+  }
+
+  default void close() {
+  }
+
+}
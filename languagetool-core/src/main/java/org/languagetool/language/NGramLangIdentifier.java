@@ -30,14 +30,15 @@ import java.util.zip.ZipFile;
 import static java.lang.StrictMath.*;
 import static org.languagetool.language.LanguageIdentifier.canLanguageBeDetected;
 
-public class NGramLangIdentifier {
+public class NGramLangIdentifier implements LanguagePredictor {
 
   private final static double EPSILON = 1e-4;
+  private final static float LOG_EPSILON = (float) log(EPSILON);
 
-  private final Map<String, Integer> vocab;
+  private final VocabTrie vocab;
   private final List<String[]> codes; // Elem format = {Name, 2-code (or "NULL"), 3-code}
 
-  private final List<Map<String, Double>> knpBigramProbs;
+  private final BigramTable knpBigramLogProbs;
   private final int thresholdsStart;
   private final List<double[]> thresholds;
 
@@ -61,7 +62,7 @@ public class NGramLangIdentifier {
     }
 
     //Load vocab - Line format = {token}
-    vocab = new HashMap<>();
+    vocab = new VocabTrie();
     try (BufferedReader br = getReader("vocab.txt")) {
       String line;
       int i = 0;
@@ -84,45 +85,64 @@ public class NGramLangIdentifier {
     }
 
     //Load transition matrices - Line format = {i} {j} {val}
-    knpBigramProbs = expectedFiles().stream().map(this::readLines).parallel().map(NGramLangIdentifier::loadDict).collect(Collectors.toList());
+    List<LanguageBigrams> bigrams = expectedFiles().stream().map(this::readLines).parallel().map(NGramLangIdentifier::loadDict).collect(Collectors.toList());
+    knpBigramLogProbs = new BigramTable(bigrams);
   }
 
   public Map<String, Double> detectLanguages(String text, List<String> additionalLanguageCodes) {
-    List<Integer> enc = encode(text);
-    List<Double> finalProbs = new ArrayList<>();
-    List<int[]> keys = keys(enc);
+    return detectLanguages(text, additionalLanguageCodes, false);
+  }
 
-    for (int i = 0; i < codes.size(); i++) {
-      double val = 0;
-      for (int[] key: keys) {
-        double prob = knpBigramProbs.get(i).getOrDefault(key[0] + "_" + key[1], EPSILON);
-        val += log(prob);
+  /**
+   * Scores for all languages of the model, so this can be used instead of fasttext.
+   * @since 5.4
+   */
+  @Override
+  public List<Map<String, Double>> predict(List<String> texts) {
+    List<Map<String, Double>> result = new ArrayList<>(texts.size());
+    for (String text : texts) {
+      result.add(detectLanguages(text.trim(), null, true));
+    }
+    return result;
+  }
+
+  private Map<String, Double> detectLanguages(String text, List<String> additionalLanguageCodes, boolean allLanguages) {
+    int[] enc = encode(text);
+    double[] finalProbs = new double[codes.size()];
+    int unknownBigrams = 0;
+    for (int i = 1; i < enc.length; i++) {
+      if (!knpBigramLogProbs.addLogProbs(enc[i-1], enc[i], finalProbs)) {
+        unknownBigrams++;
       }
-      finalProbs.add(val);
+    }
+    for (int i = 0; i < finalProbs.length; i++) {
+      finalProbs[i] += unknownBigrams * LOG_EPSILON;
     }
 
     Map<String, Double> result = new HashMap<>();
 
     if (text.length() >= this.thresholdsStart) {
       int argMax = 0;
-      for (int i = 1; i < finalProbs.size(); i++) {
-        if (finalProbs.get(i) > finalProbs.get(argMax)) {
+      for (int i = 1; i < finalProbs.length; i++) {
+        if (finalProbs[i] > finalProbs[argMax]) {
           argMax = i;
         }
       }
       int thresholdIndex = min(text.length(), maxLength) - this.thresholdsStart;
-      if (finalProbs.get(argMax) < thresholds.get(thresholdIndex)[argMax]) {
+      if (finalProbs[argMax] < thresholds.get(thresholdIndex)[argMax]) {
         result.put(NoopLanguage.SHORT_CODE, 100.0);
         return result;
       }
     }
 
-    finalProbs = finalProbs.stream().map(StrictMath::exp).collect(Collectors.toList());
-    finalProbs = normalize(finalProbs);
+    for (int i = 0; i < finalProbs.length; i++) {
+      finalProbs[i] = exp(finalProbs[i]);
+    }
+    normalize(finalProbs);
     for (int i = 0; i < codes.size(); i++) {
       String langCode = codes.get(i)[1].equals("NULL") ? codes.get(i)[2] : codes.get(i)[1]; //2-character code if possible
-      if (canLanguageBeDetected(langCode, additionalLanguageCodes)) {
-        result.put(langCode, finalProbs.get(i));
+      if (allLanguages || canLanguageBeDetected(langCode, additionalLanguageCodes)) {
+        result.put(langCode, finalProbs[i]);
       }
     }
 
@@ -148,14 +168,15 @@ public class NGramLangIdentifier {
     return result;
   }
 
-  private static Map<String, Double> loadDict(List<String> lines)  {
-    Map<String, Double> tm = new HashMap<>();
+  private static LanguageBigrams loadDict(List<String> lines)  {
+    LanguageBigrams bigrams = new LanguageBigrams(lines.size());
     for (String line : lines) {
       String[] parts = line.trim().split(" ");
-      String key = String.join("_", Arrays.copyOfRange(parts, 0, parts.length-1));
-      tm.put(key, Double.parseDouble(parts[parts.length-1]));
+      if (parts.length == 3) {  // only bigrams are used
+        bigrams.add(bigramKey(Integer.parseInt(parts[0]), Integer.parseInt(parts[1])), (float) log(Double.parseDouble(parts[2])));
+      }
     }
-    return tm;
+    return bigrams;
   }
 
   private List<String> expectedFiles() {
@@ -167,56 +188,286 @@ public class NGramLangIdentifier {
     return result;
   }
 
-  private List<Integer> encode(String text) {
-    List<Integer> result = new ArrayList<>();
-    result.add(1); //Start of sentence token
+  private int[] encode(String text) {
     if (text.length() > maxLength) {
       text = text.substring(0, maxLength);
     }
-    text = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
-    text = text.replaceAll("\\d+", "<NUM>");
-    text = text.replaceAll("[\\uac00-\\ud7a3]", "<KO>"); // Korean
-    text = text.replaceAll("[\\u3040-\\u30ff]", "<JA>"); // Japanese
-    text = text.replaceAll("[\\u4e00-\\u9FFF]", "<ZH>"); // Chinese
-    text = text.replaceAll("[\\u1780-\\u17FF]", "<KM>"); // Khmer
-    text = text.replaceAll("[\\u1700-\\u171F]", "<TL>"); // Tagalog
-    text = text.replaceAll("[\\u0530-\\u058F]", "<HY>"); // Armenian
-    text = text.replaceAll("[\\u0370-\\u03FF]", "<EL>"); // Greek
-    text = text.replaceAll("[\\u0B80-\\u0BFF]", "<TA>"); // Tamil
-    text = text.replaceAll("\\s+", "▁");
-    if (text.length() == 0) {
-      return result;
-    }
-    text = "▁" + text;
-
+    String normalized = replaceSpecialChars(Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase());
+    int[] result = new int[normalized.length() + 1];
+    result[0] = 1; //Start of sentence token
+    int size = 1;
     int cur = 0;
-    while (cur < text.length()) {
+    while (cur < normalized.length()) {
+      // longest token in the vocabulary that starts at cur, or the unknown token for one char:
       int tok = 0;
       int ci = 1;
-      for (int i = cur + 1; i <= text.length(); i++) {
-        int maybeTok = vocab.getOrDefault(text.substring(cur, i), -1);
+      int node = VocabTrie.ROOT;
+      for (int i = cur; i < normalized.length(); i++) {
+        node = vocab.getChild(node, normalized.charAt(i));
+        if (node == VocabTrie.NONE) {
+          break;
+        }
+        int maybeTok = vocab.getToken(node);
         if (maybeTok > -1) {
           tok = maybeTok;
-          ci = i - cur;
+          ci = i + 1 - cur;
         }
       }
       cur += ci;
-      result.add(tok);
+      result[size++] = tok;
     }
-    return result;
+    return Arrays.copyOf(result, size);
   }
 
-  private List<int[]> keys(List<Integer> enc) {
-    //For now just bigrams
-    List<int[]> result = new ArrayList<>();
-    for (int i = 1; i < enc.size(); i++) {
-      result.add(new int[]{enc.get(i-1), enc.get(i)});
+  /**
+   * Replace numbers and the chars of some scripts by placeholders, and whitespace by "▁".
+   * The result starts with "▁" unless it is empty.
+   */
+  private static String replaceSpecialChars(String text) {
+    if (text.isEmpty()) {
+      return text;
+    }
+    StringBuilder sb = new StringBuilder(text.length() + 16);
+    sb.append('▁');
+    char prev = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c >= '0' && c <= '9') {
+        if (!(prev >= '0' && prev <= '9')) {
+          sb.append("<NUM>");
+        }
+      } else if (isWhitespace(c)) {
+        if (!isWhitespace(prev)) {
+          sb.append('▁');
+        }
+      } else if (c >= '\uac00' && c <= '\ud7a3') {
+        sb.append("<KO>"); // Korean
+      } else if (c >= '\u3040' && c <= '\u30ff') {
+        sb.append("<JA>"); // Japanese
+      } else if (c >= '\u4e00' && c <= '\u9FFF') {
+        sb.append("<ZH>"); // Chinese
+      } else if (c >= '\u1780' && c <= '\u17FF') {
+        sb.append("<KM>"); // Khmer
+      } else if (c >= '\u1700' && c <= '\u171F') {
+        sb.append("<TL>"); // Tagalog
+      } else if (c >= '\u0530' && c <= '\u058F') {
+        sb.append("<HY>"); // Armenian
+      } else if (c >= '\u0370' && c <= '\u03FF') {
+        sb.append("<EL>"); // Greek
+      } else if (c >= '\u0B80' && c <= '\u0BFF') {
+        sb.append("<TA>"); // Tamil
+      } else {
+        sb.append(c);
+      }
+      prev = c;
+    }
+    return sb.toString();
+  }
+
+  // same as '\s' in a regex:
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  private static long bigramKey(int first, int second) {
+    return ((long) first << 32) | (second & 0xFFFFFFFFL);
+  }
+
+  private static void normalize(double[] vals) {
+    double tot = 0;
+    for (double val : vals) {
+      tot += val;
+    }
+    for (int i = 0; i < vals.length; i++) {
+      vals[i] /= tot;
+    }
+  }
+
+  /**
+   * Open addressing hash map from {@code long} to non-negative {@code int}, to avoid boxing and
+   * creating strings for the lookups.
+   */
+  private static class LongIntMap {
+    private long[] keys;
+    private int[] values;  // -1 = empty slot
+    private int size;
+
+    LongIntMap(int expectedSize) {
+      int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+      keys = new long[capacity];
+      values = new int[capacity];
+      Arrays.fill(values, -1);
+    }
+
+    /** @return the value or -1 if the key is not in the map */
+    int get(long key) {
+      int mask = keys.length - 1;
+      int slot = hash(key) & mask;
+      while (values[slot] != -1) {
+        if (keys[slot] == key) {
+          return values[slot];
+        }
+        slot = (slot + 1) & mask;
+      }
+      return -1;
+    }
+
+    void put(long key, int value) {
+      if (value < 0) {
+        throw new IllegalArgumentException("Value must be >= 0: " + value);
+      }
+      if (size * 2 >= keys.length) {
+        resize();
+      }
+      int mask = keys.length - 1;
+      int slot = hash(key) & mask;
+      while (values[slot] != -1) {
+        if (keys[slot] == key) {
+          values[slot] = value;
+          return;
+        }
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      values[slot] = value;
+      size++;
+    }
+
+    private void resize() {
+      long[] oldKeys = keys;
+      int[] oldValues = values;
+      keys = new long[oldKeys.length * 2];
+      values = new int[oldValues.length * 2];
+      Arrays.fill(values, -1);
+      size = 0;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldValues[i] != -1) {
+          put(oldKeys[i], oldValues[i]);
+        }
+      }
+    }
+
+    private static int hash(long key) {
+      long h = key * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
+    }
+  }
+
+  /**
+   * The bigram log probabilities of one language, as loaded from its file.
+   */
+  private static class LanguageBigrams {
+    private long[] keys;
+    private float[] logProbs;
+    private int size;
+
+    LanguageBigrams(int expectedSize) {
+      keys = new long[expectedSize];
+      logProbs = new float[expectedSize];
+    }
+
+    void add(long key, float logProb) {
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2 + 1);
+        logProbs = Arrays.copyOf(logProbs, size * 2 + 1);
+      }
+      keys[size] = key;
+      logProbs[size] = logProb;
+      size++;
+    }
+  }
+
+  /**
+   * The bigram log probabilities of all languages, so that one lookup per bigram gives the
+   * values for all languages.
+   */
+  private static class BigramTable {
+    private final LongIntMap rows;  // bigram key -> row in logProbs
+    private final float[] logProbs;  // one row per bigram, one column per language
+    private final int languageCount;
+
+    BigramTable(List<LanguageBigrams> languages) {
+      languageCount = languages.size();
+      int maxSize = languages.stream().mapToInt(l -> l.size).max().orElse(0);
+      rows = new LongIntMap(maxSize);
+      int rowCount = 0;
+      for (LanguageBigrams language : languages) {
+        for (int i = 0; i < language.size; i++) {
+          if (rows.get(language.keys[i]) == -1) {
+            rows.put(language.keys[i], rowCount++);
+          }
+        }
+      }
+      logProbs = new float[rowCount * languageCount];
+      Arrays.fill(logProbs, LOG_EPSILON);
+      for (int lang = 0; lang < languageCount; lang++) {
+        LanguageBigrams language = languages.get(lang);
+        for (int i = 0; i < language.size; i++) {
+          logProbs[rows.get(language.keys[i]) * languageCount + lang] = language.logProbs[i];
+        }
+      }
+    }
+
+    /**
+     * Add the log probabilities of the bigram to {@code sums}, one value per language.
+     * @return false if the bigram is not known for any language, {@code sums} is then unchanged
+     */
+    boolean addLogProbs(int first, int second, double[] sums) {
+      int row = rows.get(bigramKey(first, second));
+      if (row == -1) {
+        return false;
+      }
+      int offset = row * languageCount;
+      for (int lang = 0; lang < languageCount; lang++) {
+        sums[lang] += logProbs[offset + lang];
+      }
+      return true;
     }
-    return result;
   }
 
-  private List<Double> normalize(List<Double> vals) {
-    double tot = vals.stream().mapToDouble(f -> f).sum();
-    return vals.stream().map(n -> n/tot).collect(Collectors.toList());
+  /**
+   * The vocabulary as a trie, so the longest token at a position can be found without
+   * creating substrings. Children are stored in one hash map keyed by parent node and char.
+   */
+  private static class VocabTrie {
+    static final int ROOT = 0;
+    static final int NONE = -1;
+
+    private final LongIntMap children = new LongIntMap(1024);
+    private int[] tokens = {-1};  // token id by node, -1 if the node is not the end of a token
+    private int nodeCount = 1;
+
+    void put(String token, int id) {
+      int node = ROOT;
+      for (int i = 0; i < token.length(); i++) {
+        long key = childKey(node, token.charAt(i));
+        int child = children.get(key);
+        if (child == NONE) {
+          child = nodeCount++;
+          if (child == tokens.length) {
+            int oldLength = tokens.length;
+            tokens = Arrays.copyOf(tokens, oldLength * 2);
+            Arrays.fill(tokens, oldLength, tokens.length, -1);
+          }
+          children.put(key, child);
+        }
+        node = child;
+      }
+      if (node != ROOT) {
+        tokens[node] = id;
+      }
+    }
+
+    int getChild(int node, char c) {
+      return children.get(childKey(node, c));
+    }
+
+    int getToken(int node) {
+      return tokens[node];
+    }
+
+    private static long childKey(int node, char c) {
+      return ((long) node << 16) | c;
+    }
   }
 }
@@ -20,6 +20,8 @@ package org.languagetool.languagemodel;
 
 import org.languagetool.rules.ngrams.Probability;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
@@ -70,43 +72,83 @@ public abstract class BaseLanguageModel implements LanguageModel {
 
   @Override
   public Probability getPseudoProbability(List<String> context) {
+    return getPseudoProbabilities(Collections.singletonList(context)).get(0);
+  }
+
+  /**
+   * Like {@link #getPseudoProbability(List)}, but the counts of all ngrams that are needed
+   * for all contexts are fetched with one call of {@link #getCounts(List)}.
+   * @since 5.4
+   */
+  @Override
+  public List<Probability> getPseudoProbabilities(List<List<String>> contexts) {
     if (this.totalTokenCount == null) {
       this.totalTokenCount = getTotalTokenCount();
     }
-    int maxCoverage = 0;
-    int coverage = 0;
-    // TODO: lm.getCount("_START_") returns 0 for Google data -- see getCount(String) in LuceneLanguageModel
-    long firstWordCount = getCount(context.get(0));
-    maxCoverage++;
-    if (firstWordCount > 0) {
-      coverage++;
-    }
-    // chain rule of probability (https://www.coursera.org/course/nlp, "Introduction to N-grams" and "Estimating N-gram Probabilities"),
-    // https://www.ibm.com/developerworks/community/blogs/nlp/entry/the_chain_rule_of_probability?lang=en
-    double p = (double) (firstWordCount + 1) / (totalTokenCount + 1);
-    debug("P for %s: %.20f (%d)\n", context.get(0), p, firstWordCount);
-    long totalCount = 0;
-    for (int i = 2; i <= context.size(); i++) {
-      List<String> subList = context.subList(0, i);
-      long phraseCount = getCount(subList);
-      //System.out.println(subList + " -> " +phraseCount);
-      if (subList.size() == 3) {
-        totalCount = phraseCount;
+    List<List<String>> ngrams = new ArrayList<>();
+    for (List<String> context : contexts) {
+      ngrams.add(Collections.singletonList(context.get(0)));
+      for (int i = 2; i <= context.size(); i++) {
+        ngrams.add(context.subList(0, i));
       }
-      double thisP = (double) (phraseCount + 1) / (firstWordCount + 1);
-      /* boosting 4grams seems to improve f-measure a tiny bit:
-      if (subList.size() == 4 && phraseCount > 0) {
-        thisP = 100;
-      }*/
+    }
+    long[] counts = getCounts(ngrams);
+    List<Probability> result = new ArrayList<>(contexts.size());
+    int countIdx = 0;
+    for (List<String> context : contexts) {
+      int maxCoverage = 0;
+      int coverage = 0;
+      // TODO: lm.getCount("_START_") returns 0 for Google data -- see getCount(String) in LuceneLanguageModel
+      long firstWordCount = counts[countIdx++];
       maxCoverage++;
-      debug("P for " + subList + ": %.20f (%d)\n", thisP, phraseCount);
-      if (phraseCount > 0) {
+      if (firstWordCount > 0) {
         coverage++;
       }
-      p *= thisP;
+      // chain rule of probability (https://www.coursera.org/course/nlp, "Introduction to N-grams" and "Estimating N-gram Probabilities"),
+      // https://www.ibm.com/developerworks/community/blogs/nlp/entry/the_chain_rule_of_probability?lang=en
+      double p = (double) (firstWordCount + 1) / (totalTokenCount + 1);
+      debug("P for %s: %.20f (%d)\n", context.get(0), p, firstWordCount);
+      long totalCount = 0;
+      for (int i = 2; i <= context.size(); i++) {
+        List<String> subList = context.subList(0, i);
+        long phraseCount = counts[countIdx++];
+        //System.out.println(subList + " -> " +phraseCount);
+        if (subList.size() == 3) {
+          totalCount = phraseCount;
+        }
+        double thisP = (double) (phraseCount + 1) / (firstWordCount + 1);
+        /* boosting 4grams seems to improve f-measure a tiny bit:
+        if (subList.size() == 4 && phraseCount > 0) {
+          thisP = 100;
+        }*/
+        maxCoverage++;
+        debug("P for " + subList + ": %.20f (%d)\n", thisP, phraseCount);
+        if (phraseCount > 0) {
+          coverage++;
+        }
+        p *= thisP;
+      }
+      debug("  " + String.join(" ", context) + " => %.20f (coverage/maxCoverage: %d / %d = %.2f)\n", p, coverage, maxCoverage, (float)coverage/maxCoverage);
+      result.add(new Probability(p, (float)coverage/maxCoverage, totalCount));
+    }
+    return result;
+  }
+
+  /**
+   * Get the occurrence counts of several ngrams, possibly of different length. Sub classes
+   * should override this if they can look up many ngrams faster than one after the other,
+   * the default implementation just calls {@link #getCount(String)} or {@link #getCount(List)}
+   * for each ngram.
+   * @return the counts, in the same order as {@code ngrams}
+   * @since 5.4
+   */
+  public long[] getCounts(List<List<String>> ngrams) {
+    long[] result = new long[ngrams.size()];
+    for (int i = 0; i < result.length; i++) {
+      List<String> ngram = ngrams.get(i);
+      result[i] = ngram.size() == 1 ? getCount(ngram.get(0)) : getCount(ngram);
     }
-    debug("  " + String.join(" ", context) + " => %.20f (coverage/maxCoverage: %d / %d = %.2f)\n", p, coverage, maxCoverage, (float)coverage/maxCoverage);
-    return new Probability(p, (float)coverage/maxCoverage, totalCount);
+    return result;
   }
 
   /**
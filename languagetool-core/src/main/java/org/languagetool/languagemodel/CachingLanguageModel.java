@@ -0,0 +1,165 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.languagetool.FrequencySketch;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the ngram counts of another language model. The same frequent ngrams (like "the"
+ * or "of the") are looked up again and again for every text, so this saves most lookups in
+ * the index. Ngrams are only added to the cache when they have been looked up before recently,
+ * so the many ngrams that are looked up only once don't replace the frequent ones.
+ * This class is thread-safe if the underlying language model is.
+ * @since 5.4
+ */
+public class CachingLanguageModel extends BaseLanguageModel {
+
+  private final BaseLanguageModel lm;
+  private final Cache<String, Long> cache;
+  private final FrequencySketch frequencySketch;
+  private final LongAdder rejectedCount = new LongAdder();
+
+  private volatile Long totalTokenCount;
+
+  /**
+   * @param maxSize maximum number of ngram counts to keep in the cache
+   */
+  public CachingLanguageModel(BaseLanguageModel lm, long maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("Cache size must be >= 0: " + maxSize);
+    }
+    this.lm = Objects.requireNonNull(lm);
+    this.cache = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      .recordStats()
+      .build();
+    this.frequencySketch = new FrequencySketch(maxSize);
+  }
+
+  @Override
+  public long getCount(String token1) {
+    Objects.requireNonNull(token1);
+    return getCounts(Collections.singletonList(Collections.singletonList(token1)))[0];
+  }
+
+  @Override
+  public long getCount(List<String> tokens) {
+    Objects.requireNonNull(tokens);
+    return getCounts(Collections.singletonList(tokens))[0];
+  }
+
+  /**
+   * Takes the counts from the cache if possible, the others are looked up
+   * with one call of the underlying model's {@link BaseLanguageModel#getCounts(List)}.
+   */
+  @Override
+  public long[] getCounts(List<List<String>> ngrams) {
+    long[] result = new long[ngrams.size()];
+    List<List<String>> missingNgrams = new ArrayList<>();
+    List<String> missingKeys = new ArrayList<>();
+    List<Integer> missingIndexes = new ArrayList<>();
+    for (int i = 0; i < ngrams.size(); i++) {
+      List<String> ngram = ngrams.get(i);
+      String key = getKey(ngram);
+      frequencySketch.increment(key);
+      Long count = cache.getIfPresent(key);
+      if (count != null) {
+        result[i] = count;
+      } else {
+        missingNgrams.add(ngram);
+        missingKeys.add(key);
+        missingIndexes.add(i);
+      }
+    }
+    if (!missingNgrams.isEmpty()) {
+      long[] counts = lm.getCounts(missingNgrams);
+      for (int i = 0; i < counts.length; i++) {
+        result[missingIndexes.get(i)] = counts[i];
+        String key = missingKeys.get(i);
+        if (frequencySketch.frequency(key) >= 2) {
+          cache.put(key, counts[i]);
+        } else {
+          rejectedCount.increment();
+        }
+      }
+    }
+    return result;
+  }
+
+  private static String getKey(List<String> ngram) {
+    // the ngram length is part of the key, as a token might contain spaces:
+    return ngram.size() + " " + String.join(" ", ngram);
+  }
+
+  @Override
+  public long getTotalTokenCount() {
+    Long count = totalTokenCount;
+    if (count == null) {
+      count = lm.getTotalTokenCount();
+      totalTokenCount = count;
+    }
+    return count;
+  }
+
+  /**
+   * The language model whose counts are cached.
+   */
+  public BaseLanguageModel getLanguageModel() {
+    return lm;
+  }
+
+  /**
+   * Statistics about hits and misses of the count cache, e.g. for monitoring.
+   */
+  public CacheStats getCacheStats() {
+    return cache.stats();
+  }
+
+  /**
+   * The cache, e.g. for monitoring.
+   */
+  public Cache<String, Long> getCache() {
+    return cache;
+  }
+
+  /**
+   * @return the number of counts that were not added to the cache because
+   * their ngram had not been looked up recently
+   */
+  public long getRejectedCount() {
+    return rejectedCount.sum();
+  }
+
+  @Override
+  public void close() {
+    lm.close();
+  }
+
+  @Override
+  public String toString() {
+    return "cached:" + lm;
+  }
+
+}
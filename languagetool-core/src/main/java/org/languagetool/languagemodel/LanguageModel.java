@@ -20,6 +20,7 @@ package org.languagetool.languagemodel;
 
 import org.languagetool.rules.ngrams.Probability;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -41,6 +42,20 @@ public interface LanguageModel extends AutoCloseable {
    */
   Probability getPseudoProbability(List<String> context);
 
+  /**
+   * Get the pseudo probabilities of several contexts at once. Implementations can override
+   * this to look up the ngrams of all contexts in one pass.
+   * @return the probabilities, in the same order as {@code contexts}
+   * @since 5.4
+   */
+  default List<Probability> getPseudoProbabilities(List<List<String>> contexts) {
+    List<Probability> result = new ArrayList<>(contexts.size());
+    for (List<String> context : contexts) {
+      result.add(getPseudoProbability(context));
+    }
+    return result;
+  }
+
   @Override
   void close();
   
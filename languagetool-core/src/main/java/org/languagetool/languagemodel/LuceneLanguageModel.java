@@ -76,6 +76,21 @@ public class LuceneLanguageModel extends BaseLanguageModel {
     return getCount(Arrays.asList(token));
   }
 
+  /**
+   * @since 5.4
+   */
+  @Override
+  public long[] getCounts(List<List<String>> ngrams) {
+    long[] result = new long[ngrams.size()];
+    for (LuceneSingleIndexLanguageModel lm : lms) {
+      long[] counts = lm.getCounts(ngrams);
+      for (int i = 0; i < result.length; i++) {
+        result[i] += counts[i];
+      }
+    }
+    return result;
+  }
+
   @Override
   public long getTotalTokenCount() {
     return lms.stream().mapToLong(lm -> lm.getTotalTokenCount()).sum();
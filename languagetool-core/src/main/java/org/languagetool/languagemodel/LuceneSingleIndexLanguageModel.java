@@ -18,11 +18,11 @@
  */
 package org.languagetool.languagemodel;
 
-import org.apache.lucene.index.DirectoryReader;
-import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.Term;
+import org.apache.lucene.index.*;
 import org.apache.lucene.search.*;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.languagetool.Experimental;
 
 import java.io.File;
@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Information about ngram occurrences, taken from Lucene indexes (one index per ngram level).
@@ -40,7 +41,8 @@ import java.util.*;
  */
 public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
 
-  private static final Map<File,LuceneSearcher> dirToSearcherMap = new HashMap<>();  // static to save memory for language variants
+  // static to save memory for language variants, concurrent as languages may get loaded in parallel:
+  private static final Map<File,LuceneSearcher> dirToSearcherMap = new ConcurrentHashMap<>();
 
   private final List<File> indexes = new ArrayList<>();
   private final Map<Integer,LuceneSearcher> luceneSearcherMap = new HashMap<>();
@@ -140,6 +142,81 @@ public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
     return getCount(Arrays.asList(token1));
   }
 
+  /**
+   * Looks up the ngrams grouped by their length and sorted by term, so each index segment
+   * is accessed with a sequence of forward seeks instead of one search per ngram.
+   * @since 5.4
+   */
+  @Override
+  public long[] getCounts(List<List<String>> ngrams) {
+    if (luceneSearcherMap.isEmpty()) {
+      // created without index (see constructor with maxNgram), so the counts come from getCount():
+      return super.getCounts(ngrams);
+    }
+    long[] result = new long[ngrams.size()];
+    Map<Integer, SortedMap<BytesRef, List<Integer>>> sizeToTerms = new TreeMap<>();
+    for (int i = 0; i < ngrams.size(); i++) {
+      List<String> tokens = Objects.requireNonNull(ngrams.get(i));
+      if (tokens.size() > maxNgram) {
+        throw new RuntimeException("Requested " + tokens.size() + "gram but index has only up to " + maxNgram + "gram: " + tokens);
+      }
+      BytesRef term = new BytesRef(String.join(" ", tokens));
+      sizeToTerms.computeIfAbsent(tokens.size(), k -> new TreeMap<>()).computeIfAbsent(term, k -> new ArrayList<>()).add(i);
+    }
+    for (Map.Entry<Integer, SortedMap<BytesRef, List<Integer>>> entry : sizeToTerms.entrySet()) {
+      LuceneSearcher luceneSearcher = getLuceneSearcher(entry.getKey());
+      SortedMap<BytesRef, List<Integer>> terms = entry.getValue();
+      Map<BytesRef, Long> counts = getCounts(terms.keySet(), luceneSearcher);
+      for (Map.Entry<BytesRef, List<Integer>> termEntry : terms.entrySet()) {
+        long count = counts.getOrDefault(termEntry.getKey(), 0L);
+        for (int idx : termEntry.getValue()) {
+          result[idx] = count;
+        }
+      }
+    }
+    return result;
+  }
+
+  private Map<BytesRef, Long> getCounts(Set<BytesRef> sortedTerms, LuceneSearcher luceneSearcher) {
+    Map<BytesRef, Long> counts = new HashMap<>();
+    Map<BytesRef, Integer> hits = new HashMap<>();
+    try {
+      for (LeafReaderContext leaf : luceneSearcher.reader.leaves()) {
+        LeafReader leafReader = leaf.reader();
+        Terms terms = leafReader.terms("ngram");
+        if (terms == null) {
+          continue;
+        }
+        Bits liveDocs = leafReader.getLiveDocs();
+        TermsEnum termsEnum = terms.iterator();
+        PostingsEnum postings = null;
+        for (BytesRef term : sortedTerms) {
+          if (!termsEnum.seekExact(term)) {
+            continue;
+          }
+          postings = termsEnum.postings(postings, PostingsEnum.NONE);
+          long count = 0;
+          int termHits = hits.getOrDefault(term, 0);
+          int docId;
+          while ((docId = postings.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+            if (liveDocs == null || liveDocs.get(docId)) {
+              if (++termHits > 2000) {
+                throw new RuntimeException("More than 2000 matches for '" + term.utf8ToString() + "' not supported for performance reasons: " +
+                                           termHits + "+ matches in " + luceneSearcher.directory);
+              }
+              count += Long.parseLong(leafReader.document(docId).get("count"));
+            }
+          }
+          hits.put(term, termHits);
+          counts.merge(term, count, Long::sum);
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return counts;
+  }
+
   @Override
   public long getTotalTokenCount() {
     LuceneSearcher luceneSearcher = getLuceneSearcher(1);
@@ -176,18 +253,13 @@ public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
   }
 
   private LuceneSearcher getCachedLuceneSearcher(File indexDir) {
-    LuceneSearcher luceneSearcher = dirToSearcherMap.get(indexDir);
-    if (luceneSearcher == null) {
+    return dirToSearcherMap.computeIfAbsent(indexDir, dir -> {
       try {
-        LuceneSearcher newSearcher = new LuceneSearcher(indexDir);
-        dirToSearcherMap.put(indexDir, newSearcher);
-        return newSearcher;
+        return new LuceneSearcher(dir);
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
-    } else {
-      return luceneSearcher;
-    }
+    });
   }
 
   private long getCount(Term term, LuceneSearcher luceneSearcher) {
@@ -215,6 +287,7 @@ public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
       try {
         searcher.reader.close();
         searcher.directory.close();
+        dirToSearcherMap.values().remove(searcher);  // so it doesn't get re-used after closing
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
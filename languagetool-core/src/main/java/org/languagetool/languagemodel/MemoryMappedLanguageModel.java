@@ -0,0 +1,113 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Information about ngram occurrences, taken from memory-mapped files with sorted ngrams
+ * and their counts (one file per ngram level, called {@code 1grams.counts}, {@code 2grams.counts} etc.).
+ * Such files can be created from the Lucene indexes used by {@link LuceneLanguageModel} with
+ * {@code org.languagetool.dev.bigdata.LuceneToCountFileConverter}. A lookup takes microseconds
+ * instead of a Lucene search, and the data in the OS page cache is shared by all JVMs on the same host.
+ * Like {@link LuceneSingleIndexLanguageModel}, this has no probability calculation for the
+ * case with 0 occurrences.
+ * @since 5.4
+ */
+public class MemoryMappedLanguageModel extends BaseLanguageModel {
+
+  static final String FILE_SUFFIX = "grams.counts";
+
+  private final File topDir;
+  private final Map<Integer, NgramCountFile> files = new HashMap<>();
+  private final int maxNgram;
+
+  /**
+   * @return whether the directory contains at least a {@code 1grams.counts} file
+   */
+  public static boolean isModelDirectory(File topDir) {
+    return new File(topDir, 1 + FILE_SUFFIX).isFile();
+  }
+
+  /**
+   * @param topDir a directory with files {@code 1grams.counts}, {@code 2grams.counts}, {@code 3grams.counts}
+   *               and optionally {@code 4grams.counts}
+   */
+  public MemoryMappedLanguageModel(File topDir) {
+    this.topDir = topDir;
+    try {
+      for (int i = 1; i <= 4; i++) {
+        File file = new File(topDir, i + FILE_SUFFIX);
+        if (file.isFile()) {
+          files.put(i, new NgramCountFile(file));
+        }
+      }
+    } catch (IOException e) {
+      close();
+      throw new RuntimeException("Could not load ngram counts from " + topDir, e);
+    }
+    if (!files.containsKey(1)) {
+      throw new RuntimeException("No file '1" + FILE_SUFFIX + "' found in " + topDir);
+    }
+    maxNgram = Collections.max(files.keySet());
+  }
+
+  @Override
+  public long getCount(List<String> tokens) {
+    Objects.requireNonNull(tokens);
+    if (tokens.size() > maxNgram) {
+      throw new RuntimeException("Requested " + tokens.size() + "gram but " + topDir + " has only up to " + maxNgram + "gram: " + tokens);
+    }
+    NgramCountFile file = files.get(tokens.size());
+    if (file == null) {
+      throw new RuntimeException("No " + tokens.size() + FILE_SUFFIX + " file found in " + topDir);
+    }
+    return file.getCount(String.join(" ", tokens));
+  }
+
+  @Override
+  public long getCount(String token1) {
+    Objects.requireNonNull(token1);
+    return files.get(1).getCount(token1);
+  }
+
+  @Override
+  public long getTotalTokenCount() {
+    return files.get(1).getTotalTokenCount();
+  }
+
+  @Override
+  public void close() {
+    for (NgramCountFile file : files.values()) {
+      try {
+        file.close();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return files.values().toString();
+  }
+
+}
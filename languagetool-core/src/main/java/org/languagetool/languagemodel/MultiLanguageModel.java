@@ -20,6 +20,7 @@ package org.languagetool.languagemodel;
 
 import org.languagetool.rules.ngrams.Probability;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -53,6 +54,32 @@ public class MultiLanguageModel implements LanguageModel {
     return new Probability(prob, coverage/lms.size(), occurrences);
   }
 
+  /**
+   * Combines the probabilities like {@link #getPseudoProbability(List)}, but lets each language model
+   * look up all contexts at once.
+   * @since 5.4
+   */
+  @Override
+  public List<Probability> getPseudoProbabilities(List<List<String>> contexts) {
+    double[] probs = new double[contexts.size()];
+    float[] coverages = new float[contexts.size()];
+    long[] occurrences = new long[contexts.size()];
+    for (LanguageModel lm : lms) {
+      List<Probability> pProbs = lm.getPseudoProbabilities(contexts);
+      for (int i = 0; i < probs.length; i++) {
+        Probability pProb = pProbs.get(i);
+        probs[i] += pProb.getProb();
+        coverages[i] += pProb.getCoverage();
+        occurrences[i] += pProb.getOccurrences();
+      }
+    }
+    List<Probability> result = new ArrayList<>(contexts.size());
+    for (int i = 0; i < probs.length; i++) {
+      result.add(new Probability(probs[i], coverages[i]/lms.size(), occurrences[i]));
+    }
+    return result;
+  }
+
   @Override
   public void close() {
     lms.stream().forEach(LanguageModel::close);
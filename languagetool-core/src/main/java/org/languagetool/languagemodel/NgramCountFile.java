@@ -0,0 +1,214 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read-only access to a file written by {@link NgramCountFileWriter}. The file is memory-mapped,
+ * so a lookup is a binary search over the block index plus a scan of one block, with no
+ * copying of data to the heap. The OS page cache is shared by all processes that use the file.
+ * This class is thread-safe.
+ * @since 5.4
+ */
+class NgramCountFile implements AutoCloseable {
+
+  private static final int SEGMENT_BITS = 30;  // MappedByteBuffer can only map up to 2GB
+  private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+  private final File file;
+  private final FileChannel channel;
+  private final MappedByteBuffer[] segments;
+  private final long ngramCount;
+  private final long totalTokenCount;
+  private final long indexOffset;
+  private final int blockCount;
+
+  NgramCountFile(File file) throws IOException {
+    this.file = file;
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      int segmentCount = (int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS);
+      segments = new MappedByteBuffer[segmentCount];
+      for (int i = 0; i < segmentCount; i++) {
+        long start = (long) i << SEGMENT_BITS;
+        segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << SEGMENT_BITS, size - start));
+      }
+      if (size < NgramCountFileWriter.HEADER_SIZE) {
+        throw new IOException("Not an ngram count file, too short: " + file);
+      }
+      byte[] magic = new byte[NgramCountFileWriter.MAGIC.length];
+      for (int i = 0; i < magic.length; i++) {
+        magic[i] = get(i);
+      }
+      if (!Arrays.equals(magic, NgramCountFileWriter.MAGIC)) {
+        throw new IOException("Not an ngram count file, unexpected header: " + file);
+      }
+      long pos = magic.length;
+      int version = (int) getLong(pos, 4);
+      if (version != NgramCountFileWriter.VERSION) {
+        throw new IOException("Unsupported version " + version + " of ngram count file " + file);
+      }
+      pos += 4;
+      ngramCount = getLong(pos, 8);
+      pos += 8;
+      totalTokenCount = getLong(pos, 8);
+      pos += 8;
+      indexOffset = getLong(pos, 8);
+      pos += 8;
+      blockCount = (int) getLong(pos, 4);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  long getNgramCount() {
+    return ngramCount;
+  }
+
+  long getTotalTokenCount() {
+    return totalTokenCount;
+  }
+
+  /**
+   * @return the count of the ngram, or 0 if it's not in the file
+   */
+  long getCount(String ngram) {
+    byte[] key = ngram.getBytes(StandardCharsets.UTF_8);
+    // find the last block whose first ngram is <= key:
+    int low = 0;
+    int high = blockCount - 1;
+    int block = -1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (compareFirstKey(getBlockOffset(mid), key) <= 0) {
+        block = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    if (block == -1) {
+      return 0;
+    }
+    long pos = getBlockOffset(block);
+    long blockEnd = block + 1 < blockCount ? getBlockOffset(block + 1) : indexOffset;
+    byte[] current = new byte[Math.max(64, key.length)];
+    long[] result = new long[1];
+    while (pos < blockEnd) {
+      pos = readVarLong(pos, result);
+      int shared = (int) result[0];
+      pos = readVarLong(pos, result);
+      int restLength = (int) result[0];
+      int length = shared + restLength;
+      if (length > current.length) {
+        current = Arrays.copyOf(current, length);
+      }
+      for (int i = 0; i < restLength; i++) {
+        current[shared + i] = get(pos + i);
+      }
+      pos += restLength;
+      pos = readVarLong(pos, result);
+      int cmp = compare(current, 0, length, key);
+      if (cmp == 0) {
+        return result[0];
+      } else if (cmp > 0) {
+        return 0;
+      }
+    }
+    return 0;
+  }
+
+  private int compareFirstKey(long blockOffset, byte[] key) {
+    long[] result = new long[1];
+    long pos = readVarLong(blockOffset, result);  // shared length, always 0
+    pos = readVarLong(pos, result);
+    int length = (int) result[0];
+    int max = Math.min(length, key.length);
+    for (int i = 0; i < max; i++) {
+      int cmp = Integer.compare(get(pos + i) & 0xFF, key[i] & 0xFF);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return Integer.compare(length, key.length);
+  }
+
+  /**
+   * Compare the first {@code length} bytes of {@code a} to {@code b}, as unsigned bytes.
+   */
+  static int compare(byte[] a, int offset, int length, byte[] b) {
+    int max = Math.min(length, b.length);
+    for (int i = 0; i < max; i++) {
+      int cmp = Integer.compare(a[offset + i] & 0xFF, b[i] & 0xFF);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return Integer.compare(length, b.length);
+  }
+
+  private long getBlockOffset(int block) {
+    return getLong(indexOffset + (long) block * 8, 8);
+  }
+
+  private byte get(long pos) {
+    return segments[(int) (pos >>> SEGMENT_BITS)].get((int) (pos & SEGMENT_MASK));
+  }
+
+  private long getLong(long pos, int bytes) {
+    long result = 0;
+    for (int i = 0; i < bytes; i++) {
+      result = (result << 8) | (get(pos + i) & 0xFF);
+    }
+    return result;
+  }
+
+  private long readVarLong(long pos, long[] result) {
+    long value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = get(pos++);
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    result[0] = value;
+    return pos;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  @Override
+  public String toString() {
+    return file.toString();
+  }
+
+}
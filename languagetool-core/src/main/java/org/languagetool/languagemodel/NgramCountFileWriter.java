@@ -0,0 +1,126 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes a file with ngram occurrence counts as used by {@link MemoryMappedLanguageModel}.
+ * The ngrams must be added in the order of their UTF-8 bytes (which is also the order
+ * of the terms in a Lucene index), each ngram only once.
+ *
+ * <p>File format (all numbers big-endian):
+ * <ul>
+ *   <li>header: magic {@code LTNGRAMS}, version (int), number of ngrams (long),
+ *   total token count (long), offset of the block index (long), number of blocks (int)</li>
+ *   <li>blocks of up to {@value #ENTRIES_PER_BLOCK} entries, each entry: number of leading bytes shared
+ *   with the previous ngram (varint, 0 for the first entry of a block), length of the rest (varint),
+ *   the rest of the ngram's UTF-8 bytes, count (varint)</li>
+ *   <li>block index: the offset of each block (long)</li>
+ * </ul>
+ * @since 5.4
+ */
+public class NgramCountFileWriter implements Closeable {
+
+  static final byte[] MAGIC = "LTNGRAMS".getBytes(StandardCharsets.US_ASCII);
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = MAGIC.length + 4 + 8 + 8 + 8 + 4;
+  static final int ENTRIES_PER_BLOCK = 32;
+
+  private final File file;
+  private final DataOutputStream out;
+  private final long totalTokenCount;
+
+  private byte[] prevKey;
+  private long ngramCount;
+  private long[] blockOffsets = new long[1024];
+  private int blockCount;
+  private long position;
+
+  /**
+   * @param totalTokenCount total number of tokens in the corpus, only relevant for the file with the 1grams
+   */
+  public NgramCountFileWriter(File file, long totalTokenCount) throws IOException {
+    this.file = file;
+    this.totalTokenCount = totalTokenCount;
+    this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1024 * 1024));
+    out.write(new byte[HEADER_SIZE]);  // written for real in close()
+    position = HEADER_SIZE;
+  }
+
+  public void add(String ngram, long count) throws IOException {
+    if (count < 0) {
+      throw new IllegalArgumentException("count must be >= 0: " + count + " for '" + ngram + "'");
+    }
+    byte[] key = ngram.getBytes(StandardCharsets.UTF_8);
+    if (prevKey != null && NgramCountFile.compare(prevKey, 0, prevKey.length, key) >= 0) {
+      throw new IllegalArgumentException("ngrams must be added in the order of their UTF-8 bytes, without duplicates: '" +
+        new String(prevKey, StandardCharsets.UTF_8) + "' is followed by '" + ngram + "'");
+    }
+    int shared = 0;
+    if (ngramCount % ENTRIES_PER_BLOCK == 0) {
+      if (blockCount == blockOffsets.length) {
+        blockOffsets = Arrays.copyOf(blockOffsets, blockOffsets.length * 2);
+      }
+      blockOffsets[blockCount++] = position;
+    } else {
+      int max = Math.min(prevKey.length, key.length);
+      while (shared < max && prevKey[shared] == key[shared]) {
+        shared++;
+      }
+    }
+    writeVarLong(shared);
+    writeVarLong(key.length - shared);
+    out.write(key, shared, key.length - shared);
+    position += key.length - shared;
+    writeVarLong(count);
+    prevKey = key;
+    ngramCount++;
+  }
+
+  private void writeVarLong(long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+      position++;
+    }
+    out.write((int) value);
+    position++;
+  }
+
+  @Override
+  public void close() throws IOException {
+    long indexOffset = position;
+    for (int i = 0; i < blockCount; i++) {
+      out.writeLong(blockOffsets[i]);
+    }
+    out.close();
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      raf.write(MAGIC);
+      raf.writeInt(VERSION);
+      raf.writeLong(ngramCount);
+      raf.writeLong(totalTokenCount);
+      raf.writeLong(indexOffset);
+      raf.writeInt(blockCount);
+    }
+  }
+
+}
@@ -0,0 +1,309 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ngram counts partitioned by the hash of the ngram (see {@link #getShard(String, int)}) over several
+ * directories, e.g. on different disks. Each ngram is only in one shard, so a lookup only
+ * needs to access one shard. When several ngrams are looked up with {@link #getCounts(List)},
+ * the shards are accessed in parallel. Shards are sub directories called {@code shard-1},
+ * {@code shard-2} etc. (usually symlinks to the real directories), each with either the files
+ * used by {@link MemoryMappedLanguageModel} or the indexes used by {@link LuceneSingleIndexLanguageModel}.
+ * Files for {@link MemoryMappedLanguageModel} can be split into shards with
+ * {@code org.languagetool.dev.bigdata.LuceneToCountFileConverter}.
+ * @since 5.4
+ */
+public class ShardedLanguageModel extends BaseLanguageModel {
+
+  private static final Logger logger = LoggerFactory.getLogger(ShardedLanguageModel.class);
+  private static final Pattern SHARD_DIR = Pattern.compile("shard-(\\d+)");
+
+  private final List<BaseLanguageModel> shards;
+  private final List<ShardStats> shardStats = new ArrayList<>();
+  private final ExecutorService executor;
+
+  /**
+   * @return whether the directory contains sub directories {@code shard-1}, {@code shard-2} etc.
+   */
+  public static boolean isShardedDirectory(File topDir) {
+    return new File(topDir, "shard-1").isDirectory();
+  }
+
+  /**
+   * The shard an ngram belongs to. Tools that split ngram data into shards need to use this.
+   * @param ngram the tokens of the ngram, joined with a space
+   * @return a value from {@code 0} to {@code shardCount - 1}
+   */
+  public static int getShard(String ngram, int shardCount) {
+    int h = ngram.hashCode() * 0x9e3779b9;
+    return Math.floorMod(h ^ (h >>> 16), shardCount);
+  }
+
+  /**
+   * @param topDir a directory with sub directories {@code shard-1}, {@code shard-2} etc.
+   */
+  public ShardedLanguageModel(File topDir) {
+    this(loadShards(topDir));
+  }
+
+  /**
+   * @param shards the language models, each with the ngrams that {@link #getShard(String, int)} assigns to it
+   */
+  public ShardedLanguageModel(List<BaseLanguageModel> shards) {
+    if (shards.isEmpty()) {
+      throw new IllegalArgumentException("List of shards is empty");
+    }
+    this.shards = new ArrayList<>(shards);
+    for (int i = 0; i < shards.size(); i++) {
+      shardStats.add(new ShardStats(i, shards.get(i).toString()));
+    }
+    this.executor = Executors.newFixedThreadPool(shards.size(),
+      new ThreadFactoryBuilder().setNameFormat("ngram-shard-%d").setDaemon(true).build());
+  }
+
+  private static List<BaseLanguageModel> loadShards(File topDir) {
+    File[] dirs = topDir.listFiles((file, name) -> SHARD_DIR.matcher(name).matches());
+    if (dirs == null || dirs.length == 0) {
+      throw new RuntimeException("No sub directories 'shard-1', 'shard-2' etc. found in " + topDir);
+    }
+    File[] sortedDirs = new File[dirs.length];
+    for (File dir : dirs) {
+      Matcher m = SHARD_DIR.matcher(dir.getName());
+      int number = m.matches() ? Integer.parseInt(m.group(1)) : 0;
+      if (number < 1 || number > dirs.length) {
+        throw new RuntimeException("Shard directories must be numbered from 1 to " + dirs.length + " without gaps: " + dir);
+      }
+      sortedDirs[number - 1] = dir;
+    }
+    List<BaseLanguageModel> shards = new ArrayList<>();
+    try {
+      for (File dir : sortedDirs) {
+        if (MemoryMappedLanguageModel.isModelDirectory(dir)) {
+          shards.add(new MemoryMappedLanguageModel(dir));
+        } else {
+          shards.add(new LuceneSingleIndexLanguageModel(dir));
+        }
+      }
+    } catch (RuntimeException e) {
+      shards.forEach(BaseLanguageModel::close);
+      throw e;
+    }
+    return shards;
+  }
+
+  @Override
+  public long getCount(List<String> tokens) {
+    Objects.requireNonNull(tokens);
+    int shard = getShard(String.join(" ", tokens), shards.size());
+    long startTime = System.nanoTime();
+    long count = shards.get(shard).getCount(tokens);
+    shardStats.get(shard).add(1, System.nanoTime() - startTime);
+    return count;
+  }
+
+  @Override
+  public long getCount(String token1) {
+    Objects.requireNonNull(token1);
+    int shard = getShard(token1, shards.size());
+    long startTime = System.nanoTime();
+    long count = shards.get(shard).getCount(token1);
+    shardStats.get(shard).add(1, System.nanoTime() - startTime);
+    return count;
+  }
+
+  /**
+   * Looks up the ngrams of each shard with one call of its {@link BaseLanguageModel#getCounts(List)},
+   * all shards in parallel.
+   */
+  @Override
+  public long[] getCounts(List<List<String>> ngrams) {
+    List<List<List<String>>> shardNgrams = new ArrayList<>();
+    List<List<Integer>> shardIndexes = new ArrayList<>();
+    for (int i = 0; i < shards.size(); i++) {
+      shardNgrams.add(new ArrayList<>());
+      shardIndexes.add(new ArrayList<>());
+    }
+    for (int i = 0; i < ngrams.size(); i++) {
+      List<String> ngram = Objects.requireNonNull(ngrams.get(i));
+      int shard = getShard(String.join(" ", ngram), shards.size());
+      shardNgrams.get(shard).add(ngram);
+      shardIndexes.get(shard).add(i);
+    }
+    long[] result = new long[ngrams.size()];
+    Map<Integer, Future<long[]>> futures = new HashMap<>();
+    int localShard = -1;  // one shard is looked up in this thread, so no thread switch is needed if there's only one
+    for (int i = 0; i < shards.size(); i++) {
+      if (shardNgrams.get(i).isEmpty()) {
+        continue;
+      }
+      if (localShard == -1) {
+        localShard = i;
+      } else {
+        int shard = i;
+        futures.put(shard, executor.submit(() -> getShardCounts(shard, shardNgrams.get(shard))));
+      }
+    }
+    try {
+      if (localShard != -1) {
+        setCounts(result, shardIndexes.get(localShard), getShardCounts(localShard, shardNgrams.get(localShard)));
+      }
+      for (Map.Entry<Integer, Future<long[]>> entry : futures.entrySet()) {
+        setCounts(result, shardIndexes.get(entry.getKey()), entry.getValue().get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    } finally {
+      futures.values().forEach(f -> f.cancel(true));
+    }
+    return result;
+  }
+
+  private long[] getShardCounts(int shard, List<List<String>> ngrams) {
+    long startTime = System.nanoTime();
+    long[] counts = shards.get(shard).getCounts(ngrams);
+    shardStats.get(shard).add(ngrams.size(), System.nanoTime() - startTime);
+    return counts;
+  }
+
+  private static void setCounts(long[] result, List<Integer> indexes, long[] counts) {
+    for (int i = 0; i < counts.length; i++) {
+      result[indexes.get(i)] = counts[i];
+    }
+  }
+
+  /**
+   * As the shards have the ngrams of the same corpus, they all know the total token count
+   * of the complete corpus (or some don't know it at all), so the largest value is used.
+   * Shards that fail are logged and ignored, unless all of them fail.
+   */
+  @Override
+  public long getTotalTokenCount() {
+    long result = 0;
+    RuntimeException lastFailure = null;
+    boolean anySucceeded = false;
+    for (int i = 0; i < shards.size(); i++) {
+      try {
+        result = Math.max(result, shards.get(i).getTotalTokenCount());
+        anySucceeded = true;
+      } catch (RuntimeException e) {
+        logger.warn("Could not get the total token count of shard " + (i + 1) + " (" + shards.get(i) + ")", e);
+        lastFailure = e;
+      }
+    }
+    if (!anySucceeded) {
+      throw lastFailure;
+    }
+    return result;
+  }
+
+  /**
+   * Statistics about the lookups in each shard, e.g. to find slow disks.
+   */
+  public List<ShardStats> getShardStats() {
+    return Collections.unmodifiableList(shardStats);
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    shards.forEach(BaseLanguageModel::close);
+  }
+
+  @Override
+  public String toString() {
+    return shards.toString();
+  }
+
+  /**
+   * Number and latency of lookups in one shard. A lookup of several ngrams
+   * with {@link #getCounts(List)} counts as one lookup.
+   */
+  public static class ShardStats {
+
+    private final int shard;
+    private final String name;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder ngrams = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    ShardStats(int shard, String name) {
+      this.shard = shard;
+      this.name = name;
+    }
+
+    void add(int ngramCount, long nanos) {
+      lookups.increment();
+      ngrams.add(ngramCount);
+      totalNanos.add(nanos);
+      maxNanos.accumulate(nanos);
+    }
+
+    /** @return the shard number, starting at 0 */
+    public int getShard() {
+      return shard;
+    }
+
+    public long getLookupCount() {
+      return lookups.sum();
+    }
+
+    public long getNgramCount() {
+      return ngrams.sum();
+    }
+
+    public double getTotalLatencyMillis() {
+      return totalNanos.sum() / 1_000_000.0;
+    }
+
+    public double getAverageLatencyMillis() {
+      long count = lookups.sum();
+      return count == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public double getMaxLatencyMillis() {
+      return maxNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ENGLISH, "shard %d (%s): %d lookups, %d ngrams, avg %.2fms, max %.2fms",
+        shard + 1, name, getLookupCount(), getNgramCount(), getAverageLatencyMillis(), getMaxLatencyMillis());
+    }
+  }
+
+}
@@ -22,6 +22,7 @@ package org.languagetool.languagemodel.bert;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.*;
 import io.grpc.ManagedChannel;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
@@ -29,26 +30,75 @@ import io.grpc.netty.shaded.io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.shaded.io.grpc.netty.NegotiationType;
 import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
 import io.grpc.netty.shaded.io.netty.handler.ssl.SslContextBuilder;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.languagemodel.bert.grpc.BertLmGrpc;
-import org.languagetool.languagemodel.bert.grpc.BertLmGrpc.BertLmBlockingStub;
 
 import javax.net.ssl.SSLException;
 import java.io.File;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
 import static org.languagetool.languagemodel.bert.grpc.BertLmProto.*;
 
+/**
+ * Client for a BERT service that scores replacement candidates. Requests of all threads
+ * that arrive within {@code batchDelayMillis} are merged into one {@code BatchScoreRequest}
+ * (with at most {@code maxBatchSize} requests), so the service gets fewer and larger requests.
+ * Identical requests that are waiting or in flight are only sent once, and results are cached.
+ */
 public class RemoteLanguageModel {
 
+  public static final int DEFAULT_MAX_BATCH_SIZE = 32;
+  public static final long DEFAULT_BATCH_DELAY_MILLIS = 2;
+  public static final long DEFAULT_CACHE_SIZE = 1000;
+  public static final long DEFAULT_CACHE_EXPIRE_SECONDS = 3600;
+
+  private static final double[] BATCH_SIZE_BUCKETS = {
+    1, 2, 4, 8, 16, 32, 64, 128, 256
+  };
+
+  private static final double[] LATENCY_BUCKETS = {
+    0.005, 0.01, 0.025, 0.05, .1, .25, .5, .75, 1., 2., 5.
+  };
+
+  private static final Histogram batchSize = Histogram
+    .build("languagetool_bert_batch_size", "Number of requests merged into one batch request")
+    .labelNames("target")
+    .buckets(BATCH_SIZE_BUCKETS)
+    .register();
+
+  private static final Histogram batchLatency = Histogram
+    .build("languagetool_bert_batch_latency_seconds", "Duration of batch requests")
+    .labelNames("target", "result")
+    .buckets(LATENCY_BUCKETS)
+    .register();
+
+  private static final Counter lookups = Counter
+    .build("languagetool_bert_requests_total", "Requests by where the result came from (cache, in_flight, or remote)")
+    .labelNames("target", "source")
+    .register();
+
+  private static final ScheduledExecutorService batchScheduler = Executors.newSingleThreadScheduledExecutor(
+    new ThreadFactoryBuilder().setNameFormat("bert-batch-%d").setDaemon(true).build());
+
   private final BertLmGrpc.BertLmBlockingStub model;
+  private final BertLmGrpc.BertLmFutureStub asyncModel;
   private final ManagedChannel channel;
-  private final Cache<Request, List<Double>> cache = CacheBuilder.newBuilder()
-    .maximumSize(1000)
-    .build();
+  private final String target;
+  private final int maxBatchSize;
+  private final long batchDelayMillis;
+  private final Cache<Request, List<Double>> cache;
+
+  private final Object lock = new Object();
+  // requests that have not been sent yet, guarded by lock:
+  private List<PendingRequest> pending = new ArrayList<>();
+  // increased for each batch, so a scheduled flush doesn't send a batch that has been started later, guarded by lock:
+  private long batchNumber;
+  // requests that have not been answered yet, guarded by lock:
+  private final Map<Request, SettableFuture<List<Double>>> inFlight = new HashMap<>();
 
   public static class Request {
     public String text;
@@ -90,15 +140,66 @@ public class RemoteLanguageModel {
 
   }
 
+  private static class PendingRequest {
+    final Request request;
+    final SettableFuture<List<Double>> result;
+    final long timeoutMilliseconds;
+    PendingRequest(Request request, SettableFuture<List<Double>> result, long timeoutMilliseconds) {
+      this.request = request;
+      this.result = result;
+      this.timeoutMilliseconds = timeoutMilliseconds;
+    }
+  }
+
   public RemoteLanguageModel(String host, int port, boolean useSSL,
                              @Nullable String clientPrivateKey, @Nullable  String clientCertificate,
                              @Nullable String rootCertificate) throws SSLException {
+    this(host, port, useSSL, clientPrivateKey, clientCertificate, rootCertificate,
+      DEFAULT_MAX_BATCH_SIZE, DEFAULT_BATCH_DELAY_MILLIS, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_EXPIRE_SECONDS);
+  }
+
+  /**
+   * @param maxBatchSize maximum number of requests sent to the service at once
+   * @param batchDelayMillis how long to wait for more requests before sending a batch, 0 to send
+   *                         the requests of each {@link #batchScore(List, long)} call at once
+   * @param cacheSize maximum number of cached results, 0 to disable the cache
+   * @param cacheExpireSeconds time after which cached results are removed
+   * @since 5.4
+   */
+  public RemoteLanguageModel(String host, int port, boolean useSSL,
+                             @Nullable String clientPrivateKey, @Nullable  String clientCertificate,
+                             @Nullable String rootCertificate,
+                             int maxBatchSize, long batchDelayMillis, long cacheSize, long cacheExpireSeconds) throws SSLException {
     // TODO configure deadline/retries/... here?
-    channel = getChannel(host, port, useSSL, clientPrivateKey, clientCertificate, rootCertificate);
-    model = BertLmGrpc.newBlockingStub(channel);
+    this(getChannel(host, port, useSSL, clientPrivateKey, clientCertificate, rootCertificate),
+      maxBatchSize, batchDelayMillis, cacheSize, cacheExpireSeconds);
+  }
+
+  /**
+   * @param channel the channel to the service, e.g. an in-process channel for tests
+   * @since 5.4
+   */
+  public RemoteLanguageModel(ManagedChannel channel, int maxBatchSize, long batchDelayMillis, long cacheSize, long cacheExpireSeconds) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be >= 1: " + maxBatchSize);
+    }
+    if (batchDelayMillis < 0) {
+      throw new IllegalArgumentException("batchDelayMillis must be >= 0: " + batchDelayMillis);
+    }
+    this.channel = channel;
+    this.target = channel.authority();
+    this.model = BertLmGrpc.newBlockingStub(channel);
+    this.asyncModel = BertLmGrpc.newFutureStub(channel);
+    this.maxBatchSize = maxBatchSize;
+    this.batchDelayMillis = batchDelayMillis;
+    this.cache = CacheBuilder.newBuilder()
+      .maximumSize(cacheSize)
+      .expireAfterWrite(cacheExpireSeconds, TimeUnit.SECONDS)
+      .recordStats()
+      .build();
   }
 
-  private ManagedChannel getChannel(String host, int port, boolean useSSL,
+  private static ManagedChannel getChannel(String host, int port, boolean useSSL,
                     @Nullable String clientPrivateKey, @Nullable  String clientCertificate,
                     @Nullable String rootCertificate) throws SSLException {
     NettyChannelBuilder channelBuilder = NettyChannelBuilder.forAddress(host, port);
@@ -123,61 +224,163 @@ public class RemoteLanguageModel {
     }
   }
 
+  /**
+   * The cache of results, e.g. to monitor its hit rate.
+   * @since 5.4
+   */
+  public Cache<Request, List<Double>> getCache() {
+    return cache;
+  }
+
   public List<List<Double>> batchScore(List<Request> requests, long timeoutMilliseconds) throws TimeoutException {
-    Map<Request, List<Double>> cachedRequests = new HashMap<>();
-    List<Request> uncachedRequests = new ArrayList<>();
-    for (Request request : requests) {
-      List<Double> result = cache.getIfPresent(request);
-      if (result == null) {
-        uncachedRequests.add(request);
-      } else {
-        cachedRequests.put(request, result);
-      }
-    }
-    BatchScoreRequest batch = BatchScoreRequest.newBuilder().addAllRequests(
-      uncachedRequests.stream().map(Request::convert).collect(Collectors.toList())
-    ).build();
-    // TODO multiple masks
-    List<List<Double>> nonCacheResult;
+    ListenableFuture<List<List<Double>>> results = Futures.allAsList(scoreAsync(requests, timeoutMilliseconds));
     try {
-      BertLmBlockingStub stub;
       if (timeoutMilliseconds > 0) {
-        stub = model.withDeadlineAfter(timeoutMilliseconds, TimeUnit.MILLISECONDS);
+        return results.get(timeoutMilliseconds, TimeUnit.MILLISECONDS);
       } else {
-        stub = model;
+        return results.get();
       }
-      nonCacheResult = stub.batchScore(batch)
-        .getResponsesList().stream().map(r ->
-          r.getScoresList().get(0).getScoreList()).collect(Collectors.toList());
-    } catch (StatusRuntimeException e) {
-      if (e.getStatus().getCode() == Status.DEADLINE_EXCEEDED.getCode()) {
-        throw new TimeoutException(e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof StatusRuntimeException &&
+          ((StatusRuntimeException) cause).getStatus().getCode() == Status.DEADLINE_EXCEEDED.getCode()) {
+        throw new TimeoutException(cause.getMessage());
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
       } else {
-        throw e;
+        throw new RuntimeException(cause);
       }
     }
-    //
-    List<List<Double>> allResults = new ArrayList<>();
-    int i = 0;
-    for (Request request : requests) {
-      List<Double> result = cachedRequests.get(request);
-      if (result != null) {
-        //System.out.println("Adding result from cache");
-        allResults.add(result);
-      } else {
-        //System.out.println("Adding result from remote");
-        allResults.add(nonCacheResult.get(i++));
+  }
+
+  /**
+   * Get the scores of the candidates of each request, without blocking. The requests get merged
+   * with those of other calls into batch requests.
+   * @param timeoutMilliseconds deadline for the remote call, 0 for no deadline
+   * @return one future per request, with a score for each candidate
+   * @since 5.4
+   */
+  public List<ListenableFuture<List<Double>>> scoreAsync(List<Request> requests, long timeoutMilliseconds) {
+    List<ListenableFuture<List<Double>>> results = new ArrayList<>(requests.size());
+    List<List<PendingRequest>> fullBatches = new ArrayList<>();
+    synchronized (lock) {
+      for (Request request : requests) {
+        List<Double> cached = cache.getIfPresent(request);
+        if (cached != null) {
+          lookups.labels(target, "cache").inc();
+          results.add(Futures.immediateFuture(cached));
+          continue;
+        }
+        SettableFuture<List<Double>> existing = inFlight.get(request);
+        if (existing != null) {
+          lookups.labels(target, "in_flight").inc();
+          results.add(existing);
+          continue;
+        }
+        lookups.labels(target, "remote").inc();
+        SettableFuture<List<Double>> result = SettableFuture.create();
+        inFlight.put(request, result);
+        pending.add(new PendingRequest(request, result, timeoutMilliseconds));
+        results.add(result);
+        if (pending.size() >= maxBatchSize) {
+          fullBatches.add(takePending());
+        } else if (pending.size() == 1 && batchDelayMillis > 0) {
+          long scheduledBatch = batchNumber;
+          batchScheduler.schedule(() -> flush(scheduledBatch), batchDelayMillis, TimeUnit.MILLISECONDS);
+        }
+      }
+      if (batchDelayMillis == 0 && !pending.isEmpty()) {
+        fullBatches.add(takePending());
       }
     }
+    for (List<PendingRequest> batch : fullBatches) {
+      send(batch);
+    }
+    return results;
+  }
+
+  // guarded by lock
+  private List<PendingRequest> takePending() {
+    List<PendingRequest> batch = pending;
+    pending = new ArrayList<>();
+    batchNumber++;
+    return batch;
+  }
 
-    int j = 0;
-    for (List<Double> re : nonCacheResult) {
-      // a CacheLoader doesn't work with batching, so add manually:
-      //System.out.println("Adding request to cache");
-      cache.put(uncachedRequests.get(j), re);
-      j++;
+  private void flush(long scheduledBatch) {
+    List<PendingRequest> batch;
+    synchronized (lock) {
+      if (scheduledBatch != batchNumber || pending.isEmpty()) {
+        return;  // already sent because the batch was full
+      }
+      batch = takePending();
+    }
+    send(batch);
+  }
+
+  private void send(List<PendingRequest> batch) {
+    BatchScoreRequest batchRequest = BatchScoreRequest.newBuilder().addAllRequests(
+      batch.stream().map(r -> r.request.convert()).collect(Collectors.toList())
+    ).build();
+    // the batch may contain requests of several callers, use the longest deadline:
+    long timeoutMilliseconds = 0;
+    for (PendingRequest request : batch) {
+      if (request.timeoutMilliseconds <= 0) {
+        timeoutMilliseconds = 0;
+        break;
+      }
+      timeoutMilliseconds = Math.max(timeoutMilliseconds, request.timeoutMilliseconds);
+    }
+    BertLmGrpc.BertLmFutureStub stub = asyncModel;
+    if (timeoutMilliseconds > 0) {
+      stub = asyncModel.withDeadlineAfter(timeoutMilliseconds, TimeUnit.MILLISECONDS);
+    }
+    batchSize.labels(target).observe(batch.size());
+    long startTime = System.nanoTime();
+    ListenableFuture<BatchBertLmResponse> response;
+    try {
+      response = stub.batchScore(batchRequest);
+    } catch (RuntimeException e) {
+      fail(batch, e);
+      return;
+    }
+    Futures.addCallback(response, new FutureCallback<BatchBertLmResponse>() {
+      @Override
+      public void onSuccess(BatchBertLmResponse result) {
+        batchLatency.labels(target, "success").observe((System.nanoTime() - startTime) / 1e9);
+        if (result.getResponsesCount() != batch.size()) {
+          fail(batch, new IllegalStateException("Expected " + batch.size() + " responses from BERT service, got " + result.getResponsesCount()));
+          return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+          PendingRequest request = batch.get(i);
+          // TODO multiple masks
+          List<Double> scores = result.getResponses(i).getScoresList().get(0).getScoreList();
+          cache.put(request.request, scores);
+          synchronized (lock) {
+            inFlight.remove(request.request);
+          }
+          request.result.set(scores);
+        }
+      }
+      @Override
+      public void onFailure(Throwable t) {
+        batchLatency.labels(target, "error").observe((System.nanoTime() - startTime) / 1e9);
+        fail(batch, t);
+      }
+    }, MoreExecutors.directExecutor());
+  }
+
+  private void fail(List<PendingRequest> batch, Throwable t) {
+    for (PendingRequest request : batch) {
+      synchronized (lock) {
+        inFlight.remove(request.request);
+      }
+      request.result.setException(t);
     }
-    return allResults;
   }
 
   public List<Double> score(Request req) {
@@ -117,6 +117,16 @@ public abstract class AbstractSimpleReplaceRule extends Rule {
     return isCaseSensitive() ? word : word.toLowerCase(getLocale()); 
   }
 
+  /**
+   * @return a cue for the words from {@link #getWrongWords()}, as tokens or lemmas. Subclasses that
+   * find matches in another way need to overwrite this.
+   */
+  @Override
+  public List<RuleCue> getRequiredCues() {
+    Set<String> wrongWords = getWrongWords().keySet();
+    return Collections.singletonList(RuleCue.anyToken(wrongWords).or(RuleCue.anyLemma(wrongWords)));
+  }
+
   @Override
   public RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
     List<RuleMatch> ruleMatches = new ArrayList<>();
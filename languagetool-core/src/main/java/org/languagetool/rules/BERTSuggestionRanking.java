@@ -58,8 +58,17 @@ public class BERTSuggestionRanking extends RemoteRule {
       String key = serviceConfiguration.getOptions().get("clientKey");
       String cert = serviceConfiguration.getOptions().get("clientCertificate");
       String ca = serviceConfiguration.getOptions().get("rootCertificate");
+      Map<String, String> options = serviceConfiguration.getOptions();
+      int batchSize = Integer.parseInt(options.getOrDefault("batchSize",
+        String.valueOf(RemoteLanguageModel.DEFAULT_MAX_BATCH_SIZE)));
+      long batchDelay = Long.parseLong(options.getOrDefault("batchDelayMillis",
+        String.valueOf(RemoteLanguageModel.DEFAULT_BATCH_DELAY_MILLIS)));
+      long cacheSize = Long.parseLong(options.getOrDefault("cacheSize",
+        String.valueOf(RemoteLanguageModel.DEFAULT_CACHE_SIZE)));
+      long cacheExpire = Long.parseLong(options.getOrDefault("cacheExpireSeconds",
+        String.valueOf(RemoteLanguageModel.DEFAULT_CACHE_EXPIRE_SECONDS)));
       try {
-        return new RemoteLanguageModel(host, port, ssl, key, cert, ca);
+        return new RemoteLanguageModel(host, port, ssl, key, cert, ca, batchSize, batchDelay, cacheSize, cacheExpire);
       } catch (SSLException e) {
         throw new RuntimeException(e);
       }
@@ -19,9 +19,11 @@
 package org.languagetool.rules;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.ResourceBundle;
 
+import com.google.common.collect.ImmutableSet;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedTokenReadings;
 
@@ -52,6 +54,11 @@ public class DoublePunctuationRule extends Rule {
     return ",";
   }
 
+  @Override
+  public List<RuleCue> getRequiredCues() {
+    return Collections.singletonList(RuleCue.anyToken(ImmutableSet.of(".", getCommaCharacter())));
+  }
+
   @Override
   public final RuleMatch[] match(AnalyzedSentence sentence) {
     List<RuleMatch> ruleMatches = new ArrayList<>();
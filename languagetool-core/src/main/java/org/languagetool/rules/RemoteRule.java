@@ -33,7 +33,7 @@ import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 /**
  * @since 4.9
@@ -42,25 +42,31 @@ public abstract class RemoteRule extends Rule {
   
   private static final Logger logger = LoggerFactory.getLogger(RemoteRule.class);
 
-  /* needs to be shared between rule instances because new instances may be created and discarded often
-     needs to be a map because 'static' and inheritance don't play nice in Java */
-  private static final ConcurrentMap<String, Long> lastFailure = new ConcurrentHashMap<>();
-  private static final ConcurrentMap<String, Long> timeoutIntervalStart = new ConcurrentHashMap<>();
-  private static final ConcurrentMap<String, AtomicInteger> consecutiveFailures = new ConcurrentHashMap<>();
-  private static final ConcurrentMap<String, AtomicLong> timeoutTotal = new ConcurrentHashMap<>();
-  private static final ConcurrentMap<String, ConcurrentLinkedQueue<Future>> runningTasks = new ConcurrentHashMap<>();
   private static final ThreadFactory threadFactory = new ThreadFactoryBuilder()
     .setNameFormat("remote-rule-pool-%d").setDaemon(true).build();
+  private static final int MAX_THREADS = 256;
+  private static final int MAX_QUEUED_REQUESTS = MAX_THREADS * 4;
 
   protected static final List<Runnable> shutdownRoutines = new LinkedList<>();
 
-  // needed to run callables with timeout
-  static final ExecutorService executor = Executors.newCachedThreadPool(threadFactory);
+  // runs the (usually blocking) requests; bounded, so that load spikes make requests wait in
+  // the queue instead of creating thousands of threads. If the queue is full, requests fall back
+  // to local results at once. Time spent in the queue doesn't count as the remote service's timeout.
+  static final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS,
+    60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(MAX_QUEUED_REQUESTS), threadFactory);
+  // completes requests that take too long, so no thread needs to wait for them
+  private static final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+    new ThreadFactoryBuilder().setNameFormat("remote-rule-timeout-%d").setDaemon(true).build());
+
+  static {
+    executor.allowCoreThreadTimeOut(true);
+  }
 
   protected final RemoteRuleConfig serviceConfiguration;
   protected final boolean inputLogging;
   private AnnotatedText annotatedText;
   protected final boolean filterMatches;
+  private final long hedgeAfterMilliseconds;
   protected final Language ruleLanguage;
 
   public RemoteRule(Language language, ResourceBundle messages, RemoteRuleConfig config, boolean inputLogging, @Nullable String ruleId) {
@@ -72,11 +78,7 @@ public abstract class RemoteRule extends Rule {
       ruleId = getId();
     }
     filterMatches = Boolean.parseBoolean(serviceConfiguration.getOptions().getOrDefault("filterMatches", "false"));
-    lastFailure.putIfAbsent(ruleId, 0L);
-    timeoutIntervalStart.putIfAbsent(ruleId, 0L);
-    timeoutTotal.putIfAbsent(ruleId, new AtomicLong());
-    consecutiveFailures.putIfAbsent(ruleId, new AtomicInteger());
-    runningTasks.putIfAbsent(ruleId, new ConcurrentLinkedQueue<>());
+    hedgeAfterMilliseconds = Long.parseLong(serviceConfiguration.getOptions().getOrDefault("hedgeAfterMilliseconds", "0"));
   }
 
   public RemoteRule(Language language, ResourceBundle messages, RemoteRuleConfig config, boolean inputLogging) {
@@ -87,6 +89,10 @@ public abstract class RemoteRule extends Rule {
     shutdownRoutines.forEach(Runnable::run);
   }
 
+  /**
+   * @deprecated use {@link #runAsync(List, Long, long)}, which doesn't need a thread to wait for the result
+   */
+  @Deprecated
   public FutureTask<RemoteRuleResult> run(List<AnalyzedSentence> sentences) {
     return run(sentences, null);
   }
@@ -120,111 +126,216 @@ public abstract class RemoteRule extends Rule {
    * @param sentences text to check
    * @param textSessionId ID for texts, should stay constant for a user session; used for A/B tests of experimental rules
    * @return Future with result
+   * @deprecated use {@link #runAsync(List, Long, long)}, which doesn't need a thread to wait for the result
    */
+  @Deprecated
   public FutureTask<RemoteRuleResult> run(List<AnalyzedSentence> sentences, @Nullable Long textSessionId) {
+    return new FutureTask<>(() -> runAsync(sentences, textSessionId, Long.MAX_VALUE, Runnable::run).get());
+  }
+
+  /**
+   * @param sentences text to check
+   * @param textSessionId ID for texts, should stay constant for a user session; used for A/B tests of experimental rules
+   * @param deadline time (as in {@link System#currentTimeMillis()}) after which the result isn't needed anymore,
+   *                 {@code Long.MAX_VALUE} for no deadline; requests are cut short so they don't run longer
+   * @return future with the result, completes with {@link #fallbackResults(RemoteRequest)} if the remote service fails
+   * @since 5.4
+   */
+  public CompletableFuture<RemoteRuleResult> runAsync(List<AnalyzedSentence> sentences, @Nullable Long textSessionId, long deadline) {
+    return runAsync(sentences, textSessionId, deadline, executor);
+  }
+
+  /**
+   * @param preprocessExecutor runs {@link #prepareRequest(List, Long)}
+   * @see #runAsync(List, Long, long)
+   * @since 5.4
+   */
+  public CompletableFuture<RemoteRuleResult> runAsync(List<AnalyzedSentence> sentences, @Nullable Long textSessionId, long deadline,
+                                                      Executor preprocessExecutor) {
     if (sentences.isEmpty()) {
-      return new FutureTask<>(() -> new RemoteRuleResult(false, true, Collections.emptyList(), sentences));
+      return CompletableFuture.completedFuture(new RemoteRuleResult(false, true, Collections.emptyList(), sentences));
+    }
+    long startTime = System.nanoTime();
+    long characters = sentences.stream().mapToInt(sentence -> sentence.getText().length()).sum();
+    String ruleId = getId();
+    RemoteRuleCircuitBreaker circuitBreaker = RemoteRuleCircuitBreaker.get(ruleId);
+    CompletableFuture<RemoteRequest> prepared;
+    try {
+      prepared = CompletableFuture.supplyAsync(() -> prepareRequest(sentences, textSessionId), preprocessExecutor);
+    } catch (RejectedExecutionException e) {
+      RemoteRuleMetrics.request(ruleId, 0, 0, characters, RemoteRuleMetrics.RequestResult.OVERLOADED);
+      return CompletableFuture.completedFuture(fallbackResults(prepareRequest(sentences, textSessionId)));
     }
-    return new FutureTask<>(() -> {
-      long startTime = System.nanoTime();
-      long characters = sentences.stream().mapToInt(sentence -> sentence.getText().length()).sum();
-      String ruleId = getId();
-      RemoteRequest req = prepareRequest(sentences, textSessionId);
-      RemoteRuleResult result;
-
-      if (consecutiveFailures.get(ruleId).get() >= serviceConfiguration.getFall()) {
-        long failureInterval = System.currentTimeMillis() - lastFailure.get(ruleId);
-        if (failureInterval < serviceConfiguration.getDownMilliseconds()) {
+    return prepared
+      .thenCompose(req -> {
+        if (!circuitBreaker.allowRequest(serviceConfiguration)) {
           RemoteRuleMetrics.request(ruleId, 0, 0, characters, RemoteRuleMetrics.RequestResult.DOWN);
-          result = fallbackResults(req);
-          return result;
+          return CompletableFuture.completedFuture(fallbackResults(req));
         }
+        return attempt(req, sentences, 0, deadline, startTime, characters, circuitBreaker);
+      });
+  }
+
+  private CompletableFuture<RemoteRuleResult> attempt(RemoteRequest req, List<AnalyzedSentence> sentences, int retry, long deadline,
+                                                      long startTime, long characters, RemoteRuleCircuitBreaker circuitBreaker) {
+    String ruleId = getId();
+    long timeout = serviceConfiguration.getBaseTimeoutMilliseconds() +
+      Math.round(characters * serviceConfiguration.getTimeoutPerCharacterMilliseconds());
+    if (deadline != Long.MAX_VALUE && deadline <= System.currentTimeMillis()) {
+      RemoteRuleMetrics.request(ruleId, retry, System.nanoTime() - startTime, characters, RemoteRuleMetrics.RequestResult.TIMEOUT);
+      circuitBreaker.recordInconclusive();
+      return CompletableFuture.completedFuture(fallbackResults(req));
+    }
+    CompletableFuture<RemoteRuleResult> request = hedgeAfterMilliseconds > 0 && (timeout <= 0 || hedgeAfterMilliseconds < timeout) ?
+      sendHedged(req, timeout, deadline) : send(req, timeout, deadline);
+    circuitBreaker.addRunningRequest(request);
+    return request.handle((result, e) -> {
+      circuitBreaker.removeRunningRequest(request);
+      if (e == null) {
+        if (result.isRemote()) { // don't reset failures if no remote call took place
+          circuitBreaker.recordSuccess();
+        } else {
+          circuitBreaker.recordInconclusive();
+        }
+        RemoteRuleMetrics.RequestResult requestResult = result.isRemote() ?
+          RemoteRuleMetrics.RequestResult.SUCCESS : RemoteRuleMetrics.RequestResult.SKIPPED;
+        RemoteRuleMetrics.request(ruleId, retry, System.nanoTime() - startTime, characters, requestResult);
+        return CompletableFuture.completedFuture(filterMatches ? filter(result, sentences) : result);
       }
-      if (System.nanoTime() - timeoutIntervalStart.get(ruleId) >
-          TimeUnit.MILLISECONDS.toNanos(serviceConfiguration.getTimeoutLimitIntervalMilliseconds())) {
-        System.out.printf("Resetting timeoutTotal; was %d%n", timeoutTotal.get(ruleId).intValue());
-        timeoutTotal.get(ruleId).set(0L);
-        timeoutIntervalStart.put(ruleId, System.nanoTime());
-      } else if (serviceConfiguration.getTimeoutLimitTotalMilliseconds() > 0L &&
-                 timeoutTotal.get(ruleId).get() > serviceConfiguration.getTimeoutLimitTotalMilliseconds()) {
-        System.out.printf("Down because of timeoutTotal; was %d%n", timeoutTotal.get(ruleId).intValue());
-        RemoteRuleMetrics.request(ruleId, 0, 0, characters, RemoteRuleMetrics.RequestResult.DOWN);
-        result = fallbackResults(req);
-        return result;
+      Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+      RemoteRuleMetrics.RequestResult status;
+      if (cause instanceof DeadlineReachedException || cause instanceof RejectedExecutionException) {
+        // the check of the text takes too long or this server is overloaded, that's not the fault of the remote service
+        status = cause instanceof DeadlineReachedException ?
+          RemoteRuleMetrics.RequestResult.TIMEOUT : RemoteRuleMetrics.RequestResult.OVERLOADED;
+        logger.debug("Not waiting for remote rule " + ruleId + ": " + cause.getMessage());
+        RemoteRuleMetrics.request(ruleId, retry, System.nanoTime() - startTime, characters, status);
+        circuitBreaker.recordInconclusive();
+        return CompletableFuture.completedFuture(fallbackResults(req));
       }
-      RemoteRuleMetrics.up(ruleId, true);
+      if (cause instanceof TimeoutException || cause instanceof InterruptedException || cause.getCause() instanceof TimeoutException) {
+        status = RemoteRuleMetrics.RequestResult.TIMEOUT;
+        logger.warn("Timed out while fetching results for remote rule " + ruleId + ", tried " + (retry + 1) + " times, timeout: " + timeout + "ms", cause);
+        circuitBreaker.recordTimeout(timeout);
+      } else if (cause instanceof CancellationException) {
+        status = RemoteRuleMetrics.RequestResult.INTERRUPTED;
+      } else {
+        status = RemoteRuleMetrics.RequestResult.ERROR;
+        logger.warn("Error while fetching results for remote rule " + ruleId + ", tried " + (retry + 1) + " times, timeout: " + timeout + "ms", cause);
+      }
+      RemoteRuleMetrics.request(ruleId, retry, System.nanoTime() - startTime, characters, status);
+      if (status != RemoteRuleMetrics.RequestResult.INTERRUPTED && retry < serviceConfiguration.getMaxRetries()) {
+        return attempt(req, sentences, retry + 1, deadline, startTime, characters, circuitBreaker);
+      }
+      if (status != RemoteRuleMetrics.RequestResult.INTERRUPTED) {
+        logger.warn("Fetching results for remote rule " + ruleId + " failed.");
+        circuitBreaker.recordFailure(serviceConfiguration);
+      } else {
+        circuitBreaker.recordInconclusive();
+      }
+      return CompletableFuture.completedFuture(fallbackResults(req));
+    }).thenCompose(future -> future);
+  }
 
-      for (int i = 0; i <= serviceConfiguration.getMaxRetries(); i++) {
-        long timeout = serviceConfiguration.getBaseTimeoutMilliseconds() +
-          Math.round(characters * serviceConfiguration.getTimeoutPerCharacterMilliseconds());
-        Callable<RemoteRuleResult> task = executeRequest(req, timeout);
-        Future<RemoteRuleResult> future = null;
-        try {
-          future = executor.submit(task);
-          runningTasks.get(ruleId).add(future);
-          if (timeout <= 0)  { // for debugging, disable timeout
-            result = future.get();
-          } else {
-            result = future.get(timeout, TimeUnit.MILLISECONDS);
-          }
-          future.cancel(true);
-
-          if (result.isRemote()) { // don't reset failures if no remote call took place
-            consecutiveFailures.get(ruleId).set(0);
-            RemoteRuleMetrics.failures(ruleId, 0);
-          }
-
-          RemoteRuleMetrics.RequestResult requestResult = result.isRemote() ?
-            RemoteRuleMetrics.RequestResult.SUCCESS : RemoteRuleMetrics.RequestResult.SKIPPED;
-          RemoteRuleMetrics.request(ruleId, i, System.nanoTime() - startTime, characters, requestResult);
-
-          if (filterMatches) {
-            List<RuleMatch> filteredMatches = new ArrayList<>();
-            for (AnalyzedSentence sentence : sentences) {
-              List<RuleMatch> sentenceMatches = result.matchesForSentence(sentence);
-              List<RuleMatch> filteredSentenceMatches = RemoteRuleFilters.filterMatches(
-                ruleLanguage, sentence, sentenceMatches);
-              filteredMatches.addAll(filteredSentenceMatches);
-            }
-            result = new RemoteRuleResult(result.isRemote(), result.isSuccess(), filteredMatches, sentences);
-          }
-
-          return result;
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
-          RemoteRuleMetrics.RequestResult status;
-          if (e instanceof TimeoutException || e instanceof InterruptedException ||
-            (e.getCause() != null && e.getCause() instanceof TimeoutException)) {
-            status = RemoteRuleMetrics.RequestResult.TIMEOUT;
-            logger.warn("Timed out while fetching results for remote rule " + ruleId + ", tried " + (i + 1) + " times, timeout: " + timeout + "ms" , e);
-            timeoutTotal.get(ruleId).addAndGet(timeout);
-          } else {
-            status = RemoteRuleMetrics.RequestResult.ERROR;
-            logger.warn("Error while fetching results for remote rule " + ruleId + ", tried " + (i + 1) + " times, timeout: " + timeout + "ms" , e);
-          }
-
-          RemoteRuleMetrics.request(ruleId, i, System.nanoTime() - startTime, characters, status);
-        } finally {
-          if (future != null) {
-            future.cancel(true);
-            runningTasks.get(ruleId).remove(future);
-          }
-        }
+  /**
+   * Send the request to the remote service. If there's no result after {@code hedgeAfterMilliseconds}
+   * (from the rule's options), the same request is sent again and the first result is used.
+   * This avoids waiting for single slow requests, e.g. when a server of the service is overloaded.
+   */
+  private CompletableFuture<RemoteRuleResult> sendHedged(RemoteRequest req, long timeout, long deadline) {
+    CompletableFuture<RemoteRuleResult> result = new CompletableFuture<>();
+    List<CompletableFuture<RemoteRuleResult>> requests = new CopyOnWriteArrayList<>();
+    AtomicInteger pending = new AtomicInteger(1);
+    BiConsumer<RemoteRuleResult, Throwable> onComplete = (res, e) -> {
+      if (e == null) {
+        result.complete(res);
+      } else if (pending.decrementAndGet() == 0) {
+        result.completeExceptionally(e);  // all requests failed
+      }
+    };
+    CompletableFuture<RemoteRuleResult> first = send(req, timeout, deadline);
+    requests.add(first);
+    first.whenComplete(onComplete);
+    ScheduledFuture<?> hedge = timeoutScheduler.schedule(() -> {
+      if (result.isDone() || pending.incrementAndGet() == 1) {
+        return;
       }
-      RemoteRuleMetrics.failures(ruleId, consecutiveFailures.get(ruleId).incrementAndGet());
-      logger.warn("Fetching results for remote rule " + ruleId + " failed.");
-      if (consecutiveFailures.get(ruleId).get() >= serviceConfiguration.getFall() ||
-          serviceConfiguration.getTimeoutLimitTotalMilliseconds() > 0 &&
-          timeoutTotal.get(ruleId).get() > serviceConfiguration.getTimeoutLimitTotalMilliseconds()) {
-        lastFailure.put(ruleId, System.currentTimeMillis());
-        logger.warn("Remote rule " + ruleId + " marked as DOWN.");
-        RemoteRuleMetrics.downtime(ruleId, serviceConfiguration.getDownMilliseconds());
-        RemoteRuleMetrics.up(ruleId, false);
-        System.out.printf("Aborting %d tasks.%n", runningTasks.get(ruleId).size());
-        runningTasks.get(ruleId).forEach(task -> task.cancel(true));
+      RemoteRuleMetrics.hedgedRequest(getId());
+      CompletableFuture<RemoteRuleResult> second = send(req, timeout <= 0 ? timeout : timeout - hedgeAfterMilliseconds, deadline);
+      requests.add(second);
+      second.whenComplete(onComplete);
+      if (result.isDone()) {
+        second.cancel(true);
       }
-      result = fallbackResults(req);
-      return result;
+    }, hedgeAfterMilliseconds, TimeUnit.MILLISECONDS);
+    result.whenComplete((res, e) -> {
+      hedge.cancel(false);
+      requests.forEach(request -> request.cancel(true));  // no effect on the request that has completed
     });
+    return result;
+  }
+
+  /**
+   * @param timeout the timeout for the remote service, starts when the request starts running in {@link #executor}
+   * @param deadline see {@link #runAsync(List, Long, long)}, includes the time waiting for a free thread
+   * @return future that completes with the result of {@link #executeRequest(RemoteRequest, long)}, with
+   * a {@link TimeoutException} (a {@link DeadlineReachedException} if the deadline was reached), or
+   * with a {@link RejectedExecutionException} if too many requests are waiting; cancelling it interrupts the request
+   */
+  private CompletableFuture<RemoteRuleResult> send(RemoteRequest req, long timeout, long deadline) {
+    RemoteCall call = new RemoteCall();
+    Callable<RemoteRuleResult> task;
+    try {
+      task = executeRequest(req, timeout);
+    } catch (Exception e) {
+      call.completeExceptionally(e);
+      return call;
+    }
+    try {
+      call.task = executor.submit(() -> {
+        if (call.isDone()) {
+          return;  // e.g. the deadline was reached while waiting for a thread
+        }
+        if (timeout > 0) {  // timeout <= 0 disables the timeout, for debugging
+          ScheduledFuture<?> timer = timeoutScheduler.schedule(() -> {
+            if (call.completeExceptionally(new TimeoutException("Remote rule " + getId() + " timed out after " + timeout + "ms"))) {
+              call.task.cancel(true);
+            }
+          }, timeout, TimeUnit.MILLISECONDS);
+          call.whenComplete((res, e) -> timer.cancel(false));
+        }
+        try {
+          call.complete(task.call());
+        } catch (Throwable e) {
+          call.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      call.completeExceptionally(e);
+      return call;
+    }
+    if (deadline != Long.MAX_VALUE) {
+      ScheduledFuture<?> deadlineTimer = timeoutScheduler.schedule(() -> {
+        if (call.completeExceptionally(new DeadlineReachedException("Deadline reached for remote rule " + getId()))) {
+          call.task.cancel(true);
+        }
+      }, Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+      call.whenComplete((res, e) -> deadlineTimer.cancel(false));
+    }
+    return call;
+  }
+
+  private RemoteRuleResult filter(RemoteRuleResult result, List<AnalyzedSentence> sentences) {
+    List<RuleMatch> filteredMatches = new ArrayList<>();
+    for (AnalyzedSentence sentence : sentences) {
+      List<RuleMatch> sentenceMatches = result.matchesForSentence(sentence);
+      try {
+        filteredMatches.addAll(RemoteRuleFilters.filterMatches(ruleLanguage, sentence, sentenceMatches));
+      } catch (ExecutionException | IOException e) {
+        throw new CompletionException(e);
+      }
+    }
+    return new RemoteRuleResult(result.isRemote(), result.isSuccess(), filteredMatches, sentences);
   }
 
   @Override
@@ -234,10 +345,9 @@ public abstract class RemoteRule extends Rule {
 
   @Override
   public RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
-    FutureTask<RemoteRuleResult> task = run(Collections.singletonList(sentence));
-    task.run();
     try {
-      return task.get().getMatches().toArray(new RuleMatch[0]);
+      return runAsync(Collections.singletonList(sentence), null, Long.MAX_VALUE, Runnable::run)
+        .get().getMatches().toArray(new RuleMatch[0]);
     } catch (InterruptedException | ExecutionException e) {
       logger.warn("Fetching results for remote rule " + getId() + " failed.", e);
       return new RuleMatch[0];
@@ -248,5 +358,30 @@ public abstract class RemoteRule extends Rule {
     return serviceConfiguration;
   }
 
+  /**
+   * The deadline of the check was reached, i.e. the remote service may have been waited for only shortly.
+   */
+  private static class DeadlineReachedException extends TimeoutException {
+    DeadlineReachedException(String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * A request running in {@link #executor}; cancelling interrupts it.
+   */
+  private static class RemoteCall extends CompletableFuture<RemoteRuleResult> {
+    private volatile Future<?> task;
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled && task != null) {
+        task.cancel(true);
+      }
+      return cancelled;
+    }
+  }
+
 
 }
@@ -0,0 +1,169 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the failures of a remote rule and decides whether requests are sent to the
+ * remote service at all. The rule is marked as down ({@link State#OPEN}) after {@link RemoteRuleConfig#getFall()}
+ * consecutive failures or when requests timed out for more than {@link RemoteRuleConfig#getTimeoutLimitTotalMilliseconds()}
+ * in the current interval. After {@link RemoteRuleConfig#getDownMilliseconds()}, a single trial request
+ * is sent ({@link State#HALF_OPEN}), all others still fall back; its success closes the circuit again,
+ * its failure opens it again.
+ * The state is exported as a metric, see {@link RemoteRuleMetrics#circuitState(String, State)}.
+ * @since 5.4
+ */
+class RemoteRuleCircuitBreaker {
+
+  private static final Logger logger = LoggerFactory.getLogger(RemoteRuleCircuitBreaker.class);
+
+  /* needs to be shared between rule instances because new instances may be created and discarded often */
+  private static final ConcurrentMap<String, RemoteRuleCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final String ruleId;
+  private final AtomicInteger consecutiveFailures = new AtomicInteger();
+  private final AtomicLong timeoutTotal = new AtomicLong();
+  private final Set<Future<?>> runningRequests = ConcurrentHashMap.newKeySet();
+  private volatile long lastFailure;
+  private volatile long timeoutIntervalStart;
+  private volatile State state;
+
+  static RemoteRuleCircuitBreaker get(String ruleId) {
+    return breakers.computeIfAbsent(ruleId, RemoteRuleCircuitBreaker::new);
+  }
+
+  private RemoteRuleCircuitBreaker(String ruleId) {
+    this.ruleId = ruleId;
+    setState(State.CLOSED);
+  }
+
+  /**
+   * @return whether a request may be sent to the remote service now
+   */
+  boolean allowRequest(RemoteRuleConfig config) {
+    if (consecutiveFailures.get() >= config.getFall() || state == State.OPEN) {
+      if (System.currentTimeMillis() - lastFailure < config.getDownMilliseconds()) {
+        return false;
+      }
+    }
+    long now = System.nanoTime();
+    if (now - timeoutIntervalStart > TimeUnit.MILLISECONDS.toNanos(config.getTimeoutLimitIntervalMilliseconds())) {
+      timeoutTotal.set(0L);
+      timeoutIntervalStart = now;
+    } else if (config.getTimeoutLimitTotalMilliseconds() > 0L && timeoutTotal.get() > config.getTimeoutLimitTotalMilliseconds()) {
+      logger.info("Remote rule {} is down because of timeouts: {}ms in current interval", ruleId, timeoutTotal.get());
+      setState(State.OPEN);
+      return false;
+    }
+    if (state != State.CLOSED && !startTrialRequest()) {
+      return false;
+    }
+    RemoteRuleMetrics.up(ruleId, true);
+    return true;
+  }
+
+  /**
+   * @return whether the caller may send the trial request, i.e. there's no trial request running
+   */
+  private synchronized boolean startTrialRequest() {
+    if (state == State.HALF_OPEN) {
+      return false;
+    }
+    if (state == State.OPEN) {
+      setState(State.HALF_OPEN);
+    }
+    return true;
+  }
+
+  /**
+   * Register a request that gets cancelled when the circuit opens, so requests that
+   * wait for a service that is down don't need to time out one by one.
+   */
+  void addRunningRequest(Future<?> request) {
+    runningRequests.add(request);
+  }
+
+  void removeRunningRequest(Future<?> request) {
+    runningRequests.remove(request);
+  }
+
+  void recordSuccess() {
+    consecutiveFailures.set(0);
+    RemoteRuleMetrics.failures(ruleId, 0);
+    setState(State.CLOSED);
+  }
+
+  void recordTimeout(long timeoutMilliseconds) {
+    timeoutTotal.addAndGet(timeoutMilliseconds);
+  }
+
+  /**
+   * Call after a request that neither succeeded nor failed (e.g. cancelled, or not sent to the
+   * remote service at all), so that a new trial request can be sent if it was the trial request.
+   */
+  synchronized void recordInconclusive() {
+    if (state == State.HALF_OPEN) {
+      setState(State.OPEN);
+    }
+  }
+
+  /**
+   * Call after a request failed even after all retries.
+   */
+  void recordFailure(RemoteRuleConfig config) {
+    int failures = consecutiveFailures.incrementAndGet();
+    RemoteRuleMetrics.failures(ruleId, failures);
+    if (failures >= config.getFall() || state == State.HALF_OPEN ||
+        config.getTimeoutLimitTotalMilliseconds() > 0 && timeoutTotal.get() > config.getTimeoutLimitTotalMilliseconds()) {
+      lastFailure = System.currentTimeMillis();
+      logger.warn("Remote rule " + ruleId + " marked as DOWN, aborting " + runningRequests.size() + " running requests.");
+      RemoteRuleMetrics.downtime(ruleId, config.getDownMilliseconds());
+      RemoteRuleMetrics.up(ruleId, false);
+      setState(State.OPEN);
+      for (Future<?> request : runningRequests) {
+        request.cancel(true);
+      }
+    }
+  }
+
+  State getState() {
+    return state;
+  }
+
+  private synchronized void setState(State state) {
+    if (this.state != state) {
+      this.state = state;
+      RemoteRuleMetrics.circuitState(ruleId, state);
+    }
+  }
+
+}
@@ -37,7 +37,8 @@ public final class RemoteRuleMetrics {
     TIMEOUT,
     INTERRUPTED,
     DOWN,
-    ERROR
+    ERROR,
+    OVERLOADED
   }
 
   // TODO: provide configuration as info?
@@ -84,6 +85,12 @@ public final class RemoteRuleMetrics {
   private static final Gauge up = Gauge.build("languagetool_remote_rule_up",
     "Status of remote rule").labelNames("rule_id").register();
 
+  private static final Gauge circuitState = Gauge.build("languagetool_remote_rule_circuit_state",
+    "Circuit breaker state of remote rule (0 = closed, 1 = open, 2 = half open)").labelNames("rule_id").register();
+
+  private static final Counter hedgedRequests = Counter.build("languagetool_remote_rule_hedged_requests_total",
+    "Amount of additional requests sent because the first one was slow").labelNames("rule_id").register();
+
   public static void request(String rule, int numRetries, long nanoseconds, long characters, RequestResult result) {
     requestLatency.labels(rule, result.name().toLowerCase()).observe((double) nanoseconds / 1e9);
     requestThroughput.labels(rule, result.name().toLowerCase()).observe(characters);
@@ -106,4 +113,12 @@ public final class RemoteRuleMetrics {
     downtime.labels(rule).inc(milliseconds / 1000.0);
   }
 
+  static void circuitState(String rule, RemoteRuleCircuitBreaker.State state) {
+    circuitState.labels(rule).set(state.ordinal());
+  }
+
+  public static void hedgedRequest(String rule) {
+    hedgedRequests.labels(rule).inc();
+  }
+
 }
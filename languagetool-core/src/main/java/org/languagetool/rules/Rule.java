@@ -19,6 +19,7 @@
 package org.languagetool.rules;
 
 import com.google.common.base.Suppliers;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.*;
@@ -133,6 +134,19 @@ public abstract class Rule {
   public int estimateContextForSureMatch() {
     return 0;
   }
+
+  /**
+   * Overwrite this to declare what a sentence needs to contain for {@link #match(AnalyzedSentence)}
+   * to possibly find an error in it, e.g. the words the rule is about. The rule is then not
+   * run for sentences that don't satisfy all of the cues. The cues must not depend on
+   * anything that can change after the rule has been added to a {@link org.languagetool.JLanguageTool}.
+   * @return cues that a sentence needs to satisfy all of, by default none (i.e. the rule is run for every sentence)
+   * @since 5.4
+   */
+  @ApiStatus.Internal
+  public List<RuleCue> getRequiredCues() {
+    return Collections.emptyList();
+  }
     
   /**
    * Overwrite this to avoid false alarms by ignoring these patterns -
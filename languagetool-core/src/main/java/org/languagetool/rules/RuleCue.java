@@ -0,0 +1,140 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.AnalyzedTokenReadings;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Something a sentence needs to contain for a rule to possibly find an error in it, see
+ * {@link Rule#getRequiredCues()}: a token with one of the given texts, a reading with one of
+ * the given lemmas, or a reading whose POS tag starts with one of the given prefixes.
+ * Token texts and lemmas are found as they are or lowercased, so lowercase values match
+ * case-insensitively. POS tags are case-sensitive.
+ * @since 5.4
+ */
+@ApiStatus.Internal
+public final class RuleCue {
+
+  private final Set<String> tokens;
+  private final Set<String> lemmas;
+  private final Set<String> posTagPrefixes;
+
+  private RuleCue(Set<String> tokens, Set<String> lemmas, Set<String> posTagPrefixes) {
+    this.tokens = tokens;
+    this.lemmas = lemmas;
+    this.posTagPrefixes = posTagPrefixes;
+  }
+
+  /**
+   * @param tokens the token texts, the set is not copied
+   */
+  public static RuleCue anyToken(Set<String> tokens) {
+    return new RuleCue(tokens, Collections.emptySet(), Collections.emptySet());
+  }
+
+  /**
+   * @param lemmas the lemmas, the set is not copied
+   */
+  public static RuleCue anyLemma(Set<String> lemmas) {
+    return new RuleCue(Collections.emptySet(), lemmas, Collections.emptySet());
+  }
+
+  /**
+   * @param prefixes the POS tag prefixes, the set is not copied
+   */
+  public static RuleCue anyPosTagPrefix(Set<String> prefixes) {
+    return new RuleCue(Collections.emptySet(), Collections.emptySet(), prefixes);
+  }
+
+  /**
+   * @return a cue that is satisfied if this cue or the other one is satisfied
+   */
+  public RuleCue or(RuleCue other) {
+    return new RuleCue(union(tokens, other.tokens), union(lemmas, other.lemmas), union(posTagPrefixes, other.posTagPrefixes));
+  }
+
+  private static Set<String> union(Set<String> set1, Set<String> set2) {
+    if (set1.isEmpty()) return set2;
+    if (set2.isEmpty()) return set1;
+    Set<String> result = new HashSet<>(set1);
+    result.addAll(set2);
+    return Collections.unmodifiableSet(result);
+  }
+
+  public Set<String> getTokens() {
+    return tokens;
+  }
+
+  public Set<String> getLemmas() {
+    return lemmas;
+  }
+
+  public Set<String> getPosTagPrefixes() {
+    return posTagPrefixes;
+  }
+
+  /**
+   * @return whether the cue only depends on the token texts, which (unlike lemmas and POS tags) can't be
+   * changed by disambiguation
+   */
+  public boolean isTokenOnly() {
+    return lemmas.isEmpty() && posTagPrefixes.isEmpty();
+  }
+
+  public boolean isSatisfiedBy(AnalyzedSentence sentence) {
+    for (String prefix : posTagPrefixes) {
+      if (sentence.hasPosTagStartingWith(prefix)) {
+        return true;
+      }
+    }
+    if (tokens.isEmpty() && lemmas.isEmpty()) {
+      return false;
+    }
+    for (AnalyzedTokenReadings tokenReadings : sentence.getTokensWithoutWhitespaceNoCopy(false)) {
+      if (!tokens.isEmpty() && containsAsIsOrLowercased(tokens, tokenReadings.getToken())) {
+        return true;
+      }
+      if (!lemmas.isEmpty()) {
+        for (AnalyzedToken reading : tokenReadings) {
+          String lemma = reading.getLemma();
+          if (lemma != null && containsAsIsOrLowercased(lemmas, lemma)) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean containsAsIsOrLowercased(Set<String> set, String s) {
+    return set.contains(s) || set.contains(s.toLowerCase());
+  }
+
+  @Override
+  public String toString() {
+    return "tokens=" + tokens + ", lemmas=" + lemmas + ", posTagPrefixes=" + posTagPrefixes;
+  }
+}
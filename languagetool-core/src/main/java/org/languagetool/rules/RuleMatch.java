@@ -21,6 +21,7 @@ package org.languagetool.rules;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
@@ -415,7 +416,33 @@ public class RuleMatch implements Comparable<RuleMatch> {
    */
   public void setLazySuggestedReplacements(@NotNull Supplier<List<SuggestedReplacement>> replacements) {
     Objects.requireNonNull(replacements, "replacements may not be null");
-    suggestedReplacements = Suppliers.memoize(replacements::get);
+    suggestedReplacements = new LazySuggestions(replacements);
+  }
+
+  /**
+   * @return {@code false} if the suggestions were set with {@link #setLazySuggestedReplacements(Supplier)}
+   * and haven't been computed yet, i.e. if getting them may be expensive
+   * @since 5.4
+   */
+  @ApiStatus.Internal
+  public boolean hasComputedSuggestions() {
+    return !(suggestedReplacements instanceof LazySuggestions) || ((LazySuggestions) suggestedReplacements).isComputed();
+  }
+
+  /**
+   * Run {@code callback} once the suggestions have been computed: at once if {@link #hasComputedSuggestions()},
+   * otherwise in the thread that computes them (e.g. for a copy of this match that shares them),
+   * right after computing them. The callback isn't run if the suggestions are never computed.
+   * @since 5.4
+   */
+  @ApiStatus.Internal
+  public void whenSuggestionsComputed(Runnable callback) {
+    Supplier<List<SuggestedReplacement>> replacements = suggestedReplacements;
+    if (replacements instanceof LazySuggestions) {
+      ((LazySuggestions) replacements).whenComputed(callback);
+    } else {
+      callback.run();
+    }
   }
 
   /**
@@ -527,6 +554,53 @@ public class RuleMatch implements Comparable<RuleMatch> {
     Other
   }
 
+  private static class LazySuggestions implements Supplier<List<SuggestedReplacement>> {
+    private final Supplier<List<SuggestedReplacement>> memoized;
+    private volatile boolean computed;
+    private List<Runnable> callbacks;  // guarded by this, see whenComputed()
+
+    LazySuggestions(Supplier<List<SuggestedReplacement>> supplier) {
+      memoized = Suppliers.memoize(supplier::get);
+    }
+
+    @Override
+    public List<SuggestedReplacement> get() {
+      List<SuggestedReplacement> result = memoized.get();
+      if (!computed) {
+        List<Runnable> toRun;
+        synchronized (this) {
+          if (computed) {
+            return result;
+          }
+          computed = true;
+          toRun = callbacks;
+          callbacks = null;
+        }
+        if (toRun != null) {
+          toRun.forEach(Runnable::run);
+        }
+      }
+      return result;
+    }
+
+    boolean isComputed() {
+      return computed;
+    }
+
+    void whenComputed(Runnable callback) {
+      synchronized (this) {
+        if (!computed) {
+          if (callbacks == null) {
+            callbacks = new ArrayList<>(1);
+          }
+          callbacks.add(callback);
+          return;
+        }
+      }
+      callback.run();
+    }
+  }
+
   static class PatternPosition extends MatchPosition {
     PatternPosition(int start, int end) {
       super(start, end);
@@ -20,9 +20,11 @@
 package org.languagetool.rules;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.ResourceBundle;
 
+import com.google.common.collect.ImmutableSet;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.tools.StringTools;
@@ -57,6 +59,11 @@ public class WhitespaceBeforePunctuationRule extends Rule {
     return messages.getString("desc_whitespace_before_punctuation");
   }
 
+  @Override
+  public List<RuleCue> getRequiredCues() {
+    return Collections.singletonList(RuleCue.anyToken(ImmutableSet.of(":", ";", "%")));
+  }
+
   @Override
   public final RuleMatch[] match(AnalyzedSentence sentence) {
     List<RuleMatch> ruleMatches = new ArrayList<>();
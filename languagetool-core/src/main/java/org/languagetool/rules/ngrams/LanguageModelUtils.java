@@ -136,18 +136,21 @@ public final class LanguageModelUtils {
     Probability ngram3Right;
     if (newTokens.size() == 1) {
       List<String> leftContext = getContext(token, tokens, term, 0, 2);
-      ngram3Left = lm.getPseudoProbability(leftContext);
-      logger.trace(String.format("Left  : %.90f %s\n", ngram3Left.getProb(), Arrays.asList(leftContext)));
       List<String> middleContext = getContext(token, tokens, term, 1, 1);
-      ngram3Middle = lm.getPseudoProbability(middleContext);
-      logger.trace(String.format("Middle: %.90f %s\n", ngram3Middle.getProb(), Arrays.asList(middleContext)));
       List<String> rightContext = getContext(token, tokens, term, 2, 0);
-      ngram3Right = lm.getPseudoProbability(rightContext);
+      List<Probability> probs = lm.getPseudoProbabilities(Arrays.asList(leftContext, middleContext, rightContext));
+      ngram3Left = probs.get(0);
+      logger.trace(String.format("Left  : %.90f %s\n", ngram3Left.getProb(), Arrays.asList(leftContext)));
+      ngram3Middle = probs.get(1);
+      logger.trace(String.format("Middle: %.90f %s\n", ngram3Middle.getProb(), Arrays.asList(middleContext)));
+      ngram3Right = probs.get(2);
       logger.trace(String.format("Right : %.90f %s\n", ngram3Right.getProb(), Arrays.asList(rightContext)));
     } else if (newTokens.size() == 2) {
       // e.g. you're -> you 're
-      ngram3Left = lm.getPseudoProbability(getContext(token, tokens, newTokens, 0, 1));
-      ngram3Right = lm.getPseudoProbability(getContext(token, tokens, newTokens, 1, 0));
+      List<Probability> probs = lm.getPseudoProbabilities(Arrays.asList(
+        getContext(token, tokens, newTokens, 0, 1), getContext(token, tokens, newTokens, 1, 0)));
+      ngram3Left = probs.get(0);
+      ngram3Right = probs.get(1);
       // we cannot just use new Probability(1.0, 1.0f) as that would always produce higher
       // probabilities than in the case of one token (eg. "your"):
       ngram3Middle = new Probability((ngram3Left.getProb() + ngram3Right.getProb()) / 2, 1.0f);
@@ -172,15 +175,21 @@ public final class LanguageModelUtils {
     Probability ngram4Left, ngram4MiddleLeft, ngram4MiddleRight, ngram4Right;
 
     if (newTokens.size() == 1) {
-      ngram4Left = lm.getPseudoProbability(getContext(token, tokens, newTokens, 0, 3));
-      ngram4MiddleLeft = lm.getPseudoProbability(getContext(token, tokens, newTokens, 2, 1));
-      ngram4MiddleRight = lm.getPseudoProbability(getContext(token, tokens, newTokens, 1, 2));
-      ngram4Right = lm.getPseudoProbability(getContext(token, tokens, newTokens, 3, 0));
+      List<Probability> probs = lm.getPseudoProbabilities(Arrays.asList(
+        getContext(token, tokens, newTokens, 0, 3), getContext(token, tokens, newTokens, 2, 1),
+        getContext(token, tokens, newTokens, 1, 2), getContext(token, tokens, newTokens, 3, 0)));
+      ngram4Left = probs.get(0);
+      ngram4MiddleLeft = probs.get(1);
+      ngram4MiddleRight = probs.get(2);
+      ngram4Right = probs.get(3);
     } else if (newTokens.size() == 2) {
-      ngram4Left = lm.getPseudoProbability(getContext(token, tokens, newTokens, 0, 2));
-      ngram4MiddleLeft = lm.getPseudoProbability(getContext(token, tokens, newTokens, 1, 1));
+      List<Probability> probs = lm.getPseudoProbabilities(Arrays.asList(
+        getContext(token, tokens, newTokens, 0, 2), getContext(token, tokens, newTokens, 1, 1),
+        getContext(token, tokens, newTokens, 2, 0)));
+      ngram4Left = probs.get(0);
+      ngram4MiddleLeft = probs.get(1);
       ngram4MiddleRight = ngram4MiddleLeft; // TODO: is this okay?
-      ngram4Right = lm.getPseudoProbability(getContext(token, tokens, newTokens, 2, 0));
+      ngram4Right = probs.get(2);
     } else {
       logger.warn("Words that consists of more than 2 tokens (according to Google tokenization) are not supported yet: " + term + " -> " + newTokens);
       return 0.0;
@@ -41,6 +41,8 @@ public abstract class AbstractPatternRulePerformer {
   private final List<PatternTokenMatcher> patternTokenMatchers;
   private final int patternSize;
   private final int minOccurCorrection;
+  // re-used for every start position and sentence, only valid while calling the MatchConsumer:
+  private final int[] tokenPositions;
 
   protected AbstractPatternRulePerformer(AbstractTokenBasedRule rule, Unifier unifier) {
     this.rule = Objects.requireNonNull(rule);
@@ -48,6 +50,7 @@ public abstract class AbstractPatternRulePerformer {
     patternTokenMatchers = createElementMatchers();
     patternSize = patternTokenMatchers.size();
     minOccurCorrection = getMinOccurrenceCorrection();
+    tokenPositions = new int[patternSize];
   }
 
   private List<PatternTokenMatcher> createElementMatchers() {
@@ -63,22 +66,32 @@ public abstract class AbstractPatternRulePerformer {
     AbstractTokenBasedRule.TokenHint anchor = rule.anchorHint;
     List<Integer> anchorIndices = anchor == null || isInterpretPosTagsPreDisambiguation() ? null : anchor.getPossibleIndices(sentence);
 
-    int[] tokenPositions = new int[patternTokenMatchers.size()];
     int limit = rule.isSentStart() ? 1 : Math.max(0, tokens.length - patternSize + 1) + minOccurCorrection;
     if (anchorIndices != null) {
       for (Integer anchorIndex : anchorIndices) {
         int i = anchorIndex - anchor.tokenIndex;
-        if (i >= 0 && i < limit) {
+        if (i >= 0 && i < limit && canMatchFrom(tokens, i)) {
           matchFrom(i, tokens, consumer, tokenPositions);
         }
       }
     } else {
       for (int i = 0; i < limit; i++) {
-        matchFrom(i, tokens, consumer, tokenPositions);
+        if (canMatchFrom(tokens, i)) {
+          matchFrom(i, tokens, consumer, tokenPositions);
+        }
       }
     }
   }
 
+  /**
+   * A fast check whether the pattern can match the tokens starting at {@code startIndex}.
+   * Used for performance optimization, {@code false} is only allowed if it can never match there.
+   * @since 5.4
+   */
+  protected boolean canMatchFrom(AnalyzedTokenReadings[] tokens, int startIndex) {
+    return true;
+  }
+
   private void matchFrom(int startIndex, AnalyzedTokenReadings[] tokens, MatchConsumer consumer, int[] tokenPositions) throws IOException {
     PatternTokenMatcher pTokenMatcher = null;
     int skipShiftTotal = 0;
@@ -21,7 +21,9 @@ package org.languagetool.rules.patterns;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
+import org.languagetool.rules.RuleCue;
 
 import java.util.*;
 
@@ -39,11 +41,16 @@ public abstract class AbstractTokenBasedRule extends AbstractPatternRule {
   @Nullable
   final TokenHint anchorHint;
 
+  // POS tag prefixes required by the pattern, only for patterns without token hints:
+  @Nullable
+  private final RuleCue[] posTagCues;
+
   protected AbstractTokenBasedRule(String id, String description, Language language, List<PatternToken> patternTokens, boolean getUnified) {
     super(id, description, language, patternTokens, getUnified);
 
     Set<TokenHint> tokenHints = new HashSet<>();
     TokenHint anchorHint = null;
+    Set<Set<String>> posTagPrefixes = new LinkedHashSet<>();
 
     boolean fixedOffset = true;
     for (int i = 0; i < patternTokens.size(); i++) {
@@ -55,6 +62,11 @@ public abstract class AbstractTokenBasedRule extends AbstractPatternRule {
         inflected = true;
         hints = token.calcLemmaHints();
       }
+      Set<String> posHints = token.calcPosTagPrefixHints();
+      // sentence start and end are in every sentence, so they're no useful cue:
+      if (posHints != null && !posHints.contains(JLanguageTool.SENTENCE_START_TAGNAME) && !posHints.contains(JLanguageTool.SENTENCE_END_TAGNAME)) {
+        posTagPrefixes.add(posHints);
+      }
       if (hints != null) {
         TokenHint hint = new TokenHint(inflected, hints, i);
         tokenHints.add(hint);
@@ -74,6 +86,32 @@ public abstract class AbstractTokenBasedRule extends AbstractPatternRule {
         .thenComparing(th -> -Arrays.stream(th.lowerCaseValues).mapToInt(String::length).min().orElse(0))
       ).toArray(TokenHint[]::new);
     this.anchorHint = anchorHint;
+    this.posTagCues = this.tokenHints != null || posTagPrefixes.isEmpty() ? null :
+      posTagPrefixes.stream().map(RuleCue::anyPosTagPrefix).toArray(RuleCue[]::new);
+  }
+
+  /**
+   * @return the cues from the pattern tokens: their possible texts or lemmas if known, otherwise
+   * the POS tag prefixes they require
+   */
+  @Override
+  public List<RuleCue> getRequiredCues() {
+    List<RuleCue> result = new ArrayList<>();
+    if (tokenHints != null) {
+      for (TokenHint hint : tokenHints) {
+        Set<String> values = new HashSet<>(Arrays.asList(hint.lowerCaseValues));
+        result.add(hint.inflected ? RuleCue.anyLemma(values) : RuleCue.anyToken(values));
+      }
+    }
+    if (posTagCues != null && !usesPreDisambiguationPosTags()) {
+      result.addAll(Arrays.asList(posTagCues));
+    }
+    return result;
+  }
+
+  // the POS tags of the pre-disambiguation tokens aren't known to the sentence's POS tag index
+  private boolean usesPreDisambiguationPosTags() {
+    return this instanceof PatternRule && ((PatternRule) this).isInterpretPosTagsPreDisambiguation();
   }
 
   /**
@@ -81,10 +119,18 @@ public abstract class AbstractTokenBasedRule extends AbstractPatternRule {
    * because it can never match. Used for performance optimization.
    */
   protected boolean canBeIgnoredFor(AnalyzedSentence sentence) {
-    if (tokenHints == null) return false;
-    for (TokenHint th : tokenHints) {
-      if (th.canBeIgnoredFor(sentence)) {
-        return true;
+    if (tokenHints != null) {
+      for (TokenHint th : tokenHints) {
+        if (th.canBeIgnoredFor(sentence)) {
+          return true;
+        }
+      }
+    }
+    if (posTagCues != null && !usesPreDisambiguationPosTags()) {
+      for (RuleCue cue : posTagCues) {
+        if (!cue.isSatisfiedBy(sentence)) {
+          return true;
+        }
       }
     }
     return false;
@@ -143,7 +189,7 @@ public abstract class AbstractTokenBasedRule extends AbstractPatternRule {
       return needMerge ? new ArrayList<>(new TreeSet<>(result)) : result;
     }
 
-    private boolean canBeIgnoredFor(AnalyzedSentence sentence) {
+    boolean canBeIgnoredFor(AnalyzedSentence sentence) {
       for (String hint : lowerCaseValues) {
         if (getHintIndices(sentence, hint) != null) {
           return false;
@@ -0,0 +1,142 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import java.util.*;
+
+/**
+ * Finds which of a fixed set of keywords occur in a text, with a single pass over the text
+ * (Aho-Corasick automaton). Matching is case-insensitive, characters are compared by
+ * {@link #fold(char)}.
+ * @since 5.4
+ */
+final class AhoCorasick {
+
+  // per state, the sorted characters of outgoing transitions and their target states:
+  private final char[][] transitionChars;
+  private final int[][] transitionTargets;
+  private final int[] failure;
+  private final int[][] outputs;
+  private final int keywordCount;
+
+  /**
+   * @param keywords the keywords, their indices in this list are reported by {@link #find}
+   */
+  AhoCorasick(List<String> keywords) {
+    keywordCount = keywords.size();
+    List<TreeMap<Character, Integer>> transitions = new ArrayList<>();
+    List<int[]> stateOutputs = new ArrayList<>();
+    transitions.add(new TreeMap<>());
+    stateOutputs.add(new int[0]);
+    for (int i = 0; i < keywords.size(); i++) {
+      int state = 0;
+      String keyword = keywords.get(i);
+      for (int j = 0; j < keyword.length(); j++) {
+        char c = fold(keyword.charAt(j));
+        Integer next = transitions.get(state).get(c);
+        if (next == null) {
+          next = transitions.size();
+          transitions.add(new TreeMap<>());
+          stateOutputs.add(new int[0]);
+          transitions.get(state).put(c, next);
+        }
+        state = next;
+      }
+      stateOutputs.set(state, append(stateOutputs.get(state), i));
+    }
+
+    int stateCount = transitions.size();
+    transitionChars = new char[stateCount][];
+    transitionTargets = new int[stateCount][];
+    for (int state = 0; state < stateCount; state++) {
+      TreeMap<Character, Integer> map = transitions.get(state);
+      transitionChars[state] = new char[map.size()];
+      transitionTargets[state] = new int[map.size()];
+      int i = 0;
+      for (Map.Entry<Character, Integer> entry : map.entrySet()) {
+        transitionChars[state][i] = entry.getKey();
+        transitionTargets[state][i] = entry.getValue();
+        i++;
+      }
+    }
+
+    // breadth-first, so the failure links and outputs of all shallower states are known:
+    failure = new int[stateCount];
+    Deque<Integer> queue = new ArrayDeque<>();
+    for (int child : transitionTargets[0]) {
+      queue.add(child);
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      for (int i = 0; i < transitionChars[state].length; i++) {
+        char c = transitionChars[state][i];
+        int child = transitionTargets[state][i];
+        int fallback = failure[state];
+        int target = next(fallback, c);
+        while (target < 0 && fallback != 0) {
+          fallback = failure[fallback];
+          target = next(fallback, c);
+        }
+        failure[child] = target < 0 ? 0 : target;
+        for (int keyword : stateOutputs.get(failure[child])) {
+          stateOutputs.set(child, append(stateOutputs.get(child), keyword));
+        }
+        queue.add(child);
+      }
+    }
+    outputs = stateOutputs.toArray(new int[0][]);
+  }
+
+  private int next(int state, char c) {
+    int i = Arrays.binarySearch(transitionChars[state], c);
+    return i < 0 ? -1 : transitionTargets[state][i];
+  }
+
+  private static int[] append(int[] array, int value) {
+    int[] result = Arrays.copyOf(array, array.length + 1);
+    result[array.length] = value;
+    return result;
+  }
+
+  static char fold(char c) {
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+  /**
+   * @return the indices of all keywords that occur in the given text
+   */
+  BitSet find(CharSequence text) {
+    BitSet found = new BitSet(keywordCount);
+    int state = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = fold(text.charAt(i));
+      int next = next(state, c);
+      while (next < 0 && state != 0) {
+        state = failure[state];
+        next = next(state, c);
+      }
+      state = next < 0 ? 0 : next;
+      for (int keyword : outputs[state]) {
+        found.set(keyword);
+      }
+    }
+    return found;
+  }
+
+}
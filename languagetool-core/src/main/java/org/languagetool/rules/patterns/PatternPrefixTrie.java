@@ -0,0 +1,276 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedTokenReadings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The fixed prefixes of all pattern rules, i.e. their first tokens as long as these always match
+ * exactly one token at a fixed offset, merged into one trie. Many rules start with the same tokens
+ * (e.g. a POS tag regex or a frequent word), so each node of the trie is tested only once per
+ * sentence and start position, no matter how many rules share it. {@link PatternRuleMatcher} only
+ * tries to match a rule at the positions where the node of its prefix matches. A node only tests
+ * what {@link PatternToken#isMatched} tests, i.e. whether a rule matches still needs the complete
+ * rule logic (exceptions, skipping, unification, and-groups, filters...), but it can't match
+ * at positions the prefix doesn't match.
+ * @since 5.4
+ */
+final class PatternPrefixTrie {
+
+  // longer prefixes don't help much, as few rules share them:
+  private static final int MAX_DEPTH = 3;
+
+  private static final ConcurrentMap<NodeKey, Node> nodes = new ConcurrentHashMap<>();
+  private static final AtomicInteger nodeCount = new AtomicInteger();
+  // results of the nodes for the sentences that are being checked in this thread, see acquireState():
+  private static final ThreadLocal<StateStack> sentenceStates = ThreadLocal.withInitial(StateStack::new);
+
+  private PatternPrefixTrie() {
+  }
+
+  /**
+   * @return the node for the fixed prefix of the given pattern, or {@code null} if the first token
+   * of the pattern doesn't always match exactly one token
+   */
+  @Nullable
+  static Node getNode(List<PatternToken> patternTokens) {
+    Node node = null;
+    for (int i = 0; i < Math.min(patternTokens.size(), MAX_DEPTH); i++) {
+      PatternToken token = patternTokens.get(i);
+      String matchKey = token.getMinOccurrence() == 1 && !token.hasOrGroup() ? token.getMatchKey() : null;
+      if (matchKey == null) {
+        break;
+      }
+      node = nodes.computeIfAbsent(new NodeKey(node, matchKey), key -> new Node(nodeCount.getAndIncrement(), key.parent, token));
+      if (token.getMaxOccurrence() != 1 || token.getSkipNext() != 0) {
+        break;  // the position of the next token isn't fixed
+      }
+    }
+    return node;
+  }
+
+  /**
+   * @return the number of nodes of all prefixes created so far
+   */
+  static int getNodeCount() {
+    return nodeCount.get();
+  }
+
+  static final class Node {
+
+    private final int id;
+    @Nullable
+    private final Node parent;
+    private final PatternToken patternToken;
+    private final int offset;
+
+    private Node(int id, @Nullable Node parent, PatternToken patternToken) {
+      this.id = id;
+      this.parent = parent;
+      this.patternToken = patternToken;
+      this.offset = parent == null ? 0 : parent.offset + 1;
+    }
+
+    /**
+     * @param state the state for {@code tokens}, see {@link #acquireState(AnalyzedSentence, boolean)}
+     * @return whether the prefix can match the tokens starting at {@code startIndex}
+     */
+    boolean matches(SentenceState state, AnalyzedTokenReadings[] tokens, int startIndex) {
+      if (startIndex >= tokens.length) {
+        return false;
+      }
+      long[] results = state.getResults(id);
+      int word = startIndex >> 6;
+      long bit = 1L << startIndex;
+      if ((results[word] & bit) == 0) {
+        results[word] |= bit;
+        if ((parent == null || parent.matches(state, tokens, startIndex)) && tokenMatches(tokens, startIndex + offset)) {
+          results[state.words + word] |= bit;
+        }
+      }
+      return (results[state.words + word] & bit) != 0;
+    }
+
+    private boolean tokenMatches(AnalyzedTokenReadings[] tokens, int index) {
+      if (index >= tokens.length) {
+        return false;
+      }
+      AnalyzedTokenReadings token = tokens[index];
+      for (int i = 0; i < token.getReadingsLength(); i++) {
+        if (patternToken.isMatched(token.getAnalyzedToken(i))) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      return (parent == null ? "" : parent + ", ") + patternToken;
+    }
+  }
+
+  private static final class NodeKey {
+
+    @Nullable
+    private final Node parent;
+    private final String matchKey;
+
+    private NodeKey(@Nullable Node parent, String matchKey) {
+      this.parent = parent;
+      this.matchKey = matchKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof NodeKey)) return false;
+      NodeKey other = (NodeKey) o;
+      return parent == other.parent && matchKey.equals(other.matchKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(parent == null ? -1 : parent.id, matchKey);
+    }
+  }
+
+  /**
+   * @param preDisambiguation whether the rule matches the tokens from before disambiguation ({@code raw_pos="yes"})
+   * @return the state to pass to {@link Node#matches}, valid until it's passed to {@link #releaseState}.
+   * Matching a rule can check other sentences in the same thread (e.g. a rule filter that checks its
+   * suggestions), so this can be called again before the state has been released: the nested call
+   * then gets a state of its own. Released states keep their results for the next rules that match
+   * the same tokens, i.e. all rules checking a sentence share them.
+   */
+  static SentenceState acquireState(AnalyzedSentence sentence, boolean preDisambiguation) {
+    // getTokensWithoutWhitespace() returns a new copy for every rule, so the sentence's own array is the key:
+    return sentenceStates.get().push(sentence.getTokensWithoutWhitespaceNoCopy(preDisambiguation));
+  }
+
+  /**
+   * @param state the state returned by the last call of {@link #acquireState} in this thread that hasn't been released yet
+   */
+  static void releaseState(SentenceState state) {
+    sentenceStates.get().pop(state);
+  }
+
+  /**
+   * The states of one thread, one level per nesting level of {@link #acquireState}.
+   */
+  private static final class StateStack {
+
+    private final List<Level> levels = new ArrayList<>();
+    private int depth;
+
+    private SentenceState push(AnalyzedTokenReadings[] tokens) {
+      if (depth == levels.size()) {
+        levels.add(new Level());
+      }
+      return levels.get(depth++).forTokens(tokens);
+    }
+
+    private void pop(SentenceState state) {
+      if (depth == 0 || !levels.get(depth - 1).contains(state)) {
+        throw new IllegalStateException("States must be released in the reverse order of acquiring them");
+      }
+      depth--;
+    }
+  }
+
+  /**
+   * Two states, so that rules with {@code raw_pos="yes"} between the other rules of a sentence
+   * don't throw away the results for the disambiguated tokens (and vice versa).
+   */
+  private static final class Level {
+
+    private final SentenceState first = new SentenceState();
+    private final SentenceState second = new SentenceState();
+    private SentenceState lastUsed = second;
+
+    private SentenceState forTokens(AnalyzedTokenReadings[] tokens) {
+      if (first.tokens == tokens) {
+        lastUsed = first;
+      } else if (second.tokens == tokens) {
+        lastUsed = second;
+      } else {
+        lastUsed = lastUsed == first ? second : first;
+        lastUsed.forTokens(tokens);
+      }
+      return lastUsed;
+    }
+
+    private boolean contains(SentenceState state) {
+      return state == first || state == second;
+    }
+  }
+
+  /**
+   * The results of the nodes per start position for one sentence, computed when they're first needed.
+   * The arrays are re-used for the next sentences, so there's no garbage per sentence.
+   */
+  static final class SentenceState {
+
+    private AnalyzedTokenReadings[] tokens;
+    private int words;
+    private int generation;
+    // per node: bits for the start positions that have been tested, then bits for those that match
+    private long[][] resultsByNode = new long[0][];
+    // per node: the generation (i.e. sentence) its results are for
+    private int[] generationByNode = new int[0];
+
+    private SentenceState forTokens(AnalyzedTokenReadings[] tokens) {
+      if (this.tokens != tokens) {
+        this.tokens = tokens;
+        this.words = (tokens.length + 63) >> 6;
+        generation++;
+      }
+      return this;
+    }
+
+    private long[] getResults(int nodeId) {
+      if (nodeId >= resultsByNode.length) {
+        int size = Math.max(nodeId + 1, nodeCount.get());
+        resultsByNode = Arrays.copyOf(resultsByNode, size);
+        generationByNode = Arrays.copyOf(generationByNode, size);
+      }
+      long[] results = resultsByNode[nodeId];
+      if (results == null || results.length < 2 * words) {
+        results = new long[2 * words];
+        resultsByNode[nodeId] = results;
+        generationByNode[nodeId] = generation;
+      } else if (generationByNode[nodeId] != generation) {
+        Arrays.fill(results, 0, 2 * words, 0L);
+        generationByNode[nodeId] = generation;
+      }
+      return results;
+    }
+  }
+
+}
@@ -18,6 +18,7 @@
  */
 package org.languagetool.rules.patterns;
 
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.JLanguageTool;
@@ -28,6 +29,7 @@ import org.languagetool.tools.StringTools;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -51,6 +53,13 @@ public class PatternRule extends AbstractTokenBasedRule {
   // Marks whether the rule is a member of a disjunctive set (in case of OR operation on phraserefs).
   private boolean isMemberOfDisjunctiveSet;
 
+  // created lazily, as the pattern tokens may still be modified after the rule has been created:
+  private volatile Optional<PatternPrefixTrie.Node> prefixNode;
+
+  // a matcher not used by any thread, re-used so matching a sentence doesn't need to create a new one
+  // (and with it the token matchers and the unifier); threads that find none create their own:
+  private final AtomicReference<PatternRuleMatcher> idleMatcher = new AtomicReference<>();
+
   /**
    * @param id Id of the Rule. Used in configuration. Should not contain special characters and should
    *        be stable over time, unless the rule changes completely.
@@ -210,8 +219,29 @@ public class PatternRule extends AbstractTokenBasedRule {
   public final RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
     if (canBeIgnoredFor(sentence)) return RuleMatch.EMPTY_ARRAY;
 
+    PatternRuleMatcher matcher = idleMatcher.getAndSet(null);
+    if (matcher == null) {
+      matcher = new PatternRuleMatcher(this, useList);
+    }
+    try {
+      return match(sentence, matcher);
+    } finally {
+      idleMatcher.set(matcher);
+    }
+  }
+
+  /**
+   * Like {@link #match(AnalyzedSentence)}, but tries to match at every position,
+   * to test that the {@link PatternPrefixTrie} doesn't change the result.
+   */
+  RuleMatch[] matchWithoutPrefixTrie(AnalyzedSentence sentence) throws IOException {
+    if (canBeIgnoredFor(sentence)) return RuleMatch.EMPTY_ARRAY;
+
+    return match(sentence, new PatternRuleMatcher(this, useList, false));
+  }
+
+  private RuleMatch[] match(AnalyzedSentence sentence, RuleMatcher matcher) throws IOException {
     try {
-      RuleMatcher matcher = new PatternRuleMatcher(this, useList);
       return checkForAntiPatterns(sentence, matcher, matcher.match(sentence));
     } catch (IOException e) {
       throw new IOException("Error analyzing sentence: '" + sentence + "'", e);
@@ -234,6 +264,20 @@ public class PatternRule extends AbstractTokenBasedRule {
     return elementNo;
   }
 
+  /**
+   * @return the node in the {@link PatternPrefixTrie} for the beginning of this rule's pattern,
+   * or {@code null} if the pattern has no fixed beginning
+   */
+  @Nullable
+  PatternPrefixTrie.Node getPrefixNode() {
+    Optional<PatternPrefixTrie.Node> node = prefixNode;
+    if (node == null) {
+      node = Optional.ofNullable(PatternPrefixTrie.getNode(patternTokens));
+      prefixNode = node;
+    }
+    return node.orElse(null);
+  }
+
   /* (non-Javadoc)
    * @see org.languagetool.rules.patterns.AbstractPatternRule#getShortMessage()
    */
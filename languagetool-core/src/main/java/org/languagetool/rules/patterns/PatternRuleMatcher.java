@@ -34,13 +34,15 @@ import java.util.regex.Pattern;
 //import org.slf4j.LoggerFactory;
 
 /**
- * Matches a pattern rule against text.
+ * Matches a pattern rule against text. Not thread-safe, but can be re-used
+ * for any number of sentences (see {@link PatternRule#match(AnalyzedSentence)}).
  */
 final public class PatternRuleMatcher extends AbstractPatternRulePerformer implements RuleMatcher {
 
   public static final String MISTAKE = "<mistake/>";
 
   private static final Map<String,Integer> currentlyActiveRules = new ConcurrentHashMap<>();
+  private static final RuleMatchFilter maxFilter = new RuleWithMaxFilter();
 
   //private static final Logger logger = LoggerFactory.getLogger(PatternRuleMatcher.class);
   private static final String SUGGESTION_START_TAG = "<suggestion>";
@@ -53,12 +55,30 @@ final public class PatternRuleMatcher extends AbstractPatternRulePerformer imple
           + SUGGESTION_END_TAG);
 
   private final boolean useList;
+  @Nullable
+  private final PatternPrefixTrie.Node prefix;
+  private PatternPrefixTrie.SentenceState prefixState;
+  // the state of the current match() call, this matcher is re-used for the next sentences:
+  private final List<RuleMatch> ruleMatches = new ArrayList<>();
+  private final MatchConsumer matchConsumer = this::addRuleMatch;
+  private AnalyzedSentence currentSentence;
+  private AnalyzedTokenReadings[] currentTokens;
   //private final Integer slowMatchThreshold;
   private static final boolean monitorRules = System.getProperty("monitorActiveRules") != null;
+  private static final boolean usePrefixTrie = System.getProperty("disablePatternPrefixTrie") == null;
 
   PatternRuleMatcher(PatternRule rule, boolean useList) {
+    this(rule, useList, usePrefixTrie);
+  }
+
+  /**
+   * @param usePrefixTrie whether to only try to match at positions where the rule's prefix
+   *                      in the {@link PatternPrefixTrie} matches
+   */
+  PatternRuleMatcher(PatternRule rule, boolean useList, boolean usePrefixTrie) {
     super(rule, rule.getLanguage().getUnifier());
     this.useList = useList;
+    this.prefix = usePrefixTrie ? rule.getPrefixNode() : null;
     //String slowMatchThresholdStr = System.getProperty("slowMatchThreshold");
     //slowMatchThreshold = slowMatchThresholdStr != null ? Integer.parseInt(slowMatchThresholdStr) : null;
   }
@@ -70,7 +90,6 @@ final public class PatternRuleMatcher extends AbstractPatternRulePerformer imple
   @Override
   public RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
 //    long startTime = System.currentTimeMillis();
-    List<RuleMatch> ruleMatches = new ArrayList<>();
     String key = monitorRules ? rule.getFullId() + ": " + sentence.getText() : null;
     if (key != null) {
       currentlyActiveRules.compute(key, (k, v) -> v == null ? 1 : v + 1);
@@ -79,13 +98,15 @@ final public class PatternRuleMatcher extends AbstractPatternRulePerformer imple
       AnalyzedTokenReadings[] tokens = isInterpretPosTagsPreDisambiguation()
                                        ? sentence.getPreDisambigTokensWithoutWhitespace()
                                        : sentence.getTokensWithoutWhitespace();
-      doMatch(sentence, tokens, (tokenPositions, firstMatchToken, lastMatchToken, firstMarkerMatchToken, lastMarkerMatchToken) -> {
-        RuleMatch ruleMatch = createRuleMatch(tokenPositions, tokens, firstMatchToken, lastMatchToken, firstMarkerMatchToken, lastMarkerMatchToken, sentence);
-        if (ruleMatch != null) {
-          ruleMatches.add(ruleMatch);
-        }
-      });
-      RuleMatchFilter maxFilter = new RuleWithMaxFilter();
+      if (prefix != null) {
+        prefixState = PatternPrefixTrie.acquireState(sentence, isInterpretPosTagsPreDisambiguation());
+      }
+      currentSentence = sentence;
+      currentTokens = tokens;
+      doMatch(sentence, tokens, matchConsumer);
+      if (ruleMatches.isEmpty()) {
+        return RuleMatch.EMPTY_ARRAY;
+      }
       List<RuleMatch> filteredMatches = maxFilter.filter(ruleMatches);
       /*if (slowMatchThreshold != null) {
         long runTime = System.currentTimeMillis() - startTime;
@@ -95,12 +116,35 @@ final public class PatternRuleMatcher extends AbstractPatternRulePerformer imple
       }*/
       return filteredMatches.toArray(RuleMatch.EMPTY_ARRAY);
     } finally {
+      // don't keep the sentence in memory, this matcher may be re-used much later:
+      ruleMatches.clear();
+      currentSentence = null;
+      currentTokens = null;
+      if (prefixState != null) {
+        PatternPrefixTrie.releaseState(prefixState);
+        prefixState = null;
+      }
       if (key != null) {
         currentlyActiveRules.computeIfPresent(key, (k, v) -> v - 1 > 0 ? v - 1 : null);
       }
     }
   }
 
+  private void addRuleMatch(int[] tokenPositions, int firstMatchToken, int lastMatchToken, int firstMarkerMatchToken, int lastMarkerMatchToken) throws IOException {
+    RuleMatch ruleMatch = createRuleMatch(tokenPositions, currentTokens, firstMatchToken, lastMatchToken, firstMarkerMatchToken, lastMarkerMatchToken, currentSentence);
+    if (ruleMatch != null) {
+      ruleMatches.add(ruleMatch);
+    }
+  }
+
+  @Override
+  protected boolean canMatchFrom(AnalyzedTokenReadings[] tokens, int startIndex) {
+    if (prefix == null) {
+      return true;
+    }
+    return prefix.matches(prefixState, tokens, startIndex);
+  }
+
   @Override
   protected boolean testAllReadings(AnalyzedTokenReadings[] tokens, PatternTokenMatcher matcher, PatternTokenMatcher prevElement, int tokenNo, int firstMatchToken, int prevSkipNext) throws IOException {
     if (tokens[tokenNo].isImmunized()) return false;
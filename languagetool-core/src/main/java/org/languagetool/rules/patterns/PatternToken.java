@@ -703,6 +703,52 @@ public class PatternToken implements Cloneable {
     return calcStringHints(true);
   }
 
+  /**
+   * @return prefixes one of which the POS tag of a reading needs to start with for this token pattern
+   * to accept it, or {@code null} if there's no such requirement or it's unknown.
+   * This is used internally for performance optimizations.
+   */
+  @Nullable
+  Set<String> calcPosTagPrefixHints() {
+    if (mayBeOmitted) return null;
+    Set<String> result = calcOwnPosTagPrefixes();
+    List<PatternToken> andGroupList = rareFields == null ? null : rareFields.andGroupList;
+    List<PatternToken> orGroupList = rareFields == null ? null : rareFields.orGroupList;
+    if (result == null && andGroupList != null) {
+      for (PatternToken token : andGroupList) {
+        result = token.calcOwnPosTagPrefixes();
+        if (result != null) break;
+      }
+    } else if (result != null && orGroupList != null) {
+      result = new HashSet<>(result);
+      for (PatternToken token : orGroupList) {
+        Set<String> prefixes = token.calcOwnPosTagPrefixes();
+        if (prefixes == null) return null;
+        result.addAll(prefixes);
+      }
+    }
+    return result;
+  }
+
+  @Nullable
+  private Set<String> calcOwnPosTagPrefixes() {
+    PosToken pos = posToken;
+    // the POS tag of a reference element can be replaced when matching:
+    if (isReferenceElement() || pos == null || pos.posTag == null || pos.negation || pos.posUnknown) {
+      return null;
+    }
+    if (pos.posPattern == null) {
+      return Collections.singleton(pos.posTag);
+    }
+    // every possible value is also a prefix of the tags the pattern accepts:
+    Set<String> values = pos.posPattern.getPossibleValues();
+    if (values != null) {
+      return values.contains("") ? null : values;
+    }
+    Substrings substrings = StringMatcher.getRequiredSubstrings(pos.posTag);
+    return substrings != null && substrings.mustStart ? Collections.singleton(substrings.substrings[0]) : null;
+  }
+
   private Set<String> calcStringHints(boolean inflected) {
     Set<String> result = inflected != this.inflected ? null : calcOwnPossibleStringValues();
     if (result == null) return null;
@@ -744,6 +790,35 @@ public class PatternToken implements Cloneable {
     return !isReferenceElement() && !mayBeOmitted && !getString().isEmpty();
   }
 
+  /**
+   * @return a key that is the same for all pattern tokens whose {@link #isMatched(AnalyzedToken)} accepts
+   * the same tokens (exceptions, and-groups etc. are not considered), or {@code null} if this token
+   * refers to another token, i.e. if what it accepts depends on the text.
+   * This is used internally for performance optimizations.
+   */
+  @Nullable
+  String getMatchKey() {
+    if (isReferenceElement()) {
+      return null;
+    }
+    StringBuilder sb = new StringBuilder();
+    sb.append(testWhitespace ? (whitespaceBefore ? 'W' : 'w') : '-');
+    sb.append(negation ? '!' : '=');
+    if (testString) {
+      sb.append(inflected ? 'L' : 'T');
+      sb.append(textMatcher.isRegExp ? 'r' : 's');
+      sb.append(textMatcher.caseSensitive ? 'c' : 'i');
+      sb.append(textMatcher.pattern);
+    }
+    sb.append('\u0000');
+    if (posToken != null && posToken.posTag != null) {
+      sb.append(posToken.negation ? '!' : '=');
+      sb.append(posToken.posPattern != null ? 'r' : 's');
+      sb.append(posToken.posTag);
+    }
+    return sb.toString();
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
@@ -49,6 +49,7 @@ public class PatternTokenMatcher {
         PatternTokenMatcher matcher = new PatternTokenMatcher(el);
         andGroup.add(matcher);
       }
+      andGroupCheck = new boolean[patternTokenAndGroup.size() + 1];
     }
   }
 
@@ -85,7 +86,6 @@ public class PatternTokenMatcher {
       for (PatternTokenMatcher andMatcher : andGroup) {
         andMatcher.resolveReference(firstMatchToken, tokens, language);
       }
-      andGroupCheck = new boolean[patternToken.getAndGroup().size() + 1];
       Arrays.fill(andGroupCheck, false);
     }
   }
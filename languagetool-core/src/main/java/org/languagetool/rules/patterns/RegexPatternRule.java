@@ -53,7 +53,7 @@ public class RegexPatternRule extends AbstractPatternRule implements RuleMatcher
   private RegexRuleFilter regexFilter;
 
   @Nullable
-  private final Substrings requiredSubstrings;
+  final Substrings requiredSubstrings;
   private final boolean caseSensitive;
 
   public RegexPatternRule(String id, String description, String message, String shortMessage, String suggestionsOutMsg, Language language, Pattern regex, int regexpMark) {
@@ -19,10 +19,13 @@
 package org.languagetool.rules.patterns;
 
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleCue;
 
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * An object holding a set of rules with an optional possibility to fetch only the ones applicable for a given sentence
@@ -44,6 +47,25 @@ public abstract class RuleSet {
    */
   public abstract List<Rule> rulesForSentence(AnalyzedSentence sentence);
 
+  private volatile Map<String, Rule> rulesByFullId;
+
+  /**
+   * @return the rule from {@link #allRules} with the given {@link Rule#getFullId() full id}, or {@code null}
+   * @since 5.4
+   */
+  @Nullable
+  public Rule getRuleByFullId(String fullId) {
+    Map<String, Rule> map = rulesByFullId;
+    if (map == null) {
+      map = new HashMap<>();
+      for (Rule rule : allRules()) {
+        map.putIfAbsent(rule.getFullId(), rule);
+      }
+      rulesByFullId = map;
+    }
+    return map.get(fullId);
+  }
+
   /**
    * @return a simple RuleSet that returns all the rules from {@link #rulesForSentence}
    */
@@ -63,8 +85,8 @@ public abstract class RuleSet {
   }
 
   /**
-   * @return a RuleSet whose {@link #rulesForSentence} excludes rules requiring token texts or lemmas
-   * that don't occur in the given sentence
+   * @return a RuleSet whose {@link #rulesForSentence} excludes rules requiring token texts, lemmas
+   * or POS tags that don't occur in the given sentence, see {@link Rule#getRequiredCues()}
    */
   public static RuleSet textLemmaHinted(List<? extends Rule> rules) {
     return hinted(rules, true);
@@ -72,65 +94,303 @@ public abstract class RuleSet {
 
   /**
    * @return a RuleSet whose {@link #rulesForSentence} excludes rules requiring token texts
-   * that don't occur in the given sentence.
+   * that don't occur in the given sentence. Lemmas and POS tags aren't considered, as they can
+   * be changed by the rules, e.g. by disambiguation rules.
    */
   public static RuleSet textHinted(List<? extends Rule> rules) {
     return hinted(rules, false);
   }
 
+  /**
+   * @param sharedRuleSet a RuleSet created by {@link #textLemmaHinted(List)} for a super set of the given rules,
+   *                      e.g. for all pattern rules of a language
+   * @return a RuleSet that behaves like {@link #textLemmaHinted(List)}, but re-uses the index of {@code sharedRuleSet}
+   * for all rules the two sets have in common (compared by identity), so creating it is cheap and the index is kept
+   * in memory only once, no matter how many RuleSets share it
+   * @since 5.4
+   */
+  public static RuleSet textLemmaHinted(List<? extends Rule> rules, RuleSet sharedRuleSet) {
+    if (sharedRuleSet instanceof HintedRuleSet && ((HintedRuleSet) sharedRuleSet).withLemmaHints) {
+      return new SharedHintedRuleSet((HintedRuleSet) sharedRuleSet, rules);
+    }
+    return textLemmaHinted(rules);
+  }
+
+  // reused by rulesForSentence, which copies the result into a new list before returning:
+  private static final ThreadLocal<BitSet[]> SCRATCH = ThreadLocal.withInitial(() -> new BitSet[]{new BitSet(), new BitSet(), new BitSet()});
+
   private static RuleSet hinted(List<? extends Rule> rules, boolean withLemmaHints) {
-    List<Rule> allRules = Collections.unmodifiableList(rules);
-    Map<String, BitSet> byToken = new HashMap<>();
-    Map<String, BitSet> byLemma = new HashMap<>();
-    BitSet unclassified = new BitSet();
-    for (int i = 0; i < allRules.size(); i++) {
-      Rule rule = allRules.get(i);
-      boolean classified = false;
-      if (rule instanceof AbstractTokenBasedRule) {
-        AbstractTokenBasedRule.TokenHint[] tokenHints = ((AbstractTokenBasedRule) rule).tokenHints;
-        AbstractTokenBasedRule.TokenHint firstHint =
-          tokenHints == null ? null :
-          withLemmaHints ? tokenHints[0] :
-          Arrays.stream(tokenHints).filter(th -> !th.inflected).findFirst().orElse(null);
-        if (firstHint != null) {
-          classified = true;
-          Map<String, BitSet> map = firstHint.inflected ? byLemma : byToken;
-          for (String hint : firstHint.lowerCaseValues) {
-            map.computeIfAbsent(hint, __ -> new BitSet()).set(i);
+    return new HintedRuleSet(rules, withLemmaHints);
+  }
+
+  private static class HintedRuleSet extends RuleSet {
+
+    private final List<Rule> allRules;
+    private final boolean withLemmaHints;
+    private final Map<String, BitSet> byToken = new HashMap<>();
+    private final Map<String, BitSet> byLemma = new HashMap<>();
+    private final Map<String, BitSet> byPosTagPrefix = new HashMap<>();
+    private final BitSet unclassified = new BitSet();
+    // rules classified by their cues, with the cues that have to be checked per sentence, indexed by rule:
+    private final BitSet checkedByCues = new BitSet();
+    private final RuleCue[][] cuesToCheck;
+    // further hints of token-based rules that all have to be satisfied, indexed by rule:
+    private final Map<Integer, AbstractTokenBasedRule.TokenHint[]> additionalHints = new HashMap<>();
+    // substrings that regex rules require in the sentence text:
+    private final Map<Integer, BitSet> byKeyword = new HashMap<>();
+    private final Map<Integer, int[]> requiredKeywords = new HashMap<>();
+    private final AhoCorasick keywordFinder;
+
+    HintedRuleSet(List<? extends Rule> rules, boolean withLemmaHints) {
+      this.allRules = Collections.unmodifiableList(rules);
+      this.withLemmaHints = withLemmaHints;
+      List<String> keywords = new ArrayList<>();
+      Map<String, Integer> keywordIndices = new HashMap<>();
+      cuesToCheck = new RuleCue[allRules.size()][];
+      for (int i = 0; i < allRules.size(); i++) {
+        Rule rule = allRules.get(i);
+        boolean classified = false;
+        if (rule instanceof AbstractTokenBasedRule) {
+          AbstractTokenBasedRule.TokenHint[] tokenHints = ((AbstractTokenBasedRule) rule).tokenHints;
+          AbstractTokenBasedRule.TokenHint[] usableHints =
+            tokenHints == null ? null :
+            withLemmaHints ? tokenHints :
+            Arrays.stream(tokenHints).filter(th -> !th.inflected).toArray(AbstractTokenBasedRule.TokenHint[]::new);
+          if (usableHints != null && usableHints.length > 0) {
+            classified = true;
+            // the hints are sorted by selectivity, so the first one goes to the index:
+            AbstractTokenBasedRule.TokenHint firstHint = usableHints[0];
+            Map<String, BitSet> map = firstHint.inflected ? byLemma : byToken;
+            for (String hint : firstHint.lowerCaseValues) {
+              map.computeIfAbsent(hint, __ -> new BitSet()).set(i);
+            }
+            if (usableHints.length > 1) {
+              additionalHints.put(i, Arrays.copyOfRange(usableHints, 1, usableHints.length));
+            }
+          }
+        } else if (rule instanceof RegexPatternRule) {
+          Substrings substrings = ((RegexPatternRule) rule).requiredSubstrings;
+          if (substrings != null) {
+            classified = true;
+            int[] indices = new int[substrings.substrings.length];
+            for (int j = 0; j < indices.length; j++) {
+              String keyword = substrings.substrings[j];
+              indices[j] = keywordIndices.computeIfAbsent(keyword, k -> {
+                keywords.add(k);
+                return keywords.size() - 1;
+              });
+            }
+            byKeyword.computeIfAbsent(indices[0], __ -> new BitSet()).set(i);
+            requiredKeywords.put(i, indices);
           }
         }
+        if (!classified) {
+          classified = classifyByCues(rule, i);
+        }
+        if (!classified) {
+          unclassified.set(i);
+        }
       }
-      if (!classified) {
-        unclassified.set(i);
-      }
+      keywordFinder = keywords.isEmpty() ? null : new AhoCorasick(keywords);
     }
-    return new RuleSet() {
-      @Override
-      public List<Rule> allRules() {
-        return allRules;
+
+    private boolean classifyByCues(Rule rule, int i) {
+      List<RuleCue> cues = new ArrayList<>();
+      for (RuleCue cue : rule.getRequiredCues()) {
+        if (withLemmaHints || cue.isTokenOnly()) {
+          cues.add(cue);
+        }
       }
+      if (cues.isEmpty()) {
+        return false;
+      }
+      // a cue with only POS tag prefixes goes to the index, the Java rules' usually large sets of words are
+      // only checked per sentence, so that creating the index for a rule is cheap:
+      RuleCue posTagCue = cues.stream()
+        .filter(cue -> cue.getTokens().isEmpty() && cue.getLemmas().isEmpty())
+        .max(Comparator.comparing(cue -> cue.getPosTagPrefixes().stream().mapToInt(String::length).min().orElse(0)))
+        .orElse(null);
+      if (posTagCue != null) {
+        for (String prefix : posTagCue.getPosTagPrefixes()) {
+          byPosTagPrefix.computeIfAbsent(prefix, __ -> new BitSet()).set(i);
+        }
+        cues.remove(posTagCue);
+      } else {
+        checkedByCues.set(i);
+      }
+      if (!cues.isEmpty()) {
+        cuesToCheck[i] = cues.toArray(new RuleCue[0]);
+      }
+      return true;
+    }
 
-      @Override
-      public List<Rule> rulesForSentence(AnalyzedSentence sentence) {
-        BitSet included = new BitSet();
-        included.or(unclassified);
-        if (!byLemma.isEmpty()) {
-          for (String lemma : sentence.getLemmaSet()) {
-            BitSet set = byLemma.get(lemma);
-            if (set != null) {
-              included.or(set);
-            }
+    @Override
+    public List<Rule> allRules() {
+      return allRules;
+    }
+
+    @Override
+    public List<Rule> rulesForSentence(AnalyzedSentence sentence) {
+      BitSet candidates = SCRATCH.get()[0];
+      getCandidates(sentence, null, unclassified, candidates);
+      recordFiltering(allRules.size(), candidates.cardinality());
+      return filterList(candidates, allRules);
+    }
+
+    /**
+     * @param mask if not null, only rules with an index in this set are considered
+     * @param unclassifiedInMask the {@link #unclassified} rules in {@code mask}, which are always candidates
+     * @param candidates receives the indices of the rules that might be applicable to the given sentence,
+     *                   its previous content is discarded
+     */
+    void getCandidates(AnalyzedSentence sentence, @Nullable BitSet mask, BitSet unclassifiedInMask, BitSet candidates) {
+      candidates.clear();
+      if (!byLemma.isEmpty()) {
+        for (String lemma : sentence.getLemmaSet()) {
+          BitSet set = byLemma.get(lemma);
+          if (set != null) {
+            candidates.or(set);
           }
         }
-        for (String token : sentence.getTokenSet()) {
-          BitSet set = byToken.get(token);
-          if (set != null) {
-            included.or(set);
+      }
+      for (String token : sentence.getTokenSet()) {
+        BitSet set = byToken.get(token);
+        if (set != null) {
+          candidates.or(set);
+        }
+      }
+      for (Map.Entry<String, BitSet> entry : byPosTagPrefix.entrySet()) {
+        if (sentence.hasPosTagStartingWith(entry.getKey())) {
+          candidates.or(entry.getValue());
+        }
+      }
+      candidates.or(checkedByCues);
+      if (mask != null) {
+        candidates.and(mask);
+      }
+      for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+        AbstractTokenBasedRule.TokenHint[] hints = additionalHints.get(i);
+        if (hints != null && Arrays.stream(hints).anyMatch(hint -> hint.canBeIgnoredFor(sentence))) {
+          candidates.clear(i);
+        }
+        RuleCue[] cues = cuesToCheck[i];
+        if (cues != null && Arrays.stream(cues).anyMatch(cue -> !cue.isSatisfiedBy(sentence))) {
+          candidates.clear(i);
+        }
+      }
+      if (keywordFinder != null) {
+        BitSet foundKeywords = keywordFinder.find(sentence.getText());
+        for (int k = foundKeywords.nextSetBit(0); k >= 0; k = foundKeywords.nextSetBit(k + 1)) {
+          BitSet rulesForKeyword = byKeyword.get(k);
+          if (rulesForKeyword == null) continue;
+          for (int i = rulesForKeyword.nextSetBit(0); i >= 0; i = rulesForKeyword.nextSetBit(i + 1)) {
+            if ((mask == null || mask.get(i)) && Arrays.stream(requiredKeywords.get(i)).allMatch(foundKeywords::get)) {
+              candidates.set(i);
+            }
           }
         }
-        return filterList(included, allRules);
       }
-    };
+      candidates.or(unclassifiedInMask);
+    }
+  }
+
+  /**
+   * A view on a {@link HintedRuleSet}: the rules contained in the shared set are represented
+   * by a mask of their indices there, only the remaining rules get an index of their own.
+   */
+  private static class SharedHintedRuleSet extends RuleSet {
+
+    private final List<Rule> allRules;
+    private final HintedRuleSet shared;
+    private final BitSet sharedMask = new BitSet();
+    private final BitSet sharedUnclassified;
+    private final int[] sharedToLocal;
+    private final HintedRuleSet own;
+    private final int[] ownToLocal;
+
+    SharedHintedRuleSet(HintedRuleSet shared, List<? extends Rule> rules) {
+      this.allRules = Collections.unmodifiableList(rules);
+      this.shared = shared;
+      Map<Rule, Integer> sharedIndices = new IdentityHashMap<>();
+      List<Rule> sharedRules = shared.allRules();
+      for (int i = 0; i < sharedRules.size(); i++) {
+        sharedIndices.putIfAbsent(sharedRules.get(i), i);
+      }
+      sharedToLocal = new int[sharedRules.size()];
+      List<Rule> ownRules = new ArrayList<>();
+      List<Integer> ownIndices = new ArrayList<>();
+      for (int i = 0; i < allRules.size(); i++) {
+        Rule rule = allRules.get(i);
+        Integer sharedIndex = sharedIndices.get(rule);
+        if (sharedIndex != null && !sharedMask.get(sharedIndex)) {
+          sharedMask.set(sharedIndex);
+          sharedToLocal[sharedIndex] = i;
+        } else {
+          ownRules.add(rule);
+          ownIndices.add(i);
+        }
+      }
+      sharedUnclassified = (BitSet) shared.unclassified.clone();
+      sharedUnclassified.and(sharedMask);
+      own = ownRules.isEmpty() ? null : new HintedRuleSet(ownRules, shared.withLemmaHints);
+      ownToLocal = ownIndices.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public List<Rule> allRules() {
+      return allRules;
+    }
+
+    @Override
+    public List<Rule> rulesForSentence(AnalyzedSentence sentence) {
+      BitSet[] scratch = SCRATCH.get();
+      BitSet candidates = scratch[0];
+      candidates.clear();
+      if (!sharedMask.isEmpty()) {
+        BitSet sharedCandidates = scratch[1];
+        shared.getCandidates(sentence, sharedMask, sharedUnclassified, sharedCandidates);
+        for (int i = sharedCandidates.nextSetBit(0); i >= 0; i = sharedCandidates.nextSetBit(i + 1)) {
+          candidates.set(sharedToLocal[i]);
+        }
+      }
+      if (own != null) {
+        BitSet ownCandidates = scratch[2];
+        own.getCandidates(sentence, null, own.unclassified, ownCandidates);
+        for (int i = ownCandidates.nextSetBit(0); i >= 0; i = ownCandidates.nextSetBit(i + 1)) {
+          candidates.set(ownToLocal[i]);
+        }
+      }
+      recordFiltering(allRules.size(), candidates.cardinality());
+      return filterList(candidates, allRules);
+    }
+  }
+
+  private final LongAdder filteredSentences = new LongAdder();
+  private final LongAdder totalRules = new LongAdder();
+  private final LongAdder skippedRules = new LongAdder();
+
+  void recordFiltering(int ruleCount, int applicableRuleCount) {
+    filteredSentences.increment();
+    totalRules.add(ruleCount);
+    skippedRules.add(ruleCount - applicableRuleCount);
+  }
+
+  /**
+   * @return the ratio of rules that {@link #rulesForSentence} has excluded so far, over all sentences,
+   * between {@code 0} (no rules excluded or no sentences yet) and {@code 1} (all rules excluded)
+   * @since 5.4
+   */
+  public double getSkipRatio() {
+    long total = totalRules.sum();
+    return total == 0 ? 0 : (double) skippedRules.sum() / total;
+  }
+
+  /**
+   * @return the number of sentences {@link #rulesForSentence} has filtered rules for
+   * @since 5.4
+   */
+  public long getFilteredSentenceCount() {
+    return filteredSentences.sum();
   }
 
   @ApiStatus.Internal
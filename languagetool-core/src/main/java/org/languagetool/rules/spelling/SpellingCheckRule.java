@@ -34,6 +34,7 @@ import org.languagetool.tools.StringTools;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -75,6 +76,12 @@ public abstract class SpellingCheckRule extends Rule {
   private static final String CUSTOM_SPELLING_PROHIBIT_FILE = "/hunspell/prohibit_custom.txt";
   private static final String SPELLING_FILE_VARIANT = null;
 
+  // Tokenizing the lines of spelling.txt etc. is the most expensive part of creating a rule, and
+  // all rules of a language get the same lines, so the result is shared per language (an empty
+  // value means the line is a single token):
+  private static final Map<Language, Map<String, Optional<DisambiguationPatternRule>>> ignoreLineAntiPatterns =
+    new ConcurrentHashMap<>();
+
   private final Set<String> wordsToBeProhibited = new THashSet<>();
 
   private volatile String[] wordsToBeIgnoredDictionary = null;
@@ -484,27 +491,36 @@ public abstract class SpellingCheckRule extends Rule {
       wordsToBeIgnored.add(line);
     }
     else {
-      // if line consists of several words (separated by " "), a DisambiguationPatternRule
-      // will be created where each words serves as a case-sensitive and non-inflected PatternToken
-      // so that the entire multi-word entry is ignored by the spell checker
-      List<String> tokens = language.getWordTokenizer().tokenize(line);
-      if (tokens.size() > 1) {
-        //System.out.println("Tokenized multi-token: " + line);
-        List<PatternToken> patternTokens = new ArrayList<>(tokens.size());
-        for(String token : tokens) {
-          if (token.trim().isEmpty()) {
-            continue;
-          }
-          patternTokens.add(new PatternToken(token, true, false, false));
-        }
-        antiPatterns.add(new DisambiguationPatternRule("INTERNAL_ANTIPATTERN", "(no description)", language,
-          patternTokens, null, null, DisambiguationPatternRule.DisambiguatorAction.IGNORE_SPELLING));
+      Optional<DisambiguationPatternRule> antiPattern = ignoreLineAntiPatterns
+        .computeIfAbsent(language, k -> new ConcurrentHashMap<>())
+        .computeIfAbsent(line, this::createIgnoreAntiPattern);
+      if (antiPattern.isPresent()) {
+        antiPatterns.add(antiPattern.get());
       } else {
         wordsToBeIgnored.add(line);
       }
     }
   }
 
+  private Optional<DisambiguationPatternRule> createIgnoreAntiPattern(String line) {
+    // if line consists of several words (separated by " "), a DisambiguationPatternRule
+    // will be created where each words serves as a case-sensitive and non-inflected PatternToken
+    // so that the entire multi-word entry is ignored by the spell checker
+    List<String> tokens = language.getWordTokenizer().tokenize(line);
+    if (tokens.size() <= 1) {
+      return Optional.empty();
+    }
+    List<PatternToken> patternTokens = new ArrayList<>(tokens.size());
+    for (String token : tokens) {
+      if (token.trim().isEmpty()) {
+        continue;
+      }
+      patternTokens.add(new PatternToken(token, true, false, false));
+    }
+    return Optional.of(new DisambiguationPatternRule("INTERNAL_ANTIPATTERN", "(no description)", language,
+      patternTokens, null, null, DisambiguationPatternRule.DisambiguatorAction.IGNORE_SPELLING));
+  }
+
   /**
    * @param words list of words to be prohibited.
    * @since 4.2
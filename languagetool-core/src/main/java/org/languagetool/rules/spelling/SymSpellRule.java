@@ -34,6 +34,7 @@ import org.languagetool.rules.spelling.symspell.implementation.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -63,6 +64,12 @@ public class SymSpellRule extends SpellingCheckRule {
         return getWordList(lang, "ignore.txt");
       }
     });
+  // building a speller for the user's words happens for every new rule instance otherwise:
+  private static final Cache<List<String>, SymSpell> userDictSpellerCache = CacheBuilder.newBuilder()
+    .maximumWeight(1_000_000)
+    .weigher((List<String> words, SymSpell speller) -> words.size() + 1)
+    .expireAfterAccess(30, TimeUnit.MINUTES)
+    .build();
   public static final int INITIAL_CAPACITY = 50000;
 
   @NotNull
@@ -117,14 +124,20 @@ public class SymSpellRule extends SpellingCheckRule {
   @Nullable
   protected static SymSpell initUserDictSpeller(UserConfig config) {
     if (config != null && config.getAcceptedWords() != null && !config.getAcceptedWords().isEmpty()) {
-      List<String> dict = config.getAcceptedWords();
-      SymSpell speller = new SymSpell(0, 3, -1, 0);
-      SuggestionStage stage = new SuggestionStage(dict.size());
-      dict.forEach(word -> {
-        speller.createDictionaryEntry(word, 1, stage);
-      });
-      speller.commitStaged(stage);
-      return speller;
+      List<String> dict = new ArrayList<>(config.getAcceptedWords());
+      try {
+        return userDictSpellerCache.get(dict, () -> {
+          SymSpell speller = new SymSpell(0, 3, -1, 0);
+          SuggestionStage stage = new SuggestionStage(dict.size());
+          dict.forEach(word -> {
+            speller.createDictionaryEntry(word, 1, stage);
+          });
+          speller.commitStaged(stage);
+          return speller;
+        });
+      } catch (ExecutionException e) {
+        throw new RuntimeException(e);
+      }
     } else {
       return null;
     }
@@ -1,5 +1,7 @@
 package org.languagetool.rules.spelling.hunspell;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import dumonts.hunspell.bindings.HunspellLibrary;
 import org.bridj.Pointer;
 import org.languagetool.JLanguageTool;
@@ -9,14 +11,41 @@ import java.io.*;
 import java.nio.charset.Charset;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
+/**
+ * Access to the native Hunspell library. A native Hunspell instance must not be used by
+ * several threads at the same time, so this keeps a pool of them, each with the same
+ * dictionary. A new one is only created if all others are in use and there are less
+ * than {@link #getMaxHandlesPerDictionary()} (default: 1). Note that each of them needs as much
+ * memory as the dictionary. Results of {@link #spell(String)} and {@link #suggest(String)} are
+ * cached.
+ */
 public class Hunspell implements Closeable {
-  private final Pointer<HunspellLibrary.Hunhandle> handle;
+
+  private static final Map<LanguageAndPath, Hunspell> map = new ConcurrentHashMap<>();
+  private static final Cache<CacheKey, Boolean> spellCache = CacheBuilder.newBuilder()
+    .maximumSize(100_000)
+    .recordStats()
+    .build();
+  private static final Cache<CacheKey, List<String>> suggestionCache = CacheBuilder.newBuilder()
+    .maximumSize(10_000)
+    .recordStats()
+    .build();
+  private static final long ACQUIRE_POLL_MILLIS = 100;  // how often threads waiting for a handle check for close()
+  private static volatile int maxHandlesPerDictionary = 1;
+
+  private final Path dictionary;
+  private final Path affix;
+  private final int maxHandles;
   private final Charset charset;
-  
-  private static final Map<LanguageAndPath, Hunspell> map = new HashMap<>();
-  
+  private final BlockingQueue<NativeHandle> idleHandles = new LinkedBlockingQueue<>();
+  private final List<NativeHandle> handles = new ArrayList<>();  // guarded by this
+  // words added with add(), they are added to a native instance the next time it's used:
+  private final List<String> addedWords = new CopyOnWriteArrayList<>();
+  private volatile boolean closed;
+
   static class LanguageAndPath {
     private final Path dictionary;
     private final Path affix;
@@ -39,29 +68,63 @@ public class Hunspell implements Closeable {
   }
 
   public Hunspell(Path dictionary, Path affix) {
-    try {
-      Pointer<Byte> aff = Pointer.pointerToCString(affix.toString());
-      Pointer<Byte> dic = Pointer.pointerToCString(dictionary.toString());
-      handle = HunspellLibrary.Hunspell_create(aff, dic);
-      charset = Charset.forName(HunspellLibrary.Hunspell_get_dic_encoding(handle).getCString());
-      if (this.handle == null) {
-        throw new RuntimeException("Unable to create Hunspell instance");
-      }
-    } catch (UnsatisfiedLinkError e) {
-      throw new RuntimeException("Could not create hunspell instance. Please note that LanguageTool supports only 64-bit platforms " +
-        "(Linux, Windows, Mac) and that it requires a 64-bit JVM (Java).", e);
+    this(dictionary, affix, maxHandlesPerDictionary);
+  }
+
+  /**
+   * @param maxHandles maximum number of native Hunspell instances, i.e. of threads that can use this at the same time
+   * @since 5.4
+   */
+  public Hunspell(Path dictionary, Path affix, int maxHandles) {
+    if (maxHandles < 1) {
+      throw new IllegalArgumentException("maxHandles must be >= 1: " + maxHandles);
     }
+    this.dictionary = Objects.requireNonNull(dictionary);
+    this.affix = Objects.requireNonNull(affix);
+    this.maxHandles = maxHandles;
+    NativeHandle first = createHandle();
+    charset = Charset.forName(HunspellLibrary.Hunspell_get_dic_encoding(first.handle).getCString());
+    handles.add(first);
+    idleHandles.add(first);
+  }
+
+  public static Hunspell getInstance(Path dictionary, Path affix) {
+    return map.computeIfAbsent(new LanguageAndPath(dictionary, affix), k -> new Hunspell(dictionary, affix));
   }
-  
-  public static synchronized Hunspell getInstance(Path dictionary, Path affix) {
-    LanguageAndPath key = new LanguageAndPath(dictionary, affix);
-    Hunspell hunspell = map.get(key);
-    if (hunspell != null) {
-      return hunspell;
+
+  /**
+   * Set the maximum number of native Hunspell instances per dictionary for
+   * Hunspell objects created after this call.
+   * @since 5.4
+   */
+  public static void setMaxHandlesPerDictionary(int maxHandles) {
+    if (maxHandles < 1) {
+      throw new IllegalArgumentException("maxHandles must be >= 1: " + maxHandles);
     }
-    Hunspell newHunspell = new Hunspell(dictionary, affix);
-    map.put(key, newHunspell);
-    return newHunspell;
+    maxHandlesPerDictionary = maxHandles;
+  }
+
+  /**
+   * @since 5.4
+   */
+  public static int getMaxHandlesPerDictionary() {
+    return maxHandlesPerDictionary;
+  }
+
+  /**
+   * The cache of {@link #spell(String)} results of all dictionaries, e.g. to monitor its hit rate.
+   * @since 5.4
+   */
+  public static Cache<?, Boolean> getSpellCache() {
+    return spellCache;
+  }
+
+  /**
+   * The cache of {@link #suggest(String)} results of all dictionaries, e.g. to monitor its hit rate.
+   * @since 5.4
+   */
+  public static Cache<?, List<String>> getSuggestionCache() {
+    return suggestionCache;
   }
 
   public static Hunspell forDictionaryInResources(String language, String resourcePath) {
@@ -87,49 +150,188 @@ public class Hunspell implements Closeable {
   }
 
   public boolean spell(String word) {
-    if (handle == null) {
-      throw new RuntimeException("Attempt to use hunspell instance after closing");
+    CacheKey key = new CacheKey(this, addedWords.size(), word);
+    Boolean cached = spellCache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    NativeHandle h = acquire();
+    try {
+      boolean result = HunspellLibrary.Hunspell_spell(h.handle, h.toCString(word, charset)) != 0;
+      spellCache.put(key, result);
+      return result;
+    } finally {
+      release(h);
     }
-    @SuppressWarnings("unchecked")
-    Pointer<Byte> str = (Pointer<Byte>) Pointer.pointerToString(word, Pointer.StringType.C, charset);
-    int result = HunspellLibrary.Hunspell_spell(handle, str);
-    return result != 0;
   }
 
   public void add(String word) {
-    if (handle == null) {
+    if (closed) {
       throw new RuntimeException("Attempt to use hunspell instance after closing");
     }
-    @SuppressWarnings("unchecked")
-    Pointer<Byte> str = (Pointer<Byte>) Pointer.pointerToString(word, Pointer.StringType.C, charset);
-    HunspellLibrary.Hunspell_add(handle, str);
+    addedWords.add(word);
   }
 
   public List<String> suggest(String word) {
-    // Create pointer to native string
-    @SuppressWarnings("unchecked")
-    Pointer<Byte> str = (Pointer<Byte>) Pointer.pointerToString(word, Pointer.StringType.C, charset);
-    // Create pointer to native string array
-    Pointer<Pointer<Pointer<Byte>>> nativeSuggestionArray = Pointer.allocatePointerPointer(Byte.class);
-    // Hunspell will allocate the array and fill it with suggestions
-    int suggestionCount = HunspellLibrary.Hunspell_suggest(handle, nativeSuggestionArray, str);
-    if (suggestionCount == 0) {
-      // Return early and don't try to free the array
-      return new ArrayList<>();
-    }
-    // Ask bridj for a `java.util.List` that wraps `nativeSuggestionArray`
-    List<Pointer<Byte>> nativeSuggestionList = nativeSuggestionArray.get().validElements(suggestionCount).asList();
-    // Convert C Strings to java strings
-    List<String> suggestions = nativeSuggestionList.stream().map(p -> p.getStringAtOffset(0, Pointer.StringType.C, charset)).collect(Collectors.toList());
-
-    // We can free the underlying buffer now because Java's `String` owns it's own memory
-    HunspellLibrary.Hunspell_free_list(handle, nativeSuggestionArray, suggestionCount);
-    return suggestions;
+    CacheKey key = new CacheKey(this, addedWords.size(), word);
+    List<String> cached = suggestionCache.getIfPresent(key);
+    if (cached != null) {
+      return new ArrayList<>(cached);
+    }
+    NativeHandle h = acquire();
+    try {
+      // Create pointer to native string array
+      Pointer<Pointer<Pointer<Byte>>> nativeSuggestionArray = Pointer.allocatePointerPointer(Byte.class);
+      // Hunspell will allocate the array and fill it with suggestions
+      int suggestionCount = HunspellLibrary.Hunspell_suggest(h.handle, nativeSuggestionArray, h.toCString(word, charset));
+      if (suggestionCount == 0) {
+        // Return early and don't try to free the array
+        suggestionCache.put(key, Collections.emptyList());
+        return new ArrayList<>();
+      }
+      // Ask bridj for a `java.util.List` that wraps `nativeSuggestionArray`
+      List<Pointer<Byte>> nativeSuggestionList = nativeSuggestionArray.get().validElements(suggestionCount).asList();
+      // Convert C Strings to java strings
+      List<String> suggestions = nativeSuggestionList.stream().map(p -> p.getStringAtOffset(0, Pointer.StringType.C, charset)).collect(Collectors.toList());
+
+      // We can free the underlying buffer now because Java's `String` owns it's own memory
+      HunspellLibrary.Hunspell_free_list(h.handle, nativeSuggestionArray, suggestionCount);
+      suggestionCache.put(key, Collections.unmodifiableList(new ArrayList<>(suggestions)));
+      return suggestions;
+    } finally {
+      release(h);
+    }
   }
 
+  @Override
   public void close() {
-    if (handle != null) {
+    List<NativeHandle> toDestroy = new ArrayList<>();
+    synchronized (this) {
+      closed = true;
+      idleHandles.drainTo(toDestroy);
+    }
+    // handles in use get destroyed when they're released
+    for (NativeHandle h : toDestroy) {
+      h.destroy();
+    }
+  }
+
+  NativeHandle acquire() {
+    if (closed) {
+      throw new RuntimeException("Attempt to use hunspell instance after closing");
+    }
+    NativeHandle h = idleHandles.poll();
+    if (h == null) {
+      synchronized (this) {
+        if (handles.size() < maxHandles) {
+          h = createHandle();
+          handles.add(h);
+        }
+      }
+      try {
+        while (h == null) {
+          // handles released after close() get destroyed, so don't wait for them forever:
+          if (closed) {
+            throw new RuntimeException("Hunspell instance has been closed while waiting for it");
+          }
+          h = idleHandles.poll(ACQUIRE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+    }
+    h.addWords(addedWords, charset);
+    return h;
+  }
+
+  void release(NativeHandle h) {
+    synchronized (this) {
+      if (!closed) {
+        idleHandles.add(h);
+        return;
+      }
+    }
+    h.destroy();
+  }
+
+  private NativeHandle createHandle() {
+    try {
+      Pointer<Byte> aff = Pointer.pointerToCString(affix.toString());
+      Pointer<Byte> dic = Pointer.pointerToCString(dictionary.toString());
+      Pointer<HunspellLibrary.Hunhandle> handle = HunspellLibrary.Hunspell_create(aff, dic);
+      if (handle == null) {
+        throw new RuntimeException("Unable to create Hunspell instance");
+      }
+      return new NativeHandle(handle);
+    } catch (UnsatisfiedLinkError e) {
+      throw new RuntimeException("Could not create hunspell instance. Please note that LanguageTool supports only 64-bit platforms " +
+        "(Linux, Windows, Mac) and that it requires a 64-bit JVM (Java).", e);
+    }
+  }
+
+  /**
+   * A native Hunspell instance, only used by one thread at a time.
+   */
+  static class NativeHandle {
+    private final Pointer<HunspellLibrary.Hunhandle> handle;
+    private Pointer<Byte> buffer;  // reused for passing the words to Hunspell
+    private int addedWordCount;
+
+    NativeHandle(Pointer<HunspellLibrary.Hunhandle> handle) {
+      this.handle = handle;
+    }
+
+    Pointer<Byte> toCString(String word, Charset charset) {
+      byte[] bytes = word.getBytes(charset);
+      if (buffer == null || buffer.getValidBytes() < bytes.length + 1) {
+        if (buffer != null) {
+          buffer.release();
+        }
+        buffer = Pointer.allocateBytes(Math.max(64, bytes.length + 1));
+      }
+      buffer.setBytes(bytes);
+      buffer.setByteAtOffset(bytes.length, (byte) 0);
+      return buffer;
+    }
+
+    void addWords(List<String> words, Charset charset) {
+      int size = words.size();
+      for (; addedWordCount < size; addedWordCount++) {
+        HunspellLibrary.Hunspell_add(handle, toCString(words.get(addedWordCount), charset));
+      }
+    }
+
+    void destroy() {
       HunspellLibrary.Hunspell_destroy(handle);
+      if (buffer != null) {
+        buffer.release();
+      }
+    }
+  }
+
+  private static class CacheKey {
+    private final Hunspell hunspell;
+    private final int addedWordCount;  // so words added later don't get an outdated result
+    private final String word;
+
+    CacheKey(Hunspell hunspell, int addedWordCount, String word) {
+      this.hunspell = hunspell;
+      this.addedWordCount = addedWordCount;
+      this.word = word;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      CacheKey that = (CacheKey) o;
+      return hunspell == that.hunspell && addedWordCount == that.addedWordCount && word.equals(that.word);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * System.identityHashCode(hunspell) + addedWordCount) + word.hashCode();
     }
   }
 }
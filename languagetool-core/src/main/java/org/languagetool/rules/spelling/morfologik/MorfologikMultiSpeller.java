@@ -23,6 +23,7 @@ import static org.languagetool.JLanguageTool.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
@@ -72,7 +73,7 @@ public class MorfologikMultiSpeller {
               return lines;
             }
           });
-  private static final Map<String,Dictionary> dicPathToDict = new HashMap<>();
+  private static final Map<String,Dictionary> dicPathToDict = new ConcurrentHashMap<>();
 
   private final List<MorfologikSpeller> spellers;
   private final List<MorfologikSpeller> defaultDictSpellers;
@@ -96,7 +97,7 @@ public class MorfologikMultiSpeller {
          plainTextPaths,
          languageVariantPlainTextPath == null ? null : new BufferedReader(new InputStreamReader(getDataBroker().getFromResourceDirAsStream(languageVariantPlainTextPath), UTF_8)),
          languageVariantPlainTextPath,
-         userConfig != null ? userConfig.getAcceptedWords(): Collections.emptyList(),
+         userConfig,
          maxEditDistance);
     for (String plainTextPath : plainTextPaths) {
       if (plainTextPath != null &&
@@ -125,16 +126,25 @@ public class MorfologikMultiSpeller {
   public MorfologikMultiSpeller(String binaryDictPath, BufferedReader plainTextReader, List<String> plainTextReaderPath,
        BufferedReader languageVariantPlainTextReader, String languageVariantPlainTextPath, List<String> userWords,
        int maxEditDistance) throws IOException {
+    this(binaryDictPath, plainTextReader, plainTextReaderPath, languageVariantPlainTextReader, languageVariantPlainTextPath,
+         new UserConfig(userWords), maxEditDistance);
+  }
+
+  /**
+   * @param binaryDictPath path in classpath to a {@code .dict} binary Morfologik file
+   * @param plainTextReader reader with to a plain text {@code .txt} file (like from spelling.txt)
+   * @param userConfig the user's own words, the dictionary built from them is cached by {@link UserConfig#getPremiumUid()}
+   * @param maxEditDistance maximum edit distance for accepting suggestions
+   * @since 5.4
+   */
+  public MorfologikMultiSpeller(String binaryDictPath, BufferedReader plainTextReader, List<String> plainTextReaderPath,
+       BufferedReader languageVariantPlainTextReader, String languageVariantPlainTextPath, @Nullable UserConfig userConfig,
+       int maxEditDistance) throws IOException {
     MorfologikSpeller speller = getBinaryDict(binaryDictPath, maxEditDistance);
     List<MorfologikSpeller> spellers = new ArrayList<>();
-    MorfologikSpeller userDictSpeller = getUserDictSpellerOrNull(userWords, binaryDictPath, maxEditDistance);
-    if (userDictSpeller != null) {
-      // add this first, as otherwise suggestions from user's own dictionary might drown in the mass of other suggestions
-      spellers.add(userDictSpeller);
-      userDictSpellers = Collections.singletonList(userDictSpeller);
-    } else {
-      userDictSpellers = Collections.emptyList();
-    }
+    // add these first, as otherwise suggestions from user's own dictionary might drown in the mass of other suggestions
+    userDictSpellers = getUserDictSpellers(userConfig, binaryDictPath, maxEditDistance);
+    spellers.addAll(userDictSpellers);
     spellers.add(speller);
     convertsCase = speller.convertsCase();
     if (plainTextReader != null) {
@@ -152,16 +162,16 @@ public class MorfologikMultiSpeller {
     this.spellers = Collections.unmodifiableList(spellers);
   }
 
-  private MorfologikSpeller getUserDictSpellerOrNull(List<String> userWords, String dictPath, int maxEditDistance) throws IOException {
-    if (userWords.isEmpty()) {
-      return null;
+  private List<MorfologikSpeller> getUserDictSpellers(@Nullable UserConfig userConfig, String dictPath, int maxEditDistance) throws IOException {
+    if (userConfig == null || userConfig.getAcceptedWords().isEmpty()) {
+      return Collections.emptyList();
     }
-    List<byte[]> byteLines = new ArrayList<>();
-    for (String line : userWords) {
-      byteLines.add(line.getBytes(UTF_8));
+    String infoPath = dictPath.replace(DICTIONARY_FILENAME_EXTENSION, ".info");
+    List<MorfologikSpeller> result = new ArrayList<>();
+    for (Dictionary dictionary : UserDictCache.getDictionaries(userConfig.getPremiumUid(), userConfig.getAcceptedWords(), infoPath)) {
+      result.add(new MorfologikSpeller(dictionary, maxEditDistance));
     }
-    Dictionary dictionary = getDictionary(byteLines, dictPath, dictPath.replace(DICTIONARY_FILENAME_EXTENSION, ".info"), false);
-    return new MorfologikSpeller(dictionary, maxEditDistance);
+    return Collections.unmodifiableList(result);
   }
 
   private MorfologikSpeller getBinaryDict(String binaryDictPath, int maxEditDistance) {
@@ -183,35 +193,38 @@ public class MorfologikMultiSpeller {
     if (lines.isEmpty()) {
       return null;
     }
-    Dictionary dictionary = getDictionary(lines, plainTextReaderPaths.toString(), dictPath.replace(DICTIONARY_FILENAME_EXTENSION, ".info"), true);
+    Dictionary dictionary = getDictionary(lines, plainTextReaderPaths.toString(), dictPath.replace(DICTIONARY_FILENAME_EXTENSION, ".info"));
     return new MorfologikSpeller(dictionary, maxEditDistance);
   }
 
-  private Dictionary getDictionary(List<byte[]> lines, String dictPath, String infoPath, boolean allowCache) throws IOException {
+  private Dictionary getDictionary(List<byte[]> lines, String dictPath, String infoPath) throws IOException {
     String cacheKey = dictPath + "|" + infoPath;
     Dictionary dictFromCache = dicPathToDict.get(cacheKey);
-    if (allowCache && dictFromCache != null) {
+    if (dictFromCache != null) {
       return dictFromCache;
     } else {
       // Creating the dictionary at runtime can easily take 50ms for spelling.txt files
       // that are ~50KB. We don't want that overhead for every check of a short sentence,
       // so we cache the result:
-      List<byte[]> linesCopy = new ArrayList<>(lines);
-      Collections.sort(linesCopy, FSABuilder.LEXICAL_ORDERING);
-      FSA fsa = FSABuilder.build(linesCopy);
-      ByteArrayOutputStream fsaOutStream = new CFSA2Serializer().serialize(fsa, new ByteArrayOutputStream());
-      ByteArrayInputStream fsaInStream = new ByteArrayInputStream(fsaOutStream.toByteArray());
-      Dictionary dict;
-      if (new File(infoPath).exists()) {
-        // e.g. when loading dynamic languages from outside the class path
-        dict = Dictionary.read(fsaInStream, new FileInputStream(infoPath));
-      } else {
-        dict = Dictionary.read(fsaInStream, getDataBroker().getFromResourceDirAsStream(infoPath));
-      }
+      Dictionary dict = buildDictionary(lines, infoPath);
       dicPathToDict.put(cacheKey, dict);
       return dict;
     }
   }
+
+  static Dictionary buildDictionary(List<byte[]> lines, String infoPath) throws IOException {
+    List<byte[]> linesCopy = new ArrayList<>(lines);
+    Collections.sort(linesCopy, FSABuilder.LEXICAL_ORDERING);
+    FSA fsa = FSABuilder.build(linesCopy);
+    ByteArrayOutputStream fsaOutStream = new CFSA2Serializer().serialize(fsa, new ByteArrayOutputStream());
+    ByteArrayInputStream fsaInStream = new ByteArrayInputStream(fsaOutStream.toByteArray());
+    if (new File(infoPath).exists()) {
+      // e.g. when loading dynamic languages from outside the class path
+      return Dictionary.read(fsaInStream, new FileInputStream(infoPath));
+    } else {
+      return Dictionary.read(fsaInStream, getDataBroker().getFromResourceDirAsStream(infoPath));
+    }
+  }
   
   /**
    * Accept the word if at least one of the dictionaries accepts it as not misspelled.
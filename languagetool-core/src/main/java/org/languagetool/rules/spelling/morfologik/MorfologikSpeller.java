@@ -57,7 +57,9 @@ public class MorfologikSpeller {
       });
 
   private final Dictionary dictionary;
-  private final Speller speller;
+  // Speller keeps buffers for the lookups in fields, so it's not thread-safe. Instead of
+  // locking, every thread gets its own instance (the FSA of the dictionary is shared):
+  private final ThreadLocal<Speller> speller;
   private final int maxEditDistance;
 
   /**
@@ -83,7 +85,7 @@ public class MorfologikSpeller {
     }
     this.dictionary = dictionary;
     this.maxEditDistance = maxEditDistance;
-    speller = new Speller(dictionary, maxEditDistance);
+    speller = ThreadLocal.withInitial(() -> new Speller(dictionary, maxEditDistance));
   }
 
   /**
@@ -98,27 +100,26 @@ public class MorfologikSpeller {
     if (word.isEmpty() || SpellingCheckRule.LANGUAGETOOL.equals(word) || SpellingCheckRule.LANGUAGETOOLER.equals(word)) {
       return false;
     }
-    synchronized (this) {
-      return speller.isMisspelled(word);
-    }
+    return speller.get().isMisspelled(word);
   }
 
-  public synchronized List<String> findReplacements(String word) {
-    return speller.findReplacements(word);
+  public List<String> findReplacements(String word) {
+    return speller.get().findReplacements(word);
   }
 
   /**
+   * @return the speller of the calling thread, it must not be passed to other threads
    * @deprecated use (or introduce) other methods to this class which would take care of the necessary synchronization
    */
   @Deprecated
   public Speller getSpeller() {
-    return speller;
+    return speller.get();
   }
 
   public List<WeightedSuggestion> getSuggestions(String word) {
     List<WeightedSuggestion> suggestions = new ArrayList<>();
     // needs to be reset every time, possible bug: HMatrix for distance computation is not reset;
-    // output changes when reused
+    // output changes when reused (also when reused per thread), so this can't use the thread-local speller
     Speller speller = new Speller(dictionary, maxEditDistance);
     List<Speller.CandidateData> replacementCandidates;
     if (word.length() < 50) {   // slow for long words (the limit is arbitrary)
@@ -196,7 +197,7 @@ public class MorfologikSpeller {
    * @since 2.5
    */
   public boolean convertsCase() {
-    return speller.convertsCase();
+    return dictionary.metadata.isConvertingCase();
   }
 
   @Override
@@ -204,7 +205,8 @@ public class MorfologikSpeller {
     return "dist=" + maxEditDistance;
   }
 
-  public synchronized int getFrequency(String word) {
+  public int getFrequency(String word) {
+    Speller speller = this.speller.get();
     int freq = speller.getFrequency(word);
     if (freq == 0 && !word.equals(word.toLowerCase())) {
       freq = speller.getFrequency(word.toLowerCase());
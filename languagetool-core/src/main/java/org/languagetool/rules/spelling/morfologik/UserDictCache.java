@@ -0,0 +1,165 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling.morfologik;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import morfologik.stemming.Dictionary;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Caches the Morfologik dictionaries built from the users' own words, as building them
+ * takes much longer than a check of a short text. If the user is known, words that
+ * have been added since the user's dictionary was last built go to a second, small
+ * dictionary instead of rebuilding the complete one.
+ * @since 5.4
+ */
+final class UserDictCache {
+
+  private static final int MAX_CACHED_WORDS = 2_000_000;
+  // if more words have been added than this, the user's dictionary gets rebuilt from scratch:
+  private static final int MAX_ADDED_WORDS = 200;
+
+  private static final Cache<String, UserDict> userDicts = CacheBuilder.newBuilder()
+    .maximumWeight(MAX_CACHED_WORDS)
+    .weigher((String key, UserDict dict) -> dict.words.size() + 1)
+    .expireAfterAccess(30, TimeUnit.MINUTES)
+    .build();
+  // for the words of unknown users:
+  private static final Cache<WordsKey, Dictionary> anonymousDicts = CacheBuilder.newBuilder()
+    .maximumWeight(MAX_CACHED_WORDS)
+    .weigher((WordsKey key, Dictionary dict) -> key.words.size() + 1)
+    .expireAfterAccess(30, TimeUnit.MINUTES)
+    .build();
+
+  private UserDictCache() {
+  }
+
+  /**
+   * @param userId the user the words belong to, or {@code null} if unknown
+   * @param words the user's words, not empty
+   * @param infoPath path to the {@code .info} file of the binary dictionary the words are used with
+   * @return one or two dictionaries that together contain all {@code words}
+   */
+  static List<Dictionary> getDictionaries(@Nullable Long userId, List<String> words, String infoPath) throws IOException {
+    try {
+      if (userId == null) {
+        WordsKey key = new WordsKey(infoPath, words);
+        return Collections.singletonList(anonymousDicts.get(key, () -> build(new HashSet<>(words), infoPath)));
+      }
+      UserDict dict = userDicts.asMap().compute(userId + "|" + infoPath, (k, oldDict) -> update(oldDict, words, infoPath));
+      return dict.getDictionaries();
+    } catch (ExecutionException | UncheckedIOException e) {
+      throw new IOException("Could not build dictionary from user words", e.getCause());
+    }
+  }
+
+  static void clear() {
+    userDicts.invalidateAll();
+    anonymousDicts.invalidateAll();
+  }
+
+  private static UserDict update(@Nullable UserDict oldDict, List<String> words, String infoPath) {
+    Set<String> wordSet = new HashSet<>(words);
+    try {
+      if (oldDict != null) {
+        if (oldDict.words.equals(wordSet)) {
+          return oldDict;
+        }
+        if (wordSet.containsAll(oldDict.baseWords)) {
+          Set<String> added = new HashSet<>(wordSet);
+          added.removeAll(oldDict.baseWords);
+          if (added.size() <= MAX_ADDED_WORDS) {
+            Dictionary addedDict = added.equals(oldDict.addedWords) ? oldDict.addedDict : build(added, infoPath);
+            return new UserDict(wordSet, oldDict.baseWords, oldDict.baseDict, added, addedDict);
+          }
+        }
+      }
+      return new UserDict(wordSet, wordSet, build(wordSet, infoPath), Collections.emptySet(), null);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Dictionary build(Set<String> words, String infoPath) throws IOException {
+    List<byte[]> lines = new ArrayList<>(words.size());
+    for (String word : words) {
+      lines.add(word.getBytes(UTF_8));
+    }
+    return MorfologikMultiSpeller.buildDictionary(lines, infoPath);
+  }
+
+  private static class UserDict {
+    private final Set<String> words;
+    private final Set<String> baseWords;
+    private final Dictionary baseDict;
+    private final Set<String> addedWords;
+    @Nullable
+    private final Dictionary addedDict;  // null if no words have been added
+
+    UserDict(Set<String> words, Set<String> baseWords, Dictionary baseDict, Set<String> addedWords, @Nullable Dictionary addedDict) {
+      this.words = words;
+      this.baseWords = baseWords;
+      this.baseDict = baseDict;
+      this.addedWords = addedWords;
+      this.addedDict = addedDict;
+    }
+
+    List<Dictionary> getDictionaries() {
+      return addedDict == null ? Collections.singletonList(baseDict) : Arrays.asList(baseDict, addedDict);
+    }
+  }
+
+  private static class WordsKey {
+    private final String infoPath;
+    private final List<String> words;
+    private final int hashCode;
+
+    WordsKey(String infoPath, List<String> words) {
+      this.infoPath = infoPath;
+      this.words = new ArrayList<>(words);
+      this.hashCode = Objects.hash(infoPath, this.words);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      } else if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      WordsKey that = (WordsKey) o;
+      return hashCode == that.hashCode && infoPath.equals(that.infoPath) && words.equals(that.words);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+}
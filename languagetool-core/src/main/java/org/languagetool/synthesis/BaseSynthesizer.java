@@ -18,6 +18,10 @@
  */
 package org.languagetool.synthesis;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import morfologik.stemming.Dictionary;
 import morfologik.stemming.DictionaryLookup;
 import morfologik.stemming.IStemmer;
@@ -34,8 +38,8 @@ import java.io.InputStreamReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -43,11 +47,32 @@ public class BaseSynthesizer implements Synthesizer {
 
   public final String SPELLNUMBER_TAG = "_spell_number_";
 
+  private static final int MAX_CACHED_LOOKUPS = 10_000;
+  private static final int MAX_CACHED_TAG_REGEXES = 5_000;
+
   protected volatile List<String> possibleTags;
 
   private final String tagFileName;
   private final String resourceFileName;
   private final IStemmer stemmer;
+  // DictionaryLookup is not thread-safe, but cheap to create over the shared dictionary:
+  private final ThreadLocal<IStemmer> threadStemmers = ThreadLocal.withInitial(this::createStemmer);
+  private final LoadingCache<String, List<String>> lookupCache = CacheBuilder.newBuilder()
+      .maximumSize(MAX_CACHED_LOOKUPS)
+      .build(new CacheLoader<String, List<String>>() {
+        @Override
+        public List<String> load(String lemmaAndTag) {
+          return lookupInDictionary(lemmaAndTag);
+        }
+      });
+  private final LoadingCache<String, List<String>> tagRegexCache = CacheBuilder.newBuilder()
+      .maximumSize(MAX_CACHED_TAG_REGEXES)
+      .build(new CacheLoader<String, List<String>>() {
+        @Override
+        public List<String> load(String posTagRegex) {
+          return findMatchingTags(posTagRegex);
+        }
+      });
   private final ManualSynthesizer manualSynthesizer;
   private final ManualSynthesizer removalSynthesizer;
   private final String sorosFileName;
@@ -147,13 +172,7 @@ public class BaseSynthesizer implements Synthesizer {
    * @param posTag the desired part-of-speech tag.
    */
   protected List<String> lookup(String lemma, String posTag) {
-    List<String> results = new ArrayList<>();
-    synchronized (this) { // the stemmer is not thread-safe
-      List<WordData> wordForms = stemmer.lookup(lemma + "|" + posTag);
-      for (WordData wd : wordForms) {
-        results.add(wd.getStem().toString());
-      }
-    }
+    List<String> results = new ArrayList<>(lookupCache.getUnchecked(lemma + "|" + posTag));
     if (manualSynthesizer != null) {
       List<String> manualForms = manualSynthesizer.lookup(lemma, posTag);
       if (manualForms != null) {
@@ -169,6 +188,18 @@ public class BaseSynthesizer implements Synthesizer {
     return results;
   }
 
+  private List<String> lookupInDictionary(String lemmaAndTag) {
+    List<WordData> wordForms = threadStemmers.get().lookup(lemmaAndTag);
+    if (wordForms.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<String> results = new ArrayList<>(wordForms.size());
+    for (WordData wd : wordForms) {
+      results.add(wd.getStem().toString());
+    }
+    return Collections.unmodifiableList(results);
+  }
+
   /**
    * Get a form of a given AnalyzedToken, where the form is defined by a
    * part-of-speech tag.
@@ -188,20 +219,16 @@ public class BaseSynthesizer implements Synthesizer {
   @Override
   public String[] synthesize(AnalyzedToken token, String posTag, boolean posTagRegExp) throws IOException {
     if (posTagRegExp) {
-      initPossibleTags();
-      Pattern p;
+      List<String> matchingTags;
       try {
-        p = Pattern.compile(posTag);
+        matchingTags = getMatchingTags(posTag);
       } catch (PatternSyntaxException e) {
         throw new RuntimeException("Error trying to synthesize POS tag " + posTag +
                 " (posTagRegExp: " + posTagRegExp + ") from token " + token.getToken(), e);
       }
       List<String> results = new ArrayList<>();
-      for (String tag : possibleTags) {
-        Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          results.addAll(lookup(token.getLemma(), tag));
-        }
+      for (String tag : matchingTags) {
+        results.addAll(lookup(token.getLemma(), tag));
       }
       return removeExceptions(results.toArray(new String[0]));
     }
@@ -215,7 +242,8 @@ public class BaseSynthesizer implements Synthesizer {
 
   /**
    * @since 2.5
-   * @return the stemmer interface to be used.
+   * @return the stemmer interface to be used. It is not thread-safe, {@link #lookup(String, String)}
+   * uses a stemmer per thread instead.
    */
   public IStemmer getStemmer() {
     return stemmer;
@@ -231,6 +259,36 @@ public class BaseSynthesizer implements Synthesizer {
     }
   }
 
+  /**
+   * Get all tags from the list of possible tags that match the given regular expression.
+   * The result is cached, so the regex is compiled and run over the tag list only once.
+   * @param posTagRegex regular expression for the part-of-speech tag
+   * @throws PatternSyntaxException if {@code posTagRegex} is not a valid regular expression
+   * @since 5.4
+   */
+  protected List<String> getMatchingTags(String posTagRegex) throws IOException {
+    initPossibleTags();
+    try {
+      return tagRegexCache.getUnchecked(posTagRegex);
+    } catch (UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private List<String> findMatchingTags(String posTagRegex) {
+    Pattern p = Pattern.compile(posTagRegex);
+    List<String> tags = new ArrayList<>();
+    for (String tag : possibleTags) {
+      if (p.matcher(tag).matches()) {
+        tags.add(tag);
+      }
+    }
+    return Collections.unmodifiableList(tags);
+  }
+
   private List<String> loadTags() throws IOException {
     List<String> tags;
     try (InputStream stream = JLanguageTool.getDataBroker().getFromResourceDirAsStream(tagFileName)) {
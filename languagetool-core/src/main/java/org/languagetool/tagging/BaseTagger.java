@@ -109,8 +109,19 @@ public abstract class BaseTagger implements Tagger {
     return wordTagger;
   }
 
+  /**
+   * The maximum number of words whose tags from the binary dictionary are kept in memory,
+   * as most words of a text are frequent words that have been looked up before. Return
+   * {@code 0} to disable this cache. Called by the constructor, so it must not depend on
+   * the fields of a subclass.
+   * @since 5.4
+   */
+  protected int getWordCacheSize() {
+    return 5000;
+  }
+
   private WordTagger initWordTagger(boolean internTags) {
-    MorfologikTagger morfologikTagger = new MorfologikTagger(dictionary, internTags);
+    MorfologikTagger morfologikTagger = new MorfologikTagger(dictionary, internTags, getWordCacheSize());
     try {
       ManualTagger removalTagger = null;
       InputStream stream = null;
@@ -18,8 +18,12 @@
  */
 package org.languagetool.tagging;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import morfologik.stemming.Dictionary;
 import morfologik.stemming.*;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.JLanguageTool;
 
 import java.io.IOException;
@@ -33,8 +37,12 @@ import java.util.*;
 public class MorfologikTagger implements WordTagger {
 
   private final URL dictUrl;
+  // DictionaryLookup is not thread-safe, but can be re-used by one thread:
+  private final ThreadLocal<IStemmer> dictLookups = ThreadLocal.withInitial(this::createDictLookup);
+  @Nullable
+  private final Cache<String, List<TaggedWord>> cache;
 
-  private Dictionary dictionary;
+  private volatile Dictionary dictionary;
 
   private boolean internTags;
 
@@ -44,6 +52,7 @@ public class MorfologikTagger implements WordTagger {
 
   MorfologikTagger(URL dictUrl) {
     this.dictUrl = Objects.requireNonNull(dictUrl);
+    this.cache = null;
   }
   
   /**
@@ -55,16 +64,39 @@ public class MorfologikTagger implements WordTagger {
   }
 
   public MorfologikTagger(Dictionary dictionary, boolean internTags) {
+    this(dictionary, internTags, 0);
+  }
+
+  /**
+   * @param cacheSize the maximum number of words whose tags are cached, or {@code 0} to disable the cache
+   * @since 5.4
+   */
+  public MorfologikTagger(Dictionary dictionary, boolean internTags, int cacheSize) {
     this.dictUrl = null;
     this.dictionary = dictionary;
     this.internTags = internTags;
+    this.cache = cacheSize > 0 ? CacheBuilder.newBuilder().maximumSize(cacheSize).recordStats().build() : null;
+  }
+
+  private Dictionary getDictionary() throws IOException {
+    Dictionary dict = dictionary;
+    if (dict == null) {
+      synchronized (this) {
+        dict = dictionary;
+        if (dict == null) {
+          dictionary = dict = Dictionary.read(dictUrl);
+        }
+      }
+    }
+    return dict;
   }
 
-  private synchronized Dictionary getDictionary() throws IOException {
-    if (dictionary == null) {
-      dictionary = Dictionary.read(dictUrl);
+  private IStemmer createDictLookup() {
+    try {
+      return new DictionaryLookup(getDictionary());
+    } catch (IOException e) {
+      throw new RuntimeException("Could not load dictionary " + dictUrl, e);
     }
-    return dictionary;
   }
 
   public boolean getInternTags() {
@@ -75,25 +107,48 @@ public class MorfologikTagger implements WordTagger {
     internTags = enabled;
   }
 
+  /**
+   * @return statistics (hit and miss counts etc.) of the word cache, or {@code null} if caching is disabled
+   * @since 5.4
+   */
+  @Nullable
+  public CacheStats getCacheStats() {
+    return cache != null ? cache.stats() : null;
+  }
+
   @Override
   public List<TaggedWord> tag(String word) {
-    List<TaggedWord> result = new ArrayList<>();
-    try {
-      IStemmer dictLookup = new DictionaryLookup(getDictionary());
-      List<WordData> lookup = dictLookup.lookup(word);
-      for (WordData wordData : lookup) {
-        String tag = wordData.getTag() == null ? null : wordData.getTag().toString();
+    if (cache != null) {
+      List<TaggedWord> cached = cache.getIfPresent(word);
+      if (cached == null) {
+        cached = Collections.unmodifiableList(lookup(word));
+        cache.put(word, cached);
+      }
+      // callers may modify the result:
+      return new ArrayList<>(cached);
+    }
+    return lookup(word);
+  }
+
+  private List<TaggedWord> lookup(String word) {
+    List<WordData> lookup = dictLookups.get().lookup(word);
+    if (lookup.isEmpty()) {
+      return new ArrayList<>(0);
+    }
+    boolean frequencyIncluded = dictionary.metadata.isFrequencyIncluded();
+    List<TaggedWord> result = new ArrayList<>(lookup.size());
+    for (WordData wordData : lookup) {
+      CharSequence tagData = wordData.getTag();
+      String tag = null;
+      if (tagData != null) {
         // Remove frequency data from tags (if exists)
         // The frequency data is in the last byte (without a separator)
-        if (dictionary.metadata.isFrequencyIncluded() && tag != null && tag.length() > 1) {
-          tag = tag.substring(0, tag.length() - 1);
-        }
-        String stem = wordData.getStem() == null ? null : wordData.getStem().toString();
-        TaggedWord taggedWord = new TaggedWord(stem, (internTags && tag != null) ? tag.intern() : tag);
-        result.add(taggedWord);
+        int tagLength = frequencyIncluded && tagData.length() > 1 ? tagData.length() - 1 : tagData.length();
+        tag = tagData.subSequence(0, tagLength).toString();
       }
-    } catch (IOException e) {
-      throw new RuntimeException("Could not tag word '" + word + "'", e);
+      String stem = wordData.getStem() == null ? null : wordData.getStem().toString();
+      TaggedWord taggedWord = new TaggedWord(stem, (internTags && tag != null) ? tag.intern() : tag);
+      result.add(taggedWord);
     }
     return result;
   }
@@ -24,6 +24,7 @@ import org.languagetool.rules.patterns.*;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A Rule that describes a pattern of words or part-of-speech tags used for
@@ -46,6 +47,9 @@ public class DisambiguationPatternRule extends AbstractTokenBasedRule {
   private List<DisambiguatedExample> examples = Collections.emptyList();
   private List<String> untouchedExamples = Collections.emptyList();
 
+  // a replacer not used by any thread, re-used so it doesn't need to be created for every sentence:
+  private final AtomicReference<DisambiguationPatternRuleReplacer> idleReplacer = new AtomicReference<>();
+
   /**
    * @param id Id of the Rule
    * @param language Language of the Rule
@@ -90,7 +94,29 @@ public class DisambiguationPatternRule extends AbstractTokenBasedRule {
    * @return {@link AnalyzedSentence} Disambiguated sentence (might be unchanged).
    */
   public final AnalyzedSentence replace(AnalyzedSentence sentence) throws IOException {
-    return canBeIgnoredFor(sentence) ? sentence : new DisambiguationPatternRuleReplacer(this).replace(sentence);
+    AnalyzedTokenReadings[] whTokens = sentence.getTokens().clone();
+    return replace(sentence, whTokens) ? new AnalyzedSentence(whTokens, sentence.getTokens()) : sentence;
+  }
+
+  /**
+   * Performs disambiguation on the source sentence, changing the given tokens in place.
+   * @param whTokens the tokens of {@code sentence} including whitespace, or a copy of them
+   * @return whether the tokens have been changed
+   * @since 5.4
+   */
+  final boolean replace(AnalyzedSentence sentence, AnalyzedTokenReadings[] whTokens) throws IOException {
+    if (canBeIgnoredFor(sentence)) {
+      return false;
+    }
+    DisambiguationPatternRuleReplacer replacer = idleReplacer.getAndSet(null);
+    if (replacer == null) {
+      replacer = new DisambiguationPatternRuleReplacer(this);
+    }
+    try {
+      return replacer.replace(sentence, whTokens);
+    } finally {
+      idleReplacer.set(replacer);
+    }
   }
 
   public void setExamples(List<DisambiguatedExample> examples) {
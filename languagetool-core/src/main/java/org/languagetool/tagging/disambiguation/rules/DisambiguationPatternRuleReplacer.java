@@ -43,10 +43,15 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
     super(rule, rule.getLanguage().getDisambiguationUnifier());
   }
 
-  AnalyzedSentence replace(AnalyzedSentence sentence) throws IOException {
+  /**
+   * Applies the rule to the sentence, changing {@code whTokens} in place.
+   * @param sentence the sentence to match against
+   * @param whTokens the tokens of {@code sentence} including whitespace, or a copy of them
+   *                 that will be modified (the sentence itself is not modified)
+   * @return whether the rule has matched and has changed the tokens
+   */
+  boolean replace(AnalyzedSentence sentence, AnalyzedTokenReadings[] whTokens) throws IOException {
     AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
-    AnalyzedTokenReadings[] preDisambigTokens = sentence.getTokens();
-    AnalyzedTokenReadings[][] whTokens = {sentence.getTokens()};
     boolean[] changed = {false};
 
     doMatch(sentence, tokens, (tokenPositions, firstMatchToken, lastMatchToken, firstMarkerMatchToken, lastMarkerMatchToken) -> {
@@ -64,14 +69,11 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
       }
       int matchingTokens = (int)Arrays.stream(tokenPositions).filter(i -> i != 0).count();
       if (keepDespiteFilter(tokens, tokenPositions, firstMatchToken, lastMatchToken) && keepByDisambig(sentence, ruleMatchFromPos, ruleMatchToPos)) {
-        whTokens[0] = executeAction(sentence, whTokens[0], unifiedTokens, firstMatchToken, lastMarkerMatchToken, matchingTokens, tokenPositions);
+        executeAction(sentence, whTokens, unifiedTokens, firstMatchToken, lastMarkerMatchToken, matchingTokens, tokenPositions);
         changed[0] = true;
       }
     });
-    if (changed[0]) {
-      return new AnalyzedSentence(whTokens[0], preDisambigTokens);
-    }
-    return sentence;
+    return changed[0];
   }
 
   private boolean keepByDisambig(AnalyzedSentence sentence, int ruleMatchFromPos, int ruleMatchToPos) throws IOException {
@@ -105,12 +107,11 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
     return true;
   }
 
-  private AnalyzedTokenReadings[] executeAction(AnalyzedSentence sentence,
-                                                AnalyzedTokenReadings[] whiteTokens,
-                                                AnalyzedTokenReadings[] unifiedTokens,
-                                                int firstMatchToken, int lastMatchToken,
-                                                int matchingTokens, int[] tokenPositions) {
-    AnalyzedTokenReadings[] whTokens = whiteTokens.clone();
+  private void executeAction(AnalyzedSentence sentence,
+                             AnalyzedTokenReadings[] whTokens,
+                             AnalyzedTokenReadings[] unifiedTokens,
+                             int firstMatchToken, int lastMatchToken,
+                             int matchingTokens, int[] tokenPositions) {
     DisambiguationPatternRule rule = (DisambiguationPatternRule) this.rule;
 
     int correctedStPos = 0;
@@ -321,8 +322,6 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
           matchElementState.filterReadings();
         }
       }
-
-    return whTokens;
   }
 
 }
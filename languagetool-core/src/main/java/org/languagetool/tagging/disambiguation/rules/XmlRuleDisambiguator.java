@@ -20,6 +20,7 @@
 package org.languagetool.tagging.disambiguation.rules;
 
 import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.rules.Rule;
@@ -29,8 +30,10 @@ import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 /**
  * Rule-based disambiguator.
@@ -41,8 +44,11 @@ import java.util.Objects;
 public class XmlRuleDisambiguator extends AbstractDisambiguator {
 
   private static final String DISAMBIGUATION_FILE = "disambiguation.xml";
+  private static final boolean timeRules = System.getProperty("disambiguationRuleTiming") != null;
 
   private final RuleSet disambiguationRules;
+  // only used if the 'disambiguationRuleTiming' system property is set:
+  private final Map<Rule, RuleTiming> ruleTimings = new IdentityHashMap<>();
 
   public XmlRuleDisambiguator(Language language) {
     Objects.requireNonNull(language);
@@ -52,14 +58,50 @@ public class XmlRuleDisambiguator extends AbstractDisambiguator {
     } catch (Exception e) {
       throw new RuntimeException("Problems with loading disambiguation file: " + disambiguationFile, e);
     }
+    if (timeRules) {
+      for (Rule rule : disambiguationRules.allRules()) {
+        ruleTimings.put(rule, new RuleTiming(rule.getFullId()));
+      }
+    }
   }
 
+  /**
+   * Applies all rules to a working copy of the sentence's tokens. The rules only need
+   * a light-weight copy of the sentence with the current readings after a rule has changed
+   * something, see {@link AnalyzedSentence#withChangedReadings}; the final sentence is
+   * created once at the end. As before, its pre-disambiguation tokens (used by rules with
+   * {@code raw_pos="yes"}) are the tokens from before the last rule that changed something.
+   */
   @Override
-  public AnalyzedSentence disambiguate(AnalyzedSentence sentence) throws IOException {
-    for (Rule rule : disambiguationRules.rulesForSentence(sentence)) {
-      sentence = ((DisambiguationPatternRule) rule).replace(sentence);
+  public AnalyzedSentence disambiguate(AnalyzedSentence input) throws IOException {
+    AnalyzedSentence sentence = input;
+    AnalyzedTokenReadings[] whTokens = input.getTokens().clone();
+    AnalyzedTokenReadings[] tokensBeforeLastChange = null;
+    for (Rule rule : disambiguationRules.rulesForSentence(input)) {
+      long startTime = timeRules ? System.nanoTime() : 0;
+      // the tokens of 'sentence' are a copy, so they still have the readings from before this rule:
+      AnalyzedTokenReadings[] tokensBefore = sentence.getTokens();
+      if (((DisambiguationPatternRule) rule).replace(sentence, whTokens)) {
+        sentence = sentence.withChangedReadings(whTokens);
+        tokensBeforeLastChange = tokensBefore;
+      }
+      if (timeRules) {
+        ruleTimings.get(rule).add(System.nanoTime() - startTime);
+      }
     }
-    return sentence;
+    return tokensBeforeLastChange != null ? new AnalyzedSentence(whTokens, tokensBeforeLastChange) : input;
+  }
+
+  /**
+   * The time spent in each rule, slowest rules first, to find slow disambiguation rules.
+   * Only available if the {@code disambiguationRuleTiming} system property is set, empty otherwise.
+   * @since 5.4
+   */
+  public List<RuleTiming> getRuleTimings() {
+    return ruleTimings.values().stream()
+      .filter(timing -> timing.getCount() > 0)
+      .sorted(Comparator.comparingLong(RuleTiming::getTotalNanos).reversed())
+      .collect(Collectors.toList());
   }
 
   /**
@@ -72,4 +114,49 @@ public class XmlRuleDisambiguator extends AbstractDisambiguator {
     return ruleLoader.getRules(JLanguageTool.getDataBroker().getFromResourceDirAsStream(filename));
   }
 
+  /**
+   * Number of sentences a rule has been applied to and the time it took.
+   * @since 5.4
+   */
+  public static class RuleTiming {
+
+    private final String ruleId;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    RuleTiming(String ruleId) {
+      this.ruleId = ruleId;
+    }
+
+    void add(long nanos) {
+      count.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulate(nanos);
+    }
+
+    /** @return the full id of the rule, see {@link Rule#getFullId()} */
+    public String getRuleId() {
+      return ruleId;
+    }
+
+    public long getCount() {
+      return count.sum();
+    }
+
+    public long getTotalNanos() {
+      return totalNanos.sum();
+    }
+
+    public double getMaxMillis() {
+      return maxNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ENGLISH, "%s: %d sentences, total %.2fms, max %.2fms",
+        ruleId, getCount(), getTotalNanos() / 1_000_000.0, getMaxMillis());
+    }
+  }
+
 }
@@ -19,8 +19,11 @@
 package org.languagetool.tokenizers;
 
 import net.loomchild.segment.srx.SrxDocument;
+import net.loomchild.segment.srx.SrxTextIterator;
 import org.languagetool.Language;
 
+import java.io.Reader;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 
@@ -50,7 +53,7 @@ public class SRXSentenceTokenizer implements SentenceTokenizer {
    */
   public SRXSentenceTokenizer(Language language, String srxInClassPath) {
     this.language = Objects.requireNonNull(language);
-    this.srxDocument = SrxTools.createSrxDocument(srxInClassPath);
+    this.srxDocument = SrxTools.getSrxDocument(srxInClassPath);
     setSingleLineBreaksMarksParagraph(false);
   }
 
@@ -59,6 +62,24 @@ public class SRXSentenceTokenizer implements SentenceTokenizer {
     return SrxTools.tokenize(text, srxDocument, language.getShortCode() + parCode);
   }
 
+  /**
+   * @since 5.4
+   */
+  @Override
+  public final Iterator<String> tokenizeLazily(CharSequence text) {
+    return new SrxTextIterator(srxDocument, language.getShortCode() + parCode, text);
+  }
+
+  /**
+   * Only a buffer of the text is kept in memory. The iterator throws an {@link IllegalStateException}
+   * for sentences longer than this buffer, i.e. {@link SrxTextIterator#DEFAULT_BUFFER_LENGTH} characters.
+   * @since 5.4
+   */
+  @Override
+  public final Iterator<String> tokenizeLazily(Reader reader) {
+    return new SrxTextIterator(srxDocument, language.getShortCode() + parCode, reader);
+  }
+
   @Override
   public final boolean singleLineBreaksMarksPara() {
     return "_one".equals(parCode);
@@ -18,6 +18,11 @@
  */
 package org.languagetool.tokenizers;
 
+import com.google.common.io.CharStreams;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -31,6 +36,25 @@ public interface SentenceTokenizer extends Tokenizer {
   @Override
   List<String> tokenize(String text);
 
+  /**
+   * Tokenize the given text to sentences, which are only created when the iterator gets to them,
+   * so processing can start before the complete text is tokenized.
+   * @since 5.4
+   */
+  default Iterator<String> tokenizeLazily(CharSequence text) {
+    return tokenize(text.toString()).iterator();
+  }
+
+  /**
+   * Tokenize the text read from {@code reader} to sentences, which are only created when the iterator
+   * gets to them. Implementations may read the text incrementally, so even huge texts can be tokenized
+   * with bounded memory, but this default implementation reads the complete text first.
+   * @since 5.4
+   */
+  default Iterator<String> tokenizeLazily(Reader reader) throws IOException {
+    return tokenizeLazily(CharStreams.toString(reader));
+  }
+
   /**
    * @param lineBreakParagraphs if <code>true</code>, single line breaks are assumed to end a paragraph,
    *  with <code>false</code>, only two ore more consecutive line breaks end a paragraph
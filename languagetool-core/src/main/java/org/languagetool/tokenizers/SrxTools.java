@@ -31,6 +31,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Tools for loading an SRX tokenizer file.
@@ -38,10 +39,21 @@ import java.util.Map;
  */
 final class SrxTools {
 
+  // parsing and validating an SRX file is slow, and a SrxDocument can be used by many threads:
+  private static final Map<String, SrxDocument> documents = new ConcurrentHashMap<>();
+
   private SrxTools() {
   }
 
-  static SrxDocument createSrxDocument(String path) {
+  /**
+   * @return the document for the SRX file at the given path, parsed only once and shared by all callers
+   * @since 5.4
+   */
+  static SrxDocument getSrxDocument(String path) {
+    return documents.computeIfAbsent(path, SrxTools::createSrxDocument);
+  }
+
+  private static SrxDocument createSrxDocument(String path) {
     try {
       try (
         InputStream inputStream = JLanguageTool.getDataBroker().getFromResourceDirAsStream(path);
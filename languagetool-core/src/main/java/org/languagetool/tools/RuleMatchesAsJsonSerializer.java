@@ -122,6 +122,69 @@ public class RuleMatchesAsJsonSerializer {
     return sw.toString();
   }
 
+  /**
+   * For streaming results as newline-delimited JSON: the first line, with the software and language sections.
+   * @since 5.4
+   */
+  public String streamHeaderToJson(DetectedLanguage detectedLang, boolean showPremiumHint) {
+    return toJson(g -> {
+      writeSoftwareSection(g, showPremiumHint);
+      writeLanguageSection(g, detectedLang);
+    });
+  }
+
+  /**
+   * For streaming results as newline-delimited JSON: one line with the matches of a part of
+   * the text (usually a sentence), which starts at {@code fromPos} and ends at {@code toPos}.
+   * @since 5.4
+   */
+  public String streamMatchesToJson(List<RuleMatch> matches, AnnotatedText text, int contextSize, int fromPos, int toPos) {
+    ContextTools contextTools = new ContextTools();
+    contextTools.setEscapeHtml(false);
+    contextTools.setContextSize(contextSize);
+    contextTools.setErrorMarker(START_MARKER, "");
+    return toJson(g -> {
+      g.writeNumberField("offset", fromPos);
+      g.writeNumberField("length", toPos - fromPos);
+      writeMatchesSection("matches", g, Collections.singletonList(new CheckResults(matches, Collections.emptyList())), text, contextTools);
+    });
+  }
+
+  /**
+   * For streaming results as newline-delimited JSON: the last line, with the warnings section.
+   * @param incompleteResultsReason use a string that explains why results are incomplete (e.g. due to a timeout),
+   *        use {@code null} if results are complete
+   * @since 5.4
+   */
+  public String streamFooterToJson(String incompleteResultsReason) {
+    return toJson(g -> {
+      g.writeObjectFieldStart("warnings");
+      g.writeBooleanField("incompleteResults", incompleteResultsReason != null);
+      if (incompleteResultsReason != null) {
+        g.writeStringField("incompleteResultsReason", incompleteResultsReason);
+      }
+      g.writeEndObject();
+    });
+  }
+
+  private String toJson(JsonWriter writer) {
+    StringWriter sw = new StringWriter();
+    try {
+      try (JsonGenerator g = factory.createGenerator(sw)) {
+        g.writeStartObject();
+        writer.write(g);
+        g.writeEndObject();
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return sw.toString();
+  }
+
+  private interface JsonWriter {
+    void write(JsonGenerator g) throws IOException;
+  }
+
   private void writeSoftwareSection(JsonGenerator g, boolean showPremiumHint) throws IOException {
     if (compactMode == 1) {
       return;
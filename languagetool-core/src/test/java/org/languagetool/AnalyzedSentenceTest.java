@@ -21,8 +21,10 @@ package org.languagetool;
 
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotEquals;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
 
 public class AnalyzedSentenceTest {
 
@@ -53,4 +55,25 @@ public class AnalyzedSentenceTest {
     assertNotEquals(sentence, copySentence);
   }
 
+  @Test
+  public void testWithChangedReadings() {
+    AnalyzedTokenReadings[] words = new AnalyzedTokenReadings[4];
+    words[0] = new AnalyzedTokenReadings(new AnalyzedToken("", "SENT_START", null));
+    words[1] = new AnalyzedTokenReadings(new AnalyzedToken("word", "POS", "lemma"));
+    words[2] = new AnalyzedTokenReadings(new AnalyzedToken(" ", null, null));
+    words[3] = new AnalyzedTokenReadings(new AnalyzedToken("test", "POS", "test"));
+    AnalyzedSentence sentence = new AnalyzedSentence(words);
+    AnalyzedTokenReadings[] changed = words.clone();
+    changed[3] = new AnalyzedTokenReadings(words[3], Collections.singletonList(new AnalyzedToken("test", "POS2", "testlemma")), "");
+    AnalyzedSentence changedSentence = sentence.withChangedReadings(changed);
+    changed[1] = null;  // the array is copied
+    assertEquals(new AnalyzedSentence(words.clone()).toString(), sentence.toString());
+    assertEquals("<S> word[lemma/POS] test[testlemma/POS2]", changedSentence.toString());
+    assertEquals(Arrays.asList(words[0], words[1], changed[3]), Arrays.asList(changedSentence.getTokensWithoutWhitespace()));
+    assertEquals(3, changedSentence.getOriginalPosition(2));
+    assertEquals(Collections.singletonList(2), changedSentence.getLemmaOffsets("testlemma"));
+    assertNull(changedSentence.getLemmaOffsets("test"));
+    assertEquals(Collections.singletonList(2), changedSentence.getTokenOffsets("test"));
+  }
+
 }
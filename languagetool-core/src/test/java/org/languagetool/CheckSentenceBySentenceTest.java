@@ -0,0 +1,112 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.language.Demo;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CheckSentenceBySentenceTest {
+
+  private static final String TEXT = "A small toast. No error here.\nFoo go bar. First goes last there, please!";
+
+  @Test
+  public void testSameMatchesAsCheck() throws IOException {
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    List<RuleMatch> expected = lt.check(TEXT);
+    List<RuleMatch> streamed = new ArrayList<>();
+    List<Integer> sentenceStarts = new ArrayList<>();
+    lt.checkSentenceBySentence(new AnnotatedTextBuilder().addText(TEXT).build(), JLanguageTool.ParagraphHandling.NORMAL,
+      JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, new SentenceMatchListener() {
+        @Override
+        public boolean sentenceChecked(int fromPos, int toPos, List<RuleMatch> matches) {
+          sentenceStarts.add(fromPos);
+          for (RuleMatch match : matches) {
+            assertTrue(match.getFromPos() >= fromPos && match.getToPos() <= toPos);
+          }
+          streamed.addAll(matches);
+          return true;
+        }
+        @Override
+        public void textChecked(List<RuleMatch> matches) {
+          streamed.addAll(matches);
+        }
+      });
+    assertEquals("[0, 15, 30, 42]", sentenceStarts.toString());
+    assertEquals(expected.size(), streamed.size());
+    for (RuleMatch match : expected) {
+      assertTrue("Not found: " + match, streamed.stream().anyMatch(m -> m.getRule().getId().equals(match.getRule().getId()) &&
+        m.getFromPos() == match.getFromPos() && m.getToPos() == match.getToPos() &&
+        m.getLine() == match.getLine() && m.getColumn() == match.getColumn()));
+    }
+  }
+
+  @Test
+  public void testStop() throws IOException {
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    List<Integer> sentenceStarts = new ArrayList<>();
+    lt.checkSentenceBySentence(new AnnotatedTextBuilder().addText(TEXT).build(), JLanguageTool.ParagraphHandling.NORMAL,
+      JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, new SentenceMatchListener() {
+        @Override
+        public boolean sentenceChecked(int fromPos, int toPos, List<RuleMatch> matches) {
+          sentenceStarts.add(fromPos);
+          return sentenceStarts.size() < 2;
+        }
+        @Override
+        public void textChecked(List<RuleMatch> matches) {
+          fail("text-level rules should not run after stopping");
+        }
+      });
+    assertEquals(2, sentenceStarts.size());
+  }
+
+  @Test
+  public void testMarkup() throws IOException {
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    AnnotatedText text = new AnnotatedTextBuilder().addMarkup("<p>").addText("A small toast. ").addMarkup("</p>")
+      .addMarkup("<p>").addText("Foo go bar.").addMarkup("</p>").build();
+    List<RuleMatch> expected = lt.check(text);
+    List<RuleMatch> streamed = new ArrayList<>();
+    List<String> sentences = new ArrayList<>();
+    String original = "<p>A small toast. </p><p>Foo go bar.</p>";
+    lt.checkSentenceBySentence(text, JLanguageTool.ParagraphHandling.NORMAL,
+      JLanguageTool.Mode.ALL_BUT_TEXTLEVEL_ONLY, JLanguageTool.Level.DEFAULT, (fromPos, toPos, matches) -> {
+        sentences.add(original.substring(fromPos, toPos));
+        streamed.addAll(matches);
+        return true;
+      });
+    assertEquals(2, sentences.size());
+    assertEquals("A small toast. </p><p>", sentences.get(0));
+    assertTrue(sentences.get(1).startsWith("Foo go bar."));
+    assertFalse(streamed.isEmpty());
+    for (RuleMatch match : streamed) {
+      assertTrue("Not found: " + match, expected.stream().anyMatch(m -> m.getRule().getId().equals(match.getRule().getId()) &&
+        m.getFromPos() == match.getFromPos() && m.getToPos() == match.getToPos()));
+    }
+  }
+
+}
@@ -0,0 +1,192 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.spelling.hunspell.HunspellRule;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class PersistentResultCacheTest {
+
+  private static final String TEXT = "This is foo bar.";
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testSurvivesRestart() throws IOException {
+    File dir = tempFolder.newFolder();
+    List<RuleMatch> expected = check(dir, 0, 1);
+    assertFalse(expected.isEmpty());
+    // a new cache with the same directory, like after a restart:
+    List<RuleMatch> cached = check(dir, 1, 0);
+    assertEquals(expected.size(), cached.size());
+    for (int i = 0; i < expected.size(); i++) {
+      RuleMatch expectedMatch = expected.get(i);
+      RuleMatch cachedMatch = cached.get(i);
+      assertEquals(expectedMatch.getRule().getFullId(), cachedMatch.getRule().getFullId());
+      assertEquals(expectedMatch.getFromPos(), cachedMatch.getFromPos());
+      assertEquals(expectedMatch.getToPos(), cachedMatch.getToPos());
+      assertEquals(expectedMatch.getMessage(), cachedMatch.getMessage());
+      assertEquals(expectedMatch.getSuggestedReplacements(), cachedMatch.getSuggestedReplacements());
+    }
+  }
+
+  @Test
+  public void testChangedConfigIsNotFound() throws IOException {
+    File dir = tempFolder.newFolder();
+    check(dir, 0, 1);
+    try (PersistentResultCache persistentCache = new PersistentResultCache(dir, 1_000_000)) {
+      JLanguageTool lt = new JLanguageTool(new Demo(), null, new ResultCache(1000, 5, TimeUnit.MINUTES, persistentCache));
+      lt.disableRule("REGEX_DEMO_RULE");
+      lt.check(TEXT);
+      assertEquals(0, persistentCache.getHitCount());
+    }
+  }
+
+  @Test
+  public void testOtherTextSessionIsFound() throws IOException {
+    File dir = tempFolder.newFolder();
+    assertEquals(0, checkInSession(dir, 1L));
+    assertEquals(1, checkInSession(dir, 2L));
+  }
+
+  @Test
+  public void testLazySuggestionsAreNotComputed() throws IOException {
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    org.languagetool.rules.Rule rule = lt.getAllActiveRules().get(0);
+    RuleMatch match = new RuleMatch(rule, lt.getAnalyzedSentence(TEXT), 0, 4, "Test message");
+    AtomicBoolean computed = new AtomicBoolean();
+    match.setLazySuggestedReplacements(() -> {
+      computed.set(true);
+      return Collections.emptyList();
+    });
+    try (PersistentResultCache persistentCache = new PersistentResultCache(tempFolder.newFolder(), 1_000_000)) {
+      persistentCache.put("config", TEXT, Collections.singletonList(match), id -> rule);
+      assertFalse(computed.get());
+      assertEquals(0, persistentCache.getEntryCount());
+      // stored once the suggestions are needed anyway, e.g. for the response:
+      match.getSuggestedReplacements();
+      assertEquals(1, persistentCache.getEntryCount());
+    }
+  }
+
+  @Test
+  public void testSpellerMatchSurvivesRestart() throws IOException {
+    File dir = tempFolder.newFolder();
+    String text = "das ist ihfsdsdfi";
+    List<String> expectedSuggestions;
+    try (PersistentResultCache persistentCache = new PersistentResultCache(dir, 1_000_000)) {
+      JLanguageTool lt = createSpellingLt(persistentCache);
+      List<RuleMatch> matches = lt.check(text);
+      assertEquals(1, matches.size());
+      assertEquals(0, persistentCache.getEntryCount());  // the suggestions haven't been computed yet
+      expectedSuggestions = matches.get(0).getSuggestedReplacements();
+      assertEquals(1, persistentCache.getEntryCount());
+    }
+    try (PersistentResultCache persistentCache = new PersistentResultCache(dir, 1_000_000)) {
+      JLanguageTool lt = createSpellingLt(persistentCache);
+      List<RuleMatch> matches = lt.check(text);
+      assertEquals(1, persistentCache.getHitCount());
+      assertEquals(1, matches.size());
+      assertEquals(HunspellRule.RULE_ID, matches.get(0).getRule().getId());
+      assertEquals(8, matches.get(0).getFromPos());
+      assertEquals(expectedSuggestions, matches.get(0).getSuggestedReplacements());
+    }
+  }
+
+  private JLanguageTool createSpellingLt(PersistentResultCache persistentCache) throws IOException {
+    Demo lang = new Demo();
+    JLanguageTool lt = new JLanguageTool(lang, null, new ResultCache(1000, 5, TimeUnit.MINUTES, persistentCache));
+    lt.addRule(new HunspellRule(TestTools.getEnglishMessages(), lang, null));
+    lt.disableRule("test_unification_with_negation");  // would hide the spelling match
+    return lt;
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    File dir = tempFolder.newFolder();
+    long maxSize = 10_000;
+    try (PersistentResultCache persistentCache = new PersistentResultCache(dir, maxSize)) {
+      for (int i = 0; i < 1000; i++) {
+        persistentCache.put("config", "Sentence number " + i, Collections.emptyList(), id -> null);
+      }
+      assertTrue(persistentCache.getSizeInBytes() <= maxSize);
+      assertTrue(persistentCache.getEntryCount() < 1000);
+      assertNotNull(persistentCache.get("config", "Sentence number 999", null, id -> null));
+      assertNull(persistentCache.get("config", "Sentence number 0", null, id -> null));
+    }
+  }
+
+  @Test
+  public void testBrokenRecordIsRemoved() throws IOException {
+    File dir = tempFolder.newFolder();
+    try (PersistentResultCache persistentCache = new PersistentResultCache(dir, 1_000_000)) {
+      persistentCache.put("config", "first", Collections.emptyList(), id -> null);
+      persistentCache.put("config", "second", Collections.emptyList(), id -> null);
+    }
+    // simulate a crash while writing the last record:
+    File segment = new File(dir, "matches-0.seg");
+    try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+      file.setLength(file.length() - 3);
+    }
+    try (PersistentResultCache persistentCache = new PersistentResultCache(dir, 1_000_000)) {
+      assertEquals(1, persistentCache.getEntryCount());
+      assertNotNull(persistentCache.get("config", "first", null, id -> null));
+      assertNull(persistentCache.get("config", "second", null, id -> null));
+      persistentCache.put("config", "third", Collections.emptyList(), id -> null);
+    }
+    try (PersistentResultCache persistentCache = new PersistentResultCache(dir, 1_000_000)) {
+      assertEquals(2, persistentCache.getEntryCount());
+    }
+  }
+
+  private long checkInSession(File dir, long textSessionId) throws IOException {
+    try (PersistentResultCache persistentCache = new PersistentResultCache(dir, 1_000_000)) {
+      UserConfig userConfig = new UserConfig(Collections.emptyList(), Collections.emptyMap(), 0, null, null, false, null, textSessionId);
+      JLanguageTool lt = new JLanguageTool(new Demo(), null, new ResultCache(1000, 5, TimeUnit.MINUTES, persistentCache), userConfig);
+      lt.check(TEXT);
+      return persistentCache.getHitCount();
+    }
+  }
+
+  private List<RuleMatch> check(File dir, int expectedHits, int expectedMisses) throws IOException {
+    try (PersistentResultCache persistentCache = new PersistentResultCache(dir, 1_000_000)) {
+      JLanguageTool lt = new JLanguageTool(new Demo(), null, new ResultCache(1000, 5, TimeUnit.MINUTES, persistentCache));
+      List<RuleMatch> matches = lt.check(TEXT);
+      assertEquals(expectedHits, persistentCache.getHitCount());
+      assertEquals(expectedMisses, persistentCache.getMissCount());
+      return matches;
+    }
+  }
+
+}
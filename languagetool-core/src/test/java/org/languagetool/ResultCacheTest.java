@@ -0,0 +1,76 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.language.Demo;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ResultCacheTest {
+
+  private final Demo lang = new Demo();
+  private final JLanguageTool lt = new JLanguageTool(lang);
+
+  @Test
+  public void testSizeInBytes() throws IOException {
+    ResultCache cache = new ResultCache(1_000_000, true, false, 5, TimeUnit.MINUTES, null);
+    String shortText = "A short sentence.";
+    String longText = "A much longer sentence that has many more tokens, readings and lemmas than the short one.";
+    cache.put(new SimpleInputSentence(shortText, lang), lt.getAnalyzedSentence(shortText));
+    long shortSize = cache.getSentenceCacheSizeInBytes();
+    assertTrue(shortSize > shortText.length());
+    cache.put(new SimpleInputSentence(longText, lang), lt.getAnalyzedSentence(longText));
+    long longSize = cache.getSentenceCacheSizeInBytes() - shortSize;
+    assertTrue(longSize > shortSize * 2);
+    cache.getSentenceCache().invalidateAll();
+    assertEquals(0, cache.getSentenceCacheSizeInBytes());
+  }
+
+  @Test
+  public void testMaxSizeInBytes() throws IOException {
+    ResultCache cache = new ResultCache(20_000, true, false, 5, TimeUnit.MINUTES, null);
+    for (int i = 0; i < 200; i++) {
+      String text = "This is sentence number " + i + ".";
+      cache.put(new SimpleInputSentence(text, lang), lt.getAnalyzedSentence(text));
+    }
+    assertTrue(cache.getSentenceCache().size() < 200);
+    assertTrue(cache.getSentenceCacheSizeInBytes() <= 10_000);
+  }
+
+  @Test
+  public void testFrequencyAdmission() throws IOException {
+    ResultCache cache = new ResultCache(1000, false, true, 5, TimeUnit.MINUTES, null);
+    String text = "A sentence.";
+    SimpleInputSentence key = new SimpleInputSentence(text, lang);
+    AnalyzedSentence sentence = lt.getAnalyzedSentence(text);
+    assertNull(cache.getIfPresent(key));
+    cache.put(key, sentence);
+    // seen only once, so not added:
+    assertEquals(1, cache.getRejectedCount());
+    assertNull(cache.getIfPresent(key));
+    cache.put(key, sentence);
+    assertSame(sentence, cache.getIfPresent(key));
+    assertEquals(1, cache.getRejectedCount());
+  }
+
+}
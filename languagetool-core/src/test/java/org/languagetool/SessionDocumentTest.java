@@ -0,0 +1,144 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.language.Demo;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.MultipleWhitespaceRule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.TextLevelRule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class SessionDocumentTest {
+
+  @Test
+  public void testSplitParagraphs() {
+    assertEquals("[]", SessionDocument.splitParagraphs(Arrays.asList(), false).toString());
+    assertEquals("[[A. , B.\n], [\nC.]]", SessionDocument.splitParagraphs(Arrays.asList("A. ", "B.\n", "\nC."), false).toString());
+    assertEquals("[[A.\n\n], [B.]]", SessionDocument.splitParagraphs(Arrays.asList("A.\n\n", "B."), false).toString());
+    assertEquals("[[A.\n], [B.]]", SessionDocument.splitParagraphs(Arrays.asList("A.\n", "B."), true).toString());
+  }
+
+  @Test
+  public void testEstimateBytes() throws IOException {
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    SessionDocument session = new SessionDocument();
+    assertEquals(0, session.estimateBytes());
+    lt.checkIncrementally(new AnnotatedTextBuilder().addText("A small text.\n\nAnd another paragraph.").build(), session,
+      JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, null, null);
+    long shortTextBytes = session.estimateBytes();
+    assertTrue(shortTextBytes > 1000);
+    lt.checkIncrementally(new AnnotatedTextBuilder().addText("A small text.\n\nAnd another paragraph.\n\nAnd a third one.").build(), session,
+      JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, null, null);
+    assertTrue(session.estimateBytes() > shortTextBytes);
+  }
+
+  @Test
+  public void testSameMatchesAsCheck() throws IOException {
+    FooRule fooRule = new FooRule();
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    lt.addRule(fooRule);
+    lt.addRule(new MultipleWhitespaceRule(TestTools.getEnglishMessages(), lt.getLanguage()));
+    SessionDocument session = new SessionDocument();
+    String[] texts = {
+      "Foo is here.  A small toast.\n\nNo error here.\n\nFoo and  bar.",
+      "Foo is here.  A small toast.\n\nNo error here, foo.\n\nFoo and  bar.",
+      "Foo is here.  A small toast.\n\nNo error here, foo.\n\nFoo and  bar.",
+      "Foo is here.  A small toast.\n\nFoo, an  error here.\n\nNo error here, foo.\n\nFoo and  bar.",
+      "Foo is here.  A small toast.\n\nFoo and  bar.",
+      "Foo is here.  A small toast.\n\nFoo and  bar.\n\nFoo.",
+      "Foo is here.",
+    };
+    int[] expectedChanged = {3, 1, 0, 1, 0, 2, 1};
+    int[] expectedFooRuleSentences = {4, 1, 0, 1, 0, 2, 1};
+    for (int i = 0; i < texts.length; i++) {
+      fooRule.sentenceCount = 0;
+      List<RuleMatch> incremental = lt.checkIncrementally(new AnnotatedTextBuilder().addText(texts[i]).build(), session,
+        JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, null, null).getRuleMatches();
+      assertEquals(texts[i], expectedChanged[i], session.getChangedParagraphCount());
+      assertEquals(texts[i], expectedFooRuleSentences[i], fooRule.sentenceCount);
+      List<RuleMatch> expected = lt.check(texts[i]);
+      assertEquals(texts[i], toString(expected), toString(incremental));
+    }
+  }
+
+  @Test
+  public void testConfigChange() throws IOException {
+    FooRule fooRule = new FooRule();
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    lt.addRule(fooRule);
+    SessionDocument session = new SessionDocument();
+    String text = "Foo is here.\n\nFoo and bar.";
+    lt.checkIncrementally(new AnnotatedTextBuilder().addText(text).build(), session,
+      JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, null, null);
+    lt.disableRule(fooRule.getId());
+    List<RuleMatch> matches = lt.checkIncrementally(new AnnotatedTextBuilder().addText(text).build(), session,
+      JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, null, null).getRuleMatches();
+    assertEquals(2, session.getChangedParagraphCount());
+    assertTrue(matches.stream().noneMatch(m -> m.getRule() == fooRule));
+  }
+
+  private static String toString(List<RuleMatch> matches) {
+    return matches.stream()
+      .map(m -> m.getRule().getId() + ":" + m.getFromPos() + "-" + m.getToPos() + ":" + m.getLine() + "/" + m.getColumn())
+      .sorted()
+      .collect(Collectors.toList())
+      .toString();
+  }
+
+  /** Finds "foo" at the start of a sentence and counts the sentences it has been run on. */
+  static class FooRule extends TextLevelRule {
+    int sentenceCount;
+    @Override
+    public String getId() {
+      return "FOO_AT_START";
+    }
+    @Override
+    public String getDescription() {
+      return "Test rule";
+    }
+    @Override
+    public RuleMatch[] match(List<AnalyzedSentence> sentences) {
+      List<RuleMatch> matches = new ArrayList<>();
+      int pos = 0;
+      for (AnalyzedSentence sentence : sentences) {
+        sentenceCount++;
+        AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
+        if (tokens.length > 1 && tokens[1].getToken().equalsIgnoreCase("foo")) {
+          matches.add(new RuleMatch(this, sentence, pos + tokens[1].getStartPos(), pos + tokens[1].getEndPos(), "Foo found"));
+        }
+        pos += sentence.getCorrectedTextLength();
+      }
+      return toRuleMatchArray(matches);
+    }
+    @Override
+    public int minToCheckParagraph() {
+      return 0;
+    }
+  }
+
+}
@@ -0,0 +1,130 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.language;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+
+public class FastTextProcessPoolTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testPredict() throws IOException {
+    FastTextProcessPool pool = new FastTextProcessPool(new File("model.bin"), createFakeFasttext(), 5, 2);
+    try {
+      List<String> texts = new ArrayList<>();
+      for (int i = 0; i < 500; i++) {
+        texts.add(i % 2 == 0 ? "en " + i : "de " + i);
+      }
+      List<Map<String, Double>> result = pool.predict(texts);
+      assertEquals(500, result.size());
+      for (int i = 0; i < 500; i++) {
+        String expected = i % 2 == 0 ? "en" : "de";
+        assertEquals(0.9, result.get(i).get(expected), 0.00001);
+      }
+    } finally {
+      pool.close();
+    }
+  }
+
+  @Test
+  public void testRestart() throws IOException {
+    FastTextProcessPool pool = new FastTextProcessPool(new File("model.bin"), createFakeFasttext(), 5, 1);
+    try {
+      try {
+        pool.predict(Collections.singletonList("crash"));
+        fail();
+      } catch (IOException expected) {}
+      assertTrue(pool.isAlive());
+      assertEquals(0.9, pool.predict(Collections.singletonList("de")).get(0).get("de"), 0.00001);
+    } finally {
+      pool.close();
+    }
+    assertFalse(pool.isAlive());
+  }
+
+  @Test
+  public void testNoEndlessRestarts() throws Exception {
+    assumeFalse(System.getProperty("os.name").toLowerCase().startsWith("windows"));
+    File script = tempFolder.newFile("fasttext-broken");
+    Files.write(script.toPath(), "#!/bin/sh\nexit 1\n".getBytes(StandardCharsets.UTF_8));
+    assertTrue(script.setExecutable(true));
+    FastTextProcessPool pool = new FastTextProcessPool(new File("model.bin"), script, 5, 1);
+    try {
+      long deadline = System.currentTimeMillis() + 20_000;
+      while (pool.isAlive() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(50);
+      }
+      assertFalse(pool.isAlive());
+      try {
+        pool.predict(Collections.singletonList("de"));
+        fail();
+      } catch (IOException expected) {}
+    } finally {
+      pool.close();
+    }
+  }
+
+  @Test
+  public void testFastTextWithPredictor() throws IOException {
+    FastText fastText = new FastText(texts -> {
+      List<Map<String, Double>> result = new ArrayList<>();
+      for (String text : texts) {
+        assertFalse(text.contains("\n"));
+        Map<String, Double> map = new HashMap<>();
+        map.put("xy", 0.7);
+        map.put("zz", 0.3);
+        result.add(map);
+      }
+      return result;
+    });
+    Map<String, Double> result = fastText.runFasttext("foo\nbar", Arrays.asList("xy"));
+    assertEquals("{xy=0.7}", result.toString());
+  }
+
+  // answers like fasttext predict-prob: "en" for texts starting with "en", "de" otherwise, exits for "crash"
+  private File createFakeFasttext() throws IOException {
+    assumeFalse(System.getProperty("os.name").toLowerCase().startsWith("windows"));
+    File script = tempFolder.newFile("fasttext");
+    String content = "#!/bin/sh\n" +
+      "while IFS= read -r line; do\n" +
+      "  case \"$line\" in\n" +
+      "    crash) exit 1;;\n" +
+      "    en*) echo \"__label__en 0.9 __label__de 0.1\";;\n" +
+      "    *) echo \"__label__de 0.9 __label__en 0.1\";;\n" +
+      "  esac\n" +
+      "done\n";
+    Files.write(script.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    assertTrue(script.setExecutable(true));
+    return script;
+  }
+
+}
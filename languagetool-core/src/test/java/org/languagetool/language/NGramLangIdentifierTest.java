@@ -0,0 +1,82 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.language;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+public class NGramLangIdentifierTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testDetectLanguages() throws IOException {
+    // vocab: 0=<unk>, 1=<s>, 2=▁, 3=▁the, 4=▁der, 5=<NUM>, 6=t, 7=he
+    File model = createModel(
+      "<unk>\n<s>\n▁\n▁the\n▁der\n<NUM>\nt\nhe\n",
+      "1 3 0.5\n3 3 0.4\n3 2 0.3\n2 5 0.2\n",
+      "1 4 0.5\n4 4 0.4\n4 2 0.3\n2 5 0.2\n");
+    NGramLangIdentifier identifier = new NGramLangIdentifier(model, 50);
+    List<String> codes = Arrays.asList("en", "de");  // the languages are not in the classpath
+    Map<String, Double> result = identifier.detectLanguages("The the", codes);
+    assertTrue(result.get("en") > 0.99);
+    result = identifier.detectLanguages("der  DER", codes);
+    assertTrue(result.get("de") > 0.99);
+    // "▁" and "<NUM>" are known bigrams in both languages:
+    result = identifier.detectLanguages(" 123", codes);
+    assertEquals(0.5, result.get("en"), 0.0001);
+    assertEquals(0.5, result.get("de"), 0.0001);
+    // longest match tokenization: "▁the" + "t" + "he"
+    result = identifier.detectLanguages("thethe", codes);
+    assertTrue(result.get("en") > 0.99);
+  }
+
+  private File createModel(String vocab, String enBigrams, String deBigrams) throws IOException {
+    File zip = tempFolder.newFile("model.zip");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+      addEntry(out, "iso_codes.tsv", "English\ten\teng\t1\nGerman\tde\tdeu\t1\n");
+      addEntry(out, "vocab.txt", vocab);
+      addEntry(out, "thresholds.txt", "100\n");
+      addEntry(out, "00.txt", enBigrams);
+      addEntry(out, "01.txt", deBigrams);
+    }
+    return zip;
+  }
+
+  private void addEntry(ZipOutputStream out, String name, String content) throws IOException {
+    out.putNextEntry(new ZipEntry(name));
+    out.write(content.getBytes(StandardCharsets.UTF_8));
+    out.closeEntry();
+  }
+
+}
@@ -0,0 +1,73 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CachingLanguageModelTest {
+
+  @Test
+  public void testCache() throws Exception {
+    URL ngramUrl = JLanguageTool.getDataBroker().getFromResourceDirAsUrl("/yy/ngram-index");
+    try (CachingLanguageModel model = new CachingLanguageModel(new LuceneLanguageModel(new File(ngramUrl.toURI())), 100)) {
+      assertThat(model.getCount("the"), is(55L));
+      assertThat(model.getCacheStats().hitCount(), is(0L));
+      assertThat(model.getRejectedCount(), is(1L));  // only looked up once so far
+      assertThat(model.getCount("the"), is(55L));
+      assertThat(model.getCache().size(), is(1L));
+      assertThat(model.getCount("the"), is(55L));
+      assertThat(model.getCacheStats().hitCount(), is(1L));
+      assertThat(model.getCount(Arrays.asList("the", "nice")), is(3L));
+      assertThat(model.getCount(Arrays.asList("the", "nice", "building")), is(1L));
+      assertThat(model.getCount("not-in-here"), is(0L));
+      assertThat(model.getTotalTokenCount(), is(3L));
+    }
+  }
+
+  @Test
+  public void testGetCounts() throws Exception {
+    URL ngramUrl = JLanguageTool.getDataBroker().getFromResourceDirAsUrl("/yy/ngram-index");
+    try (CachingLanguageModel model = new CachingLanguageModel(new LuceneLanguageModel(new File(ngramUrl.toURI())), 100)) {
+      List<List<String>> ngrams = Arrays.asList(
+        Collections.singletonList("the"),
+        Arrays.asList("the", "nice"),
+        Collections.singletonList("not-in-here"),
+        Collections.singletonList("the"));
+      for (int i = 0; i < 3; i++) {
+        long[] counts = model.getCounts(ngrams);
+        assertThat(counts[0], is(55L));
+        assertThat(counts[1], is(3L));
+        assertThat(counts[2], is(0L));
+        assertThat(counts[3], is(55L));
+      }
+      assertThat(model.getCache().size(), is(3L));
+    }
+  }
+
+}
@@ -21,10 +21,13 @@ package org.languagetool.languagemodel;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.languagetool.JLanguageTool;
+import org.languagetool.rules.ngrams.Probability;
 
 import java.io.File;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -43,6 +46,31 @@ public class LuceneSingleIndexLanguageModelTest extends LanguageModelTest {
     }
   }
 
+  @Test
+  public void testGetCounts() throws Exception {
+    URL ngramUrl = JLanguageTool.getDataBroker().getFromResourceDirAsUrl("/yy/ngram-index");
+    try (LuceneLanguageModel model = new LuceneLanguageModel(new File(ngramUrl.toURI()))) {
+      List<List<String>> ngrams = Arrays.asList(
+        Arrays.asList("the", "nice", "building"),
+        Collections.singletonList("the"),
+        Collections.singletonList("not-in-here"),
+        Arrays.asList("the", "nice"),
+        Collections.singletonList("the"));
+      long[] counts = model.getCounts(ngrams);
+      assertThat(counts.length, is(ngrams.size()));
+      for (int i = 0; i < counts.length; i++) {
+        assertThat(counts[i], is(model.getCount(ngrams.get(i))));
+      }
+      List<List<String>> contexts = Arrays.asList(Arrays.asList("the", "nice", "building"), Arrays.asList("the", "nice"));
+      List<Probability> probs = model.getPseudoProbabilities(contexts);
+      for (int i = 0; i < contexts.size(); i++) {
+        Probability expected = model.getPseudoProbability(contexts.get(i));
+        assertThat(probs.get(i).getProb(), is(expected.getProb()));
+        assertThat(probs.get(i).getCoverage(), is(expected.getCoverage()));
+      }
+    }
+  }
+
   /**
    * Some values for average time per lookup on 2grams on a 3.7GB Lucene 4.8.1 index with 118,941,740 docs:
    * -no data in OS cache, index on external USB disk: 17626µs = 17ms
@@ -0,0 +1,117 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.*;
+
+public class MemoryMappedLanguageModelTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testLanguageModel() throws IOException {
+    File dir = tempFolder.newFolder();
+    try (NgramCountFileWriter writer = new NgramCountFileWriter(new File(dir, "1grams.counts"), 3)) {
+      writer.add("building", 1);
+      writer.add("nice", 4);
+      writer.add("the", 55);
+      writer.add("über", 2);
+    }
+    try (NgramCountFileWriter writer = new NgramCountFileWriter(new File(dir, "2grams.counts"), 0)) {
+      writer.add("the nice", 3);
+    }
+    try (NgramCountFileWriter writer = new NgramCountFileWriter(new File(dir, "3grams.counts"), 0)) {
+      writer.add("the nice building", 1);
+    }
+    assertTrue(MemoryMappedLanguageModel.isModelDirectory(dir));
+    try (MemoryMappedLanguageModel model = new MemoryMappedLanguageModel(dir)) {
+      assertThat(model.getCount("the"), is(55L));
+      assertThat(model.getCount("über"), is(2L));
+      assertThat(model.getCount(Arrays.asList("the", "nice")), is(3L));
+      assertThat(model.getCount(Arrays.asList("the", "nice", "building")), is(1L));
+      assertThat(model.getCount("not-in-here"), is(0L));
+      assertThat(model.getCount("th"), is(0L));
+      assertThat(model.getCount("thee"), is(0L));
+      assertThat(model.getCount("a"), is(0L));
+      assertThat(model.getCount("zzz"), is(0L));
+      assertThat(model.getTotalTokenCount(), is(3L));
+      try {
+        model.getCount(Arrays.asList("a", "b", "c", "d"));
+        fail();
+      } catch (RuntimeException expected) {}
+    }
+  }
+
+  @Test
+  public void testManyNgrams() throws IOException {
+    Random random = new Random(42);
+    TreeMap<String, Long> expected = new TreeMap<>(Comparator.comparing((String s) -> s.getBytes(StandardCharsets.UTF_8), Utf8Order.INSTANCE));
+    while (expected.size() < 10_000) {
+      StringBuilder sb = new StringBuilder();
+      int len = 1 + random.nextInt(12);
+      for (int i = 0; i < len; i++) {
+        sb.append("abcäö xyz".charAt(random.nextInt(9)));
+      }
+      expected.put(sb.toString(), random.nextBoolean() ? random.nextInt(200) : Math.abs(random.nextLong()));
+    }
+    File file = tempFolder.newFile();
+    try (NgramCountFileWriter writer = new NgramCountFileWriter(file, 0)) {
+      for (Map.Entry<String, Long> entry : expected.entrySet()) {
+        writer.add(entry.getKey(), entry.getValue());
+      }
+    }
+    try (NgramCountFile countFile = new NgramCountFile(file)) {
+      assertThat(countFile.getNgramCount(), is(10_000L));
+      for (Map.Entry<String, Long> entry : expected.entrySet()) {
+        assertThat(entry.getKey(), countFile.getCount(entry.getKey()), is(entry.getValue()));
+        String missing = entry.getKey() + "q";
+        assertThat(countFile.getCount(missing), is(0L));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsortedInput() throws IOException {
+    try (NgramCountFileWriter writer = new NgramCountFileWriter(tempFolder.newFile(), 0)) {
+      writer.add("b", 1);
+      writer.add("a", 1);
+    }
+  }
+
+  private enum Utf8Order implements Comparator<byte[]> {
+    INSTANCE;
+    @Override
+    public int compare(byte[] a, byte[] b) {
+      return NgramCountFile.compare(a, 0, a.length, b);
+    }
+  }
+
+}
@@ -0,0 +1,134 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ShardedLanguageModelTest {
+
+  private static final int SHARDS = 3;
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testLanguageModel() throws IOException {
+    Map<String, Long> ngrams = new HashMap<>();
+    ngrams.put("building", 1L);
+    ngrams.put("nice", 4L);
+    ngrams.put("the", 55L);
+    ngrams.put("über", 2L);
+    ngrams.put("the nice", 3L);
+    ngrams.put("nice building", 1L);
+    ngrams.put("the nice building", 1L);
+    File topDir = tempFolder.newFolder();
+    for (int ngramSize = 1; ngramSize <= 3; ngramSize++) {
+      writeShards(topDir, ngrams, ngramSize);
+    }
+    assertTrue(ShardedLanguageModel.isShardedDirectory(topDir));
+    try (ShardedLanguageModel model = new ShardedLanguageModel(topDir)) {
+      assertThat(model.getCount("the"), is(55L));
+      assertThat(model.getCount("über"), is(2L));
+      assertThat(model.getCount(Arrays.asList("the", "nice")), is(3L));
+      assertThat(model.getCount(Arrays.asList("the", "nice", "building")), is(1L));
+      assertThat(model.getCount("not-in-here"), is(0L));
+      assertThat(model.getTotalTokenCount(), is(63L));
+      List<List<String>> lookups = Arrays.asList(
+        Collections.singletonList("the"),
+        Arrays.asList("nice", "building"),
+        Collections.singletonList("building"),
+        Collections.singletonList("not-in-here"),
+        Arrays.asList("the", "nice", "building"),
+        Collections.singletonList("nice"));
+      long[] counts = model.getCounts(lookups);
+      assertThat(counts.length, is(lookups.size()));
+      for (int i = 0; i < counts.length; i++) {
+        assertThat(counts[i], is(ngrams.getOrDefault(String.join(" ", lookups.get(i)), 0L)));
+      }
+      assertThat(model.getShardStats().size(), is(SHARDS));
+      long lookedUp = model.getShardStats().stream().mapToLong(ShardedLanguageModel.ShardStats::getNgramCount).sum();
+      assertThat(lookedUp, is(5L + lookups.size()));
+    }
+  }
+
+  @Test
+  public void testTotalTokenCountWithFailingShard() {
+    try (ShardedLanguageModel model = new ShardedLanguageModel(Arrays.asList(new FakeShard(null), new FakeShard(63L)))) {
+      assertThat(model.getTotalTokenCount(), is(63L));
+    }
+    try (ShardedLanguageModel model = new ShardedLanguageModel(Arrays.asList(new FakeShard(null), new FakeShard(null)))) {
+      model.getTotalTokenCount();
+      fail();
+    } catch (RuntimeException expected) {}
+  }
+
+  private void writeShards(File topDir, Map<String, Long> ngrams, int ngramSize) throws IOException {
+    List<NgramCountFileWriter> writers = new ArrayList<>();
+    for (int i = 1; i <= SHARDS; i++) {
+      File shardDir = new File(topDir, "shard-" + i);
+      assertTrue(shardDir.isDirectory() || shardDir.mkdir());
+      writers.add(new NgramCountFileWriter(new File(shardDir, ngramSize + "grams.counts"), ngramSize == 1 ? 63 : 0));
+    }
+    // the writer needs the ngrams in the order of their UTF-8 bytes, which for these ngrams is the String order:
+    for (String ngram : new TreeSet<>(ngrams.keySet())) {
+      if (ngram.split(" ").length == ngramSize) {
+        writers.get(ShardedLanguageModel.getShard(ngram, SHARDS)).add(ngram, ngrams.get(ngram));
+      }
+    }
+    for (NgramCountFileWriter writer : writers) {
+      writer.close();
+    }
+  }
+
+  private static class FakeShard extends BaseLanguageModel {
+    private final Long totalTokenCount;
+    FakeShard(Long totalTokenCount) {
+      this.totalTokenCount = totalTokenCount;
+    }
+    @Override
+    public long getCount(List<String> tokens) {
+      return 0;
+    }
+    @Override
+    public long getCount(String token1) {
+      return 0;
+    }
+    @Override
+    public long getTotalTokenCount() {
+      if (totalTokenCount == null) {
+        throw new RuntimeException("no total token count");
+      }
+      return totalTokenCount;
+    }
+    @Override
+    public void close() {}
+  }
+
+}
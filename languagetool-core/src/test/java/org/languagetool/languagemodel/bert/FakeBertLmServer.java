@@ -0,0 +1,101 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel.bert;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.languagetool.languagemodel.bert.grpc.BertLmGrpc;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.languagetool.languagemodel.bert.grpc.BertLmProto.*;
+
+/**
+ * An in-process BERT service for tests. The score of each candidate is its length.
+ */
+class FakeBertLmServer implements AutoCloseable {
+
+  private final String name = "fake-bert-" + System.nanoTime();
+  private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+  private final Server server;
+  private volatile long delayMillis;
+
+  FakeBertLmServer() throws IOException {
+    server = InProcessServerBuilder.forName(name).addService(new BertLmGrpc.BertLmImplBase() {
+      @Override
+      public void batchScore(BatchScoreRequest request, StreamObserver<BatchBertLmResponse> responseObserver) {
+        batchSizes.add(request.getRequestsCount());
+        if (delayMillis > 0) {
+          try {
+            Thread.sleep(delayMillis);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        BatchBertLmResponse.Builder response = BatchBertLmResponse.newBuilder();
+        for (ScoreRequest scoreRequest : request.getRequestsList()) {
+          response.addResponses(getScores(scoreRequest));
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+      }
+      @Override
+      public void score(ScoreRequest request, StreamObserver<BertLmResponse> responseObserver) {
+        responseObserver.onNext(getScores(request));
+        responseObserver.onCompleted();
+      }
+    }).build().start();
+  }
+
+  private static BertLmResponse getScores(ScoreRequest request) {
+    BertLmResponse.Builder response = BertLmResponse.newBuilder();
+    for (Mask mask : request.getMaskList()) {
+      Prediction.Builder prediction = Prediction.newBuilder();
+      for (String candidate : mask.getCandidatesList()) {
+        prediction.addScore(candidate.length());
+      }
+      response.addScores(prediction);
+    }
+    return response.build();
+  }
+
+  ManagedChannel newChannel() {
+    return InProcessChannelBuilder.forName(name).build();
+  }
+
+  /** the number of requests of each batch request received so far */
+  List<Integer> getBatchSizes() {
+    return batchSizes;
+  }
+
+  void setDelayMillis(long delayMillis) {
+    this.delayMillis = delayMillis;
+  }
+
+  @Override
+  public void close() {
+    server.shutdownNow();
+  }
+
+}
@@ -0,0 +1,112 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel.bert;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RemoteLanguageModelTest {
+
+  private FakeBertLmServer server;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new FakeBertLmServer();
+  }
+
+  @After
+  public void tearDown() {
+    server.close();
+  }
+
+  @Test
+  public void testBatchScore() throws Exception {
+    RemoteLanguageModel lm = new RemoteLanguageModel(server.newChannel(), 10, 0, 100, 60);
+    try {
+      List<List<Double>> scores = lm.batchScore(Arrays.asList(request("a", "bb"), request("ccc")), 0);
+      assertThat(scores, is(Arrays.asList(Arrays.asList(1.0, 2.0), Collections.singletonList(3.0))));
+      assertThat(server.getBatchSizes(), is(Collections.singletonList(2)));
+      // from cache:
+      assertThat(lm.batchScore(Collections.singletonList(request("ccc")), 0), is(Collections.singletonList(Collections.singletonList(3.0))));
+      assertThat(server.getBatchSizes().size(), is(1));
+      assertThat(lm.getCache().stats().hitCount(), is(1L));
+    } finally {
+      lm.shutdown();
+    }
+  }
+
+  @Test
+  public void testCoalescing() throws Exception {
+    RemoteLanguageModel lm = new RemoteLanguageModel(server.newChannel(), 10, 200, 100, 60);
+    try {
+      // as if from different threads:
+      List<ListenableFuture<List<Double>>> results1 = lm.scoreAsync(Arrays.asList(request("a"), request("bb")), 0);
+      List<ListenableFuture<List<Double>>> results2 = lm.scoreAsync(Arrays.asList(request("bb"), request("ccc")), 0);
+      assertThat(results1.get(0).get(), is(Collections.singletonList(1.0)));
+      assertThat(results1.get(1).get(), is(Collections.singletonList(2.0)));
+      assertThat(results2.get(0).get(), is(Collections.singletonList(2.0)));
+      assertThat(results2.get(1).get(), is(Collections.singletonList(3.0)));
+      // one batch, the duplicate request was only sent once:
+      assertThat(server.getBatchSizes(), is(Collections.singletonList(3)));
+    } finally {
+      lm.shutdown();
+    }
+  }
+
+  @Test
+  public void testMaxBatchSize() throws Exception {
+    RemoteLanguageModel lm = new RemoteLanguageModel(server.newChannel(), 2, 100, 100, 60);
+    try {
+      List<List<Double>> scores = lm.batchScore(Arrays.asList(request("a"), request("bb"), request("ccc"), request("dddd"), request("eeeee")), 0);
+      assertThat(scores.get(4), is(Collections.singletonList(5.0)));
+      assertThat(server.getBatchSizes(), is(Arrays.asList(2, 2, 1)));
+    } finally {
+      lm.shutdown();
+    }
+  }
+
+  @Test
+  public void testTimeout() throws Exception {
+    server.setDelayMillis(1000);
+    RemoteLanguageModel lm = new RemoteLanguageModel(server.newChannel(), 10, 0, 100, 60);
+    try {
+      lm.batchScore(Collections.singletonList(request("a")), 50);
+      fail();
+    } catch (TimeoutException expected) {
+    } finally {
+      lm.shutdown();
+    }
+  }
+
+  private static RemoteLanguageModel.Request request(String... candidates) {
+    return new RemoteLanguageModel.Request("This is a test.", 0, 4, Arrays.asList(candidates));
+  }
+
+}
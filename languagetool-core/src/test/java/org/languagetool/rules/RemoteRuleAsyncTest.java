@@ -0,0 +1,211 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.TestTools;
+import org.languagetool.language.Demo;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RemoteRuleAsyncTest {
+
+  /**
+   * Sleeps for the given times on the consecutive calls, fails if the time is negative.
+   */
+  static class SlowRemoteRule extends RemoteRule {
+    private final long[] sleepMillis;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    SlowRemoteRule(String ruleId, long timeout, int fall, Map<String, String> options, long... sleepMillis) {
+      super(new Demo(), JLanguageTool.getMessageBundle(), new RemoteRuleConfig(ruleId, "example.com", 1234, 0,
+        timeout, 0.0f, fall, 60_000L, 0L, 0L, options), false);
+      this.sleepMillis = sleepMillis;
+    }
+
+    class SlowRemoteRequest extends RemoteRequest {
+      private final List<AnalyzedSentence> sentences;
+      SlowRemoteRequest(List<AnalyzedSentence> sentences) {
+        this.sentences = sentences;
+      }
+    }
+
+    @Override
+    protected RemoteRequest prepareRequest(List<AnalyzedSentence> sentences, Long textSessionId) {
+      return new SlowRemoteRequest(sentences);
+    }
+
+    @Override
+    protected Callable<RemoteRuleResult> executeRequest(RemoteRequest request, long timeoutMilliseconds) {
+      int call = calls.getAndIncrement();
+      return () -> {
+        long sleep = sleepMillis[Math.min(call, sleepMillis.length - 1)];
+        if (sleep < 0) {
+          throw new IOException("Remote service not available");
+        }
+        Thread.sleep(sleep);
+        List<AnalyzedSentence> sentences = ((SlowRemoteRequest) request).sentences;
+        return new RemoteRuleResult(true, true,
+          Collections.singletonList(new RuleMatch(this, sentences.get(0), 0, 1, "Test match " + call)), sentences);
+      };
+    }
+
+    @Override
+    protected RemoteRuleResult fallbackResults(RemoteRequest request) {
+      return new RemoteRuleResult(false, false, Collections.emptyList(), ((SlowRemoteRequest) request).sentences);
+    }
+
+    @Override
+    public String getDescription() {
+      return "Slow remote rule";
+    }
+  }
+
+  private List<AnalyzedSentence> getSentences() throws IOException {
+    return new JLanguageTool(TestTools.getDemoLanguage()).analyzeText("This is a test.");
+  }
+
+  @Test
+  public void testResult() throws Exception {
+    SlowRemoteRule rule = new SlowRemoteRule("TEST_ASYNC_RESULT", 5000, 1, Collections.emptyMap(), 0);
+    RemoteRuleResult result = rule.runAsync(getSentences(), null, Long.MAX_VALUE).get();
+    assertTrue(result.isRemote());
+    assertThat(result.getMatches().size(), is(1));
+    assertThat(RemoteRuleCircuitBreaker.get("TEST_ASYNC_RESULT").getState(), is(RemoteRuleCircuitBreaker.State.CLOSED));
+  }
+
+  @Test
+  public void testDeadline() throws Exception {
+    SlowRemoteRule rule = new SlowRemoteRule("TEST_ASYNC_DEADLINE", 5000, 1, Collections.emptyMap(), 5000);
+    long startTime = System.currentTimeMillis();
+    RemoteRuleResult result = rule.runAsync(getSentences(), null, startTime + 100).get();
+    long runTime = System.currentTimeMillis() - startTime;
+    assertFalse(result.isRemote());
+    assertTrue("Took " + runTime + "ms", runTime < 2000);
+    // reaching the deadline of the check is not a failure of the remote service:
+    assertThat(RemoteRuleCircuitBreaker.get("TEST_ASYNC_DEADLINE").getState(), is(RemoteRuleCircuitBreaker.State.CLOSED));
+  }
+
+  @Test
+  public void testHedgedRequest() throws Exception {
+    SlowRemoteRule rule = new SlowRemoteRule("TEST_ASYNC_HEDGE", 5000, 1,
+      Collections.singletonMap("hedgeAfterMilliseconds", "50"), 3000, 0);
+    long startTime = System.currentTimeMillis();
+    RemoteRuleResult result = rule.runAsync(getSentences(), null, Long.MAX_VALUE).get();
+    long runTime = System.currentTimeMillis() - startTime;
+    assertTrue(result.isRemote());
+    assertThat(result.getMatches().get(0).getMessage(), is("Test match 1"));
+    assertTrue("Took " + runTime + "ms", runTime < 2000);
+  }
+
+  @Test
+  public void testCircuitBreaker() throws Exception {
+    SlowRemoteRule rule = new SlowRemoteRule("TEST_ASYNC_CIRCUIT", 5000, 1, Collections.emptyMap(), -1, 0);
+    RemoteRuleResult result1 = rule.runAsync(getSentences(), null, Long.MAX_VALUE).get();
+    assertFalse(result1.isRemote());
+    assertThat(RemoteRuleCircuitBreaker.get("TEST_ASYNC_CIRCUIT").getState(), is(RemoteRuleCircuitBreaker.State.OPEN));
+    // rule is down, so no request is sent:
+    RemoteRuleResult result2 = rule.runAsync(getSentences(), null, Long.MAX_VALUE).get();
+    assertFalse(result2.isRemote());
+    assertThat(rule.calls.get(), is(1));
+  }
+
+  @Test
+  public void testSingleTrialRequestWhenHalfOpen() {
+    RemoteRuleConfig config = new RemoteRuleConfig("TEST_ASYNC_HALF_OPEN", "example.com", 1234, 0,
+      5000L, 0.0f, 1, 0L, 0L, 0L, Collections.emptyMap());
+    RemoteRuleCircuitBreaker circuitBreaker = RemoteRuleCircuitBreaker.get("TEST_ASYNC_HALF_OPEN");
+    circuitBreaker.recordFailure(config);
+    assertThat(circuitBreaker.getState(), is(RemoteRuleCircuitBreaker.State.OPEN));
+    assertTrue(circuitBreaker.allowRequest(config));
+    assertThat(circuitBreaker.getState(), is(RemoteRuleCircuitBreaker.State.HALF_OPEN));
+    assertFalse(circuitBreaker.allowRequest(config));  // the trial request is still running
+    circuitBreaker.recordInconclusive();
+    assertTrue(circuitBreaker.allowRequest(config));
+    assertFalse(circuitBreaker.allowRequest(config));
+    circuitBreaker.recordSuccess();
+    assertThat(circuitBreaker.getState(), is(RemoteRuleCircuitBreaker.State.CLOSED));
+    assertTrue(circuitBreaker.allowRequest(config));
+    assertTrue(circuitBreaker.allowRequest(config));
+  }
+
+  @Test
+  public void testWaitingForThreadIsNoTimeout() throws Exception {
+    SlowRemoteRule rule = new SlowRemoteRule("TEST_ASYNC_QUEUED", 100, 1, Collections.emptyMap(), 0);
+    CountDownLatch latch = new CountDownLatch(1);
+    try {
+      blockAllThreads(latch);
+      Future<RemoteRuleResult> result = rule.runAsync(getSentences(), null, Long.MAX_VALUE, Runnable::run);
+      Thread.sleep(500);
+      assertFalse(result.isDone());
+      latch.countDown();
+      assertTrue(result.get().isRemote());
+      assertThat(RemoteRuleCircuitBreaker.get("TEST_ASYNC_QUEUED").getState(), is(RemoteRuleCircuitBreaker.State.CLOSED));
+    } finally {
+      latch.countDown();
+    }
+  }
+
+  @Test
+  public void testFallbackWhenQueueIsFull() throws Exception {
+    SlowRemoteRule rule = new SlowRemoteRule("TEST_ASYNC_OVERLOADED", 5000, 1, Collections.emptyMap(), 0);
+    CountDownLatch latch = new CountDownLatch(1);
+    try {
+      blockAllThreads(latch);
+      while (RemoteRule.executor.getQueue().remainingCapacity() > 0) {
+        RemoteRule.executor.execute(() -> {});
+      }
+      RemoteRuleResult result = rule.runAsync(getSentences(), null, Long.MAX_VALUE, Runnable::run).get();
+      assertFalse(result.isRemote());
+      // not the fault of the remote service:
+      assertThat(RemoteRuleCircuitBreaker.get("TEST_ASYNC_OVERLOADED").getState(), is(RemoteRuleCircuitBreaker.State.CLOSED));
+    } finally {
+      latch.countDown();
+    }
+  }
+
+  private void blockAllThreads(CountDownLatch latch) throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(RemoteRule.executor.getMaximumPoolSize());
+    for (int i = 0; i < RemoteRule.executor.getMaximumPoolSize(); i++) {
+      RemoteRule.executor.execute(() -> {
+        started.countDown();
+        try {
+          latch.await();
+        } catch (InterruptedException ignored) {
+        }
+      });
+    }
+    started.await();
+  }
+
+}
@@ -0,0 +1,54 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class AhoCorasickTest {
+
+  @Test
+  public void testFind() {
+    AhoCorasick finder = new AhoCorasick(Arrays.asList("he", "she", "his", "hers", "xyz"));
+    assertEquals(bits(0, 1, 3), finder.find("ushers"));
+    assertEquals(bits(0, 2), finder.find("This is HE"));
+    assertEquals(bits(), finder.find(""));
+    assertEquals(bits(4), finder.find("xxyz"));
+  }
+
+  @Test
+  public void testOverlappingKeywords() {
+    AhoCorasick finder = new AhoCorasick(Arrays.asList("a", "aa", "aab", "b"));
+    assertEquals(bits(0, 1, 2, 3), finder.find("aaab"));
+    assertEquals(bits(0, 3), finder.find("abab"));
+  }
+
+  private static BitSet bits(int... indices) {
+    BitSet result = new BitSet();
+    for (int index : indices) {
+      result.set(index);
+    }
+    return result;
+  }
+
+}
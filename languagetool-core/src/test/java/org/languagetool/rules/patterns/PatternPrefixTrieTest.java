@@ -0,0 +1,133 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.JLanguageTool;
+import org.languagetool.TestTools;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PatternPrefixTrieTest {
+
+  @Test
+  public void testSharedNodes() {
+    PatternPrefixTrie.Node node1 = PatternPrefixTrie.getNode(Arrays.asList(token("prefixtest"), token("a"), token("b")));
+    PatternPrefixTrie.Node node2 = PatternPrefixTrie.getNode(Arrays.asList(token("prefixtest"), token("a"), token("b"), token("c")));
+    PatternPrefixTrie.Node node3 = PatternPrefixTrie.getNode(Arrays.asList(token("prefixtest"), token("a"), token("x")));
+    assertSame(node1, node2);  // only the first tokens are used
+    assertNotSame(node1, node3);
+    assertEquals("prefixtest, a, b", node1.toString());
+  }
+
+  @Test
+  public void testNoFixedPrefix() {
+    PatternToken optional = token("prefixtest");
+    optional.setMinOccurrence(0);
+    assertNull(PatternPrefixTrie.getNode(Arrays.asList(optional, token("a"))));
+    PatternToken skipping = token("prefixtest");
+    skipping.setSkipNext(2);
+    PatternPrefixTrie.Node node = PatternPrefixTrie.getNode(Arrays.asList(skipping, token("a")));
+    assertEquals("prefixtest", node.toString());  // the position of 'a' isn't fixed
+  }
+
+  @Test
+  public void testMatches() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    AnalyzedSentence sentence = lt.getAnalyzedSentence("This is a test, is a test.");
+    AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
+    PatternPrefixTrie.Node node = PatternPrefixTrie.getNode(Arrays.asList(token("is"), token("a"), token("test")));
+    PatternPrefixTrie.SentenceState state = PatternPrefixTrie.acquireState(sentence, false);
+    try {
+      // tokens[0] is the sentence start:
+      assertFalse(node.matches(state, tokens, 1));
+      assertTrue(node.matches(state, tokens, 2));
+      assertFalse(node.matches(state, tokens, 3));
+      assertTrue(node.matches(state, tokens, 6));
+      assertFalse(node.matches(state, tokens, 8));
+      assertFalse(node.matches(state, tokens, 20));
+    } finally {
+      PatternPrefixTrie.releaseState(state);
+    }
+  }
+
+  @Test
+  public void testNestedStates() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    AnalyzedSentence outerSentence = lt.getAnalyzedSentence("This is a test, is a test.");
+    AnalyzedSentence innerSentence = lt.getAnalyzedSentence("No test.");
+    AnalyzedTokenReadings[] outerTokens = outerSentence.getTokensWithoutWhitespace();
+    AnalyzedTokenReadings[] innerTokens = innerSentence.getTokensWithoutWhitespace();
+    PatternPrefixTrie.Node node = PatternPrefixTrie.getNode(Arrays.asList(token("is"), token("a"), token("test")));
+    PatternPrefixTrie.SentenceState outer = PatternPrefixTrie.acquireState(outerSentence, false);
+    try {
+      assertTrue(node.matches(outer, outerTokens, 2));
+      PatternPrefixTrie.SentenceState inner = PatternPrefixTrie.acquireState(innerSentence, false);
+      try {
+        assertNotSame(outer, inner);
+        assertFalse(node.matches(inner, innerTokens, 2));
+      } finally {
+        PatternPrefixTrie.releaseState(inner);
+      }
+      assertTrue(node.matches(outer, outerTokens, 2));
+      assertTrue(node.matches(outer, outerTokens, 6));
+    } finally {
+      PatternPrefixTrie.releaseState(outer);
+    }
+  }
+
+  @Test
+  public void testNodeTestedOncePerSentence() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    AnalyzedSentence sentence = lt.getAnalyzedSentence("This is a prefixtrieshared test.");
+    AtomicInteger sharedTokenCalls = new AtomicInteger();
+    PatternToken sharedToken = new PatternToken("prefixtrieshared", false, false, false) {
+      @Override
+      public boolean isMatched(AnalyzedToken token) {
+        sharedTokenCalls.incrementAndGet();
+        return super.isMatched(token);
+      }
+    };
+    PatternRule rule1 = new PatternRule("PREFIX_RULE1", TestTools.getDemoLanguage(),
+      Arrays.asList(sharedToken, token("test")), "desc", "msg", "short");
+    PatternRule rule2 = new PatternRule("PREFIX_RULE2", TestTools.getDemoLanguage(),
+      Arrays.asList(token("prefixtrieshared"), token("foo")), "desc", "msg", "short");
+    assertEquals(1, rule1.match(sentence).length);
+    int callsOfFirstRule = sharedTokenCalls.get();
+    assertTrue(callsOfFirstRule > 0);
+    // the node for "prefixtrieshared" uses sharedToken, rule2 must re-use its result for the sentence:
+    assertEquals(0, rule2.match(sentence).length);
+    assertEquals(callsOfFirstRule, sharedTokenCalls.get());
+    // a new sentence with the same text gets tested again:
+    assertEquals(1, rule2.match(lt.getAnalyzedSentence("This is a prefixtrieshared foo.")).length);
+    assertTrue(sharedTokenCalls.get() > callsOfFirstRule);
+  }
+
+  private static PatternToken token(String s) {
+    return new PatternToken(s, false, false, false);
+  }
+
+}
@@ -27,10 +27,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Languages;
 import org.languagetool.language.Demo;
@@ -477,6 +480,31 @@ public class PatternRuleMatcherTest {
     assertFalse(ruleMatch2.equals(ruleMatch3));
   }
 
+  @Test
+  public void testNestedMatchInFilter() throws Exception {
+    // filters can check other text in the same thread, e.g. their suggestions. The nested rule has
+    // the same prefix as the outer one, but the prefix matches at other positions of its sentence:
+    PatternRule innerRule = getPatternRule("foo");
+    String innerSentence = StringUtils.repeat("bar ", 25) + "foo";
+    PatternRule rule = getPatternRule("foo");
+    rule.setFilter(new RuleFilter() {
+      @Override
+      public RuleMatch acceptRuleMatch(RuleMatch match, Map<String, String> arguments, int patternTokenPos, AnalyzedTokenReadings[] patternTokens) throws IOException {
+        assertThat(innerRule.match(lt.getAnalyzedSentence(innerSentence)).length, is(1));
+        return match;
+      }
+    });
+    rule.setFilterArguments("foo:bar");
+    StringBuilder sentence = new StringBuilder();
+    for (int i = 0; i < 150; i++) {
+      sentence.append(i % 8 == 0 ? "foo " : "bar ");
+    }
+    // more than 64 tokens, so the outer sentence needs more bits per prefix node than the nested one:
+    RuleMatch[] matches = getMatches(sentence.toString(), new PatternRuleMatcher(rule, false, true));
+    assertThat(matches.length, is(19));
+    assertPosition(matches[18], 576, 579);
+  }
+
   private RuleMatch[] getMatches(String input, PatternRuleMatcher matcher) throws IOException {
     return matcher.match(lt.getAnalyzedSentence(input));
   }
@@ -661,12 +661,31 @@ public class PatternRuleTest extends AbstractPatternRuleTest {
     List<AnalyzedSentence> analyzedSentences = lt.analyzeText(sentence);
     int matchCount = 0;
     for (AnalyzedSentence analyzedSentence : analyzedSentences) {
-    RuleMatch[] matches = rule.match(analyzedSentence);
+    RuleMatch[] matches = matchWithAndWithoutPrefixTrie(rule, analyzedSentence);
       matchCount += matches.length;
     }
     return matchCount > 0;
   }
 
+  // the PatternPrefixTrie is only an optimization, so the matches must be the same without it:
+  private RuleMatch[] matchWithAndWithoutPrefixTrie(Rule rule, AnalyzedSentence analyzedSentence) throws IOException {
+    RuleMatch[] matches = rule.match(analyzedSentence);
+    if (rule instanceof PatternRule) {
+      RuleMatch[] expectedMatches = ((PatternRule) rule).matchWithoutPrefixTrie(analyzedSentence);
+      assertEquals("Matches with prefix trie differ for rule " + rule.getFullId() + " in: " + analyzedSentence.getText(),
+        toStringWithSuggestions(expectedMatches), toStringWithSuggestions(matches));
+    }
+    return matches;
+  }
+
+  private static List<String> toStringWithSuggestions(RuleMatch[] matches) {
+    List<String> result = new ArrayList<>();
+    for (RuleMatch match : matches) {
+      result.add(match + " -> " + match.getSuggestedReplacements());
+    }
+    return result;
+  }
+
   // Unlike getMatchesForSingleSentence() this splits the text at sentence boundaries
   private List<RuleMatch> getMatchesForText(Rule rule, String sentence, JLanguageTool lt) throws IOException {
     List<AnalyzedSentence> analyzedSentences = lt.analyzeText(sentence);
@@ -674,7 +693,7 @@ public class PatternRuleTest extends AbstractPatternRuleTest {
     int matchOffset = 0;
     // fix offset calculation for testCorrectSentences / testBadSentences (e.g. position of marker)
     for (AnalyzedSentence analyzedSentence : analyzedSentences) {
-      List<RuleMatch> sentenceMatches = Arrays.asList(rule.match(analyzedSentence));
+      List<RuleMatch> sentenceMatches = Arrays.asList(matchWithAndWithoutPrefixTrie(rule, analyzedSentence));
       for (RuleMatch match : sentenceMatches) {
         match.setOffsetPosition(match.getFromPos() + matchOffset, match.getToPos() + matchOffset);
       }
@@ -686,7 +705,7 @@ public class PatternRuleTest extends AbstractPatternRuleTest {
 
   private List<RuleMatch> getMatchesForSingleSentence(Rule rule, String sentence, JLanguageTool lt) throws IOException {
     AnalyzedSentence analyzedSentence = lt.getAnalyzedSentence(sentence);
-    RuleMatch[] matches = rule.match(analyzedSentence);
+    RuleMatch[] matches = matchWithAndWithoutPrefixTrie(rule, analyzedSentence);
     if (CHECK_WITH_SENTENCE_SPLITTING) {
       // "real check" with sentence splitting:
       for (Rule r : lt.getAllActiveRules()) {
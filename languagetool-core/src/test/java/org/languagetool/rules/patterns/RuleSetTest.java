@@ -23,9 +23,14 @@ import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.FakeLanguage;
+import org.languagetool.rules.FakeRule;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleCue;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
 import static org.languagetool.rules.patterns.PatternRuleBuilderHelper.*;
@@ -64,15 +69,100 @@ public class RuleSetTest {
     PatternToken unsuitable = new PatternTokenBuilder().csToken("unsuitable").matchInflectedForms().build();
     assertRulesForSentence(textLemmaHinted(Collections.singletonList(ruleOf(unsuitable))));
 
-    PatternRule unrelated = ruleOf(pos("somePos"));
+    PatternRule unrelated = ruleOf(posRegex(".*"));
     assertRulesForSentence(textLemmaHinted(Arrays.asList(ruleOf(unsuitable), unrelated)), unrelated);
   }
 
+  @Test
+  public void posTagPrefixesAreHonored() {
+    PatternRule suitable = ruleOf(pos("pos"));
+    PatternRule suitablePrefix = ruleOf(posRegex("po.*"));
+    PatternRule unsuitable = ruleOf(pos("somePos"));
+    PatternRule unsuitableRegex = ruleOf(posRegex("other|somePos"));
+    RuleSet ruleSet = textLemmaHinted(Arrays.asList(suitable, unsuitable, suitablePrefix, unsuitableRegex));
+    assertEquals(Arrays.asList(suitable, suitablePrefix), ruleSet.rulesForSentence(sampleSentence));
+  }
+
+  @Test
+  public void requiredCuesAreHonored() {
+    Rule suitable = ruleWithCues(RuleCue.anyToken(Collections.singleton("token")));
+    Rule suitableLemma = ruleWithCues(RuleCue.anyToken(Collections.singleton("other")).or(RuleCue.anyLemma(Collections.singleton("lemma"))));
+    Rule unsuitable = ruleWithCues(RuleCue.anyToken(Collections.singleton("token")), RuleCue.anyPosTagPrefix(Collections.singleton("other")));
+    Rule unclassified = new FakeRule();
+    List<Rule> rules = Arrays.asList(suitable, suitableLemma, unsuitable, unclassified);
+    assertEquals(Arrays.asList(suitable, suitableLemma, unclassified), textLemmaHinted(rules).rulesForSentence(sampleSentence));
+    // lemma and POS tag cues are only used if the sentences have been disambiguated:
+    assertEquals(rules, RuleSet.textHinted(rules).rulesForSentence(sampleSentence));
+  }
+
+  @Test
+  public void allTokenHintsAreHonored() {
+    PatternRule suitable = ruleOf(Arrays.asList(csToken("token"), pos("pos")));
+    PatternRule unsuitable = ruleOf(Arrays.asList(csToken("token"), csToken("unsuitable")));
+    assertRulesForSentence(RuleSet.textHinted(Arrays.asList(suitable, unsuitable)), suitable);
+  }
+
+  @Test
+  public void regexSubstringsAreHonored() {
+    RegexPatternRule suitable = regexRuleOf("tok(en|ens)");
+    RegexPatternRule suitableIgnoringCase = regexRuleOf("(?i)TOKEN");
+    RegexPatternRule unsuitable = regexRuleOf("tok.*unsuitable");
+    RegexPatternRule unclassified = regexRuleOf("[a-z]+");
+    RuleSet ruleSet = RuleSet.textHinted(Arrays.asList(suitable, suitableIgnoringCase, unsuitable, unclassified));
+    assertEquals(Arrays.asList(suitable, suitableIgnoringCase, unclassified), ruleSet.rulesForSentence(sampleSentence));
+  }
+
+  @Test
+  public void skipRatio() {
+    PatternRule suitable = ruleOf(csToken("token"));
+    RuleSet ruleSet = RuleSet.textHinted(Arrays.asList(suitable, ruleOf(csToken("unsuitable"))));
+    assertEquals(0, ruleSet.getSkipRatio(), 0.0);
+    ruleSet.rulesForSentence(sampleSentence);
+    assertEquals(0.5, ruleSet.getSkipRatio(), 0.001);
+    assertEquals(1, ruleSet.getFilteredSentenceCount());
+  }
+
+  @Test
+  public void sharedIndex() {
+    PatternRule suitable = ruleOf(csToken("token"));
+    PatternRule unsuitable = ruleOf(csToken("unsuitable"));
+    PatternRule disabled = ruleOf(csToken("token"));
+    RegexPatternRule suitableRegex = regexRuleOf("tok(en|ens)");
+    RuleSet shared = textLemmaHinted(Arrays.asList(disabled, suitableRegex, unsuitable, suitable));
+
+    PatternRule own = ruleOf(token("Token"));
+    PatternRule ownUnrelated = ruleOf(posRegex(".*"));
+    List<Rule> rules = Arrays.asList(own, suitable, unsuitable, ownUnrelated, suitableRegex);
+    RuleSet view = textLemmaHinted(rules, shared);
+    assertEquals(rules, view.allRules());
+    assertEquals(Arrays.asList(own, suitable, ownUnrelated, suitableRegex), view.rulesForSentence(sampleSentence));
+    assertEquals(textLemmaHinted(rules).rulesForSentence(sampleSentence), view.rulesForSentence(sampleSentence));
+    assertEquals(0.2, view.getSkipRatio(), 0.001);
+    assertEquals(0, shared.getFilteredSentenceCount());
+  }
+
   private static void assertRulesForSentence(RuleSet ruleSet, PatternRule... expected) {
     assertEquals(Arrays.asList(expected), ruleSet.rulesForSentence(sampleSentence));
   }
 
+  private static Rule ruleWithCues(RuleCue... cues) {
+    return new FakeRule() {
+      @Override
+      public List<RuleCue> getRequiredCues() {
+        return Arrays.asList(cues);
+      }
+    };
+  }
+
   private static PatternRule ruleOf(PatternToken token) {
-    return new PatternRule("", new FakeLanguage(), Collections.singletonList(token), "", "", "");
+    return ruleOf(Collections.singletonList(token));
+  }
+
+  private static PatternRule ruleOf(List<PatternToken> tokens) {
+    return new PatternRule("", new FakeLanguage(), tokens, "", "", "");
+  }
+
+  private static RegexPatternRule regexRuleOf(String regex) {
+    return new RegexPatternRule("", "", "", "", "", new FakeLanguage(), Pattern.compile(regex), 0);
   }
 }
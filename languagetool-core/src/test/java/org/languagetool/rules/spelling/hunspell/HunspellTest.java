@@ -0,0 +1,109 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling.hunspell;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class HunspellTest {
+
+  @Test
+  public void testSpellAndAdd() throws Exception {
+    Hunspell hunspell = getHunspell(2);
+    try {
+      assertTrue(hunspell.spell("richtig"));
+      assertFalse(hunspell.spell("richtik"));
+      long hits = Hunspell.getSpellCache().stats().hitCount();
+      assertTrue(hunspell.spell("richtig"));
+      assertEquals(hits + 1, Hunspell.getSpellCache().stats().hitCount());
+      assertTrue(hunspell.suggest("richtik").contains("richtig"));
+      hunspell.add("richtik");
+      assertTrue(hunspell.spell("richtik"));
+    } finally {
+      hunspell.close();
+    }
+    try {
+      hunspell.spell("falsch");
+      fail();
+    } catch (RuntimeException expected) {}
+  }
+
+  @Test
+  public void testConcurrentUse() throws Exception {
+    Hunspell hunspell = getHunspell(3);
+    ExecutorService executor = Executors.newFixedThreadPool(6);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+        int offset = i;
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 2000; j++) {
+            // unique words, so that the cache doesn't answer:
+            String word = "das" + (offset * 2000 + j);
+            assertFalse(hunspell.spell(word));
+            assertTrue(hunspell.spell("das"));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      hunspell.close();
+    }
+  }
+
+  @Test
+  public void testWaitingThreadFailsOnClose() throws Exception {
+    Hunspell hunspell = getHunspell(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Hunspell.NativeHandle handle = hunspell.acquire();
+      Future<Boolean> waiting = executor.submit(() -> hunspell.spell("wartend"));
+      Thread.sleep(200);
+      assertFalse(waiting.isDone());
+      hunspell.close();
+      try {
+        waiting.get(5, TimeUnit.SECONDS);
+        fail();
+      } catch (ExecutionException expected) {
+        assertTrue(expected.getCause() instanceof RuntimeException);
+      }
+      hunspell.release(handle);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private Hunspell getHunspell(int maxHandles) throws Exception {
+    Path dic = Paths.get(JLanguageTool.getDataBroker().getFromResourceDirAsUrl("/xx/hunspell/xx_XX.dic").toURI());
+    Path aff = Paths.get(JLanguageTool.getDataBroker().getFromResourceDirAsUrl("/xx/hunspell/xx_XX.aff").toURI());
+    return new Hunspell(dic, aff, maxHandles);
+  }
+
+}
@@ -19,8 +19,12 @@
 package org.languagetool.rules.spelling.morfologik;
 
 import org.junit.Test;
+import org.languagetool.UserConfig;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 
 import static java.util.Collections.*;
 import static org.hamcrest.core.Is.is;
@@ -62,6 +66,31 @@ public class MorfologikMultiSpellerTest {
     assertThat(speller.getSuggestions("Häusers").toString(), is("[Häuser]"));
   }
 
+  @Test
+  public void testUserWords() throws IOException {
+    UserDictCache.clear();
+    MorfologikMultiSpeller speller = getSpeller(Arrays.asList("Mywordone", "mywordtwo"));
+    assertFalse(speller.isMisspelled("Mywordone"));
+    assertFalse(speller.isMisspelled("mywordtwo"));
+    assertTrue(speller.isMisspelled("mywordthree"));
+    assertThat(speller.getSuggestionsFromUserDicts("mywordtwoo").toString(), is("[mywordtwo]"));
+    assertThat(UserDictCache.getDictionaries(1L, Arrays.asList("Mywordone", "mywordtwo"), "/xx/spelling/test.info").size(), is(1));
+
+    // an added word doesn't require rebuilding the dictionary of the other words:
+    speller = getSpeller(Arrays.asList("Mywordone", "mywordtwo", "mywordthree"));
+    assertFalse(speller.isMisspelled("Mywordone"));
+    assertFalse(speller.isMisspelled("mywordthree"));
+    assertThat(speller.getSuggestionsFromUserDicts("mywordthre").toString(), is("[mywordthree]"));
+    assertThat(UserDictCache.getDictionaries(1L, Arrays.asList("Mywordone", "mywordtwo", "mywordthree"), "/xx/spelling/test.info").size(), is(2));
+
+    // a removed word does:
+    speller = getSpeller(Arrays.asList("mywordtwo", "mywordthree"));
+    assertTrue(speller.isMisspelled("Mywordone"));
+    assertFalse(speller.isMisspelled("mywordtwo"));
+    assertFalse(speller.isMisspelled("mywordthree"));
+    assertThat(UserDictCache.getDictionaries(1L, Arrays.asList("mywordtwo", "mywordthree"), "/xx/spelling/test.info").size(), is(1));
+  }
+
   @Test(expected = RuntimeException.class)
   public void testInvalidFileName() throws IOException {
     new MorfologikMultiSpeller("/xx/spelling/test.dict.README", singletonList("/xx/spelling/test2.txt"), null, 1);
@@ -76,4 +105,9 @@ public class MorfologikMultiSpellerTest {
     return new MorfologikMultiSpeller("/xx/spelling/test.dict", singletonList("/xx/spelling/test2.txt"), null, 1);
   }
 
+  private MorfologikMultiSpeller getSpeller(List<String> userWords) throws IOException {
+    UserConfig userConfig = new UserConfig(userWords, new HashMap<>(), 0, null, null, false, null, null, 1L);
+    return new MorfologikMultiSpeller("/xx/spelling/test.dict", singletonList("/xx/spelling/test2.txt"), null, userConfig, 1);
+  }
+
 }
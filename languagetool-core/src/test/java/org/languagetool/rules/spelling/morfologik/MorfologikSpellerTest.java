@@ -21,6 +21,9 @@ package org.languagetool.rules.spelling.morfologik;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
@@ -59,4 +62,31 @@ public class MorfologikSpellerTest {
 
     assertThat(spellerDist2.getSuggestions("wordoxix").toString(), is("[]"));
   }
+
+  @Test
+  public void testConcurrentUse() throws Exception {
+    MorfologikSpeller speller = new MorfologikSpeller("/xx/spelling/test.dict", 2);
+    String[] words = {"wordone", "Wordtwo", "Häuser", "Hauser", "wordonex", "nosuchword", "wordonix"};
+    boolean[] misspelled = {false, false, false, true, true, true, true};
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 2000; j++) {
+            String word = words[j % words.length];
+            assertThat(word, speller.isMisspelled(word), is(misspelled[j % words.length]));
+            if (word.equals("wordonix")) {
+              assertThat(speller.getSuggestions(word).toString(), is("[wordone/77]"));
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
 }
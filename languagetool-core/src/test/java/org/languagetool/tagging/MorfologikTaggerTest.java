@@ -21,12 +21,14 @@ package org.languagetool.tagging;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 
 import java.io.IOException;
 import java.net.URL;
 import java.util.List;
 
+import morfologik.stemming.Dictionary;
 import org.junit.Test;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.JLanguageTool;
@@ -58,6 +60,20 @@ public class MorfologikTaggerTest {
     assertThat(noResult.size(), is(0));
   }
 
+  @Test
+  public void testTagWithCache() throws IOException {
+    URL url = MorfologikTaggerTest.class.getResource("/org/languagetool/tagging/test.dict");
+    MorfologikTagger tagger = new MorfologikTagger(Dictionary.read(url), false, 10);
+    assertThat(tagger.tag("lowercase").size(), is(2));
+    List<TaggedWord> result = tagger.tag("lowercase");
+    assertThat(result.size(), is(2));
+    result.clear();  // must not affect the cache
+    assertThat(tagger.tag("lowercase").size(), is(2));
+    assertThat(tagger.getCacheStats().hitCount(), is(2L));
+    assertThat(tagger.getCacheStats().missCount(), is(1L));
+    assertNull(new MorfologikTagger(url).getCacheStats());
+  }
+
   @Test
   public void testPositionWithIgnoredChars() throws IOException {
     Demo demoLanguage = new Demo();
@@ -0,0 +1,60 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging.disambiguation.rules;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.JLanguageTool;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.patterns.PatternRule;
+import org.languagetool.rules.patterns.PatternToken;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class XmlRuleDisambiguatorTest {
+
+  @Test
+  public void testPreDisambiguationTokens() throws IOException {
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    XmlRuleDisambiguator disambiguator = new XmlRuleDisambiguator(new Demo());
+    // rule 'CD' tags '10', then rule 'FILTER1' tags 'X9':
+    AnalyzedSentence sentence = disambiguator.disambiguate(lt.getRawAnalyzedSentence("10 X9 dollars"));
+    AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
+    assertTrue(tokens[1].hasPosTag("CD"));
+    assertTrue(tokens[2].hasPosTag("CD"));
+    // the tokens from before the last rule that changed something:
+    AnalyzedTokenReadings[] preDisambigTokens = sentence.getPreDisambigTokensWithoutWhitespace();
+    assertTrue(preDisambigTokens[1].hasPosTag("CD"));
+    assertFalse(preDisambigTokens[2].hasPosTag("CD"));
+    // rules with raw_pos="yes" match against these tokens:
+    PatternToken cdToken = new PatternToken(null, false, false, false);
+    cdToken.setPosToken(new PatternToken.PosToken("CD", false, false));
+    PatternRule rawPosRule = new PatternRule("RAW_POS", new Demo(), Collections.singletonList(cdToken),
+      "desc", "msg", "short", "", false, true);
+    RuleMatch[] matches = rawPosRule.match(sentence);
+    assertEquals(1, matches.length);
+    assertEquals(0, matches[0].getFromPos());
+  }
+
+}
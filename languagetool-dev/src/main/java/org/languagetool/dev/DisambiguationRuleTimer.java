@@ -0,0 +1,79 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.tagging.disambiguation.rules.XmlRuleDisambiguator;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prints the slowest rules of a language's {@code disambiguation.xml}, as measured by
+ * {@link XmlRuleDisambiguator#getRuleTimings()} for the sentences of a text file.
+ * The rules are applied to the tagger's output, i.e. without the other disambiguators
+ * a language may use before them (like a multi-word chunker).
+ */
+public class DisambiguationRuleTimer {
+
+  private static final int RUNS = 3;  // the first run is a warm-up
+
+  private void run(Language lang, List<String> lines, int maxRules) throws Exception {
+    JLanguageTool lt = new JLanguageTool(lang);
+    XmlRuleDisambiguator disambiguator = null;
+    long sentenceCount = 0;
+    for (int i = 0; i < RUNS; i++) {
+      disambiguator = new XmlRuleDisambiguator(lang);
+      long startTime = System.nanoTime();
+      sentenceCount = 0;
+      for (String line : lines) {
+        for (String sentence : lt.sentenceTokenize(line)) {
+          disambiguator.disambiguate(lt.getRawAnalyzedSentence(sentence));
+          sentenceCount++;
+        }
+      }
+      long runTimeMillis = (System.nanoTime() - startTime) / 1_000_000;
+      System.out.printf(Locale.ENGLISH, "Run %d: %dms for %d sentences\n", i + 1, runTimeMillis, sentenceCount);
+    }
+    List<XmlRuleDisambiguator.RuleTiming> timings = disambiguator.getRuleTimings();
+    System.out.println("Slowest rules of the last run:");
+    for (XmlRuleDisambiguator.RuleTiming timing : timings.subList(0, Math.min(maxRules, timings.size()))) {
+      System.out.println("  " + timing);
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.out.println("Usage: " + DisambiguationRuleTimer.class.getSimpleName() + " <langCode> <textFile> [maxRules]");
+      System.out.println("  <textFile> plain text, each line is split into sentences");
+      System.exit(1);
+    }
+    // must be set before XmlRuleDisambiguator is loaded:
+    System.setProperty("disambiguationRuleTiming", "true");
+    Language lang = Languages.getLanguageForShortCode(args[0]);
+    List<String> lines = Files.readAllLines(Paths.get(args[1]));
+    int maxRules = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+    new DisambiguationRuleTimer().run(lang, lines, maxRules);
+  }
+
+}
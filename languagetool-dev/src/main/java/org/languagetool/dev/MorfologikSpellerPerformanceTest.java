@@ -0,0 +1,87 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev;
+
+import org.languagetool.rules.spelling.morfologik.MorfologikSpeller;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+
+/**
+ * Measures the throughput of {@link MorfologikSpeller#isMisspelled(String)} and
+ * {@link MorfologikSpeller#getFrequency(String)} with one speller shared by 1, 2, 4, ... threads.
+ */
+public class MorfologikSpellerPerformanceTest {
+
+  private static final int RUNS_PER_THREAD = 1_000_000;
+
+  private void run(String dictPath, List<String> words, int maxThreads) throws Exception {
+    MorfologikSpeller speller = new MorfologikSpeller(dictPath, 1);
+    runWithThreads(speller, words, 1);  // warm-up
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      long startTime = System.nanoTime();
+      runWithThreads(speller, words, threads);
+      long runTimeMillis = (System.nanoTime() - startTime) / 1_000_000;
+      double lookupsPerSecond = (double) threads * RUNS_PER_THREAD / runTimeMillis * 1000;
+      System.out.printf(Locale.ENGLISH, "%2d threads: %5dms, %,.0f lookups/s\n", threads, runTimeMillis, lookupsPerSecond);
+    }
+  }
+
+  private void runWithThreads(MorfologikSpeller speller, List<String> words, int threads) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        int offset = i;
+        futures.add(executor.submit(() -> {
+          int misspelled = 0;
+          for (int j = 0; j < RUNS_PER_THREAD; j++) {
+            String word = words.get((offset + j) % words.size());
+            if (speller.isMisspelled(word) || speller.getFrequency(word) == 0) {
+              misspelled++;
+            }
+          }
+          return misspelled;
+        }));
+      }
+      for (Future<Integer> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.out.println("Usage: " + MorfologikSpellerPerformanceTest.class.getSimpleName() + " <dictPath> <wordFile> [maxThreads]");
+      System.out.println("  <dictPath> Morfologik speller dictionary, e.g. /en/hunspell/en_US.dict");
+      System.out.println("  <wordFile> words to look up, one per line");
+      System.exit(1);
+    }
+    List<String> words = Files.readAllLines(Paths.get(args[1]));
+    int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+    new MorfologikSpellerPerformanceTest().run(args[0], words, maxThreads);
+  }
+
+}
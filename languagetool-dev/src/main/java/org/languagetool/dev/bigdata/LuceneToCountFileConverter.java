@@ -0,0 +1,157 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.bigdata;
+
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.MemoryMappedLanguageModel;
+import org.languagetool.languagemodel.NgramCountFileWriter;
+import org.languagetool.languagemodel.ShardedLanguageModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts the Lucene ngram indexes used by {@link LuceneLanguageModel} to the
+ * files used by {@link MemoryMappedLanguageModel}. If the index directory has
+ * sub directories {@code index-1}, {@code index-2} etc., their counts are summed up.
+ * Optionally, the ngrams are split into shards for {@link ShardedLanguageModel}.
+ * @since 5.4
+ */
+final class LuceneToCountFileConverter {
+
+  private LuceneToCountFileConverter() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2 && args.length != 3) {
+      System.out.println("Usage: " + LuceneToCountFileConverter.class.getSimpleName() + " <ngramIndexDir> <outputDir> [shardCount]");
+      System.out.println("  <ngramIndexDir> a directory with '1grams', '2grams' etc. sub directories (or 'index-1' etc. with these sub directories)");
+      System.out.println("  <outputDir> the directory to write '1grams.counts', '2grams.counts' etc. to");
+      System.out.println("  [shardCount] if set, split the ngrams into this many sub directories 'shard-1', 'shard-2' etc.");
+      System.exit(1);
+    }
+    File indexTopDir = new File(args[0]);
+    File outputDir = new File(args[1]);
+    int shardCount = args.length == 3 ? Integer.parseInt(args[2]) : 0;
+    List<File> outputDirs = new ArrayList<>();
+    if (shardCount > 0) {
+      for (int i = 1; i <= shardCount; i++) {
+        outputDirs.add(new File(outputDir, "shard-" + i));
+      }
+    } else {
+      outputDirs.add(outputDir);
+    }
+    for (File dir : outputDirs) {
+      if (!dir.isDirectory() && !dir.mkdirs()) {
+        throw new IOException("Could not create " + dir);
+      }
+    }
+    long totalTokenCount;
+    try (LuceneLanguageModel lm = new LuceneLanguageModel(indexTopDir)) {
+      totalTokenCount = lm.getTotalTokenCount();
+    }
+    System.out.println("Total token count: " + totalTokenCount);
+    for (int ngramSize = 1; ngramSize <= 4; ngramSize++) {
+      List<File> indexDirs = getIndexDirs(indexTopDir, ngramSize);
+      if (indexDirs.isEmpty()) {
+        continue;
+      }
+      List<File> outputFiles = new ArrayList<>();
+      for (File dir : outputDirs) {
+        outputFiles.add(new File(dir, ngramSize + "grams.counts"));
+      }
+      System.out.println("Converting " + indexDirs + " to " + outputFiles);
+      // with shards, each of them gets the total token count of the complete corpus:
+      convert(indexDirs, outputFiles, ngramSize == 1 ? totalTokenCount : 0);
+    }
+  }
+
+  private static List<File> getIndexDirs(File indexTopDir, int ngramSize) {
+    List<File> result = new ArrayList<>();
+    File[] subDirs = indexTopDir.listFiles((file, name) -> name.matches("index-\\d+"));
+    if (subDirs != null && subDirs.length > 0) {
+      for (File subDir : subDirs) {
+        File dir = new File(subDir, ngramSize + "grams");
+        if (dir.isDirectory()) {
+          result.add(dir);
+        }
+      }
+    } else {
+      File dir = new File(indexTopDir, ngramSize + "grams");
+      if (dir.isDirectory()) {
+        result.add(dir);
+      }
+    }
+    return result;
+  }
+
+  private static void convert(List<File> indexDirs, List<File> outputFiles, long totalTokenCount) throws IOException {
+    IndexReader[] readers = new IndexReader[indexDirs.size()];
+    for (int i = 0; i < readers.length; i++) {
+      readers[i] = DirectoryReader.open(FSDirectory.open(indexDirs.get(i).toPath()));
+    }
+    List<NgramCountFileWriter> writers = new ArrayList<>();
+    // a MultiReader returns the terms of all indexes in one sorted sequence, which is the order we need
+    // (also for the shards, as each of them gets a subsequence):
+    try (MultiReader reader = new MultiReader(readers)) {
+      for (File outputFile : outputFiles) {
+        writers.add(new NgramCountFileWriter(outputFile, totalTokenCount));
+      }
+      Terms terms = MultiFields.getTerms(reader, "ngram");
+      if (terms == null) {
+        System.out.println("No 'ngram' field found, skipping");
+        return;
+      }
+      Bits liveDocs = MultiFields.getLiveDocs(reader);
+      TermsEnum termsEnum = terms.iterator();
+      PostingsEnum postings = null;
+      BytesRef term;
+      long ngrams = 0;
+      while ((term = termsEnum.next()) != null) {
+        postings = termsEnum.postings(postings, PostingsEnum.NONE);
+        long count = 0;
+        int docId;
+        while ((docId = postings.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          if (liveDocs == null || liveDocs.get(docId)) {
+            count += Long.parseLong(reader.document(docId).get("count"));
+          }
+        }
+        String ngram = term.utf8ToString();
+        int shard = writers.size() == 1 ? 0 : ShardedLanguageModel.getShard(ngram, writers.size());
+        writers.get(shard).add(ngram, count);
+        if (++ngrams % 1_000_000 == 0) {
+          System.out.println(ngrams + " ngrams converted...");
+        }
+      }
+      System.out.println(ngrams + " ngrams written to " + outputFiles);
+    } finally {
+      for (NgramCountFileWriter writer : writers) {
+        writer.close();
+      }
+    }
+  }
+
+}
@@ -71,9 +71,14 @@ class FastTextConfidenceEval {
       }
       boolean prevDetectionCorrect = false;
       String prevText = null;
+      List<String> texts = new ArrayList<>();
       for (int i = Math.min(line.length(), MAX_INPUT_LEN); i > MIN_INPUT_LEN; i--) {
-        String text = line.substring(0, i);
-        Map<String, Double> map = ft.runFasttext(text, Collections.emptyList());
+        texts.add(line.substring(0, i));
+      }
+      List<Map<String, Double>> maps = ft.runFasttext(texts, Collections.emptyList());
+      for (int i = 0; i < texts.size(); i++) {
+        String text = texts.get(i);
+        Map<String, Double> map = maps.get(i);
         double max = 0;
         String bestLang = null;
         for (Map.Entry<String, Double> entry : map.entrySet()) {
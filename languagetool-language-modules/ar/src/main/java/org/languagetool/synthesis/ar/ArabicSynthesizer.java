@@ -28,8 +28,6 @@ import org.languagetool.tagging.ar.ArabicTagManager;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Arabic word form synthesizer.
@@ -90,15 +88,12 @@ public class ArabicSynthesizer extends BaseSynthesizer {
 
     if (posTag != null && posTagRegExp) {
       String myPosTag = posTag;
-      initPossibleTags();
       myPosTag = correctTag(myPosTag);
 
-      Pattern p = Pattern.compile(myPosTag);
       List<String> results = new ArrayList<>();
       String stem;
-      for (String tag : possibleTags) {
-        Matcher m = p.matcher(tag);
-        if (m.matches() && token.getLemma() != null) {
+      for (String tag : getMatchingTags(myPosTag)) {
+        if (token.getLemma() != null) {
           // local result
           List<String> result_one = lookup(token.getLemma(), tag);
           for (String wd : result_one) {
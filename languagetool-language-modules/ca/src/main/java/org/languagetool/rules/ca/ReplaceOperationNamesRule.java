@@ -21,6 +21,7 @@ package org.languagetool.rules.ca;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -51,6 +52,11 @@ public class ReplaceOperationNamesRule extends AbstractSimpleReplaceRule {
   protected Map<String, List<String>> getWrongWords() {
     return wrongWords;
   }
+
+  @Override
+  public List<RuleCue> getRequiredCues() {
+    return Collections.emptyList();  // matches are also found for plural forms, not only for the words from the list
+  }
   
   private CatalanSynthesizer synth;
   
@@ -18,6 +18,7 @@
  */
 package org.languagetool.rules.en;
 
+import com.google.common.collect.ImmutableSet;
 import org.languagetool.*;
 import org.languagetool.rules.*;
 import org.languagetool.tools.StringTools;
@@ -46,6 +47,7 @@ public class AvsAnRule extends Rule {
   }
 
   private static final Pattern cleanupPattern = Pattern.compile("[^αa-zA-Z0-9.;,:']");
+  private static final List<RuleCue> CUES = Collections.singletonList(RuleCue.anyToken(ImmutableSet.of("a", "an")));
 
   public AvsAnRule(ResourceBundle messages) {
     super.setCategory(Categories.MISC.getCategory(messages));
@@ -69,6 +71,11 @@ public class AvsAnRule extends Rule {
     return 1;
   }
 
+  @Override
+  public List<RuleCue> getRequiredCues() {
+    return CUES;
+  }
+
   @Override
   public RuleMatch[] match(AnalyzedSentence sentence) {
     List<RuleMatch> ruleMatches = new ArrayList<>();
@@ -27,8 +27,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * English word form synthesizer.
@@ -109,13 +107,9 @@ public class EnglishSynthesizer extends BaseSynthesizer {
         det = "the ";
       }
 
-      initPossibleTags();
-      Pattern p = Pattern.compile(myPosTag);
       List<String> results = new ArrayList<>();
-
-      for (String tag : possibleTags) {
-        Matcher m = p.matcher(tag);
-        if (m.matches() && token.getLemma() != null) {
+      if (token.getLemma() != null) {
+        for (String tag : getMatchingTags(myPosTag)) {
           lookup(token.getLemma(), tag, results, det);
         }
       }
@@ -21,6 +21,7 @@ package org.languagetool.rules.es;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -54,6 +55,11 @@ public class SimpleReplaceVerbsRule extends AbstractSimpleReplaceRule {
     return wrongWords;
   }
 
+  @Override
+  public List<RuleCue> getRequiredCues() {
+    return Collections.emptyList();  // matches are found for the infinitive of the tokens, not only for the words from the list
+  }
+
   private static final String endings = "a|aba|abais|aban|abas|ad|ada|adas|ado|ados|amos|an|ando|ar|ara|"
       + "arais|aran|aras|are|areis|aremos|aren|ares|aron|ará|arán|arás|aré|aréis|aría|aríais|aríamos|arían|"
       + "arías|as|ase|aseis|asen|ases|aste|asteis|e|emos|en|es|o|ábamos|áis|áramos|áremos|ásemos|é|éis|ó|"
@@ -18,11 +18,13 @@
  */
 package org.languagetool.rules.fr;
 
+import com.google.common.collect.ImmutableSet;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.Language;
 import org.languagetool.rules.Categories;
 import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleCue;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.patterns.PatternToken;
 import org.languagetool.rules.patterns.PatternTokenBuilder;
@@ -31,6 +33,7 @@ import org.languagetool.tools.StringTools;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.function.Supplier;
@@ -109,6 +112,11 @@ public class QuestionWhitespaceRule extends Rule {
     return i >= 0 ? tokens[i].isWhitespace() : false;
   }
 
+  @Override
+  public List<RuleCue> getRequiredCues() {
+    return Collections.singletonList(RuleCue.anyToken(ImmutableSet.of("?", "!", ";", ":", "«", "»")));
+  }
+
   @Override
   public RuleMatch[] match(AnalyzedSentence sentence) {
     List<RuleMatch> ruleMatches = new ArrayList<>();
@@ -19,6 +19,7 @@
 package org.languagetool.rules.uk;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
@@ -29,6 +30,7 @@ import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.JLanguageTool;
 import org.languagetool.rules.AbstractSimpleReplaceRule;
+import org.languagetool.rules.RuleCue;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.tagging.uk.IPOSTag;
 import org.languagetool.tagging.uk.PosTagHelper;
@@ -54,6 +56,11 @@ public class SimpleReplaceRule extends AbstractSimpleReplaceRule {
     return wrongWords;
   }
 
+  @Override
+  public List<RuleCue> getRequiredCues() {
+    return Collections.emptyList();  // matches are also found by POS tag, not only for the words from the list
+  }
+
   public SimpleReplaceRule(ResourceBundle messages, MorfologikUkrainianSpellerRule morfologikSpellerRule) throws IOException {
     super(messages);
     setIgnoreTaggedWords();
@@ -20,6 +20,7 @@ package org.languagetool.rules.uk;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
@@ -29,6 +30,7 @@ import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.rules.AbstractSimpleReplaceRule;
 import org.languagetool.rules.ITSIssueType;
+import org.languagetool.rules.RuleCue;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.tagging.uk.PosTagHelper;
 
@@ -73,6 +75,11 @@ public class SimpleReplaceSpelling1992Rule extends AbstractSimpleReplaceRule {
     return "Слово, написане за правописом 1992";
   }
 
+  @Override
+  public List<RuleCue> getRequiredCues() {
+    return Collections.emptyList();  // matches are also found by POS tag, not only for the words from the list
+  }
+
   @Override
   public RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
     RuleMatch[] match = super.match(sentence);
@@ -72,7 +72,9 @@ class ApiV2 {
     } else if (path.equals("info")) {
       handleSoftwareInfoRequest(httpExchange);
     } else if (path.equals("check")) {
-      handleCheckRequest(httpExchange, parameters, errorRequestLimiter, remoteAddress);
+      handleCheckRequest(httpExchange, parameters, errorRequestLimiter, remoteAddress, false);
+    } else if (path.equals("check/stream")) {
+      handleCheckRequest(httpExchange, parameters, errorRequestLimiter, remoteAddress, true);
     } else if (path.equals("words")) {
       handleWordsRequest(httpExchange, parameters, config);
     } else if (path.equals("words/add")) {
@@ -126,7 +128,8 @@ class ApiV2 {
     ServerMetricsCollector.getInstance().logResponse(HttpURLConnection.HTTP_OK);
   }
 
-  private void handleCheckRequest(HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter, String remoteAddress) throws Exception {
+  private void handleCheckRequest(HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter,
+                                  String remoteAddress, boolean stream) throws Exception {
     AnnotatedText aText;
     if (parameters.containsKey("text") && parameters.containsKey("data")) {
       throw new BadRequestException("Set only 'text' or 'data' parameter, not both");
@@ -152,7 +155,11 @@ class ApiV2 {
     } else {
       throw new BadRequestException("Missing 'text' or 'data' parameter");
     }
-    textChecker.checkText(aText, httpExchange, parameters, errorRequestLimiter, remoteAddress);
+    if (stream) {
+      textChecker.checkTextStreaming(aText, httpExchange, parameters, errorRequestLimiter, remoteAddress);
+    } else {
+      textChecker.checkText(aText, httpExchange, parameters, errorRequestLimiter, remoteAddress);
+    }
   }
 
   private void handleWordsRequest(HttpExchange httpExchange, Map<String, String> params, HTTPServerConfig config) throws Exception {
@@ -0,0 +1,175 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.JLanguageTool;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Like {@link RequestLimiter}, but instead of keeping a list of all recent requests,
+ * it keeps sliding-window counters per IP address and per IP address plus fingerprint.
+ * The time period is split into a fixed number of buckets, so each request costs
+ * a constant amount of time and each active client a constant amount of memory.
+ * Requests expire with the granularity of one bucket, i.e. after between
+ * {@code (buckets-1)/buckets} and one full time period.
+ * @since 5.4
+ */
+class BucketedRequestLimiter extends RequestLimiter {
+
+  private static final int CLEANUP_INTERVAL = 10_000;
+
+  private final ConcurrentMap<String, SlidingWindowCounter> ipCounters = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, SlidingWindowCounter> fingerprintCounters = new ConcurrentHashMap<>();
+  private final AtomicLong accessCount = new AtomicLong();
+  private final int buckets;
+  private final long bucketMillis;
+
+  /**
+   * @param buckets the number of buckets the time period is split into, more buckets make expiry more exact
+   */
+  BucketedRequestLimiter(int requestLimit, int requestLimitInBytes, int requestLimitPeriodInSeconds, int ipFingerprintFactor,
+                         List<String> whitelistUsers, int whitelistLimit, int buckets) {
+    super(requestLimit, requestLimitInBytes, requestLimitPeriodInSeconds, ipFingerprintFactor, whitelistUsers, whitelistLimit);
+    if (buckets <= 0) {
+      throw new IllegalArgumentException("buckets must be > 0: " + buckets);
+    }
+    this.buckets = buckets;
+    this.bucketMillis = Math.max(1, requestLimitPeriodInSeconds * 1000L / buckets);
+  }
+
+  BucketedRequestLimiter(int requestLimit, int requestLimitInBytes, int requestLimitPeriodInSeconds, int ipFingerprintFactor, int buckets) {
+    this(requestLimit, requestLimitInBytes, requestLimitPeriodInSeconds, ipFingerprintFactor, null, 0, buckets);
+  }
+
+  @Override
+  void checkAccess(String ipAddress, Map<String, String> params, Map<String, List<String>> httpHeader, UserLimits userLimits) {
+    if (userLimits.getSkipLimits()) {
+      // internal special case for e.g. nightly tests
+      return;
+    }
+    long currentBucket = System.currentTimeMillis() / bucketMillis;
+    JLanguageTool.Mode mode = ServerTools.getMode(params);
+    // text level rules cause much less load, so count them accordingly
+    float size = getRequestSize(params) * (mode == JLanguageTool.Mode.TEXTLEVEL_ONLY ? 0.1f : 1f);
+    SlidingWindowCounter ipCounter = ipCounters.computeIfAbsent(ipAddress, k -> new SlidingWindowCounter(buckets));
+    SlidingWindowCounter fingerprintCounter = fingerprintCounters.computeIfAbsent(getFingerprintKey(ipAddress, params, httpHeader),
+      k -> new SlidingWindowCounter(buckets));
+    ipCounter.add(currentBucket, size);
+    fingerprintCounter.add(currentBucket, size);
+    if (accessCount.incrementAndGet() % CLEANUP_INTERVAL == 0) {
+      removeIdleCounters(currentBucket);
+    }
+    checkTotals(ipAddress, params, httpHeader, mode,
+      ipCounter.getRequests(currentBucket), ipCounter.getSize(currentBucket),
+      fingerprintCounter.getRequests(currentBucket), fingerprintCounter.getSize(currentBucket));
+  }
+
+  @Override
+  void checkLimit(String ipAddress, Map<String, String> parameters, Map<String, List<String>> httpHeader) {
+    long currentBucket = System.currentTimeMillis() / bucketMillis;
+    SlidingWindowCounter ipCounter = ipCounters.get(ipAddress);
+    SlidingWindowCounter fingerprintCounter = fingerprintCounters.get(getFingerprintKey(ipAddress, parameters, httpHeader));
+    checkTotals(ipAddress, parameters, httpHeader, ServerTools.getMode(parameters),
+      ipCounter != null ? ipCounter.getRequests(currentBucket) : 0,
+      ipCounter != null ? ipCounter.getSize(currentBucket) : 0,
+      fingerprintCounter != null ? fingerprintCounter.getRequests(currentBucket) : 0,
+      fingerprintCounter != null ? fingerprintCounter.getSize(currentBucket) : 0);
+  }
+
+  int getActiveClientCount() {
+    return ipCounters.size();
+  }
+
+  private String getFingerprintKey(String ipAddress, Map<String, String> params, Map<String, List<String>> httpHeader) {
+    // fingerprints are only compared for requests from the same IP address:
+    return ipAddress + "|" + computeFingerprint(httpHeader, params);
+  }
+
+  private void removeIdleCounters(long currentBucket) {
+    ipCounters.values().removeIf(counter -> counter.isIdle(currentBucket));
+    fingerprintCounters.values().removeIf(counter -> counter.isIdle(currentBucket));
+  }
+
+  /**
+   * Ring of per-bucket request counts and sizes. A slot belongs to the current
+   * time period if its bucket id is one of the last {@code buckets} ids.
+   */
+  private static class SlidingWindowCounter {
+
+    private final long[] bucketIds;
+    private final int[] requests;
+    private final float[] sizes;
+
+    SlidingWindowCounter(int buckets) {
+      bucketIds = new long[buckets];
+      requests = new int[buckets];
+      sizes = new float[buckets];
+    }
+
+    synchronized void add(long currentBucket, float size) {
+      int slot = (int) (currentBucket % bucketIds.length);
+      if (bucketIds[slot] != currentBucket) {
+        bucketIds[slot] = currentBucket;
+        requests[slot] = 0;
+        sizes[slot] = 0;
+      }
+      requests[slot]++;
+      sizes[slot] += size;
+    }
+
+    synchronized int getRequests(long currentBucket) {
+      int sum = 0;
+      for (int i = 0; i < bucketIds.length; i++) {
+        if (isCurrent(bucketIds[i], currentBucket)) {
+          sum += requests[i];
+        }
+      }
+      return sum;
+    }
+
+    synchronized float getSize(long currentBucket) {
+      float sum = 0;
+      for (int i = 0; i < bucketIds.length; i++) {
+        if (isCurrent(bucketIds[i], currentBucket)) {
+          sum += sizes[i];
+        }
+      }
+      return sum;
+    }
+
+    synchronized boolean isIdle(long currentBucket) {
+      for (long bucketId : bucketIds) {
+        if (isCurrent(bucketId, currentBucket)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean isCurrent(long bucketId, long currentBucket) {
+      return bucketId > currentBucket - bucketIds.length;
+    }
+  }
+
+}
@@ -71,6 +71,8 @@ public class HTTPServerConfig {
   protected int pipelineExpireTime;
   protected File fasttextModel = null;
   protected File fasttextBinary = null;
+  protected int fasttextProcesses = 1;
+  protected int hunspellHandlesPerDictionary = 1;
   protected File neuralNetworkModelDir = null;
   protected int requestLimit;
   protected int requestLimitInBytes;
@@ -78,6 +80,7 @@ public class HTTPServerConfig {
   protected int requestLimitPeriodInSeconds;
   protected List<String> requestLimitWhitelistUsers;
   protected int requestLimitWhitelistLimit;
+  protected int requestLimitBuckets = 0; // 0 = keep a list of recent requests instead of bucketed counters
   protected int ipFingerprintFactor = 1;
   protected boolean trustXForwardForHeader;
   protected int maxWorkQueueSize;
@@ -85,6 +88,12 @@ public class HTTPServerConfig {
   protected File remoteRulesConfigFile = null;
   protected int cacheSize = 0;
   protected long cacheTTLSeconds = 300;
+  protected int cacheSizeInMB = 0;
+  protected boolean cacheFrequencyAdmission = false;
+  protected File persistentCacheDir = null;
+  protected int persistentCacheSizeInMB = 1024;
+  protected int textSessionCacheSize = 0;
+  protected int textSessionCacheSizeInMB = 0;
   protected float maxErrorsPerWordRate = 0;
   protected int maxSpellingSuggestions = 0;
   protected List<String> blockedReferrers = new ArrayList<>();
@@ -115,18 +124,18 @@ public class HTTPServerConfig {
   protected File ngramLangIdentData;
 
   private static final List<String> KNOWN_OPTION_KEYS = Arrays.asList("abTest", "abTestClients", "abTestRollout",
-    "beolingusFile", "blockedReferrers", "cacheSize", "cacheTTLSeconds",
-    "dbDriver", "dbPassword", "dbUrl", "dbUsername", "disabledRuleIds", "fasttextBinary", "fasttextModel", "grammalectePassword",
-    "grammalecteServer", "grammalecteUser", "hiddenMatchesLanguages", "hiddenMatchesServer", "hiddenMatchesServerFailTimeout",
+    "beolingusFile", "blockedReferrers", "cacheFrequencyAdmission", "cacheSize", "cacheSizeInMB", "cacheTTLSeconds",
+    "dbDriver", "dbPassword", "dbUrl", "dbUsername", "disabledRuleIds", "fasttextBinary", "fasttextModel", "fasttextProcesses", "grammalectePassword",
+    "grammalecteServer", "grammalecteUser", "hiddenMatchesLanguages", "hunspellHandlesPerDictionary", "hiddenMatchesServer", "hiddenMatchesServerFailTimeout",
     "hiddenMatchesServerTimeout", "hiddenMatchesServerFall", "ipFingerprintFactor", "languageModel", "maxCheckThreads", "maxCheckTimeMillis",
     "maxCheckTimeWithApiKeyMillis", "maxErrorsPerWordRate", "maxPipelinePoolSize", "maxSpellingSuggestions", "maxTextHardLength",
     "maxTextLength", "maxTextLengthWithApiKey", "maxWorkQueueSize", "neuralNetworkModel", "pipelineCaching",
     "pipelineExpireTimeInSeconds", "pipelinePrewarming", "prometheusMonitoring", "prometheusPort", "remoteRulesFile",
-    "requestLimit", "requestLimitInBytes", "requestLimitPeriodInSeconds", "requestLimitWhitelistUsers", "requestLimitWhitelistLimit",
+    "requestLimit", "requestLimitBuckets", "requestLimitInBytes", "requestLimitPeriodInSeconds", "requestLimitWhitelistUsers", "requestLimitWhitelistLimit",
     "rulesFile", "secretTokenKey", "serverURL",
-    "skipLoggingChecks", "skipLoggingRuleMatches", "timeoutRequestLimit", "trustXForwardForHeader", "warmUp", "word2vecModel",
+    "skipLoggingChecks", "skipLoggingRuleMatches", "textSessionCacheSize", "textSessionCacheSizeInMB", "timeoutRequestLimit", "trustXForwardForHeader", "warmUp", "word2vecModel",
     "keystore", "password", "maxTextLengthPremium", "maxTextLengthAnonymous", "maxTextLengthLoggedIn", "gracefulDatabaseFailure",
-    "ngramLangIdentData",
+    "ngramLangIdentData", "persistentCacheDir", "persistentCacheSizeInMB",
     "redisPassword", "redisHost", "dbLogging", "premiumOnly");
 
   /**
@@ -226,6 +235,10 @@ public class HTTPServerConfig {
         timeoutRequestLimit = Integer.parseInt(getOptionalProperty(props, "timeoutRequestLimit", "0"));
         requestLimitWhitelistUsers = Arrays.asList(getOptionalProperty(props, "requestLimitWhitelistUsers", "").split(",\\s*"));
         requestLimitWhitelistLimit = Integer.parseInt(getOptionalProperty(props, "requestLimitWhitelistLimit", "0"));
+        requestLimitBuckets = Integer.parseInt(getOptionalProperty(props, "requestLimitBuckets", "0"));
+        if (requestLimitBuckets < 0) {
+          throw new IllegalArgumentException("requestLimitBuckets must be >= 0: " + requestLimitBuckets);
+        }
         pipelineCaching = Boolean.parseBoolean(getOptionalProperty(props, "pipelineCaching", "false").trim());
         pipelinePrewarming = Boolean.parseBoolean(getOptionalProperty(props, "pipelinePrewarming", "false").trim());
         maxPipelinePoolSize = Integer.parseInt(getOptionalProperty(props, "maxPipelinePoolSize", "5"));
@@ -256,6 +269,14 @@ public class HTTPServerConfig {
         if (fasttextBinary != null && fasttextModel != null) {
           setFasttextPaths(fasttextModel, fasttextBinary);
         }
+        fasttextProcesses = Integer.parseInt(getOptionalProperty(props, "fasttextProcesses", "1"));
+        if (fasttextProcesses < 1) {
+          throw new IllegalArgumentException("Invalid value for fasttextProcesses: " + fasttextProcesses + ", must be >= 1");
+        }
+        hunspellHandlesPerDictionary = Integer.parseInt(getOptionalProperty(props, "hunspellHandlesPerDictionary", "1"));
+        if (hunspellHandlesPerDictionary < 1) {
+          throw new IllegalArgumentException("Invalid value for hunspellHandlesPerDictionary: " + hunspellHandlesPerDictionary + ", must be >= 1");
+        }
         maxCheckThreads = Integer.parseInt(getOptionalProperty(props, "maxCheckThreads", "10"));
         if (maxCheckThreads < 1) {
           throw new IllegalArgumentException("Invalid value for maxCheckThreads, must be >= 1: " + maxCheckThreads);
@@ -282,10 +303,40 @@ public class HTTPServerConfig {
         if (cacheSize < 0) {
           throw new IllegalArgumentException("Invalid value for cacheSize: " + cacheSize + ", use 0 to deactivate cache");
         }
-        if (props.containsKey("cacheTTLSeconds") && !props.containsKey("cacheSize")) {
+        cacheSizeInMB = Integer.parseInt(getOptionalProperty(props, "cacheSizeInMB", "0"));
+        if (cacheSizeInMB < 0) {
+          throw new IllegalArgumentException("Invalid value for cacheSizeInMB: " + cacheSizeInMB + ", use 0 to deactivate it");
+        }
+        if (cacheSize > 0 && cacheSizeInMB > 0) {
+          throw new IllegalArgumentException("Set either cacheSize or cacheSizeInMB, not both");
+        }
+        if (props.containsKey("cacheTTLSeconds") && !props.containsKey("cacheSize") && !props.containsKey("cacheSizeInMB")) {
           throw new IllegalArgumentException("Use of cacheTTLSeconds without also setting cacheSize has no effect.");
         }
         cacheTTLSeconds = Integer.parseInt(getOptionalProperty(props, "cacheTTLSeconds", "300"));
+        cacheFrequencyAdmission = Boolean.parseBoolean(getOptionalProperty(props, "cacheFrequencyAdmission", "false"));
+        String persistentCacheDirPath = getOptionalProperty(props, "persistentCacheDir", null);
+        if (persistentCacheDirPath != null) {
+          if (cacheSize == 0 && cacheSizeInMB == 0) {
+            throw new IllegalArgumentException("Use of persistentCacheDir without also setting cacheSize has no effect.");
+          }
+          persistentCacheDir = new File(persistentCacheDirPath);
+        }
+        persistentCacheSizeInMB = Integer.parseInt(getOptionalProperty(props, "persistentCacheSizeInMB", "1024"));
+        if (persistentCacheSizeInMB <= 0) {
+          throw new IllegalArgumentException("Invalid value for persistentCacheSizeInMB: " + persistentCacheSizeInMB + ", must be > 0");
+        }
+        textSessionCacheSize = Integer.parseInt(getOptionalProperty(props, "textSessionCacheSize", "0"));
+        if (textSessionCacheSize < 0) {
+          throw new IllegalArgumentException("Invalid value for textSessionCacheSize: " + textSessionCacheSize + ", use 0 to deactivate it");
+        }
+        textSessionCacheSizeInMB = Integer.parseInt(getOptionalProperty(props, "textSessionCacheSizeInMB", "0"));
+        if (textSessionCacheSizeInMB < 0) {
+          throw new IllegalArgumentException("Invalid value for textSessionCacheSizeInMB: " + textSessionCacheSizeInMB + ", use 0 to deactivate it");
+        }
+        if (textSessionCacheSize > 0 && textSessionCacheSizeInMB > 0) {
+          throw new IllegalArgumentException("Set either textSessionCacheSize or textSessionCacheSizeInMB, not both");
+        }
         if (props.containsKey("warmUp")) {
           System.err.println("Setting ignored: 'warmUp'. Look into using pipelineCaching and pipelinePrewarming instead.");
         }
@@ -558,6 +609,20 @@ public class HTTPServerConfig {
     return requestLimit;
   }
 
+  /**
+   * @return the number of time buckets per request limit period for a limiter with
+   * constant-time checks per request, or {@code 0} to keep a list of recent requests
+   * @since 5.4
+   */
+  int getRequestLimitBuckets() {
+    return requestLimitBuckets;
+  }
+
+  /** @since 5.4 */
+  void setRequestLimitBuckets(int requestLimitBuckets) {
+    this.requestLimitBuckets = requestLimitBuckets;
+  }
+
 
   /** @since 4.0 */
   int getTimeoutRequestLimit() {
@@ -659,6 +724,34 @@ public class HTTPServerConfig {
     fasttextBinary = Objects.requireNonNull(binary);
   }
 
+  /**
+   * Number of fasttext processes to start for language detection.
+   * @since 5.4
+   */
+  int getFasttextProcesses() {
+    return fasttextProcesses;
+  }
+
+  /** @since 5.4 */
+  void setFasttextProcesses(int fasttextProcesses) {
+    this.fasttextProcesses = fasttextProcesses;
+  }
+
+  /**
+   * Maximum number of native Hunspell instances per dictionary, i.e. of threads that can
+   * use the same Hunspell dictionary at the same time. Each of them needs as much memory as
+   * the dictionary.
+   * @since 5.4
+   */
+  int getHunspellHandlesPerDictionary() {
+    return hunspellHandlesPerDictionary;
+  }
+
+  /** @since 5.4 */
+  void setHunspellHandlesPerDictionary(int hunspellHandlesPerDictionary) {
+    this.hunspellHandlesPerDictionary = hunspellHandlesPerDictionary;
+  }
+
   /** @since 2.7 */
   Mode getMode() {
     return mode;
@@ -787,6 +880,89 @@ public class HTTPServerConfig {
     this.cacheTTLSeconds = cacheTTLSeconds;
   }
 
+  /**
+   * Cache size in megabytes of estimated heap usage, used instead of {@link #getCacheSize()} if &gt; 0.
+   * @since 5.4
+   */
+  int getCacheSizeInMB() {
+    return cacheSizeInMB;
+  }
+
+  /** @since 5.4 */
+  void setCacheSizeInMB(int cacheSizeInMB) {
+    this.cacheSizeInMB = cacheSizeInMB;
+  }
+
+  /**
+   * Whether sentences are only added to the cache after they have been looked up before recently.
+   * @since 5.4
+   */
+  boolean isCacheFrequencyAdmission() {
+    return cacheFrequencyAdmission;
+  }
+
+  /** @since 5.4 */
+  void setCacheFrequencyAdmission(boolean cacheFrequencyAdmission) {
+    this.cacheFrequencyAdmission = cacheFrequencyAdmission;
+  }
+
+  /**
+   * Directory for the persistent second-level cache of sentence matches, or {@code null}.
+   * @since 5.4
+   */
+  @Nullable
+  File getPersistentCacheDir() {
+    return persistentCacheDir;
+  }
+
+  /** @since 5.4 */
+  void setPersistentCacheDir(File persistentCacheDir) {
+    this.persistentCacheDir = persistentCacheDir;
+  }
+
+  /**
+   * Maximum size of the files in {@link #getPersistentCacheDir()}, in megabytes.
+   * @since 5.4
+   */
+  int getPersistentCacheSizeInMB() {
+    return persistentCacheSizeInMB;
+  }
+
+  /** @since 5.4 */
+  void setPersistentCacheSizeInMB(int persistentCacheSizeInMB) {
+    this.persistentCacheSizeInMB = persistentCacheSizeInMB;
+  }
+
+  /**
+   * Maximum number of texts (identified by their {@code textSessionId}) whose paragraphs are kept
+   * so that the next check of the same text only needs to analyze the changed paragraphs. 0 = off.
+   * Note that the analyzed sentences of a text need about 200 bytes per character of the text,
+   * so a few long texts can use a lot of memory; see {@link #getTextSessionCacheSizeInMB()}.
+   * @since 5.4
+   */
+  int getTextSessionCacheSize() {
+    return textSessionCacheSize;
+  }
+
+  /** @since 5.4 */
+  void setTextSessionCacheSize(int textSessionCacheSize) {
+    this.textSessionCacheSize = textSessionCacheSize;
+  }
+
+  /**
+   * Size of the text session cache in megabytes of estimated heap usage, used instead
+   * of {@link #getTextSessionCacheSize()} if &gt; 0.
+   * @since 5.4
+   */
+  int getTextSessionCacheSizeInMB() {
+    return textSessionCacheSizeInMB;
+  }
+
+  /** @since 5.4 */
+  void setTextSessionCacheSizeInMB(int textSessionCacheSizeInMB) {
+    this.textSessionCacheSizeInMB = textSessionCacheSizeInMB;
+  }
+
   /**
    * Maximum errors per word rate, checking will stop if the rate is higher.
    * For example, with a rate of 0.33, the checking would stop if the user's
@@ -200,6 +200,7 @@ class PipelinePool {
     lt.disableRules(disabledRuleIds);
     if (config.getLanguageModelDir() != null) {
       lt.activateLanguageModelRules(config.getLanguageModelDir());
+      ServerMetricsCollector.getInstance().monitorLanguageModel(lang, lang.getLanguageModel(config.getLanguageModelDir()));
     }
     if (config.getWord2VecModelDir () != null) {
       lt.activateWord2VecModelRules(config.getWord2VecModelDir());
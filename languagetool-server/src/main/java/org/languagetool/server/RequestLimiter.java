@@ -133,7 +133,7 @@ class RequestLimiter {
     checkLimit(ipAddress, params, httpHeader);
   }
 
-  private int getRequestSize(Map<String, String> params) {
+  int getRequestSize(Map<String, String> params) {
     String text = params.get("text");
     if (text != null) {
       return text.length();
@@ -250,6 +250,54 @@ class RequestLimiter {
     }
   }
   
+  /**
+   * Check the limits against the given totals for the current time period, which include the current request.
+   * Used by limiters that keep aggregated counts instead of single {@link RequestEvent}s.
+   * @param mode the mode of the current request, used for the error message only
+   * @since 5.4
+   */
+  void checkTotals(String ipAddress, Map<String, String> parameters, Map<String, List<String>> httpHeader, JLanguageTool.Mode mode,
+                   int requestsByIp, float requestSizeByIp, int requestsByFingerprint, float requestSizeByFingerprint) {
+    String fingerprint = computeFingerprint(httpHeader, parameters);
+    String user = parameters.get("username");
+    boolean whitelistedUser = user != null && whitelistUsers.contains(user);
+    if (whitelistedUser) {
+      if (whitelistLimit <= 0 || requestsByIp < whitelistLimit) {
+        return;
+      }
+      String msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      logger.log(new DatabaseAccessLimitLogEntry("MaxRequestPerPeriodIp", server, getClientId(parameters), null, msg, getReferer(httpHeader), getUserAgent(httpHeader)));
+      throw new TooManyRequestsException("Whitelist request limit of " + whitelistLimit + " requests per " +
+        requestLimitPeriodInSeconds + " seconds exceeded");
+    }
+    if (ipFingerprintFactor > 0 && requestLimit > 0 && requestsByFingerprint > requestLimit) {
+      String msg = "limit: " + requestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      logger.log(new DatabaseAccessLimitLogEntry("MaxRequestPerPeriodFingerprint", server, getClientId(parameters), null, msg, getReferer(httpHeader), getUserAgent(httpHeader)));
+      throw new TooManyRequestsException("Client request limit of " + requestLimit + " requests per " +
+        requestLimitPeriodInSeconds + " seconds exceeded");
+    }
+    if (requestLimit > 0 && requestsByIp > ipRequestLimit) {
+      String msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      logger.log(new DatabaseAccessLimitLogEntry("MaxRequestPerPeriodIp", server, getClientId(parameters), null, msg, getReferer(httpHeader), getUserAgent(httpHeader)));
+      throw new TooManyRequestsException("IP request limit of " + ipRequestLimit + " requests per " +
+        requestLimitPeriodInSeconds + " seconds exceeded");
+    }
+    String modeInfo = mode == JLanguageTool.Mode.TEXTLEVEL_ONLY ? " in Mode.TEXTLEVEL_ONLY" : "";
+    String modeSuffix = mode == JLanguageTool.Mode.TEXTLEVEL_ONLY ? " in text-level checks" : "";
+    if (ipFingerprintFactor > 0 && requestLimitInBytes > 0 && requestSizeByFingerprint > requestLimitInBytes) {
+      String msg = "limit" + modeInfo + ": " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + (int) requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriodFingerprint", server, getClientId(parameters), null, msg, getReferer(httpHeader), getUserAgent(httpHeader)));
+      throw new TooManyRequestsException("Client request size limit of " + requestLimitInBytes + " bytes per " +
+        requestLimitPeriodInSeconds + " seconds exceeded" + modeSuffix);
+    }
+    if (requestLimitInBytes > 0 && requestSizeByIp > ipRequestLimitInBytes) {
+      String msg = "limit" + modeInfo + ": " + ipRequestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + (int) requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriodIp", server, getClientId(parameters), null, msg, getReferer(httpHeader), getUserAgent(httpHeader)));
+      throw new TooManyRequestsException("IP request size limit of " + ipRequestLimitInBytes + " bytes per " +
+        requestLimitPeriodInSeconds + " seconds exceeded" + modeSuffix);
+    }
+  }
+
   protected static class RequestEvent {
 
     private final String ip;
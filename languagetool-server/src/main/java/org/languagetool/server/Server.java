@@ -95,7 +95,12 @@ abstract class Server {
     int ipFingerprintFactor = config.getIpFingerprintFactor(); // can be <= 0, means fingerprinting is disabled
     List<String> requestLimitWhitelistUsers = config.getRequestLimitWhitelistUsers();
     int requestLimitWhitelistLimit = config.getRequestLimitWhitelistLimit();
+    int requestLimitBuckets = config.getRequestLimitBuckets();
     if ((requestLimit > 0 || requestLimitInBytes > 0) && requestLimitPeriodInSeconds > 0) {
+      if (requestLimitBuckets > 0) {
+        return new BucketedRequestLimiter(requestLimit, requestLimitInBytes, requestLimitPeriodInSeconds, ipFingerprintFactor,
+          requestLimitWhitelistUsers, requestLimitWhitelistLimit, requestLimitBuckets);
+      }
       return new RequestLimiter(requestLimit, requestLimitInBytes, requestLimitPeriodInSeconds, ipFingerprintFactor,
         requestLimitWhitelistUsers, requestLimitWhitelistLimit);
     }
@@ -126,7 +131,15 @@ abstract class Server {
                        "                                            affects Hunspell-based languages only)");
     System.out.println("                 'maxCheckThreads' - maximum number of threads working in parallel (optional)");
     System.out.println("                 'cacheSize' - size of internal cache in number of sentences (optional, default: 0)");
+    System.out.println("                 'cacheSizeInMB' - size of internal cache in megabytes of estimated heap usage, instead of 'cacheSize' (optional, default: 0)");
     System.out.println("                 'cacheTTLSeconds' - how many seconds sentences are kept in cache (optional, default: 300 if 'cacheSize' is set)");
+    System.out.println("                 'cacheFrequencyAdmission' - only cache sentences that have been checked before recently, so texts checked\n" +
+                       "                                             only once don't replace often checked sentences (optional, default: false)");
+    System.out.println("                 'persistentCacheDir' - directory for a second-level cache of sentence matches that survives restarts (optional, requires 'cacheSize')");
+    System.out.println("                 'persistentCacheSizeInMB' - maximum size of the files in 'persistentCacheDir' (optional, default: 1024)");
+    System.out.println("                 'textSessionCacheSize' - number of texts for which the paragraphs are kept so that the next check of the same text (same 'textSessionId') only analyzes the changed paragraphs (optional, default: 0)\n" +
+                       "                                          note: a text needs about 200 bytes per character in memory, consider using 'textSessionCacheSizeInMB'");
+    System.out.println("                 'textSessionCacheSizeInMB' - size of the text session cache in megabytes of estimated heap usage, instead of 'textSessionCacheSize' (optional, default: 0)");
     System.out.println("                 'requestLimit' - maximum number of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'requestLimitInBytes' - maximum aggregated size of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'timeoutRequestLimit' - maximum number of timeout request (optional)");
@@ -139,6 +152,8 @@ abstract class Server {
     System.out.println("                  https://fasttext.cc/docs/en/language-identification.html");
     System.out.println("                 'fasttextBinary' - compiled fasttext executable for language detection (optional), see");
     System.out.println("                  https://fasttext.cc/docs/en/support.html");
+    System.out.println("                 'fasttextProcesses' - number of fasttext processes, so the language of several texts can be detected at the same time (optional, default: 1)");
+    System.out.println("                 'hunspellHandlesPerDictionary' - number of threads that can use a Hunspell dictionary at the same time, each needs as much memory as the dictionary (optional, default: 1)");
     System.out.println("                 'maxWorkQueueSize' - reject request if request queue gets larger than this (optional)");
     System.out.println("                 'rulesFile' - a file containing rules configuration, such as .langugagetool.cfg (optional)");
     System.out.println("                 'warmUp' - set to 'true' to warm up server at start, i.e. run a short check with all languages (optional)");
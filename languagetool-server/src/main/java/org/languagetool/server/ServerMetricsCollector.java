@@ -19,7 +19,10 @@
 package org.languagetool.server;
 
 import com.google.common.cache.Cache;
+import io.prometheus.client.Collector;
 import io.prometheus.client.Counter;
+import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.GaugeMetricFamily;
 import io.prometheus.client.Gauge;
 import io.prometheus.client.Info;
 import io.prometheus.client.Histogram;
@@ -28,10 +31,18 @@ import io.prometheus.client.guava.cache.CacheMetricsCollector;
 import io.prometheus.client.hotspot.DefaultExports;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
+import org.languagetool.ResultCache;
+import org.languagetool.languagemodel.CachingLanguageModel;
+import org.languagetool.languagemodel.LanguageModel;
+import org.languagetool.languagemodel.ShardedLanguageModel;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ServerMetricsCollector {
 
@@ -118,6 +129,10 @@ public class ServerMetricsCollector {
 
   private final CacheMetricsCollector cacheMetrics = new CacheMetricsCollector().register();
 
+  private final ResultCacheCollector resultCacheMetrics = new ResultCacheCollector().register();
+
+  private final LanguageModelCollector languageModelMetrics = new LanguageModelCollector().register();
+
 
   public static void init(int port) throws IOException {
     DefaultExports.initialize();
@@ -141,6 +156,35 @@ public class ServerMetricsCollector {
     cacheMetrics.addCache(name, cache);
   }
 
+  /**
+   * Export the estimated heap usage and admission rejections of the result cache
+   * (hit rates and evictions are exported via {@link #monitorCache}).
+   * @since 5.4
+   */
+  public void monitorResultCache(ResultCache cache) {
+    resultCacheMetrics.cache = cache;
+  }
+
+  /**
+   * Export the hit rates of the ngram count cache of a language's language model as
+   * {@code languagetool_ngram_cache_xx} (with the language code instead of {@code xx}),
+   * and the counts not added to it. If the model is a {@link ShardedLanguageModel}, also
+   * export the lookups and latencies of each shard.
+   * @since 5.4
+   */
+  public void monitorLanguageModel(Language language, LanguageModel languageModel) {
+    String langCode = language.getShortCodeWithCountryAndVariant();
+    if (languageModel instanceof CachingLanguageModel) {
+      CachingLanguageModel cachingModel = (CachingLanguageModel) languageModel;
+      monitorCache("languagetool_ngram_cache_" + langCode, cachingModel.getCache());
+      languageModelMetrics.cachingModels.put(langCode, cachingModel);
+      languageModel = cachingModel.getLanguageModel();
+    }
+    if (languageModel instanceof ShardedLanguageModel) {
+      languageModelMetrics.shardedModels.put(langCode, (ShardedLanguageModel) languageModel);
+    }
+  }
+
   public void logHiddenServerConfiguration(boolean enabled) {
     hiddenMatchesServerEnabled.set(enabled ? 1.0 : 0.0);
   }
@@ -201,4 +245,61 @@ public class ServerMetricsCollector {
     failedHealthcheckCounter.inc();
   }
 
+
+  private static class ResultCacheCollector extends Collector {
+
+    private volatile ResultCache cache;
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+      ResultCache cache = this.cache;
+      if (cache == null) {
+        return Collections.emptyList();
+      }
+      GaugeMetricFamily bytes = new GaugeMetricFamily("languagetool_cache_size_bytes",
+        "Estimated heap usage of the cache entries", Collections.singletonList("cache"));
+      bytes.addMetric(Collections.singletonList("languagetool_matches_cache"), cache.getMatchesCacheSizeInBytes());
+      bytes.addMetric(Collections.singletonList("languagetool_remote_matches_cache"), cache.getRemoteMatchesCacheSizeInBytes());
+      bytes.addMetric(Collections.singletonList("languagetool_sentences_cache"), cache.getSentenceCacheSizeInBytes());
+      CounterMetricFamily rejected = new CounterMetricFamily("languagetool_cache_admission_rejected_total",
+        "Sentences not added to the cache because they had not been checked before recently", cache.getRejectedCount());
+      return Arrays.asList(bytes, rejected);
+    }
+  }
+
+  private static class LanguageModelCollector extends Collector {
+
+    private final Map<String, CachingLanguageModel> cachingModels = new ConcurrentHashMap<>();
+    private final Map<String, ShardedLanguageModel> shardedModels = new ConcurrentHashMap<>();
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+      CounterMetricFamily rejected = new CounterMetricFamily("languagetool_ngram_cache_admission_rejected_total",
+        "Ngram counts not added to the cache because they had not been looked up before recently", Collections.singletonList("language"));
+      for (Map.Entry<String, CachingLanguageModel> entry : cachingModels.entrySet()) {
+        rejected.addMetric(Collections.singletonList(entry.getKey()), entry.getValue().getRejectedCount());
+      }
+      List<String> shardLabels = Arrays.asList("language", "shard");
+      CounterMetricFamily lookups = new CounterMetricFamily("languagetool_ngram_shard_lookups_total",
+        "Lookups in an ngram shard, a lookup of several ngrams counts as one", shardLabels);
+      CounterMetricFamily ngrams = new CounterMetricFamily("languagetool_ngram_shard_ngrams_total",
+        "Ngrams looked up in an ngram shard", shardLabels);
+      CounterMetricFamily seconds = new CounterMetricFamily("languagetool_ngram_shard_lookup_seconds_total",
+        "Time spent on lookups in an ngram shard", shardLabels);
+      GaugeMetricFamily maxSeconds = new GaugeMetricFamily("languagetool_ngram_shard_max_lookup_seconds",
+        "Latency of the slowest lookup in an ngram shard", shardLabels);
+      for (Map.Entry<String, ShardedLanguageModel> entry : shardedModels.entrySet()) {
+        for (ShardedLanguageModel.ShardStats stats : entry.getValue().getShardStats()) {
+          // numbered like the shard directories:
+          List<String> labels = Arrays.asList(entry.getKey(), String.valueOf(stats.getShard() + 1));
+          lookups.addMetric(labels, stats.getLookupCount());
+          ngrams.addMetric(labels, stats.getNgramCount());
+          seconds.addMetric(labels, stats.getTotalLatencyMillis() / 1000.0);
+          maxSeconds.addMetric(labels, stats.getMaxLatencyMillis() / 1000.0);
+        }
+      }
+      return Arrays.asList(rejected, lookups, ngrams, seconds, maxSeconds);
+    }
+  }
+
 }
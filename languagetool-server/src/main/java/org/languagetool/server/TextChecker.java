@@ -18,6 +18,8 @@
  */
 package org.languagetool.server;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sun.net.httpserver.HttpExchange;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -35,12 +37,17 @@ import org.languagetool.rules.DictionaryMatchFilter;
 import org.languagetool.rules.RemoteRule;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.bitext.BitextRule;
+import org.languagetool.rules.spelling.hunspell.Hunspell;
 import org.languagetool.rules.spelling.morfologik.suggestions_ordering.SuggestionsOrdererConfig;
+import org.languagetool.tools.RuleMatchesAsJsonSerializer;
 import org.languagetool.tools.Tools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -58,6 +65,7 @@ abstract class TextChecker {
   private static final int PINGS_CLEAN_MILLIS = 60 * 1000;  // internal pings database will be cleaned this often
   private static final int PINGS_MAX_SIZE = 5000;
   private static final int NGRAM_THRESHOLD = 50;
+  private static final int TEXT_SESSION_EXPIRE_MINUTES = 10;  // texts not checked for this long are forgotten
 
   protected abstract void setHeaders(HttpExchange httpExchange);
   protected abstract String getResponse(AnnotatedText text, Language language, DetectedLanguage lang, Language motherTongue, List<CheckResults> matches,
@@ -79,6 +87,7 @@ abstract class TextChecker {
   private static final Logger logger = LoggerFactory.getLogger(TextChecker.class);
 
   private static final String ENCODING = "UTF-8";
+  private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
   private static final int CACHE_STATS_PRINT = 500; // print cache stats every n cache requests
   
   private final Map<String,Integer> languageCheckCounts = new HashMap<>();
@@ -93,6 +102,7 @@ abstract class TextChecker {
   private final LanguageIdentifier fastTextIdentifier;
   private final ExecutorService executorService;
   private final ResultCache cache;
+  private final Cache<Long, SessionDocument> textSessions;  // by textSessionId, null if deactivated
   private final DatabaseLogger databaseLogger;
   private final Long logServerId;
   private final Random random = new Random();
@@ -106,14 +116,35 @@ abstract class TextChecker {
     this.workQueue = workQueue;
     this.reqCounter = reqCounter;
     this.fastTextIdentifier = new LanguageIdentifier();
-    this.fastTextIdentifier.enableFasttext(config.getFasttextBinary(), config.getFasttextModel());
+    this.fastTextIdentifier.enableFasttext(config.getFasttextBinary(), config.getFasttextModel(), config.getFasttextProcesses());
     if (config.getNgramLangIdentData() != null) {
       this.ngramIdentifier = new LanguageIdentifier();
       this.ngramIdentifier.enableNgrams(config.getNgramLangIdentData());
     }
     this.executorService = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("lt-textchecker-thread-%d").build());
-    this.cache = config.getCacheSize() > 0 ? new ResultCache(
-      config.getCacheSize(), config.getCacheTTLSeconds(), TimeUnit.SECONDS) : null;
+    if (config.getCacheSizeInMB() > 0) {
+      this.cache = new ResultCache(config.getCacheSizeInMB() * 1024L * 1024L, true, config.isCacheFrequencyAdmission(),
+        config.getCacheTTLSeconds(), TimeUnit.SECONDS, createPersistentCache(config));
+    } else if (config.getCacheSize() > 0) {
+      this.cache = new ResultCache(config.getCacheSize(), false, config.isCacheFrequencyAdmission(),
+        config.getCacheTTLSeconds(), TimeUnit.SECONDS, createPersistentCache(config));
+    } else {
+      this.cache = null;
+    }
+    if (config.getTextSessionCacheSizeInMB() > 0) {
+      this.textSessions = CacheBuilder.newBuilder()
+        .maximumWeight(config.getTextSessionCacheSizeInMB() * 1024L * 1024L)
+        .weigher((Long id, SessionDocument session) -> (int) Math.min(session.estimateBytes(), Integer.MAX_VALUE))
+        .expireAfterAccess(TEXT_SESSION_EXPIRE_MINUTES, TimeUnit.MINUTES)
+        .build();
+    } else if (config.getTextSessionCacheSize() > 0) {
+      this.textSessions = CacheBuilder.newBuilder()
+        .maximumSize(config.getTextSessionCacheSize())
+        .expireAfterAccess(TEXT_SESSION_EXPIRE_MINUTES, TimeUnit.MINUTES)
+        .build();
+    } else {
+      this.textSessions = null;
+    }
     this.databaseLogger = DatabaseLogger.getInstance();
     if (databaseLogger.isLogging()) {
       this.logServerId = DatabaseAccess.getInstance().getOrCreateServerId();
@@ -128,7 +159,11 @@ abstract class TextChecker {
       ServerMetricsCollector.getInstance().monitorCache("languagetool_remote_matches_cache", cache.getRemoteMatchesCache());
       ServerMetricsCollector.getInstance().monitorCache("languagetool_sentences_cache", cache.getSentenceCache());
       ServerMetricsCollector.getInstance().monitorCache("languagetool_remote_matches_cache", cache.getRemoteMatchesCache());
+      ServerMetricsCollector.getInstance().monitorResultCache(cache);
     }
+    Hunspell.setMaxHandlesPerDictionary(config.getHunspellHandlesPerDictionary());
+    ServerMetricsCollector.getInstance().monitorCache("languagetool_hunspell_spell_cache", Hunspell.getSpellCache());
+    ServerMetricsCollector.getInstance().monitorCache("languagetool_hunspell_suggestion_cache", Hunspell.getSuggestionCache());
 
     pipelinePool = new PipelinePool(config, cache, internalServer);
     if (config.isPipelinePrewarmingEnabled()) {
@@ -145,6 +180,21 @@ abstract class TextChecker {
     }
   }
 
+  @Nullable
+  private static PersistentResultCache createPersistentCache(HTTPServerConfig config) {
+    if (config.getPersistentCacheDir() == null) {
+      return null;
+    }
+    try {
+      PersistentResultCache persistentCache = new PersistentResultCache(config.getPersistentCacheDir(),
+        config.getPersistentCacheSizeInMB() * 1024L * 1024L);
+      logger.info("Using persistent result cache in " + config.getPersistentCacheDir() + " with " + persistentCache.getEntryCount() + " entries");
+      return persistentCache;
+    } catch (IOException e) {
+      throw new RuntimeException("Could not open persistent result cache in " + config.getPersistentCacheDir(), e);
+    }
+  }
+
   protected static Language parseLanguage(String code) throws BadRequestException {
     try {
       return Languages.getLanguageForShortCode(code);
@@ -208,6 +258,23 @@ abstract class TextChecker {
 
   void checkText(AnnotatedText aText, HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter,
                  String remoteAddress) throws Exception {
+    checkText(aText, httpExchange, parameters, errorRequestLimiter, remoteAddress, false);
+  }
+
+  /**
+   * Like {@link #checkText(AnnotatedText, HttpExchange, Map, ErrorRequestLimiter, String)}, but checks the text
+   * sentence by sentence and writes the matches as newline-delimited JSON as soon as they are found: first
+   * a line with the software and language sections, then one line per sentence (and one for the text-level
+   * rules), and a line with the warnings section at the end. Remote rules and hidden matches are not used.
+   * @since 5.4
+   */
+  void checkTextStreaming(AnnotatedText aText, HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter,
+                          String remoteAddress) throws Exception {
+    checkText(aText, httpExchange, parameters, errorRequestLimiter, remoteAddress, true);
+  }
+
+  private void checkText(AnnotatedText aText, HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter,
+                         String remoteAddress, boolean stream) throws Exception {
     checkParams(parameters);
     long timeStart = System.currentTimeMillis();
     UserLimits limits = ServerTools.getUserLimits(parameters, config);
@@ -283,7 +350,7 @@ abstract class TextChecker {
     UserConfig userConfig = new UserConfig(
             limits.getPremiumUid() != null ? getUserDictWords(limits.getPremiumUid()) : Collections.emptyList(),
             getRuleValues(parameters), config.getMaxSpellingSuggestions(), null, null, filterDictionaryMatches,
-      abTest, textSessionId);
+      abTest, textSessionId, limits.getPremiumUid());
 
     //print("Check start: " + text.length() + " chars, " + langParam);
     boolean autoDetectLanguage = getLanguageAutoDetect(parameters);
@@ -370,8 +437,30 @@ abstract class TextChecker {
 
     int textSize = aText.getPlainText().length();
 
+    if (stream) {
+      if (params.callback != null) {
+        throw new BadRequestException("'callback' is not supported for streaming results");
+      }
+      if (parameters.get("sourceText") != null) {
+        throw new BadRequestException("'sourceText' is not supported for streaming results");
+      }
+      if (parameters.get("multilingual") != null && !parameters.get("multilingual").equals("false")) {
+        throw new BadRequestException("'multilingual' is not supported for streaming results");
+      }
+      int compactMode = Integer.parseInt(parameters.getOrDefault("c", "0"));
+      StreamingResponse response = streamRuleMatches(aText, lang, detLang, motherTongue, params, userConfig, limits, httpExchange, compactMode);
+      languageCheckCounts.put(lang.getShortCodeWithCountryAndVariant(), count);
+      int computationTime = (int) (System.currentTimeMillis() - timeStart);
+      logger.info("Streaming check done: " + textSize + " chars, " + lang.getShortCodeWithCountryAndVariant() +
+        ", requestId: " + requestId + ", #" + count + ", " + response.matchCount + " matches, " + computationTime + "ms" +
+        (response.incompleteResultsReason != null ? ", incomplete" : "") + ", agent:" + agent + ", m:" + ServerTools.getModeForLog(mode));
+      ServerMetricsCollector.getInstance().logCheck(lang, computationTime, textSize, response.matchCount, mode);
+      return;
+    }
+
     List<CheckResults> ruleMatchesSoFar = Collections.synchronizedList(new ArrayList<>());
 
+    long deadline = limits.getMaxCheckTimeMillis() < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + limits.getMaxCheckTimeMillis();
     Future<List<CheckResults>> future = executorService.submit(new Callable<List<CheckResults>>() {
       @Override
       public List<CheckResults> call() throws Exception {
@@ -380,7 +469,7 @@ abstract class TextChecker {
           throw new OutOfMemoryError();
         }*/
         return getRuleMatches(aText, lang, motherTongue, parameters, params, userConfig, detLang, preferredLangs,
-                preferredVariants, f -> ruleMatchesSoFar.add(new CheckResults(Collections.singletonList(f), Collections.emptyList())));
+                preferredVariants, f -> ruleMatchesSoFar.add(new CheckResults(Collections.singletonList(f), Collections.emptyList())), deadline);
       }
     });
     String incompleteResultReason = null;
@@ -586,12 +675,19 @@ abstract class TextChecker {
                                          QueryParams params, UserConfig userConfig,
                                          DetectedLanguage detLang,
                                          List<String> preferredLangs, List<String> preferredVariants,
-                                         RuleMatchListener listener) throws Exception {
+                                         RuleMatchListener listener, long deadline) throws Exception {
     if (cache != null && cache.requestCount() > 0 && cache.requestCount() % CACHE_STATS_PRINT == 0) {
       String sentenceHitPercentage = String.format(Locale.ENGLISH, "%.2f", cache.getSentenceCache().stats().hitRate() * 100.0f);
       String matchesHitPercentage = String.format(Locale.ENGLISH, "%.2f", cache.getMatchesCache().stats().hitRate() * 100.0f);
       String remoteHitPercentage = String.format(Locale.ENGLISH, "%.2f", cache.getRemoteMatchesCache().stats().hitRate() * 100.0f);
       logger.info("Cache stats: " + sentenceHitPercentage + "% / " + matchesHitPercentage + "% / " + remoteHitPercentage + "% hit rate");
+      PersistentResultCache persistentCache = cache.getSecondLevelCache();
+      if (persistentCache != null) {
+        long persistentRequests = persistentCache.getHitCount() + persistentCache.getMissCount();
+        String persistentHitPercentage = String.format(Locale.ENGLISH, "%.2f", persistentRequests == 0 ? 0 : persistentCache.getHitCount() * 100.0f / persistentRequests);
+        logger.info("Persistent cache stats: " + persistentHitPercentage + "% hit rate, " + persistentCache.getEntryCount() +
+          " entries, " + persistentCache.getSizeInBytes() / 1024 / 1024 + "MB");
+      }
     }
 
     if (parameters.get("sourceText") != null) {
@@ -612,7 +708,7 @@ abstract class TextChecker {
       List<CheckResults> res = new ArrayList<>();
 
       if (preferredLangs.size() < 2 || parameters.get("multilingual") == null || parameters.get("multilingual").equals("false")) {
-        res.addAll(getPipelineResults(aText, lang, motherTongue, params, userConfig, listener));
+        res.addAll(getPipelineResults(aText, lang, motherTongue, params, userConfig, listener, true, deadline));
       } else {
         // support for multilingual texts:
         try {
@@ -631,12 +727,12 @@ abstract class TextChecker {
           langs.addAll(secondLangs);
           Map<Language, AnnotatedTextBuilder> lang2builder = getBuilderMap(fragments, new HashSet<>(langs));
           for (Map.Entry<Language, AnnotatedTextBuilder> entry : lang2builder.entrySet()) {
-            res.addAll(getPipelineResults(entry.getValue().build(), entry.getKey(), motherTongue, params, userConfig, listener));
+            res.addAll(getPipelineResults(entry.getValue().build(), entry.getKey(), motherTongue, params, userConfig, listener, false, deadline));
           }
         } catch (Exception e) {
           logger.error("Problem with multilingual mode (preferredLangs=" + preferredLangs+ ", preferredVariants=" + preferredVariants + "), " +
             "falling back to single language.", e);
-          res.addAll(getPipelineResults(aText, lang, motherTongue, params, userConfig, listener));
+          res.addAll(getPipelineResults(aText, lang, motherTongue, params, userConfig, listener, false, deadline));
         }
       }
       return res;
@@ -652,27 +748,183 @@ abstract class TextChecker {
     return parseLanguage(langCode);
   }
 
-  private List<CheckResults> getPipelineResults(AnnotatedText aText, Language lang, Language motherTongue, QueryParams params, UserConfig userConfig, RuleMatchListener listener) throws Exception {
+  /**
+   * @param useTextSession whether the paragraphs of the previous check of the text with the same {@code textSessionId}
+   *                       can be re-used, i.e. whether {@code aText} is the complete text
+   * @param deadline time after which the results aren't needed anymore because the request has timed out
+   */
+  private List<CheckResults> getPipelineResults(AnnotatedText aText, Language lang, Language motherTongue, QueryParams params, UserConfig userConfig,
+                                                RuleMatchListener listener, boolean useTextSession, long deadline) throws Exception {
     PipelinePool.PipelineSettings settings = null;
     Pipeline lt = null;
     List<CheckResults> res = new ArrayList<>();
     try {
       settings = new PipelinePool.PipelineSettings(lang, motherTongue, params, config.globalConfig, userConfig);
       lt = pipelinePool.getPipeline(settings);
+      lt.setRemoteRuleDeadline(deadline);
       Long textSessionId = userConfig.getTextSessionId();
       if (params.regressionTestMode) {
         textSessionId = -2L; // magic value for remote rule roll-out - includes all results, even from disabled models
       }
-      res.add(lt.check2(aText, true, JLanguageTool.ParagraphHandling.NORMAL, listener,
-        params.mode, params.level, executorService, textSessionId));
+      SessionDocument session = null;
+      if (useTextSession && textSessions != null && textSessionId != null && !params.regressionTestMode) {
+        // removed while in use, so two concurrent checks of the same text don't use the same session:
+        session = textSessions.asMap().remove(textSessionId);
+        if (session == null) {
+          session = new SessionDocument();
+        }
+      }
+      if (session != null) {
+        res.add(lt.checkIncrementally(aText, session, JLanguageTool.ParagraphHandling.NORMAL, listener,
+          params.mode, params.level, executorService, textSessionId));
+        textSessions.put(textSessionId, session);
+      } else {
+        res.add(lt.check2(aText, true, JLanguageTool.ParagraphHandling.NORMAL, listener,
+          params.mode, params.level, executorService, textSessionId));
+      }
     } finally {
       if (lt != null) {
+        lt.setRemoteRuleDeadline(Long.MAX_VALUE);
         pipelinePool.returnPipeline(settings, lt);
       }
     }
     return res;
   }
 
+  private StreamingResponse streamRuleMatches(AnnotatedText aText, Language lang, DetectedLanguage detLang, Language motherTongue,
+                                              QueryParams params, UserConfig userConfig, UserLimits limits,
+                                              HttpExchange httpExchange, int compactMode) throws Exception {
+    RuleMatchesAsJsonSerializer serializer = new RuleMatchesAsJsonSerializer(compactMode, lang);
+    long deadline = limits.getMaxCheckTimeMillis() < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + limits.getMaxCheckTimeMillis();
+    PipelinePool.PipelineSettings settings = new PipelinePool.PipelineSettings(lang, motherTongue, params, config.globalConfig, userConfig);
+    Pipeline lt = pipelinePool.getPipeline(settings);
+    StreamingResponse response;
+    Future<?> future;
+    boolean submitted = false;
+    try {
+      ServerTools.setCommonHeaders(httpExchange, NDJSON_CONTENT_TYPE, config.allowOriginUrl);
+      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);  // 0 = chunked, length is unknown
+      response = new StreamingResponse(httpExchange.getResponseBody(), serializer, aText, deadline, limits.getMaxCheckTimeMillis());
+      response.writeLine(serializer.streamHeaderToJson(detLang, limits.getPremiumUid() == null));
+      // stops the check inside a sentence, not just between sentences:
+      lt.setCheckCancelledCallback(response::isTimedOut);
+      future = executorService.submit(() -> {
+        try {
+          lt.checkSentenceBySentence(aText, JLanguageTool.ParagraphHandling.NORMAL, params.mode, params.level, response);
+        } finally {
+          // only now, as the check might still be running after a timeout:
+          lt.setCheckCancelledCallback(null);
+          pipelinePool.returnPipeline(settings, lt);
+        }
+        return null;
+      });
+      submitted = true;
+    } finally {
+      if (!submitted) {
+        lt.setCheckCancelledCallback(null);
+        pipelinePool.returnPipeline(settings, lt);
+      }
+    }
+    try {
+      if (limits.getMaxCheckTimeMillis() < 0) {
+        future.get();
+      } else {
+        future.get(limits.getMaxCheckTimeMillis(), TimeUnit.MILLISECONDS);
+      }
+    } catch (ExecutionException e) {
+      Throwable rootCause = ExceptionUtils.getRootCause(e);
+      if (!(rootCause instanceof ErrorRateTooHighException)) {
+        throw new RuntimeException("Streaming check failed, lang: " + lang.getShortCodeWithCountryAndVariant() + ", detected: " + detLang, e);
+      }
+      // the response has been started already, so there's no way to send an error code:
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.TOO_MANY_ERRORS);
+      response.setIncomplete("Results are incomplete: " + rootCause.getMessage());
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      response.isTimedOut();
+    }
+    response.finish();
+    ServerMetricsCollector.getInstance().logResponse(HttpURLConnection.HTTP_OK);
+    return response;
+  }
+
+  /**
+   * Writes one line of JSON per checked sentence, stops checking when the maximum check time is exceeded.
+   * The check runs in another thread than the one that writes the footer with {@link #finish()}.
+   */
+  private static class StreamingResponse implements SentenceMatchListener {
+
+    private final Writer writer;
+    private final RuleMatchesAsJsonSerializer serializer;
+    private final AnnotatedText text;
+    private final long deadline;
+    private final long maxCheckTimeMillis;
+    private int matchCount;
+    private String incompleteResultsReason;
+    private boolean finished;
+
+    StreamingResponse(OutputStream out, RuleMatchesAsJsonSerializer serializer, AnnotatedText text, long deadline, long maxCheckTimeMillis) throws IOException {
+      this.writer = new OutputStreamWriter(out, ENCODING);
+      this.serializer = serializer;
+      this.text = text;
+      this.deadline = deadline;
+      this.maxCheckTimeMillis = maxCheckTimeMillis;
+    }
+
+    @Override
+    public synchronized boolean sentenceChecked(int fromPos, int toPos, List<RuleMatch> matches) throws IOException {
+      if (finished) {
+        return false;
+      }
+      writeMatches(fromPos, toPos, matches);
+      return !isTimedOut();
+    }
+
+    @Override
+    public synchronized void textChecked(List<RuleMatch> matches) throws IOException {
+      if (!finished) {
+        writeMatches(0, text.getOriginalText().length(), matches);
+      }
+    }
+
+    /**
+     * @return whether the deadline has passed, in which case the results are marked as incomplete
+     */
+    synchronized boolean isTimedOut() {
+      if (System.currentTimeMillis() <= deadline) {
+        return false;
+      }
+      if (incompleteResultsReason == null) {
+        incompleteResultsReason = "Results are incomplete: text checking took longer than allowed maximum of " +
+          String.format(Locale.ENGLISH, "%.2f", maxCheckTimeMillis/1000.0) + " seconds";
+      }
+      return true;
+    }
+
+    synchronized void setIncomplete(String reason) {
+      incompleteResultsReason = reason;
+    }
+
+    /**
+     * Write the footer. Results of a check that's still running (after a timeout) aren't written anymore.
+     */
+    synchronized void finish() throws IOException {
+      finished = true;
+      writeLine(serializer.streamFooterToJson(incompleteResultsReason));
+    }
+
+    private void writeMatches(int fromPos, int toPos, List<RuleMatch> matches) throws IOException {
+      matchCount += matches.size();
+      writeLine(serializer.streamMatchesToJson(matches, text, CONTEXT_SIZE, fromPos, toPos));
+    }
+
+    synchronized void writeLine(String json) throws IOException {
+      writer.write(json);
+      writer.write('\n');
+      writer.flush();
+    }
+  }
+
   @NotNull
   private Map<Language, AnnotatedTextBuilder> getBuilderMap(List<FragmentWithLanguage> fragments, Set<Language> maybeUsedLangs) {
     Map<Language, AnnotatedTextBuilder> lang2builder = new HashMap<>();
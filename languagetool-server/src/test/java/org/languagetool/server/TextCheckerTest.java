@@ -21,6 +21,7 @@ package org.languagetool.server;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.SignatureVerificationException;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.languagetool.markup.AnnotatedTextBuilder;
@@ -51,6 +52,73 @@ public class TextCheckerTest {
     assertTrue(httpExchange.getOutput().endsWith(");"));
   }
   
+  @Test
+  public void testStreaming() throws Exception {
+    Map<String, String> params = new HashMap<>();
+    params.put("text", "not used");
+    params.put("language", "fr");
+    HTTPServerConfig config1 = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    TextChecker checker = new V2TextChecker(config1, false, null, new RequestCounter());
+    FakeHttpExchange httpExchange = new FakeHttpExchange();
+    checker.checkTextStreaming(new AnnotatedTextBuilder().addText("Voici un test. voici un autre test.").build(), httpExchange, params, null, null);
+    String[] lines = httpExchange.getOutput().split("\n");
+    assertThat(lines.length, is(5));  // header, 2 sentences, text-level rules, footer
+    assertTrue(lines[0].contains("\"software\""));
+    assertTrue(lines[1].startsWith("{\"offset\":0,\"length\":15,\"matches\":[]"));
+    assertTrue(lines[2].startsWith("{\"offset\":15,"));
+    assertTrue(lines[3].startsWith("{\"offset\":0,\"length\":35,"));
+    assertTrue(lines[3].contains("UPPERCASE_SENTENCE_START"));  // a text-level rule
+    assertTrue(lines[4].contains("\"incompleteResults\":false"));
+    try {
+      params.put("callback", "myCallback");
+      checker.checkTextStreaming(new AnnotatedTextBuilder().addText("some random text").build(), new FakeHttpExchange(), params, null, null);
+      fail();
+    } catch (BadRequestException ignore) {}
+  }
+
+  @Test
+  public void testTextSession() throws Exception {
+    Map<String, String> params = new HashMap<>();
+    params.put("text", "not used");
+    params.put("language", "fr");
+    HTTPServerConfig config1 = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    TextChecker checker = new V2TextChecker(config1, false, null, new RequestCounter());
+    HTTPServerConfig config2 = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config2.setTextSessionCacheSize(10);
+    HTTPServerConfig config3 = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config3.setTextSessionCacheSizeInMB(10);
+    params.put("textSessionId", "42");
+    String[] texts = {"Voici un test.\n\nvoici un autre test.", "Voici un test.\n\nVoici un autre test.", "voici un test.\n\nVoici un autre test."};
+    for (HTTPServerConfig incrementalConfig : Arrays.asList(config2, config3)) {
+      TextChecker incrementalChecker = new V2TextChecker(incrementalConfig, false, null, new RequestCounter());
+      for (String text : texts) {
+        FakeHttpExchange httpExchange1 = new FakeHttpExchange();
+        checker.checkText(new AnnotatedTextBuilder().addText(text).build(), httpExchange1, params, null, null);
+        FakeHttpExchange httpExchange2 = new FakeHttpExchange();
+        incrementalChecker.checkText(new AnnotatedTextBuilder().addText(text).build(), httpExchange2, params, null, null);
+        String expected = httpExchange1.getOutput();
+        String actual = httpExchange2.getOutput();
+        assertThat(actual.substring(actual.indexOf("\"matches\"")), is(expected.substring(expected.indexOf("\"matches\""))));
+      }
+    }
+  }
+
+  @Test
+  public void testStreamingTimeout() throws Exception {
+    Map<String, String> params = new HashMap<>();
+    params.put("text", "not used");
+    params.put("language", "fr");
+    HTTPServerConfig config1 = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config1.setMaxCheckTimeMillis(1);
+    TextChecker checker = new V2TextChecker(config1, false, null, new RequestCounter());
+    FakeHttpExchange httpExchange = new FakeHttpExchange();
+    String text = StringUtils.repeat("Voici un test. ", 5000);
+    checker.checkTextStreaming(new AnnotatedTextBuilder().addText(text).build(), httpExchange, params, null, null);
+    String[] lines = httpExchange.getOutput().split("\n");
+    assertTrue(lines.length < 5000);
+    assertTrue(lines[lines.length - 1].contains("\"incompleteResults\":true"));
+  }
+
   @Test
   public void testMaxTextLength() throws Exception {
     Map<String, String> params = new HashMap<>();
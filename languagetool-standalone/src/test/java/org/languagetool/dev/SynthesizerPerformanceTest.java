@@ -0,0 +1,107 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.Languages;
+import org.languagetool.synthesis.Synthesizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measure synthesizer throughput with several threads sharing one synthesizer,
+ * like pattern rules with {@code <match postag="...">} suggestions do.
+ */
+public class SynthesizerPerformanceTest {
+
+  private static final int[] THREADS = {1, 4, 16};
+  private static final int CALLS_PER_THREAD = 50_000;
+  private static final int WARM_UP_CALLS = 10_000;
+
+  @Test
+  @Ignore("for interactive use only")
+  public void testGerman() throws Exception {
+    run("de-DE", Arrays.asList("Haus", "Mann", "Frau", "gehen", "schön", "Kind", "sehen", "groß"), "SUB:.*|VER:.*|ADJ:.*");
+  }
+
+  @Test
+  @Ignore("for interactive use only")
+  public void testPolish() throws Exception {
+    run("pl-PL", Arrays.asList("dom", "kot", "pies", "iść", "ładny", "dziecko", "widzieć", "duży"), "subst:.*|fin:.*|adj:.*");
+  }
+
+  private void run(String langCode, List<String> lemmas, String posTagRegex) throws Exception {
+    Synthesizer synthesizer = Languages.getLanguageForShortCode(langCode).getSynthesizer();
+    System.out.println("Warming up " + langCode + "...");
+    new Caller(synthesizer, lemmas, posTagRegex, WARM_UP_CALLS).call();
+    for (int threads : THREADS) {
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      long startTime = System.nanoTime();
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(new Caller(synthesizer, lemmas, posTagRegex, CALLS_PER_THREAD)));
+      }
+      long forms = 0;
+      for (Future<Integer> future : futures) {
+        forms += future.get();
+      }
+      long runTimeMillis = (System.nanoTime() - startTime) / 1_000_000;
+      executor.shutdown();
+      long calls = (long) threads * CALLS_PER_THREAD;
+      System.out.printf(Locale.ENGLISH, "%s, %2d threads: %d calls in %dms, %.0f calls/s (%d forms)\n",
+        langCode, threads, calls, runTimeMillis, calls * 1000.0 / Math.max(runTimeMillis, 1), forms);
+    }
+  }
+
+  static class Caller implements Callable<Integer> {
+
+    private final Synthesizer synthesizer;
+    private final List<String> lemmas;
+    private final String posTagRegex;
+    private final int calls;
+
+    Caller(Synthesizer synthesizer, List<String> lemmas, String posTagRegex, int calls) {
+      this.synthesizer = synthesizer;
+      this.lemmas = lemmas;
+      this.posTagRegex = posTagRegex;
+      this.calls = calls;
+    }
+
+    @Override
+    public Integer call() throws Exception {
+      int forms = 0;
+      for (int i = 0; i < calls; i++) {
+        String lemma = lemmas.get(i % lemmas.size());
+        AnalyzedToken token = new AnalyzedToken(lemma, null, lemma);
+        forms += synthesizer.synthesize(token, posTagRegex, true).length;
+      }
+      return forms;
+    }
+  }
+
+}
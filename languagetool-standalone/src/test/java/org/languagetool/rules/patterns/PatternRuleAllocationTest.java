@@ -0,0 +1,87 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.rules.IncorrectExample;
+import org.languagetool.rules.Rule;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measure how much memory is allocated when matching the pattern rules of a language
+ * against the incorrect examples of these rules, i.e. how much garbage pattern
+ * matching creates. Sentences are analyzed before the measurement starts.
+ * Not a unit test, for interactive use only.
+ */
+final class PatternRuleAllocationTest {
+
+  private static final int RUNS = 5;
+  private static final int MAX_SENTENCES = 500;
+
+  private void run(Language language) throws IOException {
+    JLanguageTool lt = new JLanguageTool(language);
+    List<PatternRule> rules = new ArrayList<>();
+    List<AnalyzedSentence> sentences = new ArrayList<>();
+    for (Rule rule : lt.getAllRules()) {
+      if (rule instanceof PatternRule) {
+        rules.add((PatternRule) rule);
+        for (IncorrectExample example : rule.getIncorrectExamples()) {
+          if (sentences.size() >= MAX_SENTENCES) {
+            break;
+          }
+          sentences.add(lt.getAnalyzedSentence(example.getExample().replaceAll("</?marker>", "")));
+        }
+      }
+    }
+    System.out.println(language + ": " + rules.size() + " pattern rules, " + sentences.size() + " sentences");
+    com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    for (int i = 0; i < RUNS; i++) {
+      long startBytes = bean.getThreadAllocatedBytes(threadId);
+      long startTime = System.currentTimeMillis();
+      int matches = 0;
+      for (AnalyzedSentence sentence : sentences) {
+        for (PatternRule rule : rules) {
+          matches += rule.match(sentence).length;
+        }
+      }
+      long runTime = System.currentTimeMillis() - startTime;
+      long bytes = bean.getThreadAllocatedBytes(threadId) - startBytes;
+      long evaluations = (long) sentences.size() * rules.size();
+      System.out.printf("Run %d: %dms, %d matches, %dMB allocated, %.1f bytes per rule and sentence%n",
+        i, runTime, matches, bytes / 1024 / 1024, (double) bytes / evaluations);
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.out.println("Usage: " + PatternRuleAllocationTest.class.getSimpleName() + " <languageCode>");
+      System.exit(1);
+    }
+    new PatternRuleAllocationTest().run(Languages.getLanguageForShortCode(args[0]));
+  }
+
+}
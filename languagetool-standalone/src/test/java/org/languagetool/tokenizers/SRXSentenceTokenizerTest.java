@@ -22,6 +22,12 @@ import org.junit.Test;
 import org.languagetool.Language;
 import org.languagetool.Languages;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
@@ -49,4 +55,45 @@ public class SRXSentenceTokenizerTest {
     }
   }
 
+  @Test
+  public void testTokenizeLazily() throws IOException {
+    String text = getText(100);
+    for (Language language : Languages.get()) {
+      if (language.getSentenceTokenizer().getClass() != SRXSentenceTokenizer.class) {
+        continue;
+      }
+      assertLazyTokenization(new SRXSentenceTokenizer(language), text);
+    }
+  }
+
+  @Test
+  public void testTokenizeLazilyLongText() throws IOException {
+    // longer than the buffer used when reading from a Reader:
+    String text = getText(15_000);
+    assertLazyTokenization(new SRXSentenceTokenizer(Languages.getLanguageForShortCode("en-US")), text);
+  }
+
+  private String getText(int sentenceCount) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < sentenceCount; i++) {
+      text.append("This is sentence number ").append(i).append(". Is it? Mr. Smith said so!\n");
+      if (i % 10 == 0) {
+        text.append("\n");
+      }
+    }
+    return text.toString();
+  }
+
+  private void assertLazyTokenization(SentenceTokenizer tokenizer, String text) throws IOException {
+    List<String> expected = tokenizer.tokenize(text);
+    assertEquals(expected, toList(tokenizer.tokenizeLazily(text)));
+    assertEquals(expected, toList(tokenizer.tokenizeLazily(new StringReader(text))));
+  }
+
+  private static List<String> toList(Iterator<String> iterator) {
+    List<String> result = new ArrayList<>();
+    iterator.forEachRemaining(result::add);
+    return result;
+  }
+
 }